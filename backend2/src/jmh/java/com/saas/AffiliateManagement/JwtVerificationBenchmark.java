@@ -0,0 +1,48 @@
+package com.saas.AffiliateManagement;
+
+import com.saas.AffiliateManagement.security.JwtUtil;
+import io.jsonwebtoken.Claims;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request token verification in JwtAuthenticationFilter: a full signature check and claims
+ * parse, against a token already in the verification cache.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class JwtVerificationBenchmark {
+
+    private static final String SECRET = "BenchmarkSecretKeyForJWTTokenGenerationAtLeast256BitsLong";
+
+    private JwtUtil uncached;
+    private JwtUtil cached;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        // A zero-sized cache evicts every entry, so each parse verifies the signature again.
+        uncached = new JwtUtil(SECRET, 3_600_000L, 0);
+        cached = new JwtUtil(SECRET, 3_600_000L, 10_000);
+        token = cached.generateToken("owner@example.com", 7L, "CLIENT_OWNER", 42L);
+        cached.parseClaims(token);
+    }
+
+    @Benchmark
+    public Claims verify() {
+        return uncached.parseClaims(token);
+    }
+
+    @Benchmark
+    public Claims verifyCached() {
+        return cached.parseClaims(token);
+    }
+}
@@ -0,0 +1,120 @@
+package com.saas.AffiliateManagement;
+
+import com.saas.AffiliateManagement.repository.SearchPatterns;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Client-scoped referral search as ReferralRepository.searchByClientIdAndTerm runs it, over 1M and
+ * 10M rows, with the V2 trigram indexes and without them. Needs a scratch Postgres database:
+ * {@code ./gradlew jmh -PjmhIncludes=SearchIndex -PbenchmarkJdbcUrl=jdbc:postgresql://host/db?user=..&password=..}.
+ * The seeded tables are kept between runs and reused when their row count matches.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class SearchIndexBenchmark {
+
+    private static final int CLIENTS = 100;
+
+    private static final String SEARCH_SQL = "SELECT id FROM %s WHERE client_id = ? AND (" +
+            "LOWER(customer_name) LIKE ? ESCAPE '!' OR " +
+            "LOWER(customer_email) LIKE ? ESCAPE '!' OR " +
+            "LOWER(referral_code) LIKE ? ESCAPE '!') ORDER BY id LIMIT 20";
+
+    @Param({"1000000", "10000000"})
+    private int rows;
+
+    @Param({"trigram", "none"})
+    private String index;
+
+    private Connection connection;
+    private PreparedStatement search;
+    private String pattern;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        connection = DriverManager.getConnection(System.getProperty("benchmark.jdbc.url",
+                "jdbc:postgresql://localhost:5432/affiliate_bench?user=postgres&password=postgres"));
+        String table = "search_benchmark_referrals_" + rows;
+
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE EXTENSION IF NOT EXISTS pg_trgm");
+            if (countRows(statement, table) != rows) {
+                statement.execute("DROP TABLE IF EXISTS " + table);
+                statement.execute("CREATE TABLE " + table + " (id BIGINT PRIMARY KEY, client_id BIGINT NOT NULL, " +
+                        "customer_name VARCHAR(255) NOT NULL, customer_email VARCHAR(255) NOT NULL, " +
+                        "referral_code VARCHAR(100) NOT NULL)");
+                statement.execute("INSERT INTO " + table + " SELECT i, i % " + CLIENTS + ", " +
+                        "'Customer ' || i, 'customer' || i || '@shop' || (i % 1000) || '.example', " +
+                        "substr(md5(i::text), 1, 12) FROM generate_series(1, " + rows + ") AS i");
+                statement.execute("CREATE INDEX ON " + table + " (client_id)");
+            }
+
+            for (String column : List.of("customer_name", "customer_email", "referral_code")) {
+                String name = table + "_" + column + "_trgm";
+                statement.execute("DROP INDEX IF EXISTS " + name);
+                if ("trigram".equals(index)) {
+                    statement.execute("CREATE INDEX " + name + " ON " + table +
+                            " USING gin (lower(" + column + ") gin_trgm_ops)");
+                }
+            }
+            statement.execute("ANALYZE " + table);
+        }
+
+        search = connection.prepareStatement(String.format(SEARCH_SQL, table));
+        // Matches a handful of rows per million, like a search for one customer's address.
+        pattern = SearchPatterns.contains("r424242@");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        connection.close();
+    }
+
+    @Benchmark
+    public List<Long> searchByClientAndTerm() throws SQLException {
+        search.setLong(1, 42);
+        search.setString(2, pattern);
+        search.setString(3, pattern);
+        search.setString(4, pattern);
+        List<Long> ids = new ArrayList<>();
+        try (ResultSet resultSet = search.executeQuery()) {
+            while (resultSet.next()) {
+                ids.add(resultSet.getLong(1));
+            }
+        }
+        return ids;
+    }
+
+    private static long countRows(Statement statement, String table) throws SQLException {
+        try (ResultSet exists = statement.executeQuery("SELECT to_regclass('" + table + "') IS NOT NULL")) {
+            exists.next();
+            if (!exists.getBoolean(1)) {
+                return -1;
+            }
+        }
+        try (ResultSet count = statement.executeQuery("SELECT COUNT(*) FROM " + table)) {
+            count.next();
+            return count.getLong(1);
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.saas.AffiliateManagement;
+
+import com.saas.AffiliateManagement.models.dto.EarningsDataDto;
+import com.saas.AffiliateManagement.service.TimeBucketSeries;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bucketing a year of commissions into an earnings series. {@code perBucketScan} is the
+ * previous EarningsServiceImpl path, which filtered the whole commission list once per bucket;
+ * {@code singlePass} assigns each commission to its bucket in one pass, as the bucketed
+ * commission query now does; {@code buildAndFill} is what is left in Java once the database
+ * returns one row per bucket, so its cost does not depend on the commission count.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TimeBucketSeriesBenchmark {
+
+    private static final LocalDateTime START = LocalDateTime.of(2024, 1, 17, 9, 41, 12);
+    private static final LocalDateTime END = START.plusDays(365);
+
+    @Param({"monthly", "weekly", "daily"})
+    private String period;
+
+    @Param({"10000", "100000", "1000000"})
+    private int commissions;
+
+    private List<Commission> commissionList;
+    private LocalDateTime[] bucketStarts;
+    private BigDecimal[] desktop;
+    private BigDecimal[] mobile;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        long seconds = Duration.between(START, END).getSeconds();
+        commissionList = new ArrayList<>(commissions);
+        for (int i = 0; i < commissions; i++) {
+            commissionList.add(new Commission(START.plusSeconds((long) (random.nextDouble() * seconds)),
+                    random.nextInt(3) == 0, BigDecimal.valueOf(random.nextInt(100_000), 2)));
+        }
+
+        TimeBucketSeries series = TimeBucketSeries.of(period, START, END);
+        bucketStarts = new LocalDateTime[series.size()];
+        desktop = new BigDecimal[series.size()];
+        mobile = new BigDecimal[series.size()];
+        for (int i = 0; i < series.size(); i++) {
+            bucketStarts[i] = series.bucketStart(i);
+            desktop[i] = BigDecimal.valueOf(random.nextInt(1_000_000), 2);
+            mobile[i] = BigDecimal.valueOf(random.nextInt(1_000_000), 2);
+        }
+    }
+
+    @Benchmark
+    public List<EarningsDataDto> perBucketScan() {
+        TimeBucketSeries series = TimeBucketSeries.of(period, START, END);
+        for (int i = 0; i < series.size(); i++) {
+            LocalDateTime from = series.bucketStart(i);
+            LocalDateTime to = series.bucketEnd(i);
+            List<Commission> inBucket = commissionList.stream()
+                    .filter(c -> !c.createdAt().isBefore(from) && c.createdAt().isBefore(to))
+                    .toList();
+            series.addBucketTotals(i, sum(inBucket, false), sum(inBucket, true));
+        }
+        return series.toEarningsData();
+    }
+
+    @Benchmark
+    public List<EarningsDataDto> singlePass() {
+        TimeBucketSeries series = TimeBucketSeries.of(period, START, END);
+        for (Commission commission : commissionList) {
+            int found = Arrays.binarySearch(bucketStarts, commission.createdAt());
+            int index = found >= 0 ? found : -found - 2;
+            if (commission.mobile()) {
+                series.addBucketTotals(index, BigDecimal.ZERO, commission.amount());
+            } else {
+                series.addBucketTotals(index, commission.amount(), BigDecimal.ZERO);
+            }
+        }
+        return series.toEarningsData();
+    }
+
+    @Benchmark
+    public List<EarningsDataDto> buildAndFill() {
+        TimeBucketSeries series = TimeBucketSeries.of(period, START, END);
+        for (int i = 0; i < desktop.length; i++) {
+            series.addBucketTotals(i, desktop[i], mobile[i]);
+        }
+        return series.toEarningsData();
+    }
+
+    private static BigDecimal sum(List<Commission> commissions, boolean mobile) {
+        return commissions.stream()
+                .filter(c -> c.mobile() == mobile)
+                .map(Commission::amount)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
+
+    private record Commission(LocalDateTime createdAt, boolean mobile, BigDecimal amount) {
+    }
+}
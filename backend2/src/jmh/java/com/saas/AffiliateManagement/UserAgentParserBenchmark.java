@@ -0,0 +1,62 @@
+package com.saas.AffiliateManagement;
+
+import com.saas.AffiliateManagement.service.DeviceDetector;
+import com.saas.AffiliateManagement.service.UserAgentParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of classifying a click's user agent: the rule-table parser on its own, and
+ * {@link DeviceDetector} answering a repeated agent from its cache.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class UserAgentParserBenchmark {
+
+    private static final String[] AGENTS = {
+            "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/124.0.0.0 Safari/537.36",
+            "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/124.0.0.0 Safari/537.36 Edg/124.0.2478.51",
+            "Mozilla/5.0 (Macintosh; Intel Mac OS X 10_15_7) AppleWebKit/605.1.15 (KHTML, like Gecko) Version/17.4 Safari/605.1.15",
+            "Mozilla/5.0 (iPhone; CPU iPhone OS 17_4 like Mac OS X) AppleWebKit/605.1.15 (KHTML, like Gecko) Version/17.4 Mobile/15E148 Safari/604.1",
+            "Mozilla/5.0 (Linux; Android 14; Pixel 8) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/124.0.6367.82 Mobile Safari/537.36",
+            "Mozilla/5.0 (Linux; Android 13; SM-X710) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/124.0.0.0 Safari/537.36",
+            "Mozilla/5.0 (X11; Linux x86_64; rv:125.0) Gecko/20100101 Firefox/125.0",
+            "curl/8.4.0"
+    };
+
+    private UserAgentParser parser;
+    private DeviceDetector detector;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        parser = new UserAgentParser();
+        detector = new DeviceDetector(10_000);
+        for (String agent : AGENTS) {
+            detector.detectDevice(agent);
+        }
+    }
+
+    @Benchmark
+    public DeviceDetector.DeviceInfo parse() {
+        return parser.parse(nextAgent());
+    }
+
+    @Benchmark
+    public DeviceDetector.DeviceInfo detectCached() {
+        return detector.detectDevice(nextAgent());
+    }
+
+    private String nextAgent() {
+        next = (next + 1) % AGENTS.length;
+        return AGENTS[next];
+    }
+}
@@ -2,22 +2,39 @@ package com.saas.AffiliateManagement.config;
 
 import com.saas.AffiliateManagement.security.JwtUtil;
 import com.saas.AffiliateManagement.service.CustomUserDetailsService;
+import com.saas.AffiliateManagement.service.UserAuthCache;
+import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.Collection;
+import java.util.List;
 
+/**
+ * Authenticates requests carrying a bearer token. The token is parsed and verified once.
+ * <p>
+ * In stateless mode (the default) the role comes from the token claims and the user is taken
+ * from {@link UserAuthCache}, so a warm request does not touch the database. With
+ * {@code jwt.stateless=false} the user is loaded through
+ * {@link CustomUserDetailsService} on every request, as before.
+ */
 @Component
 @RequiredArgsConstructor
 @Slf4j
@@ -25,6 +42,10 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtUtil jwtUtil;
     private final CustomUserDetailsService userDetailsService;
+    private final UserAuthCache userAuthCache;
+
+    @Value("${jwt.stateless:true}")
+    private boolean stateless;
 
     @Override
     protected void doFilterInternal(HttpServletRequest request,
@@ -34,40 +55,64 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         // Get Authorization header
         final String authorizationHeader = request.getHeader("Authorization");
 
-        String username = null;
-        String jwt = null;
-
         // Check if header contains Bearer token
-        if (authorizationHeader != null && authorizationHeader.startsWith("Bearer ")) {
-            jwt = authorizationHeader.substring(7);
-            try {
-                username = jwtUtil.extractEmail(jwt);
-                log.debug("JWT token found for user: {}", username);
-            } catch (ExpiredJwtException e) {
-                log.warn("JWT token has expired: {}", e.getMessage());
-            } catch (Exception e) {
-                log.error("Cannot extract user from JWT token: {}", e.getMessage());
-            }
+        if (authorizationHeader != null && authorizationHeader.startsWith("Bearer ")
+                && SecurityContextHolder.getContext().getAuthentication() == null) {
+            authenticate(authorizationHeader.substring(7), request);
         }
 
-        // Validate token and set authentication
-        if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+        filterChain.doFilter(request, response);
+    }
 
-            UserDetails userDetails = this.userDetailsService.loadUserByUsername(username);
+    private void authenticate(String jwt, HttpServletRequest request) {
+        Claims claims;
+        try {
+            claims = jwtUtil.parseClaims(jwt);
+        } catch (ExpiredJwtException e) {
+            log.warn("JWT token has expired: {}", e.getMessage());
+            return;
+        } catch (JwtException | IllegalArgumentException e) {
+            log.error("Cannot extract user from JWT token: {}", e.getMessage());
+            return;
+        }
 
-            if (jwtUtil.validateToken(jwt, username)) {
-                UsernamePasswordAuthenticationToken authToken =
-                        new UsernamePasswordAuthenticationToken(
-                                userDetails, null, userDetails.getAuthorities());
-                authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+        String username = claims.getSubject();
+        if (username == null) {
+            log.warn("JWT token has no subject");
+            return;
+        }
+        log.debug("JWT token found for user: {}", username);
 
-                SecurityContextHolder.getContext().setAuthentication(authToken);
-                log.debug("User {} authenticated via JWT", username);
-            } else {
-                log.warn("Invalid JWT token for user: {}", username);
-            }
+        UserDetails userDetails = loadUser(username);
+        if (userDetails == null || !userDetails.isAccountNonLocked()) {
+            log.warn("JWT token for unknown or deactivated user: {}", username);
+            return;
         }
 
-        filterChain.doFilter(request, response);
+        UsernamePasswordAuthenticationToken authToken =
+                new UsernamePasswordAuthenticationToken(userDetails, null, authorities(claims, userDetails));
+        authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+
+        SecurityContextHolder.getContext().setAuthentication(authToken);
+        log.debug("User {} authenticated via JWT", username);
+    }
+
+    private UserDetails loadUser(String username) {
+        if (stateless) {
+            return userAuthCache.get(username);
+        }
+
+        try {
+            return userDetailsService.loadUserByUsername(username);
+        } catch (UsernameNotFoundException e) {
+            return null;
+        }
+    }
+
+    private Collection<? extends GrantedAuthority> authorities(Claims claims, UserDetails userDetails) {
+        String role = stateless ? claims.get("role", String.class) : null;
+        return role != null
+                ? List.of(new SimpleGrantedAuthority("ROLE_" + role))
+                : userDetails.getAuthorities();
     }
-}
\ No newline at end of file
+}
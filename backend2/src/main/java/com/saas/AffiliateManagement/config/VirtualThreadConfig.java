@@ -0,0 +1,91 @@
+package com.saas.AffiliateManagement.config;
+
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Virtual-thread execution mode. Setting {@code spring.threads.virtual.enabled} makes Spring Boot
+ * serve requests on Tomcat with virtual threads and back the default task executor and scheduler
+ * with them; our own background threads follow the same switch.
+ * <p>
+ * A virtual thread that blocks inside a {@code synchronized} block stays pinned to its carrier,
+ * which under load brings back the platform-pool starvation this mode is meant to remove. While
+ * the mode is on, JFR {@code jdk.VirtualThreadPinned} events above the configured threshold are
+ * streamed and logged with the frames that caused them.
+ */
+@Configuration
+@Slf4j
+public class VirtualThreadConfig {
+
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final int LOGGED_FRAMES = 8;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreadsEnabled;
+
+    @Value("${virtual-threads.pinning-monitor.enabled:true}")
+    private boolean pinningMonitorEnabled;
+
+    @Value("${virtual-threads.pinning-monitor.threshold:PT0.02S}")
+    private Duration pinningThreshold;
+
+    private RecordingStream pinningStream;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void startPinningMonitor() {
+        log.info("Request handling runs on {} threads", virtualThreadsEnabled ? "virtual" : "platform");
+
+        if (!virtualThreadsEnabled || !pinningMonitorEnabled) {
+            return;
+        }
+
+        try {
+            pinningStream = new RecordingStream();
+            pinningStream.enable(PINNED_EVENT).withThreshold(pinningThreshold).withStackTrace();
+            pinningStream.onEvent(PINNED_EVENT, this::logPinnedEvent);
+            pinningStream.startAsync();
+            log.info("Monitoring virtual thread pinning above {}", pinningThreshold);
+        } catch (RuntimeException e) {
+            log.warn("Virtual thread pinning monitor unavailable: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void stopPinningMonitor() {
+        if (pinningStream != null) {
+            pinningStream.close();
+        }
+    }
+
+    private void logPinnedEvent(RecordedEvent event) {
+        log.warn("Virtual thread {} pinned for {} ms at:\n{}",
+                event.getThread() != null ? event.getThread().getJavaName() : "unknown",
+                event.getDuration().toMillis(),
+                formatStackTrace(event.getStackTrace()));
+    }
+
+    private String formatStackTrace(RecordedStackTrace stackTrace) {
+        if (stackTrace == null) {
+            return "\t<no stack trace>";
+        }
+
+        List<RecordedFrame> frames = stackTrace.getFrames();
+        return frames.stream()
+                .limit(LOGGED_FRAMES)
+                .map(frame -> "\tat " + frame.getMethod().getType().getName() + "." + frame.getMethod().getName()
+                        + "(line " + frame.getLineNumber() + ")")
+                .collect(Collectors.joining("\n"));
+    }
+}
@@ -1,10 +1,13 @@
 package com.saas.AffiliateManagement.controller;
 
 import com.saas.AffiliateManagement.models.dto.AffiliateTableResponse;
+import com.saas.AffiliateManagement.models.dto.CursorPage;
 import com.saas.AffiliateManagement.models.requests.AffiliateCreateRequest;
 import com.saas.AffiliateManagement.models.dto.AffiliateDto;
+import com.saas.AffiliateManagement.models.dto.SearchSuggestion;
 import com.saas.AffiliateManagement.models.requests.AffiliateUpdateRequest;
 import com.saas.AffiliateManagement.service.AffiliateService;
+import com.saas.AffiliateManagement.service.TypeaheadService;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.Min;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -15,6 +18,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 
@@ -25,10 +29,12 @@ import java.util.Optional;
 public class AffiliateController {
 
     private final AffiliateService affiliateService;
+    private final TypeaheadService typeaheadService;
 
     @Autowired
-    public AffiliateController(AffiliateService affiliateService) {
+    public AffiliateController(AffiliateService affiliateService, TypeaheadService typeaheadService) {
         this.affiliateService = affiliateService;
+        this.typeaheadService = typeaheadService;
     }
 
     @PostMapping
@@ -42,6 +48,18 @@ public class AffiliateController {
                 .body(createdAffiliate);
     }
 
+    @GetMapping("/scroll")
+    public ResponseEntity<CursorPage<AffiliateDto>> scrollAffiliates(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "false") boolean withTotal) {
+
+        CursorPage<AffiliateDto> affiliates = affiliateService
+                .getAllAffiliates(cursor, size, withTotal);
+
+        return ResponseEntity.ok(affiliates);
+    }
+
     @GetMapping("/{affiliateId}")
     public ResponseEntity<AffiliateDto> getAffiliateById(
             @PathVariable @Min(1) Long affiliateId) {
@@ -151,6 +169,18 @@ public class AffiliateController {
         return ResponseEntity.ok(searchResults);
     }
 
+    @GetMapping("/client/{clientId}/typeahead")
+    public ResponseEntity<List<SearchSuggestion>> typeaheadAffiliates(
+            @PathVariable @Min(1) Long clientId,
+            @RequestParam("q") String query,
+            @RequestParam(defaultValue = "10") int limit) {
+
+        List<SearchSuggestion> suggestions = typeaheadService
+                .suggestAffiliates(clientId, query, limit);
+
+        return ResponseEntity.ok(suggestions);
+    }
+
     @GetMapping("/pending-approval")
     public ResponseEntity<Page<AffiliateDto>> getPendingApprovalAffiliates(
             Pageable pageable) {
@@ -6,6 +6,7 @@ import com.saas.AffiliateManagement.exceptions.CommissionNotFoundException;
 import com.saas.AffiliateManagement.exceptions.InvalidCommissionDataException;
 import com.saas.AffiliateManagement.models.requests.CommissionCreateRequest;
 import com.saas.AffiliateManagement.models.dto.CommissionDto;
+import com.saas.AffiliateManagement.models.dto.CursorPage;
 import com.saas.AffiliateManagement.models.requests.CommissionUpdateRequest;
 import com.saas.AffiliateManagement.service.CommissionService;
 
@@ -207,6 +208,26 @@ public class CommissionController {
         return ResponseEntity.ok(commissions);
     }
 
+    @GetMapping("/client/{clientId}/tab-data/scroll")
+    public ResponseEntity<CursorPage<CommissionDto>> scrollCommissionsByClient(
+            @PathVariable("clientId") String clientIdStr,
+            @RequestParam(value = "status", required = false) String status,
+            @RequestParam(value = "type", required = false) String type,
+            @RequestParam(value = "affiliateName", required = false) String affiliateName,
+            @RequestParam(value = "search", required = false) String search,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "size", defaultValue = "10") int size,
+            @RequestParam(value = "withTotal", defaultValue = "false") boolean withTotal) {
+
+        Long clientId = parseClientId(clientIdStr);
+
+        CursorPage<CommissionDto> commissions = commissionService
+                .getFilteredCommissionsByClient(clientId, status, type, affiliateName, search,
+                        cursor, size, withTotal);
+
+        return ResponseEntity.ok(commissions);
+    }
+
     private Long parseClientId(String clientIdStr) {
         if (clientIdStr == null || clientIdStr.trim().isEmpty()) {
             throw new IllegalArgumentException("Client ID cannot be empty");
@@ -3,13 +3,16 @@ package com.saas.AffiliateManagement.controller;
 import com.saas.AffiliateManagement.exceptions.InvalidReferralDataException;
 import com.saas.AffiliateManagement.exceptions.ReferralNotFoundException;
 import com.saas.AffiliateManagement.models.dto.ConversionRateDto;
+import com.saas.AffiliateManagement.models.dto.CursorPage;
 import com.saas.AffiliateManagement.models.dto.PaymentDto;
 import com.saas.AffiliateManagement.models.dto.ReferralCustomerDTO;
 import com.saas.AffiliateManagement.models.dto.ReferralDto;
+import com.saas.AffiliateManagement.models.dto.SearchSuggestion;
 import com.saas.AffiliateManagement.models.requests.ReferralCreateRequest;
 import com.saas.AffiliateManagement.models.requests.ReferralUpdateRequest;
 import com.saas.AffiliateManagement.models.responses.ReferralTrackingResponse;
 import com.saas.AffiliateManagement.service.CustomerService;
+import com.saas.AffiliateManagement.service.TypeaheadService;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.Min;
@@ -45,15 +48,18 @@ import java.util.Optional;
 public class CustomersController {
 
     private final CustomerService customerService;
+    private final TypeaheadService typeaheadService;
 
     /**
      * Constructor for dependency injection.
      *
      * @param referralService the referral service to handle business logic
+     * @param typeaheadService the service answering customer search-as-you-type
      */
     @Autowired
-    public CustomersController(CustomerService referralService) {
+    public CustomersController(CustomerService referralService, TypeaheadService typeaheadService) {
         this.customerService = referralService;
+        this.typeaheadService = typeaheadService;
     }
 
     /**
@@ -443,6 +449,50 @@ public class CustomersController {
         return ResponseEntity.ok(customers);
     }
 
+    /**
+     * Retrieves a client's referral customers newest first, one keyset page at a time.
+     * Unlike {@link #getCustomersByClient}, the cost of a page does not grow with its depth.
+     *
+     * @param clientId the unique identifier of the client
+     * @param cursor the nextCursor of the previous page, or absent for the first page
+     * @param size the page size, capped at 100
+     * @param withTotal whether the first page should carry an approximate total
+     * @return ResponseEntity containing the page and the cursor of the next one
+     */
+    @GetMapping("/client/{clientId}/customers/scroll")
+    public ResponseEntity<CursorPage<ReferralCustomerDTO>> scrollCustomersByClient(
+            @PathVariable Long clientId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "false") boolean withTotal) {
+
+        CursorPage<ReferralCustomerDTO> customers = customerService
+                .getReferralCustomersByClient(clientId, cursor, size, withTotal);
+
+        return ResponseEntity.ok(customers);
+    }
+
+    /**
+     * Suggests a client's referral customers whose name or email contains the query,
+     * answered from an in-memory index rather than the database.
+     *
+     * @param clientId the unique identifier of the client
+     * @param query the text typed so far
+     * @param limit the maximum number of suggestions, capped at {@link TypeaheadService#MAX_LIMIT}
+     * @return ResponseEntity containing the best matches, best first
+     */
+    @GetMapping("/client/{clientId}/customers/typeahead")
+    public ResponseEntity<List<SearchSuggestion>> typeaheadCustomers(
+            @PathVariable Long clientId,
+            @RequestParam("q") String query,
+            @RequestParam(defaultValue = "10") int limit) {
+
+        List<SearchSuggestion> suggestions = typeaheadService
+                .suggestCustomers(clientId, query, limit);
+
+        return ResponseEntity.ok(suggestions);
+    }
+
     /**
      * Retrieves payment transactions for a specific client.
      * This endpoint will replace the transactions mock data in the frontend.
@@ -487,6 +537,42 @@ public class CustomersController {
         return ResponseEntity.ok(transactions);
     }
 
+    /**
+     * Retrieves payment transactions for a specific client newest first, one keyset page at a time.
+     * Takes the same filters as {@link #getTransactionsByClient} but no page number or sort.
+     *
+     * @param clientId the unique identifier of the client (required)
+     * @param cursor the nextCursor of the previous page, or absent for the first page
+     * @param size the page size, capped at 100
+     * @param withTotal whether the first page should carry an approximate total
+     * @param search optional search query for filtering by affiliate name, transaction ID, or description
+     * @param status optional status filter (COMPLETED, PENDING, FAILED, PROCESSING)
+     * @param paymentMethod optional payment method filter (PayPal, Bank Transfer, Stripe)
+     * @param startDate optional start date filter for transaction creation
+     * @param endDate optional end date filter for transaction creation
+     * @return ResponseEntity containing the page and the cursor of the next one
+     */
+    @GetMapping("/client/{clientId}/transactions/scroll")
+    public ResponseEntity<CursorPage<PaymentDto>> scrollTransactionsByClient(
+            @PathVariable @Min(1) Long clientId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "false") boolean withTotal,
+            @RequestParam(required = false) String search,
+            @RequestParam Optional<String> status,
+            @RequestParam Optional<String> paymentMethod,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+            Optional<LocalDateTime> startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+            Optional<LocalDateTime> endDate) {
+
+        CursorPage<PaymentDto> transactions = customerService.getTransactionsByClient(
+                clientId, search, status, paymentMethod, startDate, endDate, cursor, size, withTotal
+        );
+
+        return ResponseEntity.ok(transactions);
+    }
+
 
     /**
      * Extracts the client IP address from the HTTP request.
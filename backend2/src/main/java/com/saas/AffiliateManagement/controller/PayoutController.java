@@ -1,5 +1,6 @@
 package com.saas.AffiliateManagement.controller;
 
+import com.saas.AffiliateManagement.models.dto.CursorPage;
 import com.saas.AffiliateManagement.models.dto.PayoutDto;
 import com.saas.AffiliateManagement.service.PayoutService;
 import jakarta.validation.constraints.Min;
@@ -45,4 +46,23 @@ public class PayoutController {
 
         return ResponseEntity.ok(payouts);
     }
+
+    @GetMapping("/scroll")
+    public ResponseEntity<CursorPage<PayoutDto>> scrollPayoutsForClient(
+            @PathVariable @Min(1) Long clientId,
+            @RequestParam(required = false) String partnerName,
+            @RequestParam(required = false) String email,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate commissionStart,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate commissionEnd,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "false") boolean withTotal) {
+
+        CursorPage<PayoutDto> payouts = payoutService.getPayoutsForClient(
+                clientId, partnerName, email, status,
+                commissionStart, commissionEnd, cursor, size, withTotal);
+
+        return ResponseEntity.ok(payouts);
+    }
 }
\ No newline at end of file
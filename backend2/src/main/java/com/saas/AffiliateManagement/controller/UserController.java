@@ -0,0 +1,35 @@
+package com.saas.AffiliateManagement.controller;
+
+import com.saas.AffiliateManagement.security.CustomUserDetails;
+import com.saas.AffiliateManagement.service.AuthService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/v1/users")
+@RequiredArgsConstructor
+@Slf4j
+@CrossOrigin(origins = "*", maxAge = 3600)
+@Tag(name = "Users", description = "User account management endpoints")
+public class UserController {
+
+    private final AuthService authService;
+
+    @PostMapping("/{userId}/deactivate")
+    @PreAuthorize("hasRole('CLIENT_OWNER')")
+    @Operation(summary = "Deactivate user", description = "Deactivates a user of the caller's client and revokes their tokens")
+    public ResponseEntity<Void> deactivateUser(@PathVariable Long userId,
+                                               @AuthenticationPrincipal CustomUserDetails caller) {
+        log.info("Deactivation of user {} requested", userId);
+
+        authService.deactivateUser(userId, caller);
+
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -0,0 +1,23 @@
+package com.saas.AffiliateManagement.exceptions;
+
+import com.saas.AffiliateManagement.models.dto.ReferralClickEvent;
+
+import java.util.List;
+
+/**
+ * A batch of referral clicks was only partly written. The clicks before {@link #getUnwritten()}
+ * are committed, so retrying must only resubmit the unwritten ones.
+ */
+public class ReferralClickWriteException extends RuntimeException {
+
+    private final List<ReferralClickEvent> unwritten;
+
+    public ReferralClickWriteException(List<ReferralClickEvent> unwritten, Throwable cause) {
+        super("Failed to write " + unwritten.size() + " referral clicks: " + cause.getMessage(), cause);
+        this.unwritten = List.copyOf(unwritten);
+    }
+
+    public List<ReferralClickEvent> getUnwritten() {
+        return unwritten;
+    }
+}
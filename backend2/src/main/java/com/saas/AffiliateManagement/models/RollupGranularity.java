@@ -0,0 +1,34 @@
+package com.saas.AffiliateManagement.models;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+public enum RollupGranularity {
+    HOUR(ChronoUnit.HOURS),
+    DAY(ChronoUnit.DAYS);
+
+    private final ChronoUnit unit;
+
+    RollupGranularity(ChronoUnit unit) {
+        this.unit = unit;
+    }
+
+    public LocalDateTime bucketStart(LocalDateTime at) {
+        return at.truncatedTo(unit);
+    }
+
+    /**
+     * The first bucket boundary at or after {@code at}.
+     */
+    public LocalDateTime ceiling(LocalDateTime at) {
+        LocalDateTime floor = at.truncatedTo(unit);
+        return floor.equals(at) ? floor : floor.plus(1, unit);
+    }
+
+    /**
+     * The unit name understood by Postgres {@code date_trunc}.
+     */
+    public String sqlUnit() {
+        return name().toLowerCase();
+    }
+}
@@ -0,0 +1,13 @@
+package com.saas.AffiliateManagement.models.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * A per-affiliate sum (revenue, commissions, ...) from a {@code GROUP BY affiliate} query.
+ */
+public interface AffiliateAmountRow {
+
+    Long getAffiliateId();
+
+    BigDecimal getAmount();
+}
@@ -0,0 +1,15 @@
+package com.saas.AffiliateManagement.models.dto;
+
+/**
+ * Affiliate counts for one client, computed with conditional aggregation in a single query.
+ */
+public interface AffiliateCountsSummary {
+
+    Long getTotal();
+
+    Long getActive();
+
+    Long getPending();
+
+    Long getNewInPeriod();
+}
@@ -0,0 +1,25 @@
+package com.saas.AffiliateManagement.models.dto;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.math.BigDecimal;
+
+@Value
+@Builder
+public class AffiliateMetrics {
+
+    public static final AffiliateMetrics EMPTY = AffiliateMetrics.builder()
+            .revenue(BigDecimal.ZERO)
+            .earnings(BigDecimal.ZERO)
+            .clicks(0L)
+            .leads(0L)
+            .customers(0L)
+            .build();
+
+    BigDecimal revenue;
+    BigDecimal earnings;
+    long clicks;
+    long leads;
+    long customers;
+}
@@ -0,0 +1,23 @@
+package com.saas.AffiliateManagement.models.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Value;
+
+@Value
+@Builder
+@AllArgsConstructor
+public class AffiliateRedirectDescriptor {
+
+    Long id;
+    String uniqueIdentifier;
+    String status;
+    String targetUrl;
+    String email;
+    Long clientId;
+    String clientName;
+
+    public boolean isActive() {
+        return "ACTIVE".equalsIgnoreCase(status);
+    }
+}
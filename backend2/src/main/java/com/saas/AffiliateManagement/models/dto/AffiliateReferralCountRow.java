@@ -0,0 +1,13 @@
+package com.saas.AffiliateManagement.models.dto;
+
+/**
+ * Per-affiliate referral and conversion counts from a {@code GROUP BY affiliate} query.
+ */
+public interface AffiliateReferralCountRow {
+
+    Long getAffiliateId();
+
+    Long getReferrals();
+
+    Long getConversions();
+}
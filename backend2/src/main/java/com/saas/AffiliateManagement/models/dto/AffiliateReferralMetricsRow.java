@@ -0,0 +1,19 @@
+package com.saas.AffiliateManagement.models.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * Lifetime referral metrics for one affiliate from a {@code GROUP BY affiliate} query.
+ */
+public interface AffiliateReferralMetricsRow {
+
+    Long getAffiliateId();
+
+    Long getClicks();
+
+    Long getLeads();
+
+    Long getCustomers();
+
+    BigDecimal getRevenue();
+}
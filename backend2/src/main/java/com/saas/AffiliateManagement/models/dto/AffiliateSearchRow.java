@@ -0,0 +1,17 @@
+package com.saas.AffiliateManagement.models.dto;
+
+/**
+ * The searchable fields of one affiliate, loaded when a client's typeahead index is built.
+ */
+public interface AffiliateSearchRow {
+
+    Long getId();
+
+    String getFirstName();
+
+    String getLastName();
+
+    String getEmail();
+
+    String getCompanyName();
+}
@@ -0,0 +1,13 @@
+package com.saas.AffiliateManagement.models.dto;
+
+/**
+ * One row of a {@code GROUP BY status} over a client's affiliates.
+ */
+public interface AffiliateStatusCountRow {
+
+    String getStatus();
+
+    Long getTotal();
+
+    Long getNewInPeriod();
+}
@@ -19,7 +19,7 @@ public class AffiliateTableDto {
     private String status;
     private BigDecimal revenue;
     private BigDecimal earnings;
-    private Integer clicks;
-    private Integer leads;
-    private Integer customers;
+    private Long clicks;
+    private Long leads;
+    private Long customers;
 }
\ No newline at end of file
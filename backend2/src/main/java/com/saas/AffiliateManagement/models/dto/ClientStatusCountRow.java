@@ -0,0 +1,13 @@
+package com.saas.AffiliateManagement.models.dto;
+
+/**
+ * Affiliate count for one client and status, from a {@code GROUP BY client, status} query.
+ */
+public interface ClientStatusCountRow {
+
+    Long getClientId();
+
+    String getStatus();
+
+    Long getTotal();
+}
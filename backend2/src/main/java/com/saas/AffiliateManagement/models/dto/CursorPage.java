@@ -0,0 +1,41 @@
+package com.saas.AffiliateManagement.models.dto;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * One page of a keyset-paginated listing. {@code nextCursor} is passed back as {@code cursor}
+ * to fetch the following page and is null on the last one. {@code totalEstimate} is the query
+ * planner's row estimate for the listing before optional filters, present only on a first page
+ * that asked for it.
+ */
+@Value
+@Builder
+public class CursorPage<T> {
+
+    List<T> content;
+    int size;
+    boolean hasNext;
+    String nextCursor;
+    Long totalEstimate;
+
+    /**
+     * Builds a page from rows fetched with a limit of {@code size + 1}: the extra row only tells
+     * whether another page exists and is not returned.
+     */
+    public static <E, T> CursorPage<T> of(List<E> rows, int size, Function<E, String> cursorOf,
+                                          Function<E, T> mapper, Long totalEstimate) {
+        boolean hasNext = rows.size() > size;
+        List<E> page = hasNext ? rows.subList(0, size) : rows;
+        return CursorPage.<T>builder()
+                .content(page.stream().map(mapper).toList())
+                .size(size)
+                .hasNext(hasNext)
+                .nextCursor(hasNext ? cursorOf.apply(page.get(page.size() - 1)) : null)
+                .totalEstimate(totalEstimate)
+                .build();
+    }
+}
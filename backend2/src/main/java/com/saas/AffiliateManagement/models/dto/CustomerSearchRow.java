@@ -0,0 +1,13 @@
+package com.saas.AffiliateManagement.models.dto;
+
+/**
+ * The searchable fields of one referral customer, loaded when a client's typeahead index is built.
+ */
+public interface CustomerSearchRow {
+
+    Long getId();
+
+    String getCustomerName();
+
+    String getCustomerEmail();
+}
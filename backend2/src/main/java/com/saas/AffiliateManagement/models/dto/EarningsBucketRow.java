@@ -0,0 +1,16 @@
+package com.saas.AffiliateManagement.models.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * Desktop and mobile commission totals for one bucket of an earnings series, keyed by the
+ * bucket's offset from the start of the series.
+ */
+public interface EarningsBucketRow {
+
+    Long getBucket();
+
+    BigDecimal getDesktop();
+
+    BigDecimal getMobile();
+}
@@ -0,0 +1,17 @@
+package com.saas.AffiliateManagement.models.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * Click, conversion, revenue and commission totals for a client over a date range.
+ */
+public interface ReferralActivityTotals {
+
+    Long getClicks();
+
+    Long getConversions();
+
+    BigDecimal getRevenue();
+
+    BigDecimal getCommissions();
+}
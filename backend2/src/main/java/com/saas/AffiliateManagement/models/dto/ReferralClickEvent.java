@@ -0,0 +1,30 @@
+package com.saas.AffiliateManagement.models.dto;
+
+import lombok.Builder;
+import lombok.Value;
+import lombok.extern.jackson.Jacksonized;
+
+import java.time.LocalDateTime;
+
+@Value
+@Builder
+@Jacksonized
+public class ReferralClickEvent {
+
+    Long affiliateId;
+    Long clientId;
+    String referralCode;
+    String targetUrl;
+    String sourceUrl;
+    String userAgent;
+    String ipAddress;
+    String deviceType;
+    String browserName;
+    String operatingSystem;
+    String country;
+    String city;
+    String customerName;
+    String customerEmail;
+    String source;
+    LocalDateTime clickedAt;
+}
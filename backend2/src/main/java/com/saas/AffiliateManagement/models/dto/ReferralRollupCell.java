@@ -0,0 +1,30 @@
+package com.saas.AffiliateManagement.models.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Value;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Referral totals for one bucket, source domain and status, read either from the rollup
+ * tables or aggregated from raw referrals at the edges of a range.
+ */
+@Value
+@AllArgsConstructor
+public class ReferralRollupCell {
+
+    LocalDateTime bucketStart;
+    String sourceDomain;
+    String status;
+    long referralCount;
+    BigDecimal conversionValue;
+
+    public boolean isConverted() {
+        return "CONVERTED".equals(status);
+    }
+
+    public boolean hasSource() {
+        return !ReferralRollupDelta.NO_SOURCE.equals(sourceDomain);
+    }
+}
@@ -0,0 +1,97 @@
+package com.saas.AffiliateManagement.models.dto;
+
+import com.saas.AffiliateManagement.models.entity.Referral;
+import lombok.AllArgsConstructor;
+import lombok.Value;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * A change to the referral rollups: one referral entering ({@code referralCount = 1}) or
+ * leaving ({@code -1}) the cell given by its click time and dimensions.
+ */
+@Value
+@AllArgsConstructor
+public class ReferralRollupDelta {
+
+    /** Stored for referrals without a source URL, which source analytics leave out. */
+    public static final String NO_SOURCE = "";
+
+    private static final int MAX_DOMAIN_LENGTH = 255;
+
+    Long affiliateId;
+    Long clientId;
+    LocalDateTime clickedAt;
+    String sourceDomain;
+    String deviceType;
+    String country;
+    String status;
+    long referralCount;
+    BigDecimal conversionValue;
+
+    public static ReferralRollupDelta click(ReferralClickEvent event) {
+        return new ReferralRollupDelta(event.getAffiliateId(), event.getClientId(), event.getClickedAt(),
+                sourceDomainOf(event.getSourceUrl()), dimension(event.getDeviceType()), dimension(event.getCountry()),
+                "CLICKED", 1, BigDecimal.ZERO);
+    }
+
+    /**
+     * The delta that adds {@code referral} in its current state, or {@code null} if it has no click time.
+     */
+    public static ReferralRollupDelta addition(Referral referral) {
+        return of(referral, 1);
+    }
+
+    /**
+     * The delta that removes {@code referral} in its current state; take it before mutating the entity.
+     */
+    public static ReferralRollupDelta removal(Referral referral) {
+        return of(referral, -1);
+    }
+
+    private static ReferralRollupDelta of(Referral referral, int sign) {
+        if (referral.getClickedAt() == null || referral.getAffiliate() == null || referral.getClient() == null) {
+            return null;
+        }
+
+        BigDecimal value = referral.getConversionValue() != null ? referral.getConversionValue() : BigDecimal.ZERO;
+        return new ReferralRollupDelta(referral.getAffiliate().getId(), referral.getClient().getId(),
+                referral.getClickedAt(), sourceDomainOf(referral.getSourceUrl()),
+                dimension(referral.getDeviceType()), dimension(referral.getCountry()), referral.getStatus(),
+                sign, sign < 0 ? value.negate() : value);
+    }
+
+    /**
+     * The domain a source URL is reported under: the host without scheme and {@code www.},
+     * or {@code direct} for an empty URL. Kept in step with the SQL used to rebuild rollups.
+     */
+    public static String extractDomain(String url) {
+        if (url == null || url.isEmpty()) {
+            return "direct";
+        }
+
+        try {
+            String domain = url.replaceFirst("^(https?://)?(www\\.)?", "");
+            int slashIndex = domain.indexOf('/');
+            if (slashIndex > 0) {
+                domain = domain.substring(0, slashIndex);
+            }
+            return domain;
+        } catch (Exception e) {
+            return "unknown";
+        }
+    }
+
+    public static String sourceDomainOf(String sourceUrl) {
+        if (sourceUrl == null) {
+            return NO_SOURCE;
+        }
+        String domain = extractDomain(sourceUrl);
+        return domain.length() > MAX_DOMAIN_LENGTH ? domain.substring(0, MAX_DOMAIN_LENGTH) : domain;
+    }
+
+    private static String dimension(String value) {
+        return value != null ? value : "";
+    }
+}
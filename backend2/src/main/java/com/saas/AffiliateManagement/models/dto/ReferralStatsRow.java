@@ -0,0 +1,33 @@
+package com.saas.AffiliateManagement.models.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Value;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * The referral columns the statistics endpoints aggregate over, read as a plain projection
+ * rather than as managed {@code Referral} entities.
+ */
+@Value
+@AllArgsConstructor
+public class ReferralStatsRow {
+
+    String referralCode;
+    String targetUrl;
+    String sourceUrl;
+    String status;
+    BigDecimal conversionValue;
+    String ipAddress;
+    String deviceType;
+    String browserName;
+    String operatingSystem;
+    String country;
+    String city;
+    LocalDateTime clickedAt;
+
+    public boolean isConverted() {
+        return "CONVERTED".equals(status);
+    }
+}
@@ -0,0 +1,32 @@
+package com.saas.AffiliateManagement.models.dto;
+
+import com.saas.AffiliateManagement.models.entity.Referral;
+import lombok.AllArgsConstructor;
+import lombok.Value;
+
+import java.time.LocalDateTime;
+
+/**
+ * A click as seen by the unique-visitor sketches: who was referred, when, and from which IP.
+ */
+@Value
+@AllArgsConstructor
+public class ReferralVisit {
+
+    Long affiliateId;
+    LocalDateTime clickedAt;
+    String ipAddress;
+
+    public static ReferralVisit of(ReferralClickEvent event) {
+        return new ReferralVisit(event.getAffiliateId(), event.getClickedAt(), event.getIpAddress());
+    }
+
+    public static ReferralVisit of(Referral referral) {
+        Long affiliateId = referral.getAffiliate() != null ? referral.getAffiliate().getId() : null;
+        return new ReferralVisit(affiliateId, referral.getClickedAt(), referral.getIpAddress());
+    }
+
+    public boolean isCountable() {
+        return affiliateId != null && clickedAt != null && ipAddress != null;
+    }
+}
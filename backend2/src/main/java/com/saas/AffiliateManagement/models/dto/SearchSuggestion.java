@@ -0,0 +1,16 @@
+package com.saas.AffiliateManagement.models.dto;
+
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * One typeahead match: a display label and a secondary line, usually an email address.
+ */
+@Value
+@Builder
+public class SearchSuggestion {
+
+    Long id;
+    String label;
+    String detail;
+}
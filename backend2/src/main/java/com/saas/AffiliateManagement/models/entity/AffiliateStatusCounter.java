@@ -0,0 +1,29 @@
+package com.saas.AffiliateManagement.models.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.EmbeddedId;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Number of affiliates per client and status, maintained incrementally by the affiliate
+ * lifecycle methods and periodically reconciled against the affiliates table.
+ */
+@Entity
+@Table(name = "affiliate_status_counters")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AffiliateStatusCounter {
+
+    @EmbeddedId
+    private AffiliateStatusCounterId id;
+
+    @Column(name = "affiliate_count", nullable = false)
+    private Long affiliateCount;
+}
@@ -86,7 +86,7 @@ public class Referral {
     @Column(nullable = false)
     private String customerName;
 
-    @Column(nullable = false, unique = true)
+    @Column(nullable = false)
     private String customerEmail;
 
     @Column
@@ -0,0 +1,67 @@
+package com.saas.AffiliateManagement.models.entity;
+
+import com.saas.AffiliateManagement.models.RollupGranularity;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Referrals clicked within one hour or day, counted per affiliate, source domain, device,
+ * country and status. Missing dimension values are stored as empty strings so every cell has
+ * exactly one row under the unique constraint.
+ * <p>
+ * Rows are maintained by {@code ReferralRollupRepository}; there is no JPA repository for them.
+ */
+@Entity
+@Table(name = "referral_rollups",
+        uniqueConstraints = @UniqueConstraint(name = "uk_referral_rollups_cell", columnNames = {
+                "granularity", "bucket_start", "affiliate_id", "client_id",
+                "source_domain", "device_type", "country", "status"}),
+        indexes = @Index(name = "idx_referral_rollups_affiliate_bucket",
+                columnList = "affiliate_id, granularity, bucket_start"))
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReferralRollup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 10)
+    private RollupGranularity granularity;
+
+    @Column(name = "bucket_start", nullable = false)
+    private LocalDateTime bucketStart;
+
+    @Column(name = "affiliate_id", nullable = false)
+    private Long affiliateId;
+
+    @Column(name = "client_id", nullable = false)
+    private Long clientId;
+
+    @Column(name = "source_domain", nullable = false)
+    private String sourceDomain;
+
+    @Column(name = "device_type", nullable = false, length = 50)
+    private String deviceType;
+
+    @Column(nullable = false, length = 100)
+    private String country;
+
+    @Column(nullable = false, length = 20)
+    private String status;
+
+    @Column(name = "referral_count", nullable = false)
+    private Long referralCount;
+
+    @Column(name = "conversion_value", nullable = false, precision = 14, scale = 2)
+    private BigDecimal conversionValue;
+}
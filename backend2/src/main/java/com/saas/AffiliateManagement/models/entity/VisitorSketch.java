@@ -0,0 +1,38 @@
+package com.saas.AffiliateManagement.models.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * Serialized HyperLogLog sketch of the visitor IPs an affiliate's referral links were clicked
+ * from on one day. Rows are maintained by {@code VisitorSketchRepository}.
+ */
+@Entity
+@Table(name = "visitor_sketches",
+        uniqueConstraints = @UniqueConstraint(name = "uk_visitor_sketches_affiliate_day",
+                columnNames = {"affiliate_id", "sketch_day"}))
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class VisitorSketch {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "affiliate_id", nullable = false)
+    private Long affiliateId;
+
+    // "day" is a keyword in H2.
+    @Column(name = "sketch_day", nullable = false)
+    private LocalDate day;
+
+    @Column(nullable = false, columnDefinition = "bytea")
+    private byte[] registers;
+}
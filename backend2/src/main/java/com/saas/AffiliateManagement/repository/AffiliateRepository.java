@@ -1,5 +1,10 @@
 package com.saas.AffiliateManagement.repository;
 
+import com.saas.AffiliateManagement.models.dto.AffiliateCountsSummary;
+import com.saas.AffiliateManagement.models.dto.AffiliateRedirectDescriptor;
+import com.saas.AffiliateManagement.models.dto.AffiliateSearchRow;
+import com.saas.AffiliateManagement.models.dto.AffiliateStatusCountRow;
+import com.saas.AffiliateManagement.models.dto.ClientStatusCountRow;
 import com.saas.AffiliateManagement.models.entity.Affiliate;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -29,12 +34,43 @@ public interface AffiliateRepository extends JpaRepository<Affiliate, Long> {
 
     boolean existsByUniqueIdentifier(String uniqueIdentifier);
 
+    @Query("SELECT new com.saas.AffiliateManagement.models.dto.AffiliateRedirectDescriptor(" +
+            "a.id, a.uniqueIdentifier, a.status, a.targetUrl, a.email, c.id, c.name) " +
+            "FROM Affiliate a JOIN a.client c WHERE a.uniqueIdentifier = :uniqueIdentifier")
+    Optional<AffiliateRedirectDescriptor> findRedirectDescriptorByUniqueIdentifier(
+            @Param("uniqueIdentifier") String uniqueIdentifier);
+
+    @Query("SELECT new com.saas.AffiliateManagement.models.dto.AffiliateRedirectDescriptor(" +
+            "a.id, a.uniqueIdentifier, a.status, a.targetUrl, a.email, c.id, c.name) " +
+            "FROM Affiliate a JOIN a.client c WHERE a.id = :id")
+    Optional<AffiliateRedirectDescriptor> findRedirectDescriptorById(@Param("id") Long id);
+
     Page<Affiliate> findByStatus(String status, Pageable pageable);
 
+    // Keyset page: rows strictly after the KeysetCursor position, newest first. Pass PageRequest.of(0, size + 1).
+    @Query("SELECT a FROM Affiliate a " +
+            "WHERE a.createdAt < :cursorCreatedAt OR (a.createdAt = :cursorCreatedAt AND a.id < :cursorId) " +
+            "ORDER BY a.createdAt DESC, a.id DESC")
+    List<Affiliate> findPageAfter(@Param("cursorCreatedAt") LocalDateTime cursorCreatedAt,
+                                  @Param("cursorId") Long cursorId,
+                                  Pageable pageable);
+
     Page<Affiliate> findByClientId(Long clientId, Pageable pageable);
 
     List<Affiliate> findByClientId(Long clientId);
 
+    @Query("SELECT a.client.id AS clientId, a.status AS status, COUNT(a) AS total " +
+            "FROM Affiliate a WHERE a.status IS NOT NULL GROUP BY a.client.id, a.status")
+    List<ClientStatusCountRow> countGroupedByClientIdAndStatus();
+
+    @Query("SELECT a.id FROM Affiliate a WHERE a.client.id = :clientId")
+    List<Long> findIdsByClientId(@Param("clientId") Long clientId);
+
+    @Query("SELECT a.id AS id, a.firstName AS firstName, a.lastName AS lastName, " +
+            "a.email AS email, a.companyName AS companyName " +
+            "FROM Affiliate a WHERE a.client.id = :clientId")
+    List<AffiliateSearchRow> findSearchRowsByClientId(@Param("clientId") Long clientId, Pageable pageable);
+
     Page<Affiliate> findByClientIdAndStatus(Long clientId, String status, Pageable pageable);
 
     long countByStatus(String status);
@@ -49,10 +85,27 @@ public interface AffiliateRepository extends JpaRepository<Affiliate, Long> {
                                             @Param("startDate") LocalDateTime startDate,
                                             @Param("endDate") LocalDateTime endDate);
 
+    @Query("SELECT COUNT(a) AS total, " +
+            "COALESCE(SUM(CASE WHEN a.status = 'ACTIVE' THEN 1 ELSE 0 END), 0) AS active, " +
+            "COALESCE(SUM(CASE WHEN a.status = 'PENDING' THEN 1 ELSE 0 END), 0) AS pending, " +
+            "COALESCE(SUM(CASE WHEN a.createdAt BETWEEN :startDate AND :endDate THEN 1 ELSE 0 END), 0) AS newInPeriod " +
+            "FROM Affiliate a WHERE a.client.id = :clientId")
+    AffiliateCountsSummary summarizeByClientId(@Param("clientId") Long clientId,
+                                               @Param("startDate") LocalDateTime startDate,
+                                               @Param("endDate") LocalDateTime endDate);
+
+    @Query("SELECT a.status AS status, COUNT(a) AS total, " +
+            "COALESCE(SUM(CASE WHEN a.createdAt BETWEEN :startDate AND :endDate THEN 1 ELSE 0 END), 0) AS newInPeriod " +
+            "FROM Affiliate a WHERE a.client.id = :clientId GROUP BY a.status")
+    List<AffiliateStatusCountRow> countByClientIdGroupedByStatus(@Param("clientId") Long clientId,
+                                                                 @Param("startDate") LocalDateTime startDate,
+                                                                 @Param("endDate") LocalDateTime endDate);
+
+    // Text parameters are SearchPatterns.contains patterns, or null to skip the filter.
     @Query("SELECT a FROM Affiliate a WHERE " +
-            "(:email = '' OR LOWER(a.email) LIKE LOWER(CONCAT('%', :email, '%'))) AND " +
-            "(:status = '' OR LOWER(a.status) LIKE LOWER(CONCAT('%', :status, '%'))) AND " +
-            "(:companyName = '' OR LOWER(a.companyName) LIKE LOWER(CONCAT('%', :companyName, '%'))) AND " +
+            "(:email IS NULL OR LOWER(a.email) LIKE :email ESCAPE '!') AND " +
+            "(:status IS NULL OR LOWER(a.status) LIKE :status ESCAPE '!') AND " +
+            "(:companyName IS NULL OR LOWER(a.companyName) LIKE :companyName ESCAPE '!') AND " +
             "(:clientId IS NULL OR a.client.id = :clientId)")
     Page<Affiliate> searchAffiliates(@Param("email") String email,
                                      @Param("status") String status,
@@ -61,9 +114,9 @@ public interface AffiliateRepository extends JpaRepository<Affiliate, Long> {
                                      Pageable pageable);
 
     @Query("SELECT a FROM Affiliate a WHERE a.client.id = :clientId AND " +
-            "(:email = '' OR LOWER(a.email) LIKE LOWER(CONCAT('%', :email, '%'))) AND " +
-            "(:status = '' OR LOWER(a.status) LIKE LOWER(CONCAT('%', :status, '%'))) AND " +
-            "(:companyName = '' OR LOWER(a.companyName) LIKE LOWER(CONCAT('%', :companyName, '%')))")
+            "(:email IS NULL OR LOWER(a.email) LIKE :email ESCAPE '!') AND " +
+            "(:status IS NULL OR LOWER(a.status) LIKE :status ESCAPE '!') AND " +
+            "(:companyName IS NULL OR LOWER(a.companyName) LIKE :companyName ESCAPE '!')")
     Page<Affiliate> searchClientAffiliates(@Param("clientId") Long clientId,
                                            @Param("email") String email,
                                            @Param("status") String status,
@@ -76,10 +129,10 @@ public interface AffiliateRepository extends JpaRepository<Affiliate, Long> {
 
     @Query("SELECT a FROM Affiliate a WHERE a.client.id = :clientId " +
             "AND a.status = :status " +
-            "AND (LOWER(a.firstName) LIKE LOWER(CONCAT('%', :search, '%')) " +
-            "OR LOWER(a.lastName) LIKE LOWER(CONCAT('%', :search, '%')) " +
-            "OR LOWER(a.email) LIKE LOWER(CONCAT('%', :search, '%')) " +
-            "OR LOWER(a.companyName) LIKE LOWER(CONCAT('%', :search, '%')))")
+            "AND (LOWER(a.firstName) LIKE :search ESCAPE '!' " +
+            "OR LOWER(a.lastName) LIKE :search ESCAPE '!' " +
+            "OR LOWER(a.email) LIKE :search ESCAPE '!' " +
+            "OR LOWER(a.companyName) LIKE :search ESCAPE '!')")
     Page<Affiliate> findByClientIdAndStatusAndSearch(
             @Param("clientId") Long clientId,
             @Param("status") String status,
@@ -88,10 +141,10 @@ public interface AffiliateRepository extends JpaRepository<Affiliate, Long> {
     );
 
     @Query("SELECT a FROM Affiliate a WHERE a.client.id = :clientId " +
-            "AND (LOWER(a.firstName) LIKE LOWER(CONCAT('%', :search, '%')) " +
-            "OR LOWER(a.lastName) LIKE LOWER(CONCAT('%', :search, '%')) " +
-            "OR LOWER(a.email) LIKE LOWER(CONCAT('%', :search, '%')) " +
-            "OR LOWER(a.companyName) LIKE LOWER(CONCAT('%', :search, '%')))")
+            "AND (LOWER(a.firstName) LIKE :search ESCAPE '!' " +
+            "OR LOWER(a.lastName) LIKE :search ESCAPE '!' " +
+            "OR LOWER(a.email) LIKE :search ESCAPE '!' " +
+            "OR LOWER(a.companyName) LIKE :search ESCAPE '!')")
     Page<Affiliate> findByClientIdAndSearch(
             @Param("clientId") Long clientId,
             @Param("search") String search,
@@ -0,0 +1,15 @@
+package com.saas.AffiliateManagement.repository;
+
+import com.saas.AffiliateManagement.models.entity.AffiliateStatusCounter;
+import com.saas.AffiliateManagement.models.entity.AffiliateStatusCounterId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface AffiliateStatusCounterRepository extends JpaRepository<AffiliateStatusCounter, AffiliateStatusCounterId>,
+        AffiliateStatusCounterUpserts {
+
+    List<AffiliateStatusCounter> findByIdClientId(Long clientId);
+}
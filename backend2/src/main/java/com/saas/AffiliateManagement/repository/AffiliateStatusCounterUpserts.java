@@ -0,0 +1,20 @@
+package com.saas.AffiliateManagement.repository;
+
+/**
+ * Counter writes that need an upsert or a table lock, implemented with plain SQL in
+ * {@link AffiliateStatusCounterUpsertsImpl} because their syntax differs between Postgres and H2.
+ */
+public interface AffiliateStatusCounterUpserts {
+
+    void increment(Long clientId, String status, long delta);
+
+    void set(Long clientId, String status, long count);
+
+    /**
+     * Blocks counter upserts from other transactions until the current one ends, while still
+     * allowing reads. Lifecycle methods upsert counters in the same transaction as the affiliate
+     * change, so while this lock is held every committed affiliate change has its counter
+     * change committed too.
+     */
+    void lockForReconciliation();
+}
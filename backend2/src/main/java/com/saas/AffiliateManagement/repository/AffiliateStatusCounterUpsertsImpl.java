@@ -0,0 +1,57 @@
+package com.saas.AffiliateManagement.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+class AffiliateStatusCounterUpsertsImpl implements AffiliateStatusCounterUpserts {
+
+    private static final String POSTGRES_INCREMENT_SQL = "INSERT INTO affiliate_status_counters " +
+            "(client_id, status, affiliate_count) VALUES (?, ?, ?) " +
+            "ON CONFLICT (client_id, status) DO UPDATE " +
+            "SET affiliate_count = affiliate_status_counters.affiliate_count + EXCLUDED.affiliate_count";
+
+    private static final String POSTGRES_SET_SQL = "INSERT INTO affiliate_status_counters " +
+            "(client_id, status, affiliate_count) VALUES (?, ?, ?) " +
+            "ON CONFLICT (client_id, status) DO UPDATE SET affiliate_count = EXCLUDED.affiliate_count";
+
+    // H2 rejects ON CONFLICT ... DO UPDATE, so it gets the standard MERGE instead.
+    private static final String MERGE_SQL = "MERGE INTO affiliate_status_counters c " +
+            "USING (VALUES (CAST(? AS BIGINT), CAST(? AS VARCHAR), CAST(? AS BIGINT))) " +
+            "AS d (client_id, status, affiliate_count) " +
+            "ON c.client_id = d.client_id AND c.status = d.status " +
+            "WHEN MATCHED THEN UPDATE SET affiliate_count = %s " +
+            "WHEN NOT MATCHED THEN INSERT (client_id, status, affiliate_count) " +
+            "VALUES (d.client_id, d.status, d.affiliate_count)";
+
+    private static final String H2_INCREMENT_SQL = String.format(MERGE_SQL, "c.affiliate_count + d.affiliate_count");
+
+    private static final String H2_SET_SQL = String.format(MERGE_SQL, "d.affiliate_count");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DatabasePlatform databasePlatform;
+
+    AffiliateStatusCounterUpsertsImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.databasePlatform = new DatabasePlatform(jdbcTemplate);
+    }
+
+    @Override
+    public void increment(Long clientId, String status, long delta) {
+        jdbcTemplate.update(databasePlatform.isPostgres() ? POSTGRES_INCREMENT_SQL : H2_INCREMENT_SQL,
+                clientId, status, delta);
+    }
+
+    @Override
+    public void set(Long clientId, String status, long count) {
+        jdbcTemplate.update(databasePlatform.isPostgres() ? POSTGRES_SET_SQL : H2_SET_SQL,
+                clientId, status, count);
+    }
+
+    @Override
+    public void lockForReconciliation() {
+        // H2 has no LOCK TABLE; the in-memory profile runs a single instance, where a reconciliation
+        // racing a lifecycle change is only repaired by the next run.
+        if (databasePlatform.isPostgres()) {
+            jdbcTemplate.execute("LOCK TABLE affiliate_status_counters IN SHARE ROW EXCLUSIVE MODE");
+        }
+    }
+}
@@ -1,6 +1,8 @@
 // CommissionRepository.java
 package com.saas.AffiliateManagement.repository;
 
+import com.saas.AffiliateManagement.models.dto.AffiliateAmountRow;
+import com.saas.AffiliateManagement.models.dto.EarningsBucketRow;
 import com.saas.AffiliateManagement.models.entity.Commission;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -11,6 +13,7 @@ import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -32,6 +35,38 @@ public interface CommissionRepository extends JpaRepository<Commission, Long> {
 
     List<Commission> findByAffiliateIdAndCreatedAtBetween(Long affiliateId, LocalDateTime startDate, LocalDateTime endDate);
 
+    /**
+     * Commission totals per earnings bucket. Buckets are calendar months, seven-day windows or
+     * calendar days counted from {@code origin}; only commissions created in
+     * [{@code windowStart}, {@code windowEnd}) and no later than {@code periodEnd} are read, so
+     * callers can restrict the scan to one page of buckets.
+     * <p>
+     * The device split comes from the referral that produced each commission: mobile and tablet
+     * clicks count as mobile, everything else (including a missing referral) as desktop.
+     */
+    @Query(value = "SELECT CAST(CASE :period " +
+            "WHEN 'monthly' THEN (EXTRACT(YEAR FROM c.created_at) - EXTRACT(YEAR FROM CAST(:origin AS timestamp))) * 12 " +
+            "  + EXTRACT(MONTH FROM c.created_at) - EXTRACT(MONTH FROM CAST(:origin AS timestamp)) " +
+            "WHEN 'weekly' THEN FLOOR(EXTRACT(EPOCH FROM (c.created_at - CAST(:origin AS timestamp))) / 604800) " +
+            "ELSE CAST(date_trunc('day', c.created_at) AS date) - CAST(CAST(:origin AS timestamp) AS date) " +
+            "END AS bigint) AS bucket, " +
+            "COALESCE(SUM(CASE WHEN UPPER(r.device_type) IN ('MOBILE', 'TABLET') THEN 0 ELSE c.amount END), 0) AS desktop, " +
+            "COALESCE(SUM(CASE WHEN UPPER(r.device_type) IN ('MOBILE', 'TABLET') THEN c.amount ELSE 0 END), 0) AS mobile " +
+            "FROM commissions c JOIN affiliates a ON a.id = c.affiliate_id " +
+            "LEFT JOIN referrals r ON r.id = c.referral_id " +
+            "WHERE c.created_at >= :windowStart AND c.created_at < :windowEnd AND c.created_at <= :periodEnd " +
+            "AND (CAST(:affiliateId AS bigint) IS NULL OR c.affiliate_id = :affiliateId) " +
+            "AND (CAST(:clientId AS bigint) IS NULL OR a.client_id = :clientId) " +
+            "GROUP BY 1 ORDER BY 1",
+            nativeQuery = true)
+    List<EarningsBucketRow> sumEarningsByBucket(@Param("period") String period,
+                                                @Param("origin") LocalDateTime origin,
+                                                @Param("windowStart") LocalDateTime windowStart,
+                                                @Param("windowEnd") LocalDateTime windowEnd,
+                                                @Param("periodEnd") LocalDateTime periodEnd,
+                                                @Param("affiliateId") Long affiliateId,
+                                                @Param("clientId") Long clientId);
+
     @Query("SELECT c FROM Commission c WHERE c.affiliate.client.id = :clientId AND c.createdAt BETWEEN :startDate AND :endDate")
     List<Commission> findByAffiliateClientIdAndCreatedAtBetween(@Param("clientId") Long clientId,
                                                                 @Param("startDate") LocalDateTime startDate,
@@ -58,18 +93,30 @@ public interface CommissionRepository extends JpaRepository<Commission, Long> {
                                                                @Param("startDate") LocalDateTime startDate,
                                                                @Param("endDate") LocalDateTime endDate);
 
+    @Query("SELECT c.affiliate.id AS affiliateId, COALESCE(SUM(c.amount), 0) AS amount FROM Commission c " +
+            "WHERE c.affiliate.id IN :affiliateIds AND c.createdAt BETWEEN :startDate AND :endDate " +
+            "GROUP BY c.affiliate.id")
+    List<AffiliateAmountRow> sumCommissionsByAffiliateIds(@Param("affiliateIds") Collection<Long> affiliateIds,
+                                                          @Param("startDate") LocalDateTime startDate,
+                                                          @Param("endDate") LocalDateTime endDate);
+
+    @Query("SELECT c.affiliate.id AS affiliateId, COALESCE(SUM(c.amount), 0) AS amount FROM Commission c " +
+            "WHERE c.affiliate.id IN :affiliateIds GROUP BY c.affiliate.id")
+    List<AffiliateAmountRow> sumAllCommissionsByAffiliateIds(@Param("affiliateIds") Collection<Long> affiliateIds);
+
 
+    // affiliateName and search are SearchPatterns.contains patterns, or null to skip the filter.
     @Query("SELECT c FROM Commission c WHERE " +
             "(:clientId IS NULL OR c.affiliate.client.id = :clientId) " +
             "AND (:status IS NULL OR :status = '' OR c.status = :status) " +
             "AND (:type IS NULL OR :type = '' OR c.type = :type) " +
-            "AND (:affiliateName IS NULL OR :affiliateName = '' OR " +
-            "LOWER(CONCAT(c.affiliate.firstName, ' ', c.affiliate.lastName)) LIKE LOWER(CONCAT('%', :affiliateName, '%'))) " +
-            "AND (:search IS NULL OR :search = '' OR " +
-            "COALESCE(c.description, '') LIKE CONCAT('%', :search, '%') OR " +
-            "CAST(COALESCE(c.referralId, 0) AS string) LIKE CONCAT('%', :search, '%') OR " +
-            "LOWER(CONCAT(c.affiliate.firstName, ' ', c.affiliate.lastName)) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
-            "COALESCE(c.affiliate.email, '') LIKE CONCAT('%', :search, '%'))")
+            "AND (:affiliateName IS NULL OR " +
+            "LOWER(CONCAT(c.affiliate.firstName, ' ', c.affiliate.lastName)) LIKE :affiliateName ESCAPE '!') " +
+            "AND (:search IS NULL OR " +
+            "LOWER(c.description) LIKE :search ESCAPE '!' OR " +
+            "CAST(c.referralId AS string) LIKE :search ESCAPE '!' OR " +
+            "LOWER(CONCAT(c.affiliate.firstName, ' ', c.affiliate.lastName)) LIKE :search ESCAPE '!' OR " +
+            "LOWER(c.affiliate.email) LIKE :search ESCAPE '!')")
     Page<Commission> findFilteredByClient(@Param("clientId") Long clientId,
                                           @Param("status") String status,
                                           @Param("type") String type,
@@ -77,6 +124,29 @@ public interface CommissionRepository extends JpaRepository<Commission, Long> {
                                           @Param("search") String search,
                                           Pageable pageable);
 
+    // Keyset variant of findFilteredByClient: rows strictly after the KeysetCursor position, newest first.
+    @Query("SELECT c FROM Commission c JOIN FETCH c.affiliate a WHERE " +
+            "(:clientId IS NULL OR a.client.id = :clientId) " +
+            "AND (:status IS NULL OR :status = '' OR c.status = :status) " +
+            "AND (:type IS NULL OR :type = '' OR c.type = :type) " +
+            "AND (:affiliateName IS NULL OR " +
+            "LOWER(CONCAT(a.firstName, ' ', a.lastName)) LIKE :affiliateName ESCAPE '!') " +
+            "AND (:search IS NULL OR " +
+            "LOWER(c.description) LIKE :search ESCAPE '!' OR " +
+            "CAST(c.referralId AS string) LIKE :search ESCAPE '!' OR " +
+            "LOWER(CONCAT(a.firstName, ' ', a.lastName)) LIKE :search ESCAPE '!' OR " +
+            "LOWER(a.email) LIKE :search ESCAPE '!') " +
+            "AND (c.createdAt < :cursorCreatedAt OR (c.createdAt = :cursorCreatedAt AND c.id < :cursorId)) " +
+            "ORDER BY c.createdAt DESC, c.id DESC")
+    List<Commission> findFilteredByClientPageAfter(@Param("clientId") Long clientId,
+                                                   @Param("status") String status,
+                                                   @Param("type") String type,
+                                                   @Param("affiliateName") String affiliateName,
+                                                   @Param("search") String search,
+                                                   @Param("cursorCreatedAt") LocalDateTime cursorCreatedAt,
+                                                   @Param("cursorId") Long cursorId,
+                                                   Pageable pageable);
+
 
 
 
@@ -0,0 +1,38 @@
+package com.saas.AffiliateManagement.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+
+import javax.sql.DataSource;
+import java.sql.DatabaseMetaData;
+
+/**
+ * Tells the plain-SQL repositories which database they run against, so the few statements
+ * without a portable form (upserts, table locks) can pick the Postgres or the H2 variant.
+ * Built from the repository's own {@link JdbcTemplate} rather than injected, so JPA test slices
+ * that only load repositories still get it; the product is looked up on first use.
+ */
+final class DatabasePlatform {
+
+    private final DataSource dataSource;
+    private volatile Boolean postgres;
+
+    DatabasePlatform(JdbcTemplate jdbcTemplate) {
+        this.dataSource = jdbcTemplate.getDataSource();
+    }
+
+    boolean isPostgres() {
+        Boolean result = postgres;
+        if (result == null) {
+            try {
+                String product = JdbcUtils.extractDatabaseMetaData(dataSource, DatabaseMetaData::getDatabaseProductName);
+                result = "PostgreSQL".equals(product);
+            } catch (MetaDataAccessException e) {
+                throw new IllegalStateException("Could not determine the database product", e);
+            }
+            postgres = result;
+        }
+        return result;
+    }
+}
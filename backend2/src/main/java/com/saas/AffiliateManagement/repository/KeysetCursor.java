@@ -0,0 +1,49 @@
+package com.saas.AffiliateManagement.repository;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * Position of a keyset ("seek") page: the sort key and id of the last row already returned.
+ * Keyset queries order by {@code createdAt DESC, id DESC} and ask for rows strictly after this
+ * position, so each page costs the same however deep it is. Clients see the position only as an
+ * opaque URL-safe token.
+ */
+public record KeysetCursor(LocalDateTime createdAt, Long id) {
+
+    // Sorts after every stored row, so the first page needs no separate query; also valid as a Postgres timestamp.
+    public static final KeysetCursor FIRST = new KeysetCursor(LocalDateTime.of(9999, 12, 31, 23, 59, 59), Long.MAX_VALUE);
+
+    public static final int MAX_PAGE_SIZE = 100;
+
+    /**
+     * @return the requested page size clamped to [1, {@link #MAX_PAGE_SIZE}]
+     */
+    public static int pageSize(int requested) {
+        return Math.min(Math.max(requested, 1), MAX_PAGE_SIZE);
+    }
+
+    public String encode() {
+        String position = createdAt + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @return the decoded position, or {@link #FIRST} for a blank token
+     * @throws IllegalArgumentException if the token was not produced by {@link #encode()}
+     */
+    public static KeysetCursor decode(String token) {
+        if (token == null || token.isBlank()) {
+            return FIRST;
+        }
+        try {
+            String position = new String(Base64.getUrlDecoder().decode(token.trim()), StandardCharsets.UTF_8);
+            int separator = position.indexOf('|');
+            return new KeysetCursor(LocalDateTime.parse(position.substring(0, separator)),
+                    Long.parseLong(position.substring(separator + 1)));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid page cursor: " + token, e);
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.saas.AffiliateManagement.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.YearMonth;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Lists, creates and detaches the monthly partitions of the tables range-partitioned by
+ * {@code created_at}. Partitions are named {@code <table>_pYYYY_MM}; rows outside them are kept
+ * in {@code <table>_default}.
+ */
+@Repository
+@RequiredArgsConstructor
+public class PartitionRepository {
+
+    public static final List<String> PARTITIONED_TABLES = List.of("referrals", "commissions");
+
+    private static final String SELECT_PARTITIONS_SQL = "SELECT c.relname FROM pg_inherits i " +
+            "JOIN pg_class c ON c.oid = i.inhrelid WHERE i.inhparent = CAST(? AS regclass)";
+
+    private static final Pattern MONTHLY_PARTITION = Pattern.compile("(.+)_p(\\d{4})_(\\d{2})");
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public static String partitionName(String table, YearMonth month) {
+        return String.format("%s_p%04d_%02d", table, month.getYear(), month.getMonthValue());
+    }
+
+    /**
+     * Serializes partition maintenance of the table across application instances until the
+     * current transaction ends.
+     */
+    public void lockForMaintenance(String table) {
+        jdbcTemplate.query("SELECT pg_advisory_xact_lock(hashtext(?))", rs -> { }, requirePartitioned(table));
+    }
+
+    /**
+     * The months that have an attached partition, oldest first.
+     */
+    public List<YearMonth> findMonthlyPartitions(String table) {
+        return jdbcTemplate.queryForList(SELECT_PARTITIONS_SQL, String.class, requirePartitioned(table)).stream()
+                .map(MONTHLY_PARTITION::matcher)
+                .filter(matcher -> matcher.matches() && matcher.group(1).equals(table))
+                .map(PartitionRepository::monthOf)
+                .sorted()
+                .toList();
+    }
+
+    /**
+     * Creates and attaches the partition for a month. Rows of that month already in the default
+     * partition are moved into it first, since attaching fails while the default partition
+     * holds rows in the new range. Must run in a transaction.
+     */
+    public void createMonthlyPartition(String table, YearMonth month) {
+        String partition = partitionName(requirePartitioned(table), month);
+        String from = month.atDay(1).toString();
+        String to = month.plusMonths(1).atDay(1).toString();
+
+        jdbcTemplate.execute("CREATE TABLE " + partition + " (LIKE " + table +
+                " INCLUDING DEFAULTS INCLUDING CONSTRAINTS)");
+        jdbcTemplate.update("WITH moved AS (DELETE FROM " + table + "_default " +
+                "WHERE created_at >= CAST(? AS timestamp) AND created_at < CAST(? AS timestamp) RETURNING *) " +
+                "INSERT INTO " + partition + " SELECT * FROM moved", from, to);
+        jdbcTemplate.execute("ALTER TABLE " + table + " ATTACH PARTITION " + partition +
+                " FOR VALUES FROM ('" + from + "') TO ('" + to + "')");
+    }
+
+    /**
+     * Detaches a month's partition, which then remains as a standalone table. Queries on the
+     * parent no longer see its rows.
+     */
+    public void detachMonthlyPartition(String table, YearMonth month) {
+        jdbcTemplate.execute("ALTER TABLE " + requirePartitioned(table) +
+                " DETACH PARTITION " + partitionName(table, month));
+    }
+
+    public void dropDetachedPartition(String table, YearMonth month) {
+        jdbcTemplate.execute("DROP TABLE " + partitionName(requirePartitioned(table), month));
+    }
+
+    // Table names are concatenated into DDL, so only the known partitioned tables are accepted.
+    private static String requirePartitioned(String table) {
+        if (!PARTITIONED_TABLES.contains(table)) {
+            throw new IllegalArgumentException("Not a partitioned table: " + table);
+        }
+        return table;
+    }
+
+    private static YearMonth monthOf(Matcher matcher) {
+        return YearMonth.of(Integer.parseInt(matcher.group(2)), Integer.parseInt(matcher.group(3)));
+    }
+}
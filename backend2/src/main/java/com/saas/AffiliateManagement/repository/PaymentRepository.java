@@ -43,7 +43,7 @@ public interface PaymentRepository extends JpaRepository<Payment, Long> {
 
     @Query("SELECT p FROM Payment p " +
             "LEFT JOIN p.affiliate a " +
-            "WHERE p.id = :clientId " +
+            "WHERE a.client.id = :clientId " +
             "AND (:search IS NULL OR :search = '' OR " +
             "     LOWER(CONCAT(a.firstName, ' ', a.lastName)) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
             "     LOWER(a.email) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
@@ -64,4 +64,31 @@ public interface PaymentRepository extends JpaRepository<Payment, Long> {
             Pageable pageable
     );
 
+    // Keyset variant of findTransactionsByClientWithFilters: rows strictly after the KeysetCursor position, newest first.
+    @Query("SELECT p FROM Payment p " +
+            "JOIN FETCH p.affiliate a " +
+            "WHERE a.client.id = :clientId " +
+            "AND (:search IS NULL OR :search = '' OR " +
+            "     LOWER(CONCAT(a.firstName, ' ', a.lastName)) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
+            "     LOWER(a.email) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
+            "     LOWER(p.transactionId) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
+            "     LOWER(p.description) LIKE LOWER(CONCAT('%', :search, '%'))) " +
+            "AND (:status IS NULL OR :status = '' OR p.status = :status) " +
+            "AND (:paymentMethod IS NULL OR :paymentMethod = '' OR p.paymentMethod = :paymentMethod) " +
+            "AND (CAST(:startDate AS timestamp) IS NULL OR p.createdAt >= :startDate) " +
+            "AND (CAST(:endDate AS timestamp) IS NULL OR p.createdAt <= :endDate) " +
+            "AND (p.createdAt < :cursorCreatedAt OR (p.createdAt = :cursorCreatedAt AND p.id < :cursorId)) " +
+            "ORDER BY p.createdAt DESC, p.id DESC")
+    List<Payment> findTransactionsByClientPageAfter(
+            @Param("clientId") Long clientId,
+            @Param("search") String search,
+            @Param("status") String status,
+            @Param("paymentMethod") String paymentMethod,
+            @Param("startDate") LocalDateTime startDate,
+            @Param("endDate") LocalDateTime endDate,
+            @Param("cursorCreatedAt") LocalDateTime cursorCreatedAt,
+            @Param("cursorId") Long cursorId,
+            Pageable pageable
+    );
+
 }
@@ -10,6 +10,8 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
 
 @Repository
 public interface PayoutRepository extends JpaRepository<Payout, Long>, JpaSpecificationExecutor<Payout> {
@@ -43,4 +45,27 @@ public interface PayoutRepository extends JpaRepository<Payout, Long>, JpaSpecif
             @Param("commissionStart") LocalDate commissionStart,
             @Param("commissionEnd") LocalDate commissionEnd,
             Pageable pageable);
+
+    // Keyset variant of findPayoutsForClientWithFilters: partnerName and email are SearchPatterns.contains
+    // patterns, or null to skip the filter; rows come strictly after the KeysetCursor position, newest first.
+    @Query("SELECT p FROM Payout p JOIN FETCH p.affiliate a " +
+            "WHERE a.client.id = :clientId " +
+            "AND (:partnerName IS NULL OR LOWER(a.firstName) LIKE :partnerName ESCAPE '!' " +
+            "     OR LOWER(a.lastName) LIKE :partnerName ESCAPE '!') " +
+            "AND (:email IS NULL OR LOWER(a.email) LIKE :email ESCAPE '!') " +
+            "AND (:status IS NULL OR LOWER(p.status) = :status) " +
+            "AND (CAST(:commissionStart AS date) IS NULL OR p.commissionStart >= :commissionStart) " +
+            "AND (CAST(:commissionEnd AS date) IS NULL OR p.commissionEnd <= :commissionEnd) " +
+            "AND (p.createdAt < :cursorCreatedAt OR (p.createdAt = :cursorCreatedAt AND p.id < :cursorId)) " +
+            "ORDER BY p.createdAt DESC, p.id DESC")
+    List<Payout> findForClientPageAfter(
+            @Param("clientId") Long clientId,
+            @Param("partnerName") String partnerName,
+            @Param("email") String email,
+            @Param("status") String status,
+            @Param("commissionStart") LocalDate commissionStart,
+            @Param("commissionEnd") LocalDate commissionEnd,
+            @Param("cursorCreatedAt") LocalDateTime cursorCreatedAt,
+            @Param("cursorId") Long cursorId,
+            Pageable pageable);
 }
\ No newline at end of file
@@ -0,0 +1,124 @@
+package com.saas.AffiliateManagement.repository;
+
+import com.saas.AffiliateManagement.exceptions.ReferralClickWriteException;
+import com.saas.AffiliateManagement.models.ReferralStatus;
+import com.saas.AffiliateManagement.models.dto.ReferralClickEvent;
+import com.saas.AffiliateManagement.models.dto.ReferralRollupDelta;
+import com.saas.AffiliateManagement.models.dto.ReferralVisit;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Writes buffered referral clicks with multi-row INSERT statements, bypassing the
+ * persistence context so a batch costs one round trip instead of one per row. The
+ * referral rollups and visitor sketches for the batch are updated in the same transaction.
+ */
+@Repository
+@RequiredArgsConstructor
+@Slf4j
+public class ReferralClickWriter {
+
+    private static final String INSERT_PREFIX = "INSERT INTO referrals (" +
+            "client_id, affiliate_id, referral_code, target_url, source_url, status, " +
+            "user_agent, ip_address, device_type, browser_name, operating_system, country, city, " +
+            "clicked_at, customer_name, customer_email, source, " +
+            "total_paid, total_commission, referral_status, purchase_count, created_at, updated_at) VALUES ";
+
+    private static final String ROW_PLACEHOLDERS = "(" + String.join(", ", Collections.nCopies(23, "?")) + ")";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ReferralRollupRepository referralRollupRepository;
+    private final VisitorSketchRepository visitorSketchRepository;
+
+    /**
+     * Inserts the batch and returns the number of rows written. If one row violates a
+     * constraint the batch is retried row by row and the offending rows are dropped. Any
+     * other failure propagates so the caller can keep the clicks for a later retry: a failed
+     * batched insert wrote nothing, while a failure during the row-by-row retry is raised as
+     * {@link ReferralClickWriteException} carrying only the clicks not yet committed.
+     */
+    public int insertBatch(List<ReferralClickEvent> events) {
+        if (events.isEmpty()) {
+            return 0;
+        }
+
+        try {
+            return transactionTemplate.execute(status -> insert(events));
+        } catch (DataIntegrityViolationException e) {
+            log.warn("Batched insert of {} clicks failed, retrying row by row: {}", events.size(), e.getMessage());
+            return insertRowByRow(events);
+        }
+    }
+
+    private int insertRowByRow(List<ReferralClickEvent> events) {
+        int written = 0;
+        for (int i = 0; i < events.size(); i++) {
+            ReferralClickEvent event = events.get(i);
+            try {
+                written += transactionTemplate.execute(status -> insert(List.of(event)));
+            } catch (DataIntegrityViolationException e) {
+                log.error("Dropping referral click {} for affiliate {}: {}",
+                        event.getReferralCode(), event.getAffiliateId(), e.getMessage());
+            } catch (RuntimeException e) {
+                throw new ReferralClickWriteException(events.subList(i, events.size()), e);
+            }
+        }
+        return written;
+    }
+
+    private int insert(List<ReferralClickEvent> events) {
+        int written = jdbcTemplate.update(buildInsertSql(events.size()), buildArguments(events));
+        referralRollupRepository.apply(events.stream().map(ReferralRollupDelta::click).toList());
+        visitorSketchRepository.recordVisits(events.stream().map(ReferralVisit::of).toList());
+        return written;
+    }
+
+    private String buildInsertSql(int rows) {
+        return INSERT_PREFIX + String.join(", ", Collections.nCopies(rows, ROW_PLACEHOLDERS));
+    }
+
+    private Object[] buildArguments(List<ReferralClickEvent> events) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object> args = new ArrayList<>(events.size() * 23);
+
+        for (ReferralClickEvent event : events) {
+            args.add(event.getClientId());
+            args.add(event.getAffiliateId());
+            args.add(event.getReferralCode());
+            args.add(event.getTargetUrl());
+            args.add(event.getSourceUrl());
+            args.add("CLICKED");
+            args.add(event.getUserAgent());
+            args.add(event.getIpAddress());
+            args.add(event.getDeviceType());
+            args.add(event.getBrowserName());
+            args.add(event.getOperatingSystem());
+            args.add(event.getCountry());
+            args.add(event.getCity());
+            args.add(Timestamp.valueOf(event.getClickedAt()));
+            args.add(event.getCustomerName());
+            args.add(event.getCustomerEmail());
+            args.add(event.getSource());
+            args.add(BigDecimal.ZERO);
+            args.add(BigDecimal.ZERO);
+            args.add(ReferralStatus.LEAD.name());
+            args.add(0);
+            args.add(now);
+            args.add(now);
+        }
+
+        return args.toArray();
+    }
+}
@@ -1,19 +1,29 @@
 // ReferralRepository.java
 package com.saas.AffiliateManagement.repository;
 
+import com.saas.AffiliateManagement.models.dto.AffiliateAmountRow;
+import com.saas.AffiliateManagement.models.dto.AffiliateReferralCountRow;
+import com.saas.AffiliateManagement.models.dto.AffiliateReferralMetricsRow;
+import com.saas.AffiliateManagement.models.dto.CustomerSearchRow;
+import com.saas.AffiliateManagement.models.dto.ReferralActivityTotals;
+import com.saas.AffiliateManagement.models.dto.ReferralStatsRow;
 import com.saas.AffiliateManagement.models.entity.Referral;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
-import java.nio.channels.FileChannel;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface ReferralRepository extends JpaRepository<Referral, Long> {
@@ -24,16 +34,36 @@ public interface ReferralRepository extends JpaRepository<Referral, Long> {
 
     boolean existsByReferralCode(String referralCode);
 
-    List<Referral> findByAffiliateIdAndClickedAtBetween(Long affiliateId,
-                                                        LocalDateTime startDate,
-                                                        LocalDateTime endDate);
-
-    List<Referral> findByClickedAtBetween(LocalDateTime startDate, LocalDateTime endDate);
+    // referrals is partitioned by created_at, which is never earlier than clicked_at, so click-window
+    // queries also bound created_at from below to skip the partitions of earlier months.
+    @Query("SELECT r FROM Referral r WHERE r.affiliate.id = :affiliateId " +
+            "AND r.clickedAt BETWEEN :startDate AND :endDate AND r.createdAt >= :startDate")
+    List<Referral> findByAffiliateIdAndClickedAtBetween(@Param("affiliateId") Long affiliateId,
+                                                        @Param("startDate") LocalDateTime startDate,
+                                                        @Param("endDate") LocalDateTime endDate);
 
+    @Query("SELECT new com.saas.AffiliateManagement.models.dto.ReferralStatsRow(" +
+            "r.referralCode, r.targetUrl, r.sourceUrl, r.status, r.conversionValue, r.ipAddress, " +
+            "r.deviceType, r.browserName, r.operatingSystem, r.country, r.city, r.clickedAt) " +
+            "FROM Referral r WHERE r.affiliate.id = :affiliateId AND r.clickedAt BETWEEN :startDate AND :endDate " +
+            "AND r.createdAt >= :startDate")
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<ReferralStatsRow> streamStatsRowsByAffiliateIdAndClickedAtBetween(@Param("affiliateId") Long affiliateId,
+                                                                             @Param("startDate") LocalDateTime startDate,
+                                                                             @Param("endDate") LocalDateTime endDate);
+
+    @Query("SELECT r FROM Referral r WHERE r.clickedAt BETWEEN :startDate AND :endDate AND r.createdAt >= :startDate")
+    List<Referral> findByClickedAtBetween(@Param("startDate") LocalDateTime startDate,
+                                          @Param("endDate") LocalDateTime endDate);
+
+    // referralCode and search are SearchPatterns.contains patterns, or null to skip the filter.
     @Query("SELECT r FROM Referral r WHERE " +
             "(:status IS NULL OR r.status = :status) AND " +
             "(:affiliateId IS NULL OR r.affiliate.id = :affiliateId) AND " +
-            "(:referralCode IS NULL OR r.referralCode LIKE %:referralCode%)")
+            "(:referralCode IS NULL OR LOWER(r.referralCode) LIKE :referralCode ESCAPE '!')")
     Page<Referral> searchReferrals(@Param("status") String status,
                                    @Param("affiliateId") Long affiliateId,
                                    @Param("referralCode") String referralCode,
@@ -41,7 +71,7 @@ public interface ReferralRepository extends JpaRepository<Referral, Long> {
 
     @Query("SELECT r FROM Referral r WHERE r.affiliate.id = :affiliateId AND " +
             "(:status IS NULL OR r.status = :status) AND " +
-            "r.clickedAt BETWEEN :startDate AND :endDate")
+            "r.clickedAt BETWEEN :startDate AND :endDate AND r.createdAt >= :startDate")
     Page<Referral> findByAffiliateIdAndDateRange(@Param("affiliateId") Long affiliateId,
                                                  @Param("status") String status,
                                                  @Param("startDate") LocalDateTime startDate,
@@ -50,7 +80,7 @@ public interface ReferralRepository extends JpaRepository<Referral, Long> {
 
     @Query("SELECT r FROM Referral r WHERE r.affiliate.id = :affiliateId AND " +
             "r.status = 'CONVERTED' AND r.clickedAt BETWEEN :startDate AND :endDate " +
-            "ORDER BY r.conversionValue DESC")
+            "AND r.createdAt >= :startDate ORDER BY r.conversionValue DESC")
     Page<Referral> findTopPerformingByAffiliateId(@Param("affiliateId") Long affiliateId,
                                                   @Param("startDate") LocalDateTime startDate,
                                                   @Param("endDate") LocalDateTime endDate,
@@ -70,13 +100,13 @@ public interface ReferralRepository extends JpaRepository<Referral, Long> {
                                           @Param("cutoffDate") LocalDateTime cutoffDate,
                                           Pageable pageable);
 
-    @Query("SELECT COUNT(r) FROM Referral r WHERE r.affiliate.client.id = :clientId " +
+    @Query("SELECT COUNT(r) FROM Referral r WHERE r.client.id = :clientId " +
             "AND r.createdAt BETWEEN :startDate AND :endDate")
     Long countByAffiliateClientIdAndCreatedAtBetween(@Param("clientId") Long clientId,
                                                      @Param("startDate") LocalDateTime startDate,
                                                      @Param("endDate") LocalDateTime endDate);
 
-    @Query("SELECT COUNT(r) FROM Referral r WHERE r.affiliate.client.id = :clientId " +
+    @Query("SELECT COUNT(r) FROM Referral r WHERE r.client.id = :clientId " +
             "AND r.status = :status AND r.createdAt BETWEEN :startDate AND :endDate")
     Long countByAffiliateClientIdAndStatusAndCreatedAtBetween(@Param("clientId") Long clientId,
                                                               @Param("status") String status,
@@ -84,12 +114,47 @@ public interface ReferralRepository extends JpaRepository<Referral, Long> {
                                                               @Param("endDate") LocalDateTime endDate);
 
     @Query("SELECT COALESCE(SUM(r.conversionValue), 0) FROM Referral r " +
-            "WHERE r.affiliate.client.id = :clientId AND r.status = 'CONVERTED' " +
+            "WHERE r.client.id = :clientId AND r.status = 'CONVERTED' " +
             "AND r.createdAt BETWEEN :startDate AND :endDate")
     BigDecimal calculateTotalRevenueByClientIdAndDateRange(@Param("clientId") Long clientId,
                                                            @Param("startDate") LocalDateTime startDate,
                                                            @Param("endDate") LocalDateTime endDate);
 
+    @Query("SELECT COUNT(r) AS clicks, " +
+            "COALESCE(SUM(CASE WHEN r.status = 'CONVERTED' THEN 1 ELSE 0 END), 0) AS conversions, " +
+            "COALESCE(SUM(CASE WHEN r.status = 'CONVERTED' THEN r.conversionValue END), 0) AS revenue, " +
+            "(SELECT COALESCE(SUM(c.amount), 0) FROM Commission c WHERE c.affiliate.client.id = :clientId " +
+            "AND c.createdAt BETWEEN :startDate AND :endDate) AS commissions " +
+            "FROM Referral r WHERE r.client.id = :clientId " +
+            "AND r.createdAt BETWEEN :startDate AND :endDate")
+    ReferralActivityTotals summarizeActivityByClientId(@Param("clientId") Long clientId,
+                                                       @Param("startDate") LocalDateTime startDate,
+                                                       @Param("endDate") LocalDateTime endDate);
+
+    @Query("SELECT r.affiliate.id AS affiliateId, COALESCE(SUM(r.conversionValue), 0) AS amount " +
+            "FROM Referral r WHERE r.client.id = :clientId AND r.status = 'CONVERTED' " +
+            "AND r.convertedAt BETWEEN :startDate AND :endDate GROUP BY r.affiliate.id")
+    List<AffiliateAmountRow> sumRevenueByAffiliateForClient(@Param("clientId") Long clientId,
+                                                           @Param("startDate") LocalDateTime startDate,
+                                                           @Param("endDate") LocalDateTime endDate);
+
+    @Query("SELECT r.affiliate.id AS affiliateId, COUNT(r) AS referrals, " +
+            "COALESCE(SUM(CASE WHEN r.status = 'CONVERTED' THEN 1 ELSE 0 END), 0) AS conversions " +
+            "FROM Referral r WHERE r.affiliate.id IN :affiliateIds " +
+            "AND r.createdAt BETWEEN :startDate AND :endDate GROUP BY r.affiliate.id")
+    List<AffiliateReferralCountRow> countReferralsByAffiliateIds(@Param("affiliateIds") Collection<Long> affiliateIds,
+                                                                 @Param("startDate") LocalDateTime startDate,
+                                                                 @Param("endDate") LocalDateTime endDate);
+
+    @Query("SELECT r.affiliate.id AS affiliateId, COUNT(r) AS clicks, " +
+            "COALESCE(SUM(CASE WHEN r.referralStatus = com.saas.AffiliateManagement.models.ReferralStatus.LEAD " +
+            "THEN 1 ELSE 0 END), 0) AS leads, " +
+            "COALESCE(SUM(CASE WHEN r.referralStatus <> com.saas.AffiliateManagement.models.ReferralStatus.LEAD " +
+            "THEN 1 ELSE 0 END), 0) AS customers, " +
+            "COALESCE(SUM(r.totalPaid), 0) AS revenue " +
+            "FROM Referral r WHERE r.affiliate.id IN :affiliateIds GROUP BY r.affiliate.id")
+    List<AffiliateReferralMetricsRow> summarizeReferralsByAffiliateIds(@Param("affiliateIds") Collection<Long> affiliateIds);
+
     Long countByAffiliateIdAndCreatedAtBetween(Long affiliateId,
                                                LocalDateTime startDate,
                                                LocalDateTime endDate);
@@ -102,12 +167,25 @@ public interface ReferralRepository extends JpaRepository<Referral, Long> {
                                                         @Param("endDate") LocalDateTime endDate);
 
     @Query("SELECT r FROM Referral r WHERE r.client.id = :clientId AND " +
-            "(LOWER(r.customerName) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
-            "LOWER(r.customerEmail) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
-            "LOWER(r.referralCode) LIKE LOWER(CONCAT('%', :search, '%')))")
+            "(:search IS NULL OR LOWER(r.customerName) LIKE :search ESCAPE '!' OR " +
+            "LOWER(r.customerEmail) LIKE :search ESCAPE '!' OR " +
+            "LOWER(r.referralCode) LIKE :search ESCAPE '!')")
     Page<Referral> searchByClientIdAndTerm(@Param("clientId") Long clientId,
                                            @Param("search") String search,
                                            Pageable pageable);
 
     Page<Referral> findByClientId(Long clientId, Pageable pageable);
+
+    // Keyset page: rows strictly after the KeysetCursor position, newest first. Pass PageRequest.of(0, size + 1).
+    @Query("SELECT r FROM Referral r JOIN FETCH r.client c WHERE c.id = :clientId " +
+            "AND (r.createdAt < :cursorCreatedAt OR (r.createdAt = :cursorCreatedAt AND r.id < :cursorId)) " +
+            "ORDER BY r.createdAt DESC, r.id DESC")
+    List<Referral> findByClientIdPageAfter(@Param("clientId") Long clientId,
+                                           @Param("cursorCreatedAt") LocalDateTime cursorCreatedAt,
+                                           @Param("cursorId") Long cursorId,
+                                           Pageable pageable);
+
+    @Query("SELECT r.id AS id, r.customerName AS customerName, r.customerEmail AS customerEmail " +
+            "FROM Referral r WHERE r.client.id = :clientId")
+    List<CustomerSearchRow> findCustomerSearchRowsByClientId(@Param("clientId") Long clientId, Pageable pageable);
 }
\ No newline at end of file
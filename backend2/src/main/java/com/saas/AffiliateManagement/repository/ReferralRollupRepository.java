@@ -0,0 +1,224 @@
+package com.saas.AffiliateManagement.repository;
+
+import com.saas.AffiliateManagement.models.RollupGranularity;
+import com.saas.AffiliateManagement.models.dto.ReferralRollupCell;
+import com.saas.AffiliateManagement.models.dto.ReferralRollupDelta;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Reads and maintains the {@code referral_rollups} table with plain SQL: deltas are applied as
+ * upserts that add to the existing cell, which a JPA repository cannot express. The upsert has a
+ * Postgres and an H2 form; the rebuild is Postgres-only.
+ */
+@Repository
+public class ReferralRollupRepository {
+
+    private static final String POSTGRES_UPSERT_SQL = "INSERT INTO referral_rollups (" +
+            "granularity, bucket_start, affiliate_id, client_id, source_domain, device_type, country, status, " +
+            "referral_count, conversion_value) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?) " +
+            "ON CONFLICT (granularity, bucket_start, affiliate_id, client_id, source_domain, device_type, country, status) " +
+            "DO UPDATE SET referral_count = referral_rollups.referral_count + EXCLUDED.referral_count, " +
+            "conversion_value = referral_rollups.conversion_value + EXCLUDED.conversion_value";
+
+    // H2 rejects ON CONFLICT ... DO UPDATE, so it gets the standard MERGE instead.
+    private static final String H2_UPSERT_SQL = "MERGE INTO referral_rollups r USING (VALUES (" +
+            "CAST(? AS VARCHAR), CAST(? AS TIMESTAMP), CAST(? AS BIGINT), CAST(? AS BIGINT), CAST(? AS VARCHAR), " +
+            "CAST(? AS VARCHAR), CAST(? AS VARCHAR), CAST(? AS VARCHAR), CAST(? AS BIGINT), CAST(? AS NUMERIC(14, 2)))) " +
+            "AS d (granularity, bucket_start, affiliate_id, client_id, source_domain, device_type, country, status, " +
+            "referral_count, conversion_value) " +
+            "ON r.granularity = d.granularity AND r.bucket_start = d.bucket_start AND r.affiliate_id = d.affiliate_id " +
+            "AND r.client_id = d.client_id AND r.source_domain = d.source_domain AND r.device_type = d.device_type " +
+            "AND r.country = d.country AND r.status = d.status " +
+            "WHEN MATCHED THEN UPDATE SET referral_count = r.referral_count + d.referral_count, " +
+            "conversion_value = r.conversion_value + d.conversion_value " +
+            "WHEN NOT MATCHED THEN INSERT (granularity, bucket_start, affiliate_id, client_id, source_domain, " +
+            "device_type, country, status, referral_count, conversion_value) VALUES (d.granularity, d.bucket_start, " +
+            "d.affiliate_id, d.client_id, d.source_domain, d.device_type, d.country, d.status, d.referral_count, " +
+            "d.conversion_value)";
+
+    private static final String SELECT_CELLS_SQL = "SELECT bucket_start, source_domain, status, " +
+            "SUM(referral_count), SUM(conversion_value) FROM referral_rollups " +
+            "WHERE granularity = ? AND bucket_start >= ? AND bucket_start < ?";
+
+    private static final String GROUP_CELLS_SQL = " GROUP BY bucket_start, source_domain, status";
+
+    private static final String SELECT_RAW_SQL = "SELECT clicked_at, source_url, status, conversion_value " +
+            "FROM referrals WHERE clicked_at >= ? AND clicked_at < ? AND created_at >= ?";
+
+    // Mirrors ReferralRollupDelta.sourceDomainOf so rebuilt rows land in the same cells as incremental ones.
+    private static final String REBUILD_SQL = "INSERT INTO referral_rollups (" +
+            "granularity, bucket_start, affiliate_id, client_id, source_domain, device_type, country, status, " +
+            "referral_count, conversion_value) " +
+            "SELECT ?, date_trunc(?, r.clicked_at), r.affiliate_id, r.client_id, " +
+            "CASE WHEN r.source_url IS NULL THEN '' " +
+            "WHEN r.source_url = '' THEN 'direct' " +
+            "WHEN strpos(r.host, '/') > 1 THEN left(left(r.host, strpos(r.host, '/') - 1), 255) " +
+            "ELSE left(r.host, 255) END, " +
+            "COALESCE(r.device_type, ''), COALESCE(r.country, ''), r.status, " +
+            "COUNT(*), COALESCE(SUM(r.conversion_value), 0) " +
+            "FROM (SELECT affiliate_id, client_id, clicked_at, source_url, device_type, country, status, conversion_value, " +
+            "regexp_replace(source_url, '^(https?://)?(www\\.)?', '') AS host " +
+            "FROM referrals WHERE clicked_at IS NOT NULL) r " +
+            "GROUP BY 2, 3, 4, 5, 6, 7, 8";
+
+    // Held until the rebuild's transaction ends, so concurrent rebuilds on other instances skip instead of queueing.
+    private static final String TRY_LOCK_REBUILD_SQL =
+            "SELECT pg_try_advisory_xact_lock(hashtext('referral_rollups.rebuild'))";
+
+    private static final Comparator<Cell> LOCK_ORDER = Comparator
+            .comparing(Cell::granularity)
+            .thenComparing(Cell::bucketStart)
+            .thenComparing(Cell::affiliateId)
+            .thenComparing(Cell::clientId)
+            .thenComparing(Cell::sourceDomain)
+            .thenComparing(Cell::deviceType)
+            .thenComparing(Cell::country)
+            .thenComparing(Cell::status);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DatabasePlatform databasePlatform;
+
+    public ReferralRollupRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.databasePlatform = new DatabasePlatform(jdbcTemplate);
+    }
+
+    /**
+     * Adds the deltas to their hourly and daily cells. Deltas for the same cell are merged
+     * first, and cells are written in a fixed order so concurrent writers cannot deadlock.
+     */
+    public void apply(Collection<ReferralRollupDelta> deltas) {
+        Map<Cell, Totals> cells = new TreeMap<>(LOCK_ORDER);
+        for (ReferralRollupDelta delta : deltas) {
+            if (delta == null) {
+                continue;
+            }
+            for (RollupGranularity granularity : RollupGranularity.values()) {
+                Cell cell = new Cell(granularity, granularity.bucketStart(delta.getClickedAt()),
+                        delta.getAffiliateId(), delta.getClientId(), delta.getSourceDomain(),
+                        delta.getDeviceType(), delta.getCountry(), delta.getStatus());
+                cells.computeIfAbsent(cell, key -> new Totals()).add(delta.getReferralCount(), delta.getConversionValue());
+            }
+        }
+
+        List<Object[]> batch = new ArrayList<>(cells.size());
+        cells.forEach((cell, totals) -> {
+            if (totals.count != 0 || totals.value.signum() != 0) {
+                batch.add(new Object[]{cell.granularity().name(), Timestamp.valueOf(cell.bucketStart()),
+                        cell.affiliateId(), cell.clientId(), cell.sourceDomain(), cell.deviceType(), cell.country(),
+                        cell.status(), totals.count, totals.value});
+            }
+        });
+
+        if (!batch.isEmpty()) {
+            jdbcTemplate.batchUpdate(databasePlatform.isPostgres() ? POSTGRES_UPSERT_SQL : H2_UPSERT_SQL, batch);
+        }
+    }
+
+    /**
+     * Rollup cells whose bucket starts in [from, to), optionally for a single affiliate.
+     */
+    public List<ReferralRollupCell> findCells(RollupGranularity granularity,
+                                              LocalDateTime from,
+                                              LocalDateTime to,
+                                              Long affiliateId) {
+        List<Object> args = new ArrayList<>(List.of(granularity.name(), Timestamp.valueOf(from), Timestamp.valueOf(to)));
+        String sql = SELECT_CELLS_SQL;
+        if (affiliateId != null) {
+            sql += " AND affiliate_id = ?";
+            args.add(affiliateId);
+        }
+
+        return jdbcTemplate.query(sql + GROUP_CELLS_SQL, (rs, rowNum) -> new ReferralRollupCell(
+                rs.getTimestamp(1).toLocalDateTime(),
+                rs.getString(2),
+                rs.getString(3),
+                rs.getLong(4),
+                rs.getBigDecimal(5)), args.toArray());
+    }
+
+    /**
+     * Raw referrals clicked in [from, to), aggregated into hourly cells. Meant for the partial
+     * hours at the edges of a range, so only a small number of rows is read.
+     */
+    public List<ReferralRollupCell> aggregateRaw(LocalDateTime from, LocalDateTime to, Long affiliateId) {
+        if (!from.isBefore(to)) {
+            return List.of();
+        }
+
+        List<Object> args = new ArrayList<>(List.of(Timestamp.valueOf(from), Timestamp.valueOf(to), Timestamp.valueOf(from)));
+        String sql = SELECT_RAW_SQL;
+        if (affiliateId != null) {
+            sql += " AND affiliate_id = ?";
+            args.add(affiliateId);
+        }
+
+        Map<RawKey, Totals> cells = new HashMap<>();
+        jdbcTemplate.query(sql, rs -> {
+            BigDecimal value = rs.getBigDecimal(4);
+            RawKey key = new RawKey(RollupGranularity.HOUR.bucketStart(rs.getTimestamp(1).toLocalDateTime()),
+                    ReferralRollupDelta.sourceDomainOf(rs.getString(2)), rs.getString(3));
+            cells.computeIfAbsent(key, k -> new Totals()).add(1, value != null ? value : BigDecimal.ZERO);
+        }, args.toArray());
+
+        List<ReferralRollupCell> result = new ArrayList<>(cells.size());
+        cells.forEach((key, totals) -> result.add(new ReferralRollupCell(
+                key.bucketStart(), key.sourceDomain(), key.status(), totals.count, totals.value)));
+        return result;
+    }
+
+    /**
+     * Recomputes every rollup from the referrals table. Blocks referral writes for the duration,
+     * so it must run in a transaction and is meant for maintenance windows. Returns false without
+     * doing anything when another instance is already rebuilding.
+     */
+    public boolean rebuild() {
+        Boolean locked = jdbcTemplate.queryForObject(TRY_LOCK_REBUILD_SQL, Boolean.class);
+        if (!Boolean.TRUE.equals(locked)) {
+            return false;
+        }
+
+        jdbcTemplate.execute("LOCK TABLE referrals IN SHARE MODE");
+        jdbcTemplate.update("DELETE FROM referral_rollups");
+        for (RollupGranularity granularity : RollupGranularity.values()) {
+            jdbcTemplate.update(REBUILD_SQL, granularity.name(), granularity.sqlUnit());
+        }
+        return true;
+    }
+
+    private record Cell(RollupGranularity granularity,
+                        LocalDateTime bucketStart,
+                        Long affiliateId,
+                        Long clientId,
+                        String sourceDomain,
+                        String deviceType,
+                        String country,
+                        String status) {
+    }
+
+    private record RawKey(LocalDateTime bucketStart, String sourceDomain, String status) {
+    }
+
+    private static final class Totals {
+
+        private long count;
+        private BigDecimal value = BigDecimal.ZERO;
+
+        private void add(long count, BigDecimal value) {
+            this.count += count;
+            this.value = this.value.add(value);
+        }
+    }
+}
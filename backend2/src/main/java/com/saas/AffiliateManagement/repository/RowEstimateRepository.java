@@ -0,0 +1,64 @@
+package com.saas.AffiliateManagement.repository;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Approximate row counts from the Postgres planner. {@code EXPLAIN} only plans the query, so an
+ * estimate costs about as much as parsing it, where an exact {@code COUNT(*)} has to visit every
+ * matching row.
+ */
+@Repository
+@RequiredArgsConstructor
+@Slf4j
+public class RowEstimateRepository {
+
+    private static final Pattern PLAN_ROWS = Pattern.compile("\"Plan Rows\"\\s*:\\s*(\\d+)");
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public Long countAffiliates() {
+        return estimate("SELECT 1 FROM affiliates");
+    }
+
+    public Long countReferralsByClient(Long clientId) {
+        return estimate("SELECT 1 FROM referrals WHERE client_id = ?", clientId);
+    }
+
+    public Long countCommissionsByClient(Long clientId) {
+        return estimate("SELECT 1 FROM commissions c JOIN affiliates a ON a.id = c.affiliate_id " +
+                "WHERE a.client_id = ?", clientId);
+    }
+
+    public Long countPayoutsByClient(Long clientId) {
+        return estimate("SELECT 1 FROM payouts p JOIN affiliates a ON a.id = p.affiliate_id " +
+                "WHERE a.client_id = ?", clientId);
+    }
+
+    public Long countPaymentsByClient(Long clientId) {
+        return estimate("SELECT 1 FROM payments p JOIN affiliates a ON a.id = p.affiliate_id " +
+                "WHERE a.client_id = ?", clientId);
+    }
+
+    /**
+     * @return the planner's estimate of the rows the query returns, or null if it cannot be
+     * obtained, for example on a database without {@code EXPLAIN (FORMAT JSON)}
+     */
+    private Long estimate(String sql, Object... args) {
+        try {
+            List<String> plan = jdbcTemplate.queryForList("EXPLAIN (FORMAT JSON) " + sql, String.class, args);
+            Matcher matcher = PLAN_ROWS.matcher(String.join("\n", plan));
+            return matcher.find() ? Long.parseLong(matcher.group(1)) : null;
+        } catch (DataAccessException e) {
+            log.debug("Could not estimate row count for: {}", sql, e);
+            return null;
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.saas.AffiliateManagement.repository;
+
+import java.util.Locale;
+
+/**
+ * Builds the LIKE patterns for repository text search. Queries compare {@code LOWER(column)}
+ * against a pattern that is already lower-cased, which is the expression the trigram indexes in
+ * {@code db/migration/V2__search_trigram_indexes.sql} cover, and declare {@code ESCAPE '!'} so wildcards typed by the
+ * user match literally.
+ */
+public final class SearchPatterns {
+
+    public static final char ESCAPE = '!';
+
+    private SearchPatterns() {
+    }
+
+    /**
+     * @return {@code %term%} for a case-insensitive substring match, or {@code null} for a blank term
+     */
+    public static String contains(String term) {
+        if (term == null || term.isBlank()) {
+            return null;
+        }
+
+        String trimmed = term.trim().toLowerCase(Locale.ROOT);
+        StringBuilder pattern = new StringBuilder(trimmed.length() + 2).append('%');
+        for (int i = 0; i < trimmed.length(); i++) {
+            char c = trimmed.charAt(i);
+            if (c == '%' || c == '_' || c == ESCAPE) {
+                pattern.append(ESCAPE);
+            }
+            pattern.append(c);
+        }
+        return pattern.append('%').toString();
+    }
+}
@@ -0,0 +1,166 @@
+package com.saas.AffiliateManagement.repository;
+
+import com.saas.AffiliateManagement.models.dto.ReferralVisit;
+import com.saas.AffiliateManagement.service.HyperLogLog;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+
+/**
+ * Stores one HyperLogLog sketch of visitor IPs per affiliate and day in {@code visitor_sketches}.
+ * New visits are merged into the stored sketch under a row lock, since registers cannot be
+ * combined by an SQL upsert.
+ */
+@Repository
+public class VisitorSketchRepository {
+
+    // No conflict target, as H2 accepts only this form; the (affiliate_id, sketch_day) key is the one it hits.
+    private static final String INSERT_SQL =
+            "INSERT INTO visitor_sketches (affiliate_id, sketch_day, registers) VALUES (?, ?, ?) " +
+                    "ON CONFLICT DO NOTHING";
+
+    private static final String SELECT_FOR_UPDATE_SQL =
+            "SELECT registers FROM visitor_sketches WHERE affiliate_id = ? AND sketch_day = ? FOR UPDATE";
+
+    private static final String UPDATE_SQL =
+            "UPDATE visitor_sketches SET registers = ? WHERE affiliate_id = ? AND sketch_day = ?";
+
+    private static final String SELECT_RANGE_SQL =
+            "SELECT registers FROM visitor_sketches WHERE affiliate_id = ? AND sketch_day >= ? AND sketch_day < ?";
+
+    private static final String SELECT_IPS_SQL = "SELECT ip_address FROM referrals " +
+            "WHERE affiliate_id = ? AND clicked_at >= ? AND clicked_at < ? AND created_at >= ? AND ip_address IS NOT NULL";
+
+    private static final String SELECT_ALL_VISITS_SQL = "SELECT affiliate_id, clicked_at, ip_address FROM referrals " +
+            "WHERE clicked_at IS NOT NULL AND ip_address IS NOT NULL ORDER BY affiliate_id, clicked_at";
+
+    // Held until the rebuild's transaction ends, so concurrent rebuilds on other instances skip instead of queueing.
+    private static final String TRY_LOCK_REBUILD_SQL =
+            "SELECT pg_try_advisory_xact_lock(hashtext('visitor_sketches.rebuild'))";
+
+    private static final Comparator<SketchKey> LOCK_ORDER = Comparator
+            .comparing(SketchKey::affiliateId)
+            .thenComparing(SketchKey::day);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int precision;
+
+    public VisitorSketchRepository(JdbcTemplate jdbcTemplate,
+                                   @Value("${referral.visitor-sketch.precision:12}") int precision) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.precision = precision;
+        new HyperLogLog(precision); // fail fast on an invalid setting
+    }
+
+    public int getPrecision() {
+        return precision;
+    }
+
+    /**
+     * Adds the visits to the sketches of their affiliate and day. Must run in a transaction;
+     * rows are locked in a fixed order so concurrent writers cannot deadlock.
+     */
+    public void recordVisits(Collection<ReferralVisit> visits) {
+        Map<SketchKey, HyperLogLog> sketches = new TreeMap<>(LOCK_ORDER);
+        for (ReferralVisit visit : visits) {
+            if (visit.isCountable()) {
+                sketches.computeIfAbsent(new SketchKey(visit.getAffiliateId(), visit.getClickedAt().toLocalDate()),
+                        key -> new HyperLogLog(precision)).add(visit.getIpAddress());
+            }
+        }
+
+        sketches.forEach(this::merge);
+    }
+
+    /**
+     * The stored sketches of one affiliate for days in [fromDay, toDay).
+     */
+    public List<HyperLogLog> findSketches(Long affiliateId, LocalDate fromDay, LocalDate toDay) {
+        return jdbcTemplate.query(SELECT_RANGE_SQL,
+                (rs, rowNum) -> HyperLogLog.fromBytes(rs.getBytes(1)),
+                affiliateId, Date.valueOf(fromDay), Date.valueOf(toDay));
+    }
+
+    /**
+     * Feeds the IPs of an affiliate's referrals clicked in [from, to) to {@code consumer}.
+     */
+    public void forEachIpAddress(Long affiliateId, LocalDateTime from, LocalDateTime to, Consumer<String> consumer) {
+        if (!from.isBefore(to)) {
+            return;
+        }
+        jdbcTemplate.query(SELECT_IPS_SQL, rs -> {
+            consumer.accept(rs.getString(1));
+        }, affiliateId, Timestamp.valueOf(from), Timestamp.valueOf(to), Timestamp.valueOf(from));
+    }
+
+    /**
+     * Replaces every sketch with one recomputed from the referrals table, streaming the rows so
+     * only one sketch is held in memory at a time. Blocks referral writes for the duration and
+     * must run in a transaction. Returns false without doing anything when another instance is
+     * already rebuilding.
+     */
+    public boolean rebuild() {
+        Boolean locked = jdbcTemplate.queryForObject(TRY_LOCK_REBUILD_SQL, Boolean.class);
+        if (!Boolean.TRUE.equals(locked)) {
+            return false;
+        }
+
+        jdbcTemplate.execute("LOCK TABLE referrals IN SHARE MODE");
+        jdbcTemplate.update("DELETE FROM visitor_sketches");
+
+        RebuildState state = new RebuildState();
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(SELECT_ALL_VISITS_SQL);
+            statement.setFetchSize(1000);
+            return statement;
+        }, rs -> {
+            SketchKey key = new SketchKey(rs.getLong(1), rs.getTimestamp(2).toLocalDateTime().toLocalDate());
+            if (!key.equals(state.key)) {
+                state.flush();
+                state.key = key;
+                state.sketch = new HyperLogLog(precision);
+            }
+            state.sketch.add(rs.getString(3));
+        });
+        state.flush();
+        return true;
+    }
+
+    private void merge(SketchKey key, HyperLogLog sketch) {
+        Date day = Date.valueOf(key.day());
+        if (jdbcTemplate.update(INSERT_SQL, key.affiliateId(), day, sketch.toBytes()) > 0) {
+            return;
+        }
+
+        byte[] stored = jdbcTemplate.queryForObject(SELECT_FOR_UPDATE_SQL, byte[].class, key.affiliateId(), day);
+        HyperLogLog merged = HyperLogLog.fromBytes(stored).merge(sketch);
+        jdbcTemplate.update(UPDATE_SQL, merged.toBytes(), key.affiliateId(), day);
+    }
+
+    private record SketchKey(Long affiliateId, LocalDate day) {
+    }
+
+    private final class RebuildState {
+
+        private SketchKey key;
+        private HyperLogLog sketch;
+
+        private void flush() {
+            if (key != null) {
+                jdbcTemplate.update(INSERT_SQL, key.affiliateId(), Date.valueOf(key.day()), sketch.toBytes());
+            }
+        }
+    }
+}
@@ -1,7 +1,11 @@
 package com.saas.AffiliateManagement.security;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
@@ -10,25 +14,54 @@ import java.nio.charset.StandardCharsets;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
-
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Issues and verifies HS256 tokens. The signing key and the parser are built once; both are
+ * immutable and shared across threads.
+ * <p>
+ * Successfully verified tokens are cached until they expire, so a client polling with the same
+ * token pays for the signature check and JSON parsing once. Rejected tokens are never cached.
+ */
 @Component
 public class JwtUtil {
 
-    @Value("${jwt.secret:my-very-long-secret-key-for-development-must-be-at-least-256-bits}")
-    private String secret;
-
-    @Value("${jwt.expiration:86400000}") // 24 hours default
-    private Long expiration;
+    private final Long expiration;
+    private final SecretKey signingKey;
+    private final JwtParser parser;
+    private final Cache<String, Claims> verifiedTokens;
 
-    private SecretKey getSigningKey() {
+    @Autowired
+    public JwtUtil(@Value("${jwt.secret:my-very-long-secret-key-for-development-must-be-at-least-256-bits}") String secret,
+                   @Value("${jwt.expiration:86400000}") Long expiration, // 24 hours default
+                   @Value("${jwt.verification-cache.max-size:10000}") long verificationCacheSize) {
+        this.expiration = expiration;
         // Key must be at least 256 bits (32 bytes) for HS256
-        return Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        this.signingKey = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        this.parser = Jwts.parser()
+                .verifyWith(signingKey)
+                .build();
+        this.verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(verificationCacheSize)
+                .expireAfter(new UntilTokenExpires())
+                .build();
+    }
+
+    public JwtUtil(String secret, Long expiration) {
+        this(secret, expiration, 10_000);
     }
 
     public String generateToken(String email, Long userId, String role) {
+        return generateToken(email, userId, role, null);
+    }
+
+    public String generateToken(String email, Long userId, String role, Long clientId) {
         Map<String, Object> claims = new HashMap<>();
         claims.put("userId", userId);
         claims.put("role", role);
+        if (clientId != null) {
+            claims.put("clientId", clientId);
+        }
 
         return createToken(claims, email);
     }
@@ -39,7 +72,7 @@ public class JwtUtil {
                 .subject(subject)
                 .issuedAt(new Date(System.currentTimeMillis()))
                 .expiration(new Date(System.currentTimeMillis() + expiration))
-                .signWith(getSigningKey())
+                .signWith(signingKey)
                 .compact();
     }
 
@@ -52,6 +85,17 @@ public class JwtUtil {
         return claims.get("userId", Long.class);
     }
 
+    /**
+     * Verifies the signature and expiry and returns the claims, so callers that need several
+     * claims parse the token only once.
+     *
+     * @throws ExpiredJwtException if the token has expired
+     * @throws JwtException if the token is malformed or its signature does not match
+     */
+    public Claims parseClaims(String token) {
+        return extractAllClaims(token);
+    }
+
     public Date extractExpiration(String token) {
         return extractClaim(token, Claims::getExpiration);
     }
@@ -62,11 +106,18 @@ public class JwtUtil {
     }
 
     private Claims extractAllClaims(String token) {
-        return Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+        // Keyed by the whole token rather than a digest of it: the cache hashes the string anyway,
+        // and comparing full tokens leaves no room for a collision to return someone else's claims.
+        Claims cached = verifiedTokens.getIfPresent(token);
+        if (cached != null) {
+            return cached;
+        }
+
+        Claims claims = parser.parseSignedClaims(token).getPayload();
+        if (claims.getExpiration() != null) {
+            verifiedTokens.put(token, claims);
+        }
+        return claims;
     }
 
     public Boolean isTokenExpired(String token) {
@@ -77,4 +128,23 @@ public class JwtUtil {
         final String tokenEmail = extractEmail(token);
         return (tokenEmail.equals(email) && !isTokenExpired(token));
     }
-}
\ No newline at end of file
+
+    private static final class UntilTokenExpires implements Expiry<String, Claims> {
+
+        @Override
+        public long expireAfterCreate(String token, Claims claims, long currentTime) {
+            long remainingMillis = claims.getExpiration().getTime() - System.currentTimeMillis();
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(0, remainingMillis));
+        }
+
+        @Override
+        public long expireAfterUpdate(String token, Claims claims, long currentTime, long currentDuration) {
+            return expireAfterCreate(token, claims, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String token, Claims claims, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.saas.AffiliateManagement.service;
+
+import com.saas.AffiliateManagement.models.dto.AffiliateAmountRow;
+import com.saas.AffiliateManagement.models.dto.AffiliateMetrics;
+import com.saas.AffiliateManagement.models.dto.AffiliateReferralMetricsRow;
+import com.saas.AffiliateManagement.repository.CommissionRepository;
+import com.saas.AffiliateManagement.repository.ReferralRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Loads lifetime metrics for a batch of affiliates with two grouped queries, independent of
+ * the batch size:
+ * <ul>
+ *     <li>revenue: total paid by referred customers</li>
+ *     <li>earnings: commissions earned</li>
+ *     <li>clicks: referrals tracked</li>
+ *     <li>leads: referrals that have not become customers yet</li>
+ *     <li>customers: referrals past the LEAD stage</li>
+ * </ul>
+ */
+@Component
+@RequiredArgsConstructor
+public class AffiliateMetricsLoader {
+
+    private final ReferralRepository referralRepository;
+    private final CommissionRepository commissionRepository;
+
+    /**
+     * Returns metrics keyed by affiliate id; affiliates without any activity are omitted, use
+     * {@link AffiliateMetrics#EMPTY} for them.
+     */
+    public Map<Long, AffiliateMetrics> load(Collection<Long> affiliateIds) {
+        if (affiliateIds.isEmpty()) {
+            return Map.of();
+        }
+
+        Map<Long, BigDecimal> earnings = new HashMap<>();
+        for (AffiliateAmountRow row : commissionRepository.sumAllCommissionsByAffiliateIds(affiliateIds)) {
+            earnings.put(row.getAffiliateId(), row.getAmount());
+        }
+
+        Map<Long, AffiliateMetrics> metrics = new HashMap<>();
+        for (AffiliateReferralMetricsRow row : referralRepository.summarizeReferralsByAffiliateIds(affiliateIds)) {
+            metrics.put(row.getAffiliateId(), AffiliateMetrics.builder()
+                    .revenue(row.getRevenue())
+                    .earnings(earnings.getOrDefault(row.getAffiliateId(), BigDecimal.ZERO))
+                    .clicks(row.getClicks())
+                    .leads(row.getLeads())
+                    .customers(row.getCustomers())
+                    .build());
+        }
+
+        // Commissions without referrals in the batch (e.g. manual adjustments) still count as earnings.
+        earnings.forEach((affiliateId, amount) -> metrics.putIfAbsent(affiliateId, AffiliateMetrics.builder()
+                .revenue(BigDecimal.ZERO)
+                .earnings(amount)
+                .build()));
+
+        return metrics;
+    }
+}
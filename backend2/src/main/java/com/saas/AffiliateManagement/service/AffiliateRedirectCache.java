@@ -0,0 +1,91 @@
+package com.saas.AffiliateManagement.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.saas.AffiliateManagement.models.dto.AffiliateRedirectDescriptor;
+import com.saas.AffiliateManagement.models.entity.Affiliate;
+import com.saas.AffiliateManagement.repository.AffiliateRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Bounded cache of redirect descriptors keyed by the identifier used in /r/{affiliateIdentifier}.
+ * Entries are evicted by {@link AffiliateService} whenever an affiliate changes and by
+ * {@link ClientService} whenever its client does; the TTL only bounds staleness for writes made
+ * by other application instances.
+ */
+@Component
+@Slf4j
+public class AffiliateRedirectCache {
+
+    private final AffiliateRepository affiliateRepository;
+    private final Cache<String, AffiliateRedirectDescriptor> descriptors;
+
+    public AffiliateRedirectCache(AffiliateRepository affiliateRepository,
+                                  @Value("${referral.redirect-cache.max-size:50000}") long maxSize,
+                                  @Value("${referral.redirect-cache.ttl:PT10M}") Duration ttl) {
+        this.affiliateRepository = affiliateRepository;
+        this.descriptors = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    public Optional<AffiliateRedirectDescriptor> resolve(String identifier) {
+        return Optional.ofNullable(descriptors.get(identifier, this::load));
+    }
+
+    public void evict(Affiliate affiliate) {
+        List<String> keys = List.of(affiliate.getUniqueIdentifier(), String.valueOf(affiliate.getId()));
+        evictNowAndAfterCommit(() -> descriptors.invalidateAll(keys));
+
+        log.debug("Evicted redirect descriptor for affiliate: {}", affiliate.getId());
+    }
+
+    /**
+     * Evicts the descriptors of all the client's affiliates, since they carry the client's name.
+     * Scans the whole cache, which is fine for client changes but not for anything per click.
+     */
+    public void evictClient(Long clientId) {
+        evictNowAndAfterCommit(() -> descriptors.asMap().values()
+                .removeIf(descriptor -> clientId.equals(descriptor.getClientId())));
+
+        log.debug("Evicted redirect descriptors for client: {}", clientId);
+    }
+
+    private void evictNowAndAfterCommit(Runnable eviction) {
+        eviction.run();
+
+        // A concurrent click may reload the old row before our transaction commits, so evict again afterwards.
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    eviction.run();
+                }
+            });
+        }
+    }
+
+    private AffiliateRedirectDescriptor load(String identifier) {
+        return affiliateRepository.findRedirectDescriptorByUniqueIdentifier(identifier)
+                .or(() -> parseIdIfNumeric(identifier)
+                        .flatMap(affiliateRepository::findRedirectDescriptorById))
+                .orElse(null);
+    }
+
+    private Optional<Long> parseIdIfNumeric(String identifier) {
+        try {
+            return Optional.of(Long.parseLong(identifier));
+        } catch (NumberFormatException e) {
+            return Optional.empty();
+        }
+    }
+}
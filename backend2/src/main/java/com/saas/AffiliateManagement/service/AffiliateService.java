@@ -3,6 +3,8 @@ package com.saas.AffiliateManagement.service;
 import com.saas.AffiliateManagement.exceptions.AffiliateNotFoundException;
 import com.saas.AffiliateManagement.exceptions.ClientNotFoundException;
 import com.saas.AffiliateManagement.exceptions.InvalidAffiliateDataException;
+import com.saas.AffiliateManagement.models.dto.AffiliateMetrics;
+import com.saas.AffiliateManagement.models.dto.CursorPage;
 import com.saas.AffiliateManagement.models.dto.AffiliateTableDto;
 import com.saas.AffiliateManagement.models.dto.AffiliateTableResponse;
 import com.saas.AffiliateManagement.models.dto.StatusCounts;
@@ -13,6 +15,9 @@ import com.saas.AffiliateManagement.models.requests.AffiliateUpdateRequest;
 import com.saas.AffiliateManagement.models.entity.Client;
 import com.saas.AffiliateManagement.repository.AffiliateRepository;
 import com.saas.AffiliateManagement.repository.ClientRepository;
+import com.saas.AffiliateManagement.repository.KeysetCursor;
+import com.saas.AffiliateManagement.repository.RowEstimateRepository;
+import com.saas.AffiliateManagement.repository.SearchPatterns;
 import com.saas.AffiliateManagement.service.mappers.AffiliateMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -23,12 +28,11 @@ import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.math.BigDecimal;
 import java.security.SecureRandom;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.UUID;
 import java.util.stream.Collectors;
 
 @Service
@@ -41,6 +45,12 @@ public class AffiliateService {
     private final ClientRepository clientRepository;
     private final AffiliateMapper affiliateMapper;
     private final EmailService emailService;
+    private final AffiliateRedirectCache affiliateRedirectCache;
+    private final ReferralCodeGenerator referralCodeGenerator;
+    private final AffiliateMetricsLoader affiliateMetricsLoader;
+    private final AffiliateStatusCounterService affiliateStatusCounterService;
+    private final TypeaheadService typeaheadService;
+    private final RowEstimateRepository rowEstimateRepository;
 
 
     private static final String ALPHANUM = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789";
@@ -64,11 +74,13 @@ public class AffiliateService {
         affiliate.setCreatedAt(LocalDateTime.now());
         affiliate.setUpdatedAt(LocalDateTime.now());
         affiliate.setStatus("PENDING_APPROVAL");
-        affiliate.setReferralCode(generateUniqueReferralCode());
+        affiliate.setReferralCode(referralCodeGenerator.nextCode());
         affiliate.setUniqueIdentifier(generate(10));
         affiliate.setTargetUrl("www.google.com");
 
         Affiliate savedAffiliate = affiliateRepository.save(affiliate);
+        affiliateStatusCounterService.recordCreated(client.getId(), savedAffiliate.getStatus());
+        typeaheadService.affiliateSaved(savedAffiliate);
         log.info("Created new affiliate with ID: {} for client: {}", savedAffiliate.getId(), client.getId());
 
         emailService.sendAffiliateRegistrationNotification(savedAffiliate.getEmail(), savedAffiliate.getName());
@@ -94,6 +106,19 @@ public class AffiliateService {
         return affiliatesPage.map(affiliateMapper::toDto);
     }
 
+    public CursorPage<AffiliateDto> getAllAffiliates(String cursor, int size, boolean withTotal) {
+        KeysetCursor position = KeysetCursor.decode(cursor);
+        int pageSize = KeysetCursor.pageSize(size);
+
+        List<Affiliate> rows = affiliateRepository.findPageAfter(position.createdAt(), position.id(),
+                PageRequest.of(0, pageSize + 1));
+
+        return CursorPage.of(rows, pageSize,
+                affiliate -> new KeysetCursor(affiliate.getCreatedAt(), affiliate.getId()).encode(),
+                affiliateMapper::toDto,
+                withTotal && position == KeysetCursor.FIRST ? rowEstimateRepository.countAffiliates() : null);
+    }
+
     public Page<AffiliateDto> getAffiliatesByClientId(Long clientId, Pageable pageable) {
         if (!clientRepository.existsById(clientId)) {
             throw new ClientNotFoundException("Client not found with ID: " + clientId);
@@ -118,6 +143,8 @@ public class AffiliateService {
         existingAffiliate.setUpdatedAt(LocalDateTime.now());
 
         Affiliate updatedAffiliate = affiliateRepository.save(existingAffiliate);
+        affiliateRedirectCache.evict(updatedAffiliate);
+        typeaheadService.affiliateSaved(updatedAffiliate);
         log.info("Updated affiliate with ID: {}", affiliateId);
 
         return affiliateMapper.toDto(updatedAffiliate);
@@ -132,6 +159,9 @@ public class AffiliateService {
         }
 
         affiliateRepository.deleteById(affiliateId);
+        affiliateStatusCounterService.recordDeleted(affiliate.getClient().getId(), affiliate.getStatus());
+        affiliateRedirectCache.evict(affiliate);
+        typeaheadService.affiliateDeleted(affiliate);
         log.info("Deleted affiliate with ID: {}", affiliateId);
 
         emailService.sendAffiliateAccountDeletionNotification(affiliate.getEmail());
@@ -145,10 +175,13 @@ public class AffiliateService {
             throw new InvalidAffiliateDataException("Affiliate is already active");
         }
 
+        String previousStatus = affiliate.getStatus();
         affiliate.setStatus("ACTIVE");
         affiliate.setUpdatedAt(LocalDateTime.now());
 
         Affiliate activatedAffiliate = affiliateRepository.save(affiliate);
+        affiliateStatusCounterService.recordTransition(affiliate.getClient().getId(), previousStatus, activatedAffiliate.getStatus());
+        affiliateRedirectCache.evict(activatedAffiliate);
         log.info("Activated affiliate with ID: {}", affiliateId);
 
         emailService.sendAffiliateActivationNotification(affiliate.getEmail());
@@ -164,10 +197,13 @@ public class AffiliateService {
             throw new InvalidAffiliateDataException("Affiliate is already inactive");
         }
 
+        String previousStatus = affiliate.getStatus();
         affiliate.setStatus("INACTIVE");
         affiliate.setUpdatedAt(LocalDateTime.now());
 
         Affiliate deactivatedAffiliate = affiliateRepository.save(affiliate);
+        affiliateStatusCounterService.recordTransition(affiliate.getClient().getId(), previousStatus, deactivatedAffiliate.getStatus());
+        affiliateRedirectCache.evict(deactivatedAffiliate);
         log.info("Deactivated affiliate with ID: {}", affiliateId);
 
         emailService.sendAffiliateDeactivationNotification(affiliate.getEmail());
@@ -183,10 +219,13 @@ public class AffiliateService {
             throw new InvalidAffiliateDataException("Only pending affiliates can be approved");
         }
 
+        String previousStatus = affiliate.getStatus();
         affiliate.setStatus("ACTIVE");
         affiliate.setUpdatedAt(LocalDateTime.now());
 
         Affiliate approvedAffiliate = affiliateRepository.save(affiliate);
+        affiliateStatusCounterService.recordTransition(affiliate.getClient().getId(), previousStatus, approvedAffiliate.getStatus());
+        affiliateRedirectCache.evict(approvedAffiliate);
         log.info("Approved affiliate with ID: {}", affiliateId);
 
         emailService.sendAffiliateApprovalNotification(affiliate.getEmail(), affiliate.getReferralCode());
@@ -202,11 +241,14 @@ public class AffiliateService {
             throw new InvalidAffiliateDataException("Only pending affiliates can be rejected");
         }
 
+        String previousStatus = affiliate.getStatus();
         affiliate.setStatus("REJECTED");
         affiliate.setRejectionReason(reason);
         affiliate.setUpdatedAt(LocalDateTime.now());
 
         Affiliate rejectedAffiliate = affiliateRepository.save(affiliate);
+        affiliateStatusCounterService.recordTransition(affiliate.getClient().getId(), previousStatus, rejectedAffiliate.getStatus());
+        affiliateRedirectCache.evict(rejectedAffiliate);
         log.info("Rejected affiliate with ID: {} for reason: {}", affiliateId, reason);
 
         emailService.sendAffiliateRejectionNotification(affiliate.getEmail(), reason);
@@ -221,9 +263,9 @@ public class AffiliateService {
                                                Pageable pageable) {
         Page<Affiliate> affiliatesPage = affiliateRepository
                 .searchAffiliates(
-                        email.orElse(""),
-                        status.orElse(""),
-                        companyName.orElse(""),
+                        email.map(SearchPatterns::contains).orElse(null),
+                        status.map(SearchPatterns::contains).orElse(null),
+                        companyName.map(SearchPatterns::contains).orElse(null),
                         clientId.orElse(null),
                         pageable
                 );
@@ -243,9 +285,9 @@ public class AffiliateService {
         Page<Affiliate> affiliatesPage = affiliateRepository
                 .searchClientAffiliates(
                         clientId,
-                        email.orElse(""),
-                        status.orElse(""),
-                        companyName.orElse(""),
+                        email.map(SearchPatterns::contains).orElse(null),
+                        status.map(SearchPatterns::contains).orElse(null),
+                        companyName.map(SearchPatterns::contains).orElse(null),
                         pageable
                 );
 
@@ -279,7 +321,7 @@ public class AffiliateService {
             throw new InvalidAffiliateDataException("Referral code already exists for affiliate: " + affiliateId);
         }
 
-        String referralCode = generateUniqueReferralCode();
+        String referralCode = referralCodeGenerator.nextCode();
         affiliate.setReferralCode(referralCode);
         affiliate.setUpdatedAt(LocalDateTime.now());
 
@@ -293,7 +335,7 @@ public class AffiliateService {
     public String regenerateReferralCode(Long affiliateId) {
         Affiliate affiliate = findAffiliateById(affiliateId);
 
-        String newReferralCode = generateUniqueReferralCode();
+        String newReferralCode = referralCodeGenerator.nextCode();
         affiliate.setReferralCode(newReferralCode);
         affiliate.setUpdatedAt(LocalDateTime.now());
 
@@ -372,14 +414,6 @@ public class AffiliateService {
         }
     }
 
-    private String generateUniqueReferralCode() {
-        String referralCode;
-        do {
-            referralCode = "REF_" + UUID.randomUUID().toString().substring(0, 8).toUpperCase();
-        } while (affiliateRepository.existsByReferralCode(referralCode));
-        return referralCode;
-    }
-
     public AffiliateTableResponse getAffiliatesForTable(
             Long clientId, String status, String search,
             Integer page, Integer size, String sortBy, String sortDirection) {
@@ -398,10 +432,17 @@ public class AffiliateService {
                 clientId, status, search, pageRequest
         );
 
+        // Load metrics for the whole page at once
+        Map<Long, AffiliateMetrics> metrics = affiliateMetricsLoader.load(affiliatesPage.getContent()
+                .stream()
+                .map(Affiliate::getId)
+                .toList());
+
         // Map to table DTOs
         List<AffiliateTableDto> affiliateDtos = affiliatesPage.getContent()
                 .stream()
-                .map(this::mapToTableDto)
+                .map(affiliate -> mapToTableDto(affiliate,
+                        metrics.getOrDefault(affiliate.getId(), AffiliateMetrics.EMPTY)))
                 .collect(Collectors.toList());
 
         // Get status counts for tabs
@@ -424,7 +465,7 @@ public class AffiliateService {
         if (status != null && !status.isEmpty() && search != null && !search.isEmpty()) {
             // Both status and search
             return affiliateRepository.findByClientIdAndStatusAndSearch(
-                    clientId, status, search, pageRequest
+                    clientId, status, SearchPatterns.contains(search), pageRequest
             );
         } else if (status != null && !status.isEmpty()) {
             // Only status filter
@@ -434,7 +475,7 @@ public class AffiliateService {
         } else if (search != null && !search.isEmpty()) {
             // Only search filter
             return affiliateRepository.findByClientIdAndSearch(
-                    clientId, search, pageRequest
+                    clientId, SearchPatterns.contains(search), pageRequest
             );
         } else {
             // No filters, just client
@@ -442,72 +483,32 @@ public class AffiliateService {
         }
     }
 
-    private AffiliateTableDto mapToTableDto(Affiliate affiliate) {
-        // Calculate metrics (you may need to join with other tables)
-        BigDecimal revenue = calculateAffiliateRevenue(affiliate.getId());
-        BigDecimal earnings = calculateAffiliateEarnings(affiliate.getId());
-        Integer clicks = countAffiliateClicks(affiliate.getId());
-        Integer leads = countAffiliateLeads(affiliate.getId());
-        Integer customers = countAffiliateCustomers(affiliate.getId());
-
+    private AffiliateTableDto mapToTableDto(Affiliate affiliate, AffiliateMetrics metrics) {
         return AffiliateTableDto.builder()
                 .id(affiliate.getId())
                 .name(affiliate.getName())
                 .email(affiliate.getEmail())
                 .signupDate(affiliate.getCreatedAt())
                 .status(affiliate.getStatus())
-                .revenue(revenue)
-                .earnings(earnings)
-                .clicks(clicks)
-                .leads(leads)
-                .customers(customers)
+                .revenue(metrics.getRevenue())
+                .earnings(metrics.getEarnings())
+                .clicks(metrics.getClicks())
+                .leads(metrics.getLeads())
+                .customers(metrics.getCustomers())
                 .build();
     }
 
     private StatusCounts getStatusCounts(Long clientId) {
-        Long active = affiliateRepository.countByClientIdAndStatus(clientId, "ACTIVE");
-        Long pending = affiliateRepository.countByClientIdAndStatus(clientId, "PENDING");
-        Long invited = affiliateRepository.countByClientIdAndStatus(clientId, "INVITED");
-        Long inactive = affiliateRepository.countByClientIdAndStatus(clientId, "INACTIVE");
-        Long rejected = affiliateRepository.countByClientIdAndStatus(clientId, "REJECTED");
-        Long total = affiliateRepository.countByClientId(clientId);
+        Map<String, Long> counts = affiliateStatusCounterService.getCounts(clientId);
 
         return StatusCounts.builder()
-                .active(active)
-                .pending(pending)
-                .invited(invited)
-                .inactive(inactive)
-                .rejected(rejected)
-                .total(total)
+                .active(counts.getOrDefault("ACTIVE", 0L))
+                .pending(counts.getOrDefault("PENDING", 0L))
+                .invited(counts.getOrDefault("INVITED", 0L))
+                .inactive(counts.getOrDefault("INACTIVE", 0L))
+                .rejected(counts.getOrDefault("REJECTED", 0L))
+                .total(counts.values().stream().mapToLong(Long::longValue).sum())
                 .build();
     }
 
-    // Helper methods for calculating metrics
-    private BigDecimal calculateAffiliateRevenue(Long affiliateId) {
-        // TODO: Implement based on your business logic
-        // This might involve querying conversions, sales, etc.
-        return BigDecimal.ZERO;
-    }
-
-    private BigDecimal calculateAffiliateEarnings(Long affiliateId) {
-        // TODO: Implement based on your commission calculations
-        return BigDecimal.ZERO;
-    }
-
-    private Integer countAffiliateClicks(Long affiliateId) {
-        // TODO: Query clicks/referrals table
-        return 0;
-    }
-
-    private Integer countAffiliateLeads(Long affiliateId) {
-        // TODO: Query leads table
-        return 0;
-    }
-
-    private Integer countAffiliateCustomers(Long affiliateId) {
-        // TODO: Query customers/conversions table
-        return 0;
-    }
-
-
 }
\ No newline at end of file
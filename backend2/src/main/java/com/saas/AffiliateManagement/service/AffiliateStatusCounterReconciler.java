@@ -0,0 +1,35 @@
+package com.saas.AffiliateManagement.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Rebuilds the affiliate status counters at startup (seed data and imports bypass the
+ * lifecycle methods) and then checks them for drift on a fixed delay.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class AffiliateStatusCounterReconciler {
+
+    private final AffiliateStatusCounterService counterService;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void reconcileOnStartup() {
+        reconcile();
+    }
+
+    @Scheduled(fixedDelayString = "${affiliate.status-counters.reconcile-interval:PT15M}",
+            initialDelayString = "${affiliate.status-counters.reconcile-interval:PT15M}")
+    public void reconcile() {
+        try {
+            counterService.reconcile();
+        } catch (RuntimeException e) {
+            log.error("Affiliate status counter reconciliation failed: {}", e.getMessage(), e);
+        }
+    }
+}
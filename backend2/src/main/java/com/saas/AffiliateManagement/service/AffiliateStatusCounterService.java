@@ -0,0 +1,112 @@
+package com.saas.AffiliateManagement.service;
+
+import com.saas.AffiliateManagement.models.dto.ClientStatusCountRow;
+import com.saas.AffiliateManagement.models.entity.AffiliateStatusCounter;
+import com.saas.AffiliateManagement.models.entity.AffiliateStatusCounterId;
+import com.saas.AffiliateManagement.repository.AffiliateRepository;
+import com.saas.AffiliateManagement.repository.AffiliateStatusCounterRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Per-client, per-status affiliate counts read from {@code affiliate_status_counters} instead of
+ * counting the affiliates table on every request. Counter changes join the caller's
+ * transaction, so they commit or roll back together with the affiliate change.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@Transactional(readOnly = true)
+public class AffiliateStatusCounterService {
+
+    private final AffiliateStatusCounterRepository counterRepository;
+    private final AffiliateRepository affiliateRepository;
+
+    public Map<String, Long> getCounts(Long clientId) {
+        Map<String, Long> counts = new HashMap<>();
+        for (AffiliateStatusCounter counter : counterRepository.findByIdClientId(clientId)) {
+            counts.put(counter.getId().getStatus(), counter.getAffiliateCount());
+        }
+        return counts;
+    }
+
+    public long getCount(Long clientId, String status) {
+        return counterRepository.findById(new AffiliateStatusCounterId(clientId, status))
+                .map(AffiliateStatusCounter::getAffiliateCount)
+                .orElse(0L);
+    }
+
+    public long getTotal(Long clientId) {
+        return getCounts(clientId).values().stream().mapToLong(Long::longValue).sum();
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordCreated(Long clientId, String status) {
+        counterRepository.increment(clientId, status, 1);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordTransition(Long clientId, String fromStatus, String toStatus) {
+        if (Objects.equals(fromStatus, toStatus)) {
+            return;
+        }
+        if (fromStatus != null) {
+            counterRepository.increment(clientId, fromStatus, -1);
+        }
+        if (toStatus != null) {
+            counterRepository.increment(clientId, toStatus, 1);
+        }
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordDeleted(Long clientId, String status) {
+        if (status != null) {
+            counterRepository.increment(clientId, status, -1);
+        }
+    }
+
+    /**
+     * Recomputes every counter from the affiliates table and repairs the ones that drifted,
+     * e.g. after bulk imports or writes that bypassed {@link AffiliateService}.
+     *
+     * @return the number of counters that had to be corrected
+     */
+    @Transactional
+    public int reconcile() {
+        counterRepository.lockForReconciliation();
+
+        Map<AffiliateStatusCounterId, Long> actual = new HashMap<>();
+        for (ClientStatusCountRow row : affiliateRepository.countGroupedByClientIdAndStatus()) {
+            actual.put(new AffiliateStatusCounterId(row.getClientId(), row.getStatus()), row.getTotal());
+        }
+
+        int repaired = 0;
+        for (AffiliateStatusCounter counter : counterRepository.findAll()) {
+            long expected = actual.getOrDefault(counter.getId(), 0L);
+            if (counter.getAffiliateCount() != expected) {
+                log.warn("Affiliate status counter drift for client {} status {}: stored {}, actual {}",
+                        counter.getId().getClientId(), counter.getId().getStatus(), counter.getAffiliateCount(), expected);
+                counterRepository.set(counter.getId().getClientId(), counter.getId().getStatus(), expected);
+                repaired++;
+            }
+            actual.remove(counter.getId());
+        }
+
+        for (Map.Entry<AffiliateStatusCounterId, Long> missing : actual.entrySet()) {
+            counterRepository.set(missing.getKey().getClientId(), missing.getKey().getStatus(), missing.getValue());
+            repaired++;
+        }
+
+        if (repaired > 0) {
+            log.info("Reconciled {} affiliate status counters", repaired);
+        }
+        return repaired;
+    }
+}
@@ -1,5 +1,6 @@
 package com.saas.AffiliateManagement.service;
 
+import com.saas.AffiliateManagement.exceptions.UserNotFoundException;
 import com.saas.AffiliateManagement.models.dto.AuthResponse;
 import com.saas.AffiliateManagement.models.entity.Client;
 import com.saas.AffiliateManagement.models.entity.User;
@@ -7,9 +8,11 @@ import com.saas.AffiliateManagement.models.requests.LoginRequest;
 import com.saas.AffiliateManagement.models.requests.RegisterRequest;
 import com.saas.AffiliateManagement.repository.ClientRepository;
 import com.saas.AffiliateManagement.repository.UserRepository;
+import com.saas.AffiliateManagement.security.CustomUserDetails;
 import com.saas.AffiliateManagement.security.JwtUtil;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -26,6 +29,7 @@ public class AuthService {
     private final ClientRepository clientRepository;
     private final PasswordEncoder passwordEncoder;
     private final JwtUtil jwtUtil;
+    private final UserAuthCache userAuthCache;
 
     public AuthResponse register(RegisterRequest request) {
         // Check if user already exists
@@ -71,7 +75,7 @@ public class AuthService {
         log.info("Created new user: {}", user.getEmail());
 
         // Generate JWT token
-        String token = jwtUtil.generateToken(user.getEmail(), user.getId(), user.getRole());
+        String token = jwtUtil.generateToken(user.getEmail(), user.getId(), user.getRole(), client.getId());
 
         return AuthResponse.builder()
                 .accessToken(token)
@@ -102,7 +106,8 @@ public class AuthService {
         }
 
         // Generate JWT token
-        String token = jwtUtil.generateToken(user.getEmail(), user.getId(), user.getRole());
+        Long clientId = user.getClient() != null ? user.getClient().getId() : null;
+        String token = jwtUtil.generateToken(user.getEmail(), user.getId(), user.getRole(), clientId);
 
         log.info("User {} successfully logged in", user.getEmail());
 
@@ -118,4 +123,29 @@ public class AuthService {
                 .companyName(user.getClient() != null ? user.getClient().getCompanyName() : null)
                 .build();
     }
-}
\ No newline at end of file
+
+    /**
+     * Deactivates a user of the caller's own client. Tokens the user already holds stop
+     * authenticating once the cached user is evicted.
+     *
+     * @throws UserNotFoundException if no user exists with the given ID
+     * @throws AccessDeniedException if the user belongs to another client
+     */
+    public void deactivateUser(Long userId, CustomUserDetails caller) {
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new UserNotFoundException("User not found: " + userId));
+
+        Long callerClientId = caller != null && caller.getUser().getClient() != null
+                ? caller.getUser().getClient().getId()
+                : null;
+        if (callerClientId == null || user.getClient() == null || !callerClientId.equals(user.getClient().getId())) {
+            throw new AccessDeniedException("Cannot deactivate a user of another client");
+        }
+
+        user.setActive(false);
+        userRepository.save(user);
+        userAuthCache.evict(user.getEmail());
+
+        log.info("Deactivated user {}", user.getEmail());
+    }
+}
@@ -30,6 +30,7 @@ public class ClientService {
     private final ClientMapper clientMapper;
     private final EmailService emailService;
     private final ApiKeyService apiKeyService;
+    private final AffiliateRedirectCache affiliateRedirectCache;
 
     @Transactional
     public ClientDto registerClient(ClientCreateRequest createRequest) {
@@ -122,6 +123,7 @@ public class ClientService {
         }
 
         Client updatedClient = clientRepository.save(existingClient);
+        affiliateRedirectCache.evictClient(clientId);
         log.info("Updated client with ID: {}", clientId);
 
         return clientMapper.toDto(updatedClient);
@@ -139,6 +141,7 @@ public class ClientService {
         client.setUpdatedAt(LocalDateTime.now());
 
         Client activatedClient = clientRepository.save(client);
+        affiliateRedirectCache.evictClient(clientId);
         log.info("Activated client with ID: {}", clientId);
 
         emailService.sendActivationNotification(client.getEmail());
@@ -158,6 +161,7 @@ public class ClientService {
         client.setUpdatedAt(LocalDateTime.now());
 
         Client deactivatedClient = clientRepository.save(client);
+        affiliateRedirectCache.evictClient(clientId);
         log.info("Deactivated client with ID: {}", clientId);
 
         return clientMapper.toDto(deactivatedClient);
@@ -177,6 +181,7 @@ public class ClientService {
         client.setUpdatedAt(LocalDateTime.now());
 
         Client suspendedClient = clientRepository.save(client);
+        affiliateRedirectCache.evictClient(clientId);
         log.info("Suspended client with ID: {} for reason: {}", clientId, reason);
 
         emailService.sendSuspensionNotification(client.getEmail(), reason);
@@ -262,6 +267,7 @@ public class ClientService {
         }
 
         clientRepository.deleteById(clientId);
+        affiliateRedirectCache.evictClient(clientId);
         log.info("Deleted client with ID: {}", clientId);
 
         emailService.sendAccountDeletionNotification(client.getEmail());
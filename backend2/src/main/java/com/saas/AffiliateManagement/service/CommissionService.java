@@ -4,22 +4,28 @@ import com.saas.AffiliateManagement.exceptions.AffiliateNotFoundException;
 import com.saas.AffiliateManagement.exceptions.CommissionNotFoundException;
 import com.saas.AffiliateManagement.exceptions.InvalidCommissionDataException;
 import com.saas.AffiliateManagement.models.dto.CommissionDto;
+import com.saas.AffiliateManagement.models.dto.CursorPage;
 import com.saas.AffiliateManagement.models.entity.Affiliate;
 import com.saas.AffiliateManagement.models.entity.Commission;
 import com.saas.AffiliateManagement.models.requests.CommissionCreateRequest;
 import com.saas.AffiliateManagement.models.requests.CommissionUpdateRequest;
 import com.saas.AffiliateManagement.repository.AffiliateRepository;
 import com.saas.AffiliateManagement.repository.CommissionRepository;
+import com.saas.AffiliateManagement.repository.KeysetCursor;
+import com.saas.AffiliateManagement.repository.RowEstimateRepository;
+import com.saas.AffiliateManagement.repository.SearchPatterns;
 import com.saas.AffiliateManagement.service.mappers.CommissionMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.List;
 
 @Service
 @RequiredArgsConstructor
@@ -30,6 +36,7 @@ public class CommissionService {
     private final CommissionRepository commissionRepository;
     private final AffiliateRepository affiliateRepository;
     private final CommissionMapper commissionMapper;
+    private final RowEstimateRepository rowEstimateRepository;
 
     @Transactional
     public CommissionDto createCommission(CommissionCreateRequest createRequest) {
@@ -168,16 +175,38 @@ public class CommissionService {
         Long validatedClientId = validateClientId(clientId);
         String validatedStatus = validateStringParameter(status);
         String validatedType = validateStringParameter(type);
-        String validatedAffiliateName = validateStringParameter(affiliateName);
-        String validatedSearch = validateStringParameter(search);
+        String affiliateNamePattern = SearchPatterns.contains(affiliateName);
+        String searchPattern = SearchPatterns.contains(search);
 
         Page<Commission> commissionsPage = commissionRepository
                 .findFilteredByClient(validatedClientId, validatedStatus, validatedType,
-                        validatedAffiliateName, validatedSearch, pageable);
+                        affiliateNamePattern, searchPattern, pageable);
 
         return commissionsPage.map(commissionMapper::toDto);
     }
 
+    public CursorPage<CommissionDto> getFilteredCommissionsByClient(Long clientId, String status,
+                                                                    String type, String affiliateName,
+                                                                    String search, String cursor,
+                                                                    int size, boolean withTotal) {
+
+        Long validatedClientId = validateClientId(clientId);
+        KeysetCursor position = KeysetCursor.decode(cursor);
+        int pageSize = KeysetCursor.pageSize(size);
+
+        List<Commission> rows = commissionRepository.findFilteredByClientPageAfter(validatedClientId,
+                validateStringParameter(status), validateStringParameter(type),
+                SearchPatterns.contains(affiliateName), SearchPatterns.contains(search),
+                position.createdAt(), position.id(), PageRequest.of(0, pageSize + 1));
+
+        return CursorPage.of(rows, pageSize,
+                commission -> new KeysetCursor(commission.getCreatedAt(), commission.getId()).encode(),
+                commissionMapper::toDto,
+                withTotal && position == KeysetCursor.FIRST && validatedClientId != null
+                        ? rowEstimateRepository.countCommissionsByClient(validatedClientId)
+                        : null);
+    }
+
     private Commission findCommissionById(Long commissionId) {
         return commissionRepository.findById(commissionId)
                 .orElseThrow(() -> new CommissionNotFoundException(
@@ -2,6 +2,7 @@ package com.saas.AffiliateManagement.service;
 
 import com.saas.AffiliateManagement.models.dto.ConversionRateDto;
 import com.saas.AffiliateManagement.models.dto.PaymentDto;
+import com.saas.AffiliateManagement.models.dto.CursorPage;
 import com.saas.AffiliateManagement.models.dto.ReferralCustomerDTO;
 import com.saas.AffiliateManagement.models.dto.ReferralDto;
 import com.saas.AffiliateManagement.models.requests.ReferralCreateRequest;
@@ -87,5 +88,9 @@ public interface CustomerService {
 
     Page<ReferralCustomerDTO> getReferralCustomersByClient(Long clientId, Pageable pageable);
 
+    CursorPage<ReferralCustomerDTO> getReferralCustomersByClient(Long clientId, String cursor, int size, boolean withTotal);
+
     Page<PaymentDto> getTransactionsByClient(@Min(1) Long clientId, String search, Optional<String> status, Optional<String> paymentMethod, Optional<LocalDateTime> startDate, Optional<LocalDateTime> endDate, Pageable pageable);
+
+    CursorPage<PaymentDto> getTransactionsByClient(Long clientId, String search, Optional<String> status, Optional<String> paymentMethod, Optional<LocalDateTime> startDate, Optional<LocalDateTime> endDate, String cursor, int size, boolean withTotal);
 }
\ No newline at end of file
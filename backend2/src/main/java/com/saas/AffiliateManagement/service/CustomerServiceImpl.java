@@ -4,9 +4,14 @@ import com.saas.AffiliateManagement.exceptions.InvalidReferralDataException;
 import com.saas.AffiliateManagement.exceptions.ReferralNotFoundException;
 import com.saas.AffiliateManagement.models.*;
 import com.saas.AffiliateManagement.models.dto.ConversionRateDto;
+import com.saas.AffiliateManagement.models.dto.CursorPage;
 import com.saas.AffiliateManagement.models.dto.PaymentDto;
 import com.saas.AffiliateManagement.models.dto.ReferralCustomerDTO;
 import com.saas.AffiliateManagement.models.dto.ReferralDto;
+import com.saas.AffiliateManagement.models.dto.ReferralRollupCell;
+import com.saas.AffiliateManagement.models.dto.ReferralRollupDelta;
+import com.saas.AffiliateManagement.models.dto.ReferralStatsRow;
+import com.saas.AffiliateManagement.models.dto.ReferralVisit;
 import com.saas.AffiliateManagement.models.entity.Affiliate;
 import com.saas.AffiliateManagement.models.entity.Payment;
 import com.saas.AffiliateManagement.models.entity.Referral;
@@ -15,11 +20,15 @@ import com.saas.AffiliateManagement.models.requests.ReferralUpdateRequest;
 import com.saas.AffiliateManagement.models.responses.ReferralTrackingResponse;
 import com.saas.AffiliateManagement.repository.AffiliateRepository;
 
+import com.saas.AffiliateManagement.repository.KeysetCursor;
 import com.saas.AffiliateManagement.repository.PaymentRepository;
 import com.saas.AffiliateManagement.repository.ReferralRepository;
+import com.saas.AffiliateManagement.repository.RowEstimateRepository;
+import com.saas.AffiliateManagement.repository.SearchPatterns;
 import com.saas.AffiliateManagement.service.mappers.ReferralMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -32,6 +41,7 @@ import java.math.RoundingMode;
 import java.time.LocalDateTime;
 import java.util.*;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
@@ -45,6 +55,13 @@ public class CustomerServiceImpl implements CustomerService {
     private final DeviceDetector deviceDetector;
     private final GeoLocationService geoLocationService;
     private final PaymentRepository paymentRepository;
+    private final ReferralRollupService referralRollupService;
+    private final VisitorSketchService visitorSketchService;
+    private final TypeaheadService typeaheadService;
+    private final RowEstimateRepository rowEstimateRepository;
+
+    @Value("${referral.statistics.top-k-capacity:0}")
+    private int topKCapacity;
 
 
     @Override
@@ -66,6 +83,9 @@ public class CustomerServiceImpl implements CustomerService {
         referral.setClickedAt(LocalDateTime.now());
 
         Referral savedReferral = referralRepository.save(referral);
+        referralRollupService.record(ReferralRollupDelta.addition(savedReferral));
+        visitorSketchService.recordVisits(List.of(ReferralVisit.of(savedReferral)));
+        typeaheadService.referralSaved(savedReferral);
         log.info("Tracked referral: {}", savedReferral.getId());
 
         return referralMapper.toDto(savedReferral);
@@ -94,7 +114,7 @@ public class CustomerServiceImpl implements CustomerService {
         Page<Referral> referrals = referralRepository.searchReferrals(
                 status.orElse(null),
                 affiliateId.orElse(null),
-                referralCode.orElse(null),
+                referralCode.map(SearchPatterns::contains).orElse(null),
                 pageable);
 
         return referrals.map(referralMapper::toDto);
@@ -124,6 +144,7 @@ public class CustomerServiceImpl implements CustomerService {
                                       ReferralUpdateRequest updateRequest) {
 
         Referral referral = findReferralOrThrow(referralId);
+        ReferralRollupDelta previous = ReferralRollupDelta.removal(referral);
 
         Optional.ofNullable(updateRequest.getTargetUrl())
                 .ifPresent(referral::setTargetUrl);
@@ -140,6 +161,7 @@ public class CustomerServiceImpl implements CustomerService {
 
         referral.setUpdatedAt(LocalDateTime.now());
         Referral updatedReferral = referralRepository.save(referral);
+        referralRollupService.record(previous, ReferralRollupDelta.addition(updatedReferral));
 
         log.info("Updated referral: {}", referralId);
         return referralMapper.toDto(updatedReferral);
@@ -147,11 +169,10 @@ public class CustomerServiceImpl implements CustomerService {
 
     @Override
     public void deleteReferral(Long referralId) {
-        if (!referralRepository.existsById(referralId)) {
-            throw new ReferralNotFoundException(
-                    "Referral not found with ID: " + referralId);
-        }
-        referralRepository.deleteById(referralId);
+        Referral referral = findReferralOrThrow(referralId);
+        referralRepository.delete(referral);
+        referralRollupService.record(ReferralRollupDelta.removal(referral));
+        typeaheadService.referralDeleted(referral);
         log.info("Deleted referral: {}", referralId);
     }
 
@@ -167,12 +188,14 @@ public class CustomerServiceImpl implements CustomerService {
                     "Referral has already been converted");
         }
 
+        ReferralRollupDelta previous = ReferralRollupDelta.removal(referral);
         referral.setStatus("CONVERTED");
         referral.setConvertedAt(LocalDateTime.now());
         referral.setConversionValue(conversionValue);
         orderId.ifPresent(referral::setOrderId);
 
         Referral convertedReferral = referralRepository.save(referral);
+        referralRollupService.record(previous, ReferralRollupDelta.addition(convertedReferral));
         log.info("Converted referral: {} with value: {}",
                 referralId, conversionValue);
 
@@ -188,11 +211,13 @@ public class CustomerServiceImpl implements CustomerService {
                     "Only converted referrals can be cancelled");
         }
 
+        ReferralRollupDelta previous = ReferralRollupDelta.removal(referral);
         referral.setStatus("CANCELLED");
         referral.setConversionValue(BigDecimal.ZERO);
         referral.setUpdatedAt(LocalDateTime.now());
 
         Referral cancelledReferral = referralRepository.save(referral);
+        referralRollupService.record(previous, ReferralRollupDelta.addition(cancelledReferral));
         log.info("Cancelled conversion for referral: {}", referralId);
 
         return referralMapper.toDto(cancelledReferral);
@@ -202,10 +227,12 @@ public class CustomerServiceImpl implements CustomerService {
     public ReferralDto expireReferral(Long referralId) {
         Referral referral = findReferralOrThrow(referralId);
 
+        ReferralRollupDelta previous = ReferralRollupDelta.removal(referral);
         referral.setStatus("EXPIRED");
         referral.setUpdatedAt(LocalDateTime.now());
 
         Referral expiredReferral = referralRepository.save(referral);
+        referralRollupService.record(previous, ReferralRollupDelta.addition(expiredReferral));
         log.info("Expired referral: {}", referralId);
 
         return referralMapper.toDto(expiredReferral);
@@ -222,10 +249,16 @@ public class CustomerServiceImpl implements CustomerService {
         LocalDateTime start = startDate.orElse(LocalDateTime.now().minusMonths(1));
         LocalDateTime end = endDate.orElse(LocalDateTime.now());
 
-        List<Referral> referrals = referralRepository
-                .findByAffiliateIdAndClickedAtBetween(affiliateId, start, end);
+        ReferralStatisticsAccumulator statistics = new ReferralStatisticsAccumulator(
+                ReferralRollupDelta::extractDomain, topKCapacity);
+        try (Stream<ReferralStatsRow> rows = referralRepository
+                .streamStatsRowsByAffiliateIdAndClickedAtBetween(affiliateId, start, end)) {
+            rows.forEach(statistics::accept);
+        }
+
+        long uniqueVisitors = visitorSketchService.estimateUniqueVisitors(affiliateId, start, end);
 
-        return buildTrackingResponse(affiliateId, referrals, start, end);
+        return buildTrackingResponse(affiliateId, statistics, uniqueVisitors, start, end);
     }
 
     @Override
@@ -263,10 +296,9 @@ public class CustomerServiceImpl implements CustomerService {
         LocalDateTime start = startDate.orElse(LocalDateTime.now().minusMonths(1));
         LocalDateTime end = endDate.orElse(LocalDateTime.now());
 
-        List<Referral> referrals = referralRepository
-                .findByAffiliateIdAndClickedAtBetween(affiliateId, start, end);
+        List<ReferralRollupCell> cells = referralRollupService.findCells(affiliateId, start, end);
 
-        return buildConversionRateAnalytics(affiliateId, referrals,
+        return buildConversionRateAnalytics(affiliateId, cells,
                 period, start, end);
     }
 
@@ -316,6 +348,13 @@ public class CustomerServiceImpl implements CustomerService {
                 .collect(Collectors.toList());
 
         List<Referral> savedReferrals = referralRepository.saveAll(referrals);
+        referralRollupService.record(savedReferrals.stream()
+                .map(ReferralRollupDelta::addition)
+                .toList());
+        visitorSketchService.recordVisits(savedReferrals.stream()
+                .map(ReferralVisit::of)
+                .toList());
+        savedReferrals.forEach(typeaheadService::referralSaved);
         log.info("Tracked {} referrals in batch", savedReferrals.size());
 
         return savedReferrals.stream()
@@ -331,13 +370,10 @@ public class CustomerServiceImpl implements CustomerService {
         LocalDateTime startDate = LocalDateTime.now().minusDays(days);
         LocalDateTime endDate = LocalDateTime.now();
 
-        List<Referral> referrals = affiliateId
-                .map(id -> referralRepository.findByAffiliateIdAndClickedAtBetween(
-                        id, startDate, endDate))
-                .orElseGet(() -> referralRepository.findByClickedAtBetween(
-                        startDate, endDate));
+        List<ReferralRollupCell> cells = referralRollupService
+                .findCells(affiliateId.orElse(null), startDate, endDate);
 
-        return buildTrendAnalysis(referrals, days);
+        return buildTrendAnalysis(cells, days);
     }
 
     @Override
@@ -349,23 +385,21 @@ public class CustomerServiceImpl implements CustomerService {
         LocalDateTime start = startDate.orElse(LocalDateTime.now().minusMonths(1));
         LocalDateTime end = endDate.orElse(LocalDateTime.now());
 
-        List<Referral> referrals = affiliateId
-                .map(id -> referralRepository.findByAffiliateIdAndClickedAtBetween(
-                        id, start, end))
-                .orElseGet(() -> referralRepository.findByClickedAtBetween(
-                        start, end));
+        Map<String, Long> clicksBySource = new HashMap<>();
+        for (ReferralRollupCell cell : referralRollupService.findCells(affiliateId.orElse(null), start, end)) {
+            if (cell.hasSource()) {
+                clicksBySource.merge(cell.getSourceDomain(), cell.getReferralCount(), Long::sum);
+            }
+        }
+        clicksBySource.values().removeIf(clicks -> clicks == 0);
 
-        return referrals.stream()
-                .filter(r -> r.getSourceUrl() != null)
-                .collect(Collectors.groupingBy(
-                        r -> extractDomain(r.getSourceUrl()),
-                        Collectors.counting()));
+        return clicksBySource;
     }
 
     @Override
     @Transactional(readOnly = true)
     public Page<ReferralCustomerDTO> searchReferralCustomersByClient(Long clientId, String searchTerm, Pageable pageable) {
-        return referralRepository.searchByClientIdAndTerm(clientId, searchTerm, pageable)
+        return referralRepository.searchByClientIdAndTerm(clientId, SearchPatterns.contains(searchTerm), pageable)
                 .map(this::convertToDTO);
     }
 
@@ -376,6 +410,22 @@ public class CustomerServiceImpl implements CustomerService {
                 .map(this::convertToDTO);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<ReferralCustomerDTO> getReferralCustomersByClient(Long clientId, String cursor,
+                                                                        int size, boolean withTotal) {
+        KeysetCursor position = KeysetCursor.decode(cursor);
+        int pageSize = KeysetCursor.pageSize(size);
+
+        List<Referral> rows = referralRepository.findByClientIdPageAfter(clientId,
+                position.createdAt(), position.id(), PageRequest.of(0, pageSize + 1));
+
+        return CursorPage.of(rows, pageSize,
+                referral -> new KeysetCursor(referral.getCreatedAt(), referral.getId()).encode(),
+                this::convertToDTO,
+                withTotal && position == KeysetCursor.FIRST ? rowEstimateRepository.countReferralsByClient(clientId) : null);
+    }
+
     @Override
     public Page<PaymentDto> getTransactionsByClient(
             Long clientId,
@@ -396,7 +446,45 @@ public class CustomerServiceImpl implements CustomerService {
                 pageable
         );
 
-        return paymentsPage.map(payment -> PaymentDto.builder()
+        return paymentsPage.map(this::convertToPaymentDto);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<PaymentDto> getTransactionsByClient(
+            Long clientId,
+            String search,
+            Optional<String> status,
+            Optional<String> paymentMethod,
+            Optional<LocalDateTime> startDate,
+            Optional<LocalDateTime> endDate,
+            String cursor,
+            int size,
+            boolean withTotal) {
+
+        KeysetCursor position = KeysetCursor.decode(cursor);
+        int pageSize = KeysetCursor.pageSize(size);
+
+        List<Payment> rows = paymentRepository.findTransactionsByClientPageAfter(
+                clientId,
+                search,
+                status.orElse(null),
+                paymentMethod.orElse(null),
+                startDate.orElse(null),
+                endDate.orElse(null),
+                position.createdAt(),
+                position.id(),
+                PageRequest.of(0, pageSize + 1)
+        );
+
+        return CursorPage.of(rows, pageSize,
+                payment -> new KeysetCursor(payment.getCreatedAt(), payment.getId()).encode(),
+                this::convertToPaymentDto,
+                withTotal && position == KeysetCursor.FIRST ? rowEstimateRepository.countPaymentsByClient(clientId) : null);
+    }
+
+    private PaymentDto convertToPaymentDto(Payment payment) {
+        return PaymentDto.builder()
                 .id(payment.getId())
                 .amount(payment.getAmount())
                 .currency(payment.getCurrency())
@@ -409,7 +497,7 @@ public class CustomerServiceImpl implements CustomerService {
                 .createdAt(payment.getCreatedAt())
                 .updatedAt(payment.getUpdatedAt())
                 .affiliateId(payment.getAffiliate().getId())
-                .build());
+                .build();
     }
 
     private void validateAffiliateExists(Long affiliateId) {
@@ -444,107 +532,62 @@ public class CustomerServiceImpl implements CustomerService {
     }
 
     private ReferralTrackingResponse buildTrackingResponse(Long affiliateId,
-                                                           List<Referral> referrals,
+                                                           ReferralStatisticsAccumulator statistics,
+                                                           long uniqueVisitors,
                                                            LocalDateTime start,
                                                            LocalDateTime end) {
 
         Affiliate affiliate = affiliateRepository.findById(affiliateId)
                 .orElseThrow();
 
-        long totalClicks = referrals.size();
-        long totalConversions = referrals.stream()
-                .filter(r -> "CONVERTED".equals(r.getStatus()))
-                .count();
-
-        BigDecimal conversionRate = totalClicks > 0
-                ? BigDecimal.valueOf(totalConversions)
-                .divide(BigDecimal.valueOf(totalClicks), 4, RoundingMode.HALF_UP)
-                .multiply(BigDecimal.valueOf(100))
-                : BigDecimal.ZERO;
-
-        BigDecimal totalRevenue = referrals.stream()
-                .filter(r -> "CONVERTED".equals(r.getStatus()))
-                .map(Referral::getConversionValue)
-                .filter(Objects::nonNull)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-        BigDecimal avgOrderValue = totalConversions > 0
-                ? totalRevenue.divide(BigDecimal.valueOf(totalConversions),
-                2, RoundingMode.HALF_UP)
-                : BigDecimal.ZERO;
-
-        long uniqueVisitors = referrals.stream()
-                .map(Referral::getIpAddress)
-                .distinct()
-                .count();
-
-        Map<String, Long> clicksByDay = groupByDay(referrals, false);
-        Map<String, Long> conversionsByDay = groupByDay(referrals, true);
-        List<TopPerformingLink> topLinks = getTopLinks(referrals);
-        Map<String, BigDecimal> revenueBySource = getRevenueBySource(referrals);
-        DeviceStatistics deviceStats = buildDeviceStatistics(referrals);
-        GeographicStatistics geoStats = buildGeographicStatistics(referrals);
-
         return ReferralTrackingResponse.builder()
                 .affiliateId(affiliateId)
                 .affiliateName(affiliate.getName())
                 .periodStart(start)
                 .periodEnd(end)
-                .totalClicks(totalClicks)
-                .totalConversions(totalConversions)
-                .conversionRate(conversionRate)
-                .totalRevenue(totalRevenue)
-                .averageOrderValue(avgOrderValue)
+                .totalClicks(statistics.getTotalClicks())
+                .totalConversions(statistics.getTotalConversions())
+                .conversionRate(statistics.getConversionRate())
+                .totalRevenue(statistics.getTotalRevenue())
+                .averageOrderValue(statistics.getAverageOrderValue())
                 .uniqueVisitors(uniqueVisitors)
-                .clicksByDay(clicksByDay)
-                .conversionsByDay(conversionsByDay)
-                .topLinks(topLinks)
-                .revenueBySource(revenueBySource)
-                .deviceStats(deviceStats)
-                .geoStats(geoStats)
+                .clicksByDay(statistics.getClicksByDay())
+                .conversionsByDay(statistics.getConversionsByDay())
+                .topLinks(statistics.getTopLinks())
+                .revenueBySource(statistics.getRevenueBySource())
+                .deviceStats(statistics.getDeviceStatistics())
+                .geoStats(statistics.getGeographicStatistics())
                 .build();
     }
 
     private ConversionRateDto buildConversionRateAnalytics(Long affiliateId,
-                                                                                            List<Referral> referrals,
-                                                                                            String period,
-                                                                                            LocalDateTime start,
-                                                                                            LocalDateTime end) {
+                                                           List<ReferralRollupCell> cells,
+                                                           String period,
+                                                           LocalDateTime start,
+                                                           LocalDateTime end) {
 
-        Map<String, List<Referral>> groupedReferrals =
-                groupReferralsByPeriod(referrals, period);
+        Map<String, PeriodTotals> totalsByPeriod = new HashMap<>();
+        PeriodTotals overall = new PeriodTotals();
+        for (ReferralRollupCell cell : cells) {
+            totalsByPeriod.computeIfAbsent(periodKey(cell.getBucketStart(), period), key -> new PeriodTotals())
+                    .add(cell);
+            overall.add(cell);
+        }
+        totalsByPeriod.values().removeIf(totals -> totals.clicks == 0);
 
         Map<String, BigDecimal> conversionRateByPeriod = new HashMap<>();
         Map<String, Long> clicksByPeriod = new HashMap<>();
         Map<String, Long> conversionsByPeriod = new HashMap<>();
         Map<String, BigDecimal> revenueByPeriod = new HashMap<>();
 
-        groupedReferrals.forEach((periodKey, periodReferrals) -> {
-            long clicks = periodReferrals.size();
-            long conversions = periodReferrals.stream()
-                    .filter(r -> "CONVERTED".equals(r.getStatus()))
-                    .count();
-
-            BigDecimal revenue = periodReferrals.stream()
-                    .filter(r -> "CONVERTED".equals(r.getStatus()))
-                    .map(Referral::getConversionValue)
-                    .filter(Objects::nonNull)
-                    .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-            BigDecimal rate = clicks > 0
-                    ? BigDecimal.valueOf(conversions)
-                    .divide(BigDecimal.valueOf(clicks), 4, RoundingMode.HALF_UP)
-                    .multiply(BigDecimal.valueOf(100))
-                    : BigDecimal.ZERO;
-
-            clicksByPeriod.put(periodKey, clicks);
-            conversionsByPeriod.put(periodKey, conversions);
-            revenueByPeriod.put(periodKey, revenue);
-            conversionRateByPeriod.put(periodKey, rate);
+        totalsByPeriod.forEach((periodKey, totals) -> {
+            clicksByPeriod.put(periodKey, totals.clicks);
+            conversionsByPeriod.put(periodKey, totals.conversions);
+            revenueByPeriod.put(periodKey, totals.revenue);
+            conversionRateByPeriod.put(periodKey, totals.conversionRate());
         });
 
-        BigDecimal overallRate = calculateOverallConversionRate(referrals);
-        List<ConversionTrend> trends = buildConversionTrends(groupedReferrals);
+        List<ConversionTrend> trends = buildConversionTrends(totalsByPeriod);
         BigDecimal projectedRevenue = calculateProjectedRevenue(revenueByPeriod);
         BigDecimal growthRate = calculateGrowthRate(revenueByPeriod);
 
@@ -553,7 +596,7 @@ public class CustomerServiceImpl implements CustomerService {
                 .period(period)
                 .startDate(start)
                 .endDate(end)
-                .overallConversionRate(overallRate)
+                .overallConversionRate(overall.conversionRate())
                 .conversionRateByPeriod(conversionRateByPeriod)
                 .clicksByPeriod(clicksByPeriod)
                 .conversionsByPeriod(conversionsByPeriod)
@@ -564,213 +607,28 @@ public class CustomerServiceImpl implements CustomerService {
                 .build();
     }
 
-    private Map<String, Long> groupByDay(List<Referral> referrals,
-                                         boolean conversionsOnly) {
-        return referrals.stream()
-                .filter(r -> !conversionsOnly || "CONVERTED".equals(r.getStatus()))
-                .collect(Collectors.groupingBy(
-                        r -> r.getClickedAt().toLocalDate().toString(),
-                        Collectors.counting()));
-    }
-
-    private List<TopPerformingLink> getTopLinks(List<Referral> referrals) {
-        return referrals.stream()
-                .collect(Collectors.groupingBy(Referral::getReferralCode))
-                .entrySet().stream()
-                .map(entry -> {
-                    List<Referral> linkReferrals = entry.getValue();
-                    long clicks = linkReferrals.size();
-                    long conversions = linkReferrals.stream()
-                            .filter(r -> "CONVERTED".equals(r.getStatus()))
-                            .count();
-                    BigDecimal revenue = linkReferrals.stream()
-                            .filter(r -> "CONVERTED".equals(r.getStatus()))
-                            .map(Referral::getConversionValue)
-                            .filter(Objects::nonNull)
-                            .reduce(BigDecimal.ZERO, BigDecimal::add);
-                    BigDecimal rate = clicks > 0
-                            ? BigDecimal.valueOf(conversions)
-                            .divide(BigDecimal.valueOf(clicks),
-                                    4, RoundingMode.HALF_UP)
-                            .multiply(BigDecimal.valueOf(100))
-                            : BigDecimal.ZERO;
-
-                    return TopPerformingLink.builder()
-                            .referralCode(entry.getKey())
-                            .targetUrl(linkReferrals.get(0).getTargetUrl())
-                            .clicks(clicks)
-                            .conversions(conversions)
-                            .conversionRate(rate)
-                            .revenue(revenue)
-                            .build();
-                })
-                .sorted((a, b) -> b.getRevenue().compareTo(a.getRevenue()))
-                .limit(10)
-                .collect(Collectors.toList());
-    }
-
-    private Map<String, BigDecimal> getRevenueBySource(List<Referral> referrals) {
-        return referrals.stream()
-                .filter(r -> "CONVERTED".equals(r.getStatus()) &&
-                        r.getSourceUrl() != null)
-                .collect(Collectors.groupingBy(
-                        r -> extractDomain(r.getSourceUrl()),
-                        Collectors.reducing(BigDecimal.ZERO,
-                                Referral::getConversionValue,
-                                BigDecimal::add)));
-    }
-
-    private DeviceStatistics buildDeviceStatistics(List<Referral> referrals) {
-        Map<String, Long> deviceTypes = referrals.stream()
-                .filter(r -> r.getDeviceType() != null)
-                .collect(Collectors.groupingBy(
-                        Referral::getDeviceType,
-                        Collectors.counting()));
-
-        Map<String, Long> browsers = referrals.stream()
-                .filter(r -> r.getBrowserName() != null)
-                .collect(Collectors.groupingBy(
-                        Referral::getBrowserName,
-                        Collectors.counting()));
-
-        Map<String, Long> operatingSystems = referrals.stream()
-                .filter(r -> r.getOperatingSystem() != null)
-                .collect(Collectors.groupingBy(
-                        Referral::getOperatingSystem,
-                        Collectors.counting()));
-
-        Map<String, BigDecimal> conversionRateByDevice =
-                calculateConversionRateByDevice(referrals);
-
-        return DeviceStatistics.builder()
-                .deviceTypes(deviceTypes)
-                .browsers(browsers)
-                .operatingSystems(operatingSystems)
-                .conversionRateByDevice(conversionRateByDevice)
-                .build();
-    }
-
-    private GeographicStatistics buildGeographicStatistics(List<Referral> referrals) {
-        Map<String, Long> clicksByCountry = referrals.stream()
-                .filter(r -> r.getCountry() != null)
-                .collect(Collectors.groupingBy(
-                        Referral::getCountry,
-                        Collectors.counting()));
-
-        Map<String, Long> conversionsByCountry = referrals.stream()
-                .filter(r -> "CONVERTED".equals(r.getStatus()) &&
-                        r.getCountry() != null)
-                .collect(Collectors.groupingBy(
-                        Referral::getCountry,
-                        Collectors.counting()));
-
-        Map<String, BigDecimal> revenueByCountry = referrals.stream()
-                .filter(r -> "CONVERTED".equals(r.getStatus()) &&
-                        r.getCountry() != null)
-                .collect(Collectors.groupingBy(
-                        Referral::getCountry,
-                        Collectors.reducing(BigDecimal.ZERO,
-                                Referral::getConversionValue,
-                                BigDecimal::add)));
-
-        List<TopLocation> topLocations = buildTopLocations(referrals);
-
-        return GeographicStatistics.builder()
-                .clicksByCountry(clicksByCountry)
-                .conversionsByCountry(conversionsByCountry)
-                .revenueByCountry(revenueByCountry)
-                .topLocations(topLocations)
-                .build();
-    }
-
-    private List<TopLocation> buildTopLocations(List<Referral> referrals) {
-        return referrals.stream()
-                .filter(r -> r.getCountry() != null && r.getCity() != null)
-                .collect(Collectors.groupingBy(
-                        r -> r.getCountry() + ":" + r.getCity()))
-                .entrySet().stream()
-                .map(entry -> {
-                    String[] location = entry.getKey().split(":");
-                    List<Referral> locationReferrals = entry.getValue();
-
-                    long clicks = locationReferrals.size();
-                    long conversions = locationReferrals.stream()
-                            .filter(r -> "CONVERTED".equals(r.getStatus()))
-                            .count();
-                    BigDecimal revenue = locationReferrals.stream()
-                            .filter(r -> "CONVERTED".equals(r.getStatus()))
-                            .map(Referral::getConversionValue)
-                            .filter(Objects::nonNull)
-                            .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-                    return TopLocation.builder()
-                            .country(location[0])
-                            .city(location[1])
-                            .clicks(clicks)
-                            .conversions(conversions)
-                            .revenue(revenue)
-                            .build();
-                })
-                .sorted((a, b) -> b.getRevenue().compareTo(a.getRevenue()))
-                .limit(10)
-                .collect(Collectors.toList());
+    private String periodKey(LocalDateTime date, String period) {
+        return switch (period.toLowerCase()) {
+            case "daily" -> date.toLocalDate().toString();
+            case "weekly" -> date.toLocalDate()
+                    .minusDays(date.getDayOfWeek().getValue() - 1)
+                    .toString();
+            case "monthly" -> date.getYear() + "-" +
+                    String.format("%02d", date.getMonthValue());
+            case "yearly" -> String.valueOf(date.getYear());
+            default -> date.toLocalDate().toString();
+        };
     }
 
-    private Map<String, List<Referral>> groupReferralsByPeriod(List<Referral> referrals,
-                                                               String period) {
-        return referrals.stream()
-                .collect(Collectors.groupingBy(r -> {
-                    LocalDateTime date = r.getClickedAt();
-                    return switch (period.toLowerCase()) {
-                        case "daily" -> date.toLocalDate().toString();
-                        case "weekly" -> date.toLocalDate()
-                                .minusDays(date.getDayOfWeek().getValue() - 1)
-                                .toString();
-                        case "monthly" -> date.getYear() + "-" +
-                                String.format("%02d", date.getMonthValue());
-                        case "yearly" -> String.valueOf(date.getYear());
-                        default -> date.toLocalDate().toString();
-                    };
-                }));
-    }
-
-    private BigDecimal calculateOverallConversionRate(List<Referral> referrals) {
-        long totalClicks = referrals.size();
-        long totalConversions = referrals.stream()
-                .filter(r -> "CONVERTED".equals(r.getStatus()))
-                .count();
-
-        return totalClicks > 0
-                ? BigDecimal.valueOf(totalConversions)
-                .divide(BigDecimal.valueOf(totalClicks), 4, RoundingMode.HALF_UP)
-                .multiply(BigDecimal.valueOf(100))
-                : BigDecimal.ZERO;
-    }
-
-    private List<ConversionTrend> buildConversionTrends(Map<String, List<Referral>> groupedReferrals) {
+    private List<ConversionTrend> buildConversionTrends(Map<String, PeriodTotals> totalsByPeriod) {
         List<ConversionTrend> trends = new ArrayList<>();
         BigDecimal previousRevenue = null;
 
-        for (Map.Entry<String, List<Referral>> entry :
-                new TreeMap<>(groupedReferrals).entrySet()) {
-
-            List<Referral> periodReferrals = entry.getValue();
-            long clicks = periodReferrals.size();
-            long conversions = periodReferrals.stream()
-                    .filter(r -> "CONVERTED".equals(r.getStatus()))
-                    .count();
+        for (Map.Entry<String, PeriodTotals> entry :
+                new TreeMap<>(totalsByPeriod).entrySet()) {
 
-            BigDecimal revenue = periodReferrals.stream()
-                    .filter(r -> "CONVERTED".equals(r.getStatus()))
-                    .map(Referral::getConversionValue)
-                    .filter(Objects::nonNull)
-                    .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-            BigDecimal rate = clicks > 0
-                    ? BigDecimal.valueOf(conversions)
-                    .divide(BigDecimal.valueOf(clicks), 4, RoundingMode.HALF_UP)
-                    .multiply(BigDecimal.valueOf(100))
-                    : BigDecimal.ZERO;
+            PeriodTotals totals = entry.getValue();
+            BigDecimal revenue = totals.revenue;
 
             String trendDirection = "STABLE";
             BigDecimal changePercentage = BigDecimal.ZERO;
@@ -784,10 +642,10 @@ public class CustomerServiceImpl implements CustomerService {
             }
 
             trends.add(ConversionTrend.builder()
-                    .date(periodReferrals.get(0).getClickedAt())
-                    .conversionRate(rate)
-                    .clicks(clicks)
-                    .conversions(conversions)
+                    .date(totals.firstBucket)
+                    .conversionRate(totals.conversionRate())
+                    .clicks(totals.clicks)
+                    .conversions(totals.conversions)
                     .revenue(revenue)
                     .trendDirection(trendDirection)
                     .changePercentage(changePercentage)
@@ -832,56 +690,26 @@ public class CustomerServiceImpl implements CustomerService {
                 .multiply(BigDecimal.valueOf(100));
     }
 
-    private Map<String, BigDecimal> calculateConversionRateByDevice(List<Referral> referrals) {
-        return referrals.stream()
-                .filter(r -> r.getDeviceType() != null)
-                .collect(Collectors.groupingBy(Referral::getDeviceType))
-                .entrySet().stream()
-                .collect(Collectors.toMap(
-                        Map.Entry::getKey,
-                        entry -> {
-                            List<Referral> deviceReferrals = entry.getValue();
-                            long clicks = deviceReferrals.size();
-                            long conversions = deviceReferrals.stream()
-                                    .filter(r -> "CONVERTED".equals(r.getStatus()))
-                                    .count();
-                            return clicks > 0
-                                    ? BigDecimal.valueOf(conversions)
-                                    .divide(BigDecimal.valueOf(clicks),
-                                            4, RoundingMode.HALF_UP)
-                                    .multiply(BigDecimal.valueOf(100))
-                                    : BigDecimal.ZERO;
-                        }));
-    }
-
-    private Map<String, Object> buildTrendAnalysis(List<Referral> referrals, Integer days) {
+    private Map<String, Object> buildTrendAnalysis(List<ReferralRollupCell> cells, Integer days) {
         Map<String, Object> trends = new HashMap<>();
 
-        long totalClicks = referrals.size();
-        long totalConversions = referrals.stream()
-                .filter(r -> "CONVERTED".equals(r.getStatus()))
-                .count();
-
-        BigDecimal totalRevenue = referrals.stream()
-                .filter(r -> "CONVERTED".equals(r.getStatus()))
-                .map(Referral::getConversionValue)
-                .filter(Objects::nonNull)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        PeriodTotals totals = new PeriodTotals();
+        Map<String, Long> dailyClicks = new HashMap<>();
+        for (ReferralRollupCell cell : cells) {
+            totals.add(cell);
+            dailyClicks.merge(cell.getBucketStart().toLocalDate().toString(), cell.getReferralCount(), Long::sum);
+        }
+        dailyClicks.values().removeIf(clicks -> clicks == 0);
 
-        BigDecimal avgDailyClicks = BigDecimal.valueOf(totalClicks)
+        BigDecimal avgDailyClicks = BigDecimal.valueOf(totals.clicks)
                 .divide(BigDecimal.valueOf(days), 2, RoundingMode.HALF_UP);
 
-        BigDecimal avgDailyRevenue = totalRevenue
+        BigDecimal avgDailyRevenue = totals.revenue
                 .divide(BigDecimal.valueOf(days), 2, RoundingMode.HALF_UP);
 
-        Map<String, Long> dailyClicks = referrals.stream()
-                .collect(Collectors.groupingBy(
-                        r -> r.getClickedAt().toLocalDate().toString(),
-                        Collectors.counting()));
-
-        trends.put("totalClicks", totalClicks);
-        trends.put("totalConversions", totalConversions);
-        trends.put("totalRevenue", totalRevenue);
+        trends.put("totalClicks", totals.clicks);
+        trends.put("totalConversions", totals.conversions);
+        trends.put("totalRevenue", totals.revenue);
         trends.put("averageDailyClicks", avgDailyClicks);
         trends.put("averageDailyRevenue", avgDailyRevenue);
         trends.put("dailyClicks", dailyClicks);
@@ -890,23 +718,6 @@ public class CustomerServiceImpl implements CustomerService {
         return trends;
     }
 
-    private String extractDomain(String url) {
-        if (url == null || url.isEmpty()) {
-            return "direct";
-        }
-
-        try {
-            String domain = url.replaceFirst("^(https?://)?(www\\.)?", "");
-            int slashIndex = domain.indexOf('/');
-            if (slashIndex > 0) {
-                domain = domain.substring(0, slashIndex);
-            }
-            return domain;
-        } catch (Exception e) {
-            return "unknown";
-        }
-    }
-
     private ReferralCustomerDTO convertToDTO(Referral referral) {
         return ReferralCustomerDTO.builder()
                 .id(referral.getId())
@@ -925,4 +736,32 @@ public class CustomerServiceImpl implements CustomerService {
                 .source(referral.getSource())
                 .build();
     }
+
+    private static final class PeriodTotals {
+
+        // Start of the earliest hour or day that contributed to the period.
+        private LocalDateTime firstBucket;
+        private long clicks;
+        private long conversions;
+        private BigDecimal revenue = BigDecimal.ZERO;
+
+        private void add(ReferralRollupCell cell) {
+            if (firstBucket == null || cell.getBucketStart().isBefore(firstBucket)) {
+                firstBucket = cell.getBucketStart();
+            }
+            clicks += cell.getReferralCount();
+            if (cell.isConverted()) {
+                conversions += cell.getReferralCount();
+                revenue = revenue.add(cell.getConversionValue());
+            }
+        }
+
+        private BigDecimal conversionRate() {
+            return clicks > 0
+                    ? BigDecimal.valueOf(conversions)
+                    .divide(BigDecimal.valueOf(clicks), 4, RoundingMode.HALF_UP)
+                    .multiply(BigDecimal.valueOf(100))
+                    : BigDecimal.ZERO;
+        }
+    }
 }
@@ -1,55 +1,42 @@
 package com.saas.AffiliateManagement.service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import lombok.AllArgsConstructor;
-import lombok.Data;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+/**
+ * Device, browser and OS of a user agent, parsed by {@link UserAgentParser}. Agents repeat
+ * heavily across clicks, so results are cached by the full agent string; agents longer than
+ * {@link #MAX_CACHED_LENGTH} are parsed every time so oversized headers cannot fill the cache.
+ */
 @Component
 public class DeviceDetector {
 
-    public DeviceInfo detectDevice(String userAgent) {
-        if (userAgent == null || userAgent.isEmpty()) {
-            return new DeviceInfo("Unknown", "Unknown", "Unknown");
-        }
+    static final int MAX_CACHED_LENGTH = 512;
 
-        String deviceType = detectDeviceType(userAgent);
-        String browserName = detectBrowser(userAgent);
-        String operatingSystem = detectOS(userAgent);
+    private final UserAgentParser parser = new UserAgentParser();
+    private final Cache<String, DeviceInfo> cache;
 
-        return new DeviceInfo(deviceType, browserName, operatingSystem);
+    public DeviceDetector(@Value("${referral.user-agent-cache.max-size:10000}") long cacheSize) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .build();
     }
 
-    private String detectDeviceType(String userAgent) {
-        if (userAgent.contains("Mobile") || userAgent.contains("Android")) {
-            return "Mobile";
-        } else if (userAgent.contains("Tablet") || userAgent.contains("iPad")) {
-            return "Tablet";
+    public DeviceInfo detectDevice(String userAgent) {
+        if (userAgent == null || userAgent.length() > MAX_CACHED_LENGTH) {
+            return parser.parse(userAgent);
         }
-        return "Desktop";
-    }
-
-    private String detectBrowser(String userAgent) {
-        if (userAgent.contains("Chrome")) return "Chrome";
-        if (userAgent.contains("Firefox")) return "Firefox";
-        if (userAgent.contains("Safari")) return "Safari";
-        if (userAgent.contains("Edge")) return "Edge";
-        return "Other";
-    }
-
-    private String detectOS(String userAgent) {
-        if (userAgent.contains("Windows")) return "Windows";
-        if (userAgent.contains("Mac")) return "macOS";
-        if (userAgent.contains("Linux")) return "Linux";
-        if (userAgent.contains("Android")) return "Android";
-        if (userAgent.contains("iOS")) return "iOS";
-        return "Other";
+        return cache.get(userAgent, parser::parse);
     }
 
-    @Data
+    @lombok.Value
     @AllArgsConstructor
     public static class DeviceInfo {
-        private String deviceType;
-        private String browserName;
-        private String operatingSystem;
+        String deviceType;
+        String browserName;
+        String operatingSystem;
     }
-}
\ No newline at end of file
+}
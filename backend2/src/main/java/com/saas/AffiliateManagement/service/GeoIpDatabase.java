@@ -0,0 +1,292 @@
+package com.saas.AffiliateManagement.service;
+
+import java.io.BufferedReader;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Heap-resident {@link GeoIpIndex}: sorted primitive arrays, IPv4 ranges as ints and IPv6 ranges
+ * as pairs of longs, each with an index into a table of distinct locations.
+ */
+public final class GeoIpDatabase extends GeoIpIndex {
+
+    public static final GeoIpDatabase EMPTY = builder().build();
+
+    private final int[] ipv4Starts;
+    private final int[] ipv4Ends;
+    private final int[] ipv4Locations;
+
+    private final long[] ipv6StartHighs;
+    private final long[] ipv6StartLows;
+    private final long[] ipv6EndHighs;
+    private final long[] ipv6EndLows;
+    private final int[] ipv6Locations;
+
+    private final GeoLocationService.GeoLocation[] locations;
+
+    private GeoIpDatabase(int[] ipv4Starts, int[] ipv4Ends, int[] ipv4Locations,
+                          long[] ipv6StartHighs, long[] ipv6StartLows, long[] ipv6EndHighs, long[] ipv6EndLows,
+                          int[] ipv6Locations, GeoLocationService.GeoLocation[] locations) {
+        this.ipv4Starts = ipv4Starts;
+        this.ipv4Ends = ipv4Ends;
+        this.ipv4Locations = ipv4Locations;
+        this.ipv6StartHighs = ipv6StartHighs;
+        this.ipv6StartLows = ipv6StartLows;
+        this.ipv6EndHighs = ipv6EndHighs;
+        this.ipv6EndLows = ipv6EndLows;
+        this.ipv6Locations = ipv6Locations;
+        this.locations = locations;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Reads {@code start,end,country,city} rows, where start and end are the inclusive bounds of
+     * a range in one address family. Fields may be double-quoted; blank lines, {@code #} comments
+     * and a header row are skipped, and the city column is optional.
+     */
+    public static GeoIpDatabase readCsv(BufferedReader reader) throws IOException {
+        Builder builder = builder();
+        String line;
+        int lineNumber = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank() || line.startsWith("#")) {
+                continue;
+            }
+
+            List<String> fields = splitCsv(line);
+            if (lineNumber == 1 && !isAddress(fields.get(0))) {
+                continue;
+            }
+            if (fields.size() < 3) {
+                throw new IllegalArgumentException("Line " + lineNumber + ": expected start,end,country[,city]");
+            }
+            try {
+                builder.addRange(fields.get(0), fields.get(1), fields.get(2), fields.size() > 3 ? fields.get(3) : null);
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Line " + lineNumber + ": " + e.getMessage(), e);
+            }
+        }
+        return builder.build();
+    }
+
+    @Override
+    public int size() {
+        return ipv4Starts.length + ipv6Locations.length;
+    }
+
+    @Override
+    GeoLocationService.GeoLocation locateIpv4(int key) {
+        int low = 0;
+        int high = ipv4Starts.length - 1;
+        int found = -1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (ipv4Starts[mid] <= key) {
+                found = mid;
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return found >= 0 && key <= ipv4Ends[found]
+                ? locations[ipv4Locations[found]]
+                : GeoLocationService.GeoLocation.UNKNOWN;
+    }
+
+    @Override
+    GeoLocationService.GeoLocation locateIpv6(long keyHigh, long keyLow) {
+        int low = 0;
+        int high = ipv6Locations.length - 1;
+        int found = -1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (compare(ipv6StartHighs[mid], ipv6StartLows[mid], keyHigh, keyLow) <= 0) {
+                found = mid;
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return found >= 0 && compare(keyHigh, keyLow, ipv6EndHighs[found], ipv6EndLows[found]) <= 0
+                ? locations[ipv6Locations[found]]
+                : GeoLocationService.GeoLocation.UNKNOWN;
+    }
+
+    /**
+     * Writes the table in the layout read by {@link MappedGeoIpDatabase}, with every country and
+     * city name stored once in a string dictionary.
+     */
+    void writeTo(DataOutputStream out) throws IOException {
+        Map<String, Integer> stringIds = new LinkedHashMap<>();
+        for (GeoLocationService.GeoLocation location : locations) {
+            stringIds.putIfAbsent(location.getCountry(), stringIds.size());
+            stringIds.putIfAbsent(location.getCity(), stringIds.size());
+        }
+
+        out.writeInt(MappedGeoIpDatabase.MAGIC);
+        out.writeInt(MappedGeoIpDatabase.VERSION);
+        out.writeInt(ipv4Starts.length);
+        out.writeInt(ipv6Locations.length);
+        out.writeInt(stringIds.size());
+        out.writeInt(locations.length);
+        for (String value : stringIds.keySet()) {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+        for (GeoLocationService.GeoLocation location : locations) {
+            out.writeInt(stringIds.get(location.getCountry()));
+            out.writeInt(stringIds.get(location.getCity()));
+        }
+
+        for (int[] column : new int[][]{ipv4Starts, ipv4Ends, ipv4Locations}) {
+            for (int value : column) {
+                out.writeInt(value);
+            }
+        }
+        for (long[] column : new long[][]{ipv6StartHighs, ipv6StartLows, ipv6EndHighs, ipv6EndLows}) {
+            for (long value : column) {
+                out.writeLong(value);
+            }
+        }
+        for (int value : ipv6Locations) {
+            out.writeInt(value);
+        }
+    }
+
+    private static List<String> splitCsv(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString().trim());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString().trim());
+        return fields;
+    }
+
+    /**
+     * Collects ranges in any order; {@link #build()} sorts them and rejects overlaps.
+     */
+    public static final class Builder {
+
+        private final List<long[]> ipv4Ranges = new ArrayList<>();
+        private final List<long[]> ipv6Ranges = new ArrayList<>();
+        private final Map<GeoLocationService.GeoLocation, Integer> locationIds = new HashMap<>();
+        private final List<GeoLocationService.GeoLocation> locations = new ArrayList<>();
+
+        private Builder() {
+        }
+
+        public Builder addRange(String start, String end, String country, String city) {
+            int location = locationId(GeoLocationService.GeoLocation.of(country, city));
+            boolean ipv6 = start.indexOf(':') >= 0;
+            if (ipv6 != end.indexOf(':') >= 0) {
+                throw new IllegalArgumentException("Range mixes IPv4 and IPv6: " + start + " - " + end);
+            }
+
+            if (ipv6) {
+                long startHigh = ipv6Half(start, true);
+                long endHigh = ipv6Half(end, true);
+                if (startHigh == INVALID_IPV6 || endHigh == INVALID_IPV6) {
+                    throw new IllegalArgumentException("Invalid IPv6 range: " + start + " - " + end);
+                }
+                long[] range = {startHigh ^ Long.MIN_VALUE, ipv6Half(start, false) ^ Long.MIN_VALUE,
+                        endHigh ^ Long.MIN_VALUE, ipv6Half(end, false) ^ Long.MIN_VALUE, location};
+                if (compare(range[0], range[1], range[2], range[3]) > 0) {
+                    throw new IllegalArgumentException("Range ends before it starts: " + start + " - " + end);
+                }
+                ipv6Ranges.add(range);
+            } else {
+                long startAddress = parseIpv4(start, 0, start.length());
+                long endAddress = parseIpv4(end, 0, end.length());
+                if (startAddress < 0 || endAddress < 0) {
+                    throw new IllegalArgumentException("Invalid IPv4 range: " + start + " - " + end);
+                }
+                if (startAddress > endAddress) {
+                    throw new IllegalArgumentException("Range ends before it starts: " + start + " - " + end);
+                }
+                ipv4Ranges.add(new long[]{startAddress, endAddress, location});
+            }
+            return this;
+        }
+
+        public GeoIpDatabase build() {
+            ipv4Ranges.sort(Comparator.comparingLong(range -> range[0]));
+            ipv6Ranges.sort((left, right) -> compare(left[0], left[1], right[0], right[1]));
+
+            int[] ipv4Starts = new int[ipv4Ranges.size()];
+            int[] ipv4Ends = new int[ipv4Ranges.size()];
+            int[] ipv4Locations = new int[ipv4Ranges.size()];
+            for (int i = 0; i < ipv4Ranges.size(); i++) {
+                long[] range = ipv4Ranges.get(i);
+                if (i > 0 && range[0] <= ipv4Ranges.get(i - 1)[1]) {
+                    throw new IllegalArgumentException("Overlapping IPv4 ranges at " + formatIpv4(range[0]));
+                }
+                ipv4Starts[i] = (int) range[0] ^ Integer.MIN_VALUE;
+                ipv4Ends[i] = (int) range[1] ^ Integer.MIN_VALUE;
+                ipv4Locations[i] = (int) range[2];
+            }
+
+            int size = ipv6Ranges.size();
+            long[][] columns = new long[4][size];
+            int[] ipv6Locations = new int[size];
+            for (int i = 0; i < size; i++) {
+                long[] range = ipv6Ranges.get(i);
+                if (i > 0) {
+                    long[] previous = ipv6Ranges.get(i - 1);
+                    if (compare(range[0], range[1], previous[2], previous[3]) <= 0) {
+                        throw new IllegalArgumentException("Overlapping IPv6 ranges at range " + i);
+                    }
+                }
+                for (int column = 0; column < 4; column++) {
+                    columns[column][i] = range[column];
+                }
+                ipv6Locations[i] = (int) range[4];
+            }
+
+            return new GeoIpDatabase(ipv4Starts, ipv4Ends, ipv4Locations,
+                    columns[0], columns[1], columns[2], columns[3], ipv6Locations,
+                    locations.toArray(GeoLocationService.GeoLocation[]::new));
+        }
+
+        private int locationId(GeoLocationService.GeoLocation location) {
+            return locationIds.computeIfAbsent(location, key -> {
+                locations.add(key);
+                return locations.size() - 1;
+            });
+        }
+
+        private static String formatIpv4(long address) {
+            return (address >>> 24) + "." + (address >>> 16 & 0xff) + "." + (address >>> 8 & 0xff) + "." + (address & 0xff);
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package com.saas.AffiliateManagement.service;
+
+/**
+ * IP-range to location lookup. {@link #locate(String)} parses the address in place and hands the
+ * range search a key without allocating, and implementations return shared
+ * {@link GeoLocationService.GeoLocation} instances.
+ * <p>
+ * Keys and stored addresses have their sign bit flipped so signed comparisons order them as
+ * unsigned. IPv4-mapped IPv6 addresses are looked up as IPv4.
+ */
+public abstract class GeoIpIndex {
+
+    // Marks an unparseable IPv6 address. 8000::/16 is reserved and never routed, so no real client has it.
+    static final long INVALID_IPV6 = Long.MIN_VALUE;
+
+    /**
+     * @return the location of the range containing the address, or {@link GeoLocationService.GeoLocation#UNKNOWN}
+     */
+    public GeoLocationService.GeoLocation locate(String address) {
+        if (address == null || address.isEmpty()) {
+            return GeoLocationService.GeoLocation.UNKNOWN;
+        }
+        if (address.indexOf(':') < 0) {
+            long ipv4 = parseIpv4(address, 0, address.length());
+            return ipv4 < 0 ? GeoLocationService.GeoLocation.UNKNOWN : locateIpv4((int) ipv4 ^ Integer.MIN_VALUE);
+        }
+
+        long high = ipv6Half(address, true);
+        if (high == INVALID_IPV6) {
+            return GeoLocationService.GeoLocation.UNKNOWN;
+        }
+        long low = ipv6Half(address, false);
+        if (high == 0 && (low >>> 32) == 0xffffL) {
+            return locateIpv4((int) low ^ Integer.MIN_VALUE);
+        }
+        return locateIpv6(high ^ Long.MIN_VALUE, low ^ Long.MIN_VALUE);
+    }
+
+    /**
+     * Number of IPv4 and IPv6 ranges.
+     */
+    public abstract int size();
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    abstract GeoLocationService.GeoLocation locateIpv4(int key);
+
+    abstract GeoLocationService.GeoLocation locateIpv6(long keyHigh, long keyLow);
+
+    static int compare(long leftHigh, long leftLow, long rightHigh, long rightLow) {
+        int result = Long.compare(leftHigh, rightHigh);
+        return result != 0 ? result : Long.compare(leftLow, rightLow);
+    }
+
+    static boolean isAddress(String value) {
+        return value.indexOf(':') >= 0
+                ? ipv6Half(value, true) != INVALID_IPV6
+                : parseIpv4(value, 0, value.length()) >= 0;
+    }
+
+    /**
+     * @return the dotted-quad address in [from, to) as an unsigned value, or -1 if it is not one
+     */
+    static long parseIpv4(CharSequence text, int from, int to) {
+        long address = 0;
+        int octets = 0;
+        int i = from;
+        while (i < to) {
+            int value = 0;
+            int digits = 0;
+            while (i < to && text.charAt(i) >= '0' && text.charAt(i) <= '9' && digits < 4) {
+                value = value * 10 + (text.charAt(i++) - '0');
+                digits++;
+            }
+            if (digits == 0 || digits > 3 || value > 255) {
+                return -1;
+            }
+            address = address << 8 | value;
+            octets++;
+
+            if (i < to) {
+                if (text.charAt(i) != '.' || octets == 4) {
+                    return -1;
+                }
+                i++;
+                if (i == to) {
+                    return -1;
+                }
+            }
+        }
+        return octets == 4 ? address : -1;
+    }
+
+    /**
+     * One 64-bit half of an IPv6 address, accepting {@code ::} compression, a trailing dotted
+     * IPv4 part and a zone suffix. Returns {@link #INVALID_IPV6} for malformed input; only the
+     * high half needs checking, since both halves are parsed from the same groups.
+     */
+    static long ipv6Half(String text, boolean high) {
+        int end = text.indexOf('%');
+        if (end < 0) {
+            end = text.length();
+        }
+        int gap = text.indexOf("::");
+        if (gap >= end) {
+            gap = -1;
+        }
+        if (gap >= 0 && text.indexOf("::", gap + 1) >= 0 && text.indexOf("::", gap + 1) < end) {
+            return INVALID_IPV6;
+        }
+
+        int headGroups = countGroups(text, 0, gap >= 0 ? gap : end);
+        int tailGroups = gap >= 0 ? countGroups(text, gap + 2, end) : 0;
+        if (headGroups < 0 || tailGroups < 0 || (gap >= 0 ? headGroups + tailGroups > 7 : headGroups != 8)) {
+            return INVALID_IPV6;
+        }
+
+        long half = placeGroups(text, 0, gap >= 0 ? gap : end, 0, high);
+        if (gap >= 0) {
+            half |= placeGroups(text, gap + 2, end, 8 - tailGroups, high);
+        }
+        return half;
+    }
+
+    /**
+     * Number of 16-bit groups in [from, to), a trailing IPv4 part counting as two, or -1 if
+     * any group is malformed.
+     */
+    private static int countGroups(String text, int from, int to) {
+        if (from == to) {
+            return 0;
+        }
+
+        int groups = 0;
+        int start = from;
+        while (true) {
+            int colon = indexOf(text, ':', start, to);
+            int groupEnd = colon < 0 ? to : colon;
+            if (colon < 0 && indexOf(text, '.', start, groupEnd) >= 0) {
+                if (parseIpv4(text, start, groupEnd) < 0) {
+                    return -1;
+                }
+                groups += 2;
+            } else if (parseHexGroup(text, start, groupEnd) < 0) {
+                return -1;
+            } else {
+                groups++;
+            }
+
+            if (colon < 0) {
+                return groups;
+            }
+            start = colon + 1;
+        }
+    }
+
+    /**
+     * ORs the groups in [from, to), which must be valid, into the requested half, starting at
+     * group position {@code position} of eight.
+     */
+    private static long placeGroups(String text, int from, int to, int position, boolean high) {
+        long half = 0;
+        int start = from;
+        while (start < to) {
+            int colon = indexOf(text, ':', start, to);
+            int groupEnd = colon < 0 ? to : colon;
+            if (colon < 0 && indexOf(text, '.', start, groupEnd) >= 0) {
+                long ipv4 = parseIpv4(text, start, groupEnd);
+                half |= place(ipv4 >>> 16, position++, high);
+                half |= place(ipv4 & 0xffff, position++, high);
+            } else {
+                half |= place(parseHexGroup(text, start, groupEnd), position++, high);
+            }
+
+            if (colon < 0) {
+                break;
+            }
+            start = colon + 1;
+        }
+        return half;
+    }
+
+    private static long place(long group, int position, boolean high) {
+        if (high != position < 4) {
+            return 0;
+        }
+        return group << (16 * (3 - (position & 3)));
+    }
+
+    private static int parseHexGroup(String text, int from, int to) {
+        if (to - from < 1 || to - from > 4) {
+            return -1;
+        }
+        int value = 0;
+        for (int i = from; i < to; i++) {
+            int digit = Character.digit(text.charAt(i), 16);
+            if (digit < 0) {
+                return -1;
+            }
+            value = value << 4 | digit;
+        }
+        return value;
+    }
+
+    private static int indexOf(String text, char c, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (text.charAt(i) == c) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -2,24 +2,110 @@
 package com.saas.AffiliateManagement.service;
 
 import lombok.AllArgsConstructor;
-import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+
+/**
+ * Resolves client IPs against a local {@link GeoIpIndex} loaded from
+ * {@code geolocation.database-path}. The file is checked for changes on a fixed delay and
+ * swapped in whole, so lookups never wait for a reload and always see one consistent dataset.
+ * Without a database every address is unknown.
+ * <p>
+ * A CSV file is loaded onto the heap unless {@code geolocation.memory-mapped} is set; then it is
+ * compiled next to itself (as {@code <file>.bin}) and mapped instead. A compiled file is always
+ * mapped.
+ */
 @Service
+@Slf4j
 public class GeoLocationService {
 
+    private final Path databasePath;
+    private final boolean memoryMapped;
+    private volatile GeoIpIndex database = GeoIpDatabase.EMPTY;
+    private FileTime loadedModifiedTime;
+
+    public GeoLocationService(@Value("${geolocation.database-path:}") String databasePath,
+                              @Value("${geolocation.memory-mapped:false}") boolean memoryMapped) {
+        this.databasePath = databasePath.isBlank() ? null : Path.of(databasePath);
+        this.memoryMapped = memoryMapped;
+        if (this.databasePath == null) {
+            log.warn("No geolocation database configured; referral locations will be Unknown");
+        } else {
+            reloadIfChanged();
+        }
+    }
+
     public GeoLocation getLocation(String ipAddress) {
-        if (ipAddress == null || ipAddress.isEmpty()) {
-            return new GeoLocation("Unknown", "Unknown");
+        return database.locate(ipAddress);
+    }
+
+    @Scheduled(fixedDelayString = "${geolocation.reload-interval:PT1M}",
+            initialDelayString = "${geolocation.reload-interval:PT1M}")
+    public synchronized void reloadIfChanged() {
+        if (databasePath == null) {
+            return;
+        }
+
+        try {
+            FileTime modifiedTime = Files.getLastModifiedTime(databasePath);
+            if (modifiedTime.equals(loadedModifiedTime)) {
+                return;
+            }
+
+            long started = System.currentTimeMillis();
+            GeoIpIndex loaded = load(modifiedTime);
+            database = loaded;
+            loadedModifiedTime = modifiedTime;
+            log.info("Loaded {} geolocation ranges from {} ({}) in {} ms", loaded.size(), databasePath,
+                    loaded instanceof MappedGeoIpDatabase ? "memory-mapped" : "heap",
+                    System.currentTimeMillis() - started);
+        } catch (IOException | RuntimeException e) {
+            // Keep serving the previous dataset; a half-written file is retried on the next check.
+            log.error("Failed to load geolocation database {}: {}", databasePath, e.getMessage());
+        }
+    }
+
+    private GeoIpIndex load(FileTime modifiedTime) throws IOException {
+        if (MappedGeoIpDatabase.isCompiled(databasePath)) {
+            return MappedGeoIpDatabase.open(databasePath);
+        }
+
+        if (memoryMapped) {
+            // Instances sharing the file reuse a compiled copy that is already up to date.
+            Path compiled = databasePath.resolveSibling(databasePath.getFileName() + ".bin");
+            if (!Files.exists(compiled) || Files.getLastModifiedTime(compiled).compareTo(modifiedTime) < 0) {
+                MappedGeoIpDatabase.compile(databasePath, compiled);
+            }
+            return MappedGeoIpDatabase.open(compiled);
         }
 
-        return new GeoLocation("Latvia", "Riga");
+        try (BufferedReader reader = Files.newBufferedReader(databasePath, StandardCharsets.UTF_8)) {
+            return GeoIpDatabase.readCsv(reader);
+        }
     }
 
-    @Data
+    @lombok.Value
     @AllArgsConstructor
     public static class GeoLocation {
-        private String country;
-        private String city;
+
+        public static final GeoLocation UNKNOWN = new GeoLocation("Unknown", "Unknown");
+
+        String country;
+        String city;
+
+        public static GeoLocation of(String country, String city) {
+            return new GeoLocation(
+                    country == null || country.isBlank() ? "Unknown" : country,
+                    city == null || city.isBlank() ? "Unknown" : city);
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,199 @@
+package com.saas.AffiliateManagement.service;
+
+import java.util.Arrays;
+
+/**
+ * HyperLogLog cardinality sketch with 2^precision one-byte registers and a 64-bit hash, so
+ * precision 12 estimates any number of distinct values with about 1.6% standard error in 4 KB.
+ * <p>
+ * Sketches are mergeable: the union of two sketches estimates the distinct values of both
+ * inputs. A sketch can be folded down to a lower precision, so sketches stored under an older
+ * precision setting still merge with new ones. The hash is fixed, which keeps serialized
+ * sketches comparable across JVMs and restarts. Not thread-safe.
+ */
+public final class HyperLogLog {
+
+    public static final int MIN_PRECISION = 4;
+    public static final int MAX_PRECISION = 16;
+
+    private final int precision;
+    private final byte[] registers;
+
+    public HyperLogLog(int precision) {
+        if (precision < MIN_PRECISION || precision > MAX_PRECISION) {
+            throw new IllegalArgumentException("HyperLogLog precision must be between "
+                    + MIN_PRECISION + " and " + MAX_PRECISION + ": " + precision);
+        }
+        this.precision = precision;
+        this.registers = new byte[1 << precision];
+    }
+
+    /**
+     * Reads a sketch written by {@link #toBytes()}: the precision followed by the registers.
+     */
+    public static HyperLogLog fromBytes(byte[] bytes) {
+        if (bytes == null || bytes.length == 0) {
+            throw new IllegalArgumentException("Empty HyperLogLog sketch");
+        }
+
+        HyperLogLog sketch = new HyperLogLog(bytes[0]);
+        if (bytes.length != sketch.registers.length + 1) {
+            throw new IllegalArgumentException("Corrupt HyperLogLog sketch of " + bytes.length + " bytes");
+        }
+        System.arraycopy(bytes, 1, sketch.registers, 0, sketch.registers.length);
+        return sketch;
+    }
+
+    public byte[] toBytes() {
+        byte[] bytes = new byte[registers.length + 1];
+        bytes[0] = (byte) precision;
+        System.arraycopy(registers, 0, bytes, 1, registers.length);
+        return bytes;
+    }
+
+    public int getPrecision() {
+        return precision;
+    }
+
+    /**
+     * Standard error of the estimate for a sketch of the given precision, e.g. 0.016 for 12.
+     */
+    public static double relativeError(int precision) {
+        return 1.04 / Math.sqrt(1 << precision);
+    }
+
+    public void add(String value) {
+        if (value != null) {
+            addHash(hash(value));
+        }
+    }
+
+    public void addHash(long hash) {
+        int index = (int) (hash >>> (64 - precision));
+        long remaining = hash << precision;
+        int rank = remaining == 0 ? 64 - precision + 1 : Long.numberOfLeadingZeros(remaining) + 1;
+        if (rank > registers[index]) {
+            registers[index] = (byte) rank;
+        }
+    }
+
+    /**
+     * Adds every value seen by {@code other} to this sketch. When {@code other} has a lower
+     * precision the union can only be kept at that precision, so a folded copy is returned
+     * instead; callers should always continue with the returned sketch.
+     */
+    public HyperLogLog merge(HyperLogLog other) {
+        if (other.precision < precision) {
+            return foldTo(other.precision).merge(other);
+        }
+
+        HyperLogLog source = other.precision > precision ? other.foldTo(precision) : other;
+        for (int i = 0; i < registers.length; i++) {
+            if (source.registers[i] > registers[i]) {
+                registers[i] = source.registers[i];
+            }
+        }
+        return this;
+    }
+
+    /**
+     * The sketch this one would be had it been built at the lower {@code targetPrecision}: the
+     * index bits that are dropped become the leading bits of the rank.
+     */
+    public HyperLogLog foldTo(int targetPrecision) {
+        if (targetPrecision > precision) {
+            throw new IllegalArgumentException("Cannot fold precision " + precision + " up to " + targetPrecision);
+        }
+
+        HyperLogLog folded = new HyperLogLog(targetPrecision);
+        int shift = precision - targetPrecision;
+        int droppedMask = (1 << shift) - 1;
+        for (int i = 0; i < registers.length; i++) {
+            if (registers[i] == 0) {
+                continue;
+            }
+
+            int dropped = i & droppedMask;
+            int rank = dropped != 0
+                    ? shift - (32 - Integer.numberOfLeadingZeros(dropped)) + 1
+                    : shift + registers[i];
+            int index = i >>> shift;
+            if (rank > folded.registers[index]) {
+                folded.registers[index] = (byte) rank;
+            }
+        }
+        return folded;
+    }
+
+    public long estimate() {
+        int m = registers.length;
+        double sum = 0;
+        int zeros = 0;
+        for (byte register : registers) {
+            sum += Math.scalb(1.0, -register);
+            if (register == 0) {
+                zeros++;
+            }
+        }
+
+        double raw = alpha(m) * m * m / sum;
+        if (raw <= 2.5 * m && zeros > 0) {
+            // Linear counting is far more accurate while many registers are still empty.
+            return Math.round(m * Math.log((double) m / zeros));
+        }
+        return Math.round(raw);
+    }
+
+    public boolean isEmpty() {
+        for (byte register : registers) {
+            if (register != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 64-bit FNV-1a over the UTF-16 code units, finished with the MurmurHash3 mixer so every
+     * input bit affects the index and rank bits.
+     */
+    static long hash(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    private static double alpha(int m) {
+        return switch (m) {
+            case 16 -> 0.673;
+            case 32 -> 0.697;
+            case 64 -> 0.709;
+            default -> 0.7213 / (1 + 1.079 / m);
+        };
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof HyperLogLog other)) {
+            return false;
+        }
+        return precision == other.precision && Arrays.equals(registers, other.registers);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * precision + Arrays.hashCode(registers);
+    }
+}
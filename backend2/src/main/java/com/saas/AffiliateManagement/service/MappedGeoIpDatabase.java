@@ -0,0 +1,182 @@
+package com.saas.AffiliateManagement.service;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * {@link GeoIpIndex} over a compiled database file mapped read-only into memory. The range columns
+ * stay in the file and are binary-searched in place, so they live in the OS page cache, shared by
+ * every JVM on the host that maps the same file, instead of on the heap. Only the string
+ * dictionary and the distinct locations are decoded when the file is opened; lookups return those
+ * shared instances.
+ * <p>
+ * Layout (big-endian): magic, version, IPv4 range count, IPv6 range count, string count, location
+ * count; the strings as length-prefixed UTF-8; each location as country and city string ids; then
+ * the IPv4 start, end and location columns and the IPv6 start high, start low, end high, end low
+ * and location columns, addresses sign-flipped as in {@link GeoIpDatabase}. A mapping is limited
+ * to 2 GB.
+ * <p>
+ * Compiled files must be replaced by a rename, never rewritten in place, since readers of the old
+ * mapping keep using it until they are collected.
+ */
+public final class MappedGeoIpDatabase extends GeoIpIndex {
+
+    static final int MAGIC = 0x47454F49; // "GEOI"
+    static final int VERSION = 1;
+
+    private final ByteBuffer ranges;
+    private final int ipv4Count;
+    private final int ipv6Count;
+    private final int ipv4Starts;
+    private final int ipv4Ends;
+    private final int ipv4Locations;
+    private final int ipv6StartHighs;
+    private final int ipv6StartLows;
+    private final int ipv6EndHighs;
+    private final int ipv6EndLows;
+    private final int ipv6Locations;
+    private final GeoLocationService.GeoLocation[] locations;
+
+    private MappedGeoIpDatabase(ByteBuffer ranges, int ipv4Count, int ipv6Count, int offset,
+                                GeoLocationService.GeoLocation[] locations) {
+        this.ranges = ranges;
+        this.ipv4Count = ipv4Count;
+        this.ipv6Count = ipv6Count;
+        this.ipv4Starts = offset;
+        this.ipv4Ends = ipv4Starts + ipv4Count * Integer.BYTES;
+        this.ipv4Locations = ipv4Ends + ipv4Count * Integer.BYTES;
+        this.ipv6StartHighs = ipv4Locations + ipv4Count * Integer.BYTES;
+        this.ipv6StartLows = ipv6StartHighs + ipv6Count * Long.BYTES;
+        this.ipv6EndHighs = ipv6StartLows + ipv6Count * Long.BYTES;
+        this.ipv6EndLows = ipv6EndHighs + ipv6Count * Long.BYTES;
+        this.ipv6Locations = ipv6EndLows + ipv6Count * Long.BYTES;
+        this.locations = locations;
+    }
+
+    public static MappedGeoIpDatabase open(Path path) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Geolocation database over 2 GB: " + path);
+            }
+            // The mapping stays valid after the channel is closed.
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+
+        if (buffer.capacity() < 6 * Integer.BYTES || buffer.getInt(0) != MAGIC) {
+            throw new IllegalArgumentException("Not a compiled geolocation database: " + path);
+        }
+        if (buffer.getInt(4) != VERSION) {
+            throw new IllegalArgumentException("Unsupported geolocation database version " + buffer.getInt(4));
+        }
+
+        ByteBuffer header = buffer.duplicate().position(8);
+        int ipv4Count = header.getInt();
+        int ipv6Count = header.getInt();
+        String[] strings = new String[header.getInt()];
+        GeoLocationService.GeoLocation[] locations = new GeoLocationService.GeoLocation[header.getInt()];
+        for (int i = 0; i < strings.length; i++) {
+            byte[] bytes = new byte[header.getInt()];
+            header.get(bytes);
+            strings[i] = new String(bytes, StandardCharsets.UTF_8).intern();
+        }
+        for (int i = 0; i < locations.length; i++) {
+            locations[i] = new GeoLocationService.GeoLocation(strings[header.getInt()], strings[header.getInt()]);
+        }
+
+        long expectedSize = header.position()
+                + (long) ipv4Count * 3 * Integer.BYTES
+                + (long) ipv6Count * (4 * Long.BYTES + Integer.BYTES);
+        if (expectedSize != buffer.capacity()) {
+            throw new IllegalArgumentException("Truncated or corrupt geolocation database: " + path);
+        }
+        return new MappedGeoIpDatabase(buffer, ipv4Count, ipv6Count, header.position(), locations);
+    }
+
+    /**
+     * Compiles a CSV database (see {@link GeoIpDatabase#readCsv}) into {@code target}, writing a
+     * temporary file next to it and renaming it into place.
+     */
+    public static void compile(Path csv, Path target) throws IOException {
+        GeoIpDatabase database;
+        try (BufferedReader reader = Files.newBufferedReader(csv, StandardCharsets.UTF_8)) {
+            database = GeoIpDatabase.readCsv(reader);
+        }
+
+        Path temporary = Files.createTempFile(target.toAbsolutePath().getParent(), target.getFileName().toString(), ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+                database.writeTo(out);
+            }
+            Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    /**
+     * Whether the file starts with the compiled database magic number.
+     */
+    public static boolean isCompiled(Path path) throws IOException {
+        try (InputStream in = Files.newInputStream(path)) {
+            byte[] magic = in.readNBytes(Integer.BYTES);
+            return magic.length == Integer.BYTES && ByteBuffer.wrap(magic).getInt() == MAGIC;
+        }
+    }
+
+    @Override
+    public int size() {
+        return ipv4Count + ipv6Count;
+    }
+
+    @Override
+    GeoLocationService.GeoLocation locateIpv4(int key) {
+        int low = 0;
+        int high = ipv4Count - 1;
+        int found = -1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (ranges.getInt(ipv4Starts + mid * Integer.BYTES) <= key) {
+                found = mid;
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return found >= 0 && key <= ranges.getInt(ipv4Ends + found * Integer.BYTES)
+                ? locations[ranges.getInt(ipv4Locations + found * Integer.BYTES)]
+                : GeoLocationService.GeoLocation.UNKNOWN;
+    }
+
+    @Override
+    GeoLocationService.GeoLocation locateIpv6(long keyHigh, long keyLow) {
+        int low = 0;
+        int high = ipv6Count - 1;
+        int found = -1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (compare(ranges.getLong(ipv6StartHighs + mid * Long.BYTES),
+                    ranges.getLong(ipv6StartLows + mid * Long.BYTES), keyHigh, keyLow) <= 0) {
+                found = mid;
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return found >= 0 && compare(keyHigh, keyLow, ranges.getLong(ipv6EndHighs + found * Long.BYTES),
+                ranges.getLong(ipv6EndLows + found * Long.BYTES)) <= 0
+                ? locations[ranges.getInt(ipv6Locations + found * Integer.BYTES)]
+                : GeoLocationService.GeoLocation.UNKNOWN;
+    }
+}
@@ -0,0 +1,97 @@
+package com.saas.AffiliateManagement.service;
+
+import com.saas.AffiliateManagement.repository.PartitionRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.YearMonth;
+import java.util.List;
+
+/**
+ * Keeps the monthly partitions of referrals and commissions ahead of the clock: at startup and
+ * then on a fixed delay it creates the partitions for the current month and the next
+ * {@code premake-months}. With a retention set, partitions older than that many months are
+ * detached (and optionally dropped), which removes a month of rows without a DELETE.
+ */
+@Component
+@Slf4j
+public class PartitionMaintainer {
+
+    private final PartitionRepository partitionRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final int premakeMonths;
+    private final int retentionMonths;
+    private final boolean dropDetached;
+
+    public PartitionMaintainer(PartitionRepository partitionRepository,
+                               TransactionTemplate transactionTemplate,
+                               @Value("${partitions.enabled:true}") boolean enabled,
+                               @Value("${partitions.premake-months:3}") int premakeMonths,
+                               @Value("${partitions.retention-months:0}") int retentionMonths,
+                               @Value("${partitions.drop-detached:false}") boolean dropDetached) {
+        this.partitionRepository = partitionRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.enabled = enabled;
+        this.premakeMonths = premakeMonths;
+        this.retentionMonths = retentionMonths;
+        this.dropDetached = dropDetached;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void maintainOnStartup() {
+        maintain();
+    }
+
+    @Scheduled(fixedDelayString = "${partitions.maintenance-interval:PT6H}",
+            initialDelayString = "${partitions.maintenance-interval:PT6H}")
+    public void maintain() {
+        if (!enabled) {
+            return;
+        }
+
+        YearMonth current = YearMonth.now();
+        for (String table : PartitionRepository.PARTITIONED_TABLES) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> maintain(table, current));
+            } catch (RuntimeException e) {
+                log.error("Partition maintenance of {} failed: {}", table, e.getMessage(), e);
+            }
+        }
+    }
+
+    private void maintain(String table, YearMonth current) {
+        partitionRepository.lockForMaintenance(table);
+        List<YearMonth> existing = partitionRepository.findMonthlyPartitions(table);
+
+        for (int ahead = 0; ahead <= premakeMonths; ahead++) {
+            YearMonth month = current.plusMonths(ahead);
+            if (!existing.contains(month)) {
+                partitionRepository.createMonthlyPartition(table, month);
+                log.info("Created partition {}", PartitionRepository.partitionName(table, month));
+            }
+        }
+
+        if (retentionMonths <= 0) {
+            return;
+        }
+        YearMonth oldestKept = current.minusMonths(retentionMonths);
+        for (YearMonth month : existing) {
+            if (!month.isBefore(oldestKept)) {
+                break;
+            }
+            partitionRepository.detachMonthlyPartition(table, month);
+            if (dropDetached) {
+                partitionRepository.dropDetachedPartition(table, month);
+                log.info("Dropped partition {}", PartitionRepository.partitionName(table, month));
+            } else {
+                log.info("Detached partition {}", PartitionRepository.partitionName(table, month));
+            }
+        }
+    }
+}
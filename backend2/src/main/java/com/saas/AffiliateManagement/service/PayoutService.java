@@ -1,5 +1,6 @@
 package com.saas.AffiliateManagement.service;
 
+import com.saas.AffiliateManagement.models.dto.CursorPage;
 import com.saas.AffiliateManagement.models.dto.PayoutDto;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -17,4 +18,16 @@ public interface PayoutService {
             LocalDate commissionEnd,
             Pageable pageable
     );
+
+    CursorPage<PayoutDto> getPayoutsForClient(
+            Long clientId,
+            String partnerName,
+            String email,
+            String status,
+            LocalDate commissionStart,
+            LocalDate commissionEnd,
+            String cursor,
+            int size,
+            boolean withTotal
+    );
 }
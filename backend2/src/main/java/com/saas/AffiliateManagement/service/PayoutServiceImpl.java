@@ -1,8 +1,12 @@
 package com.saas.AffiliateManagement.service;
 
+import com.saas.AffiliateManagement.models.dto.CursorPage;
 import com.saas.AffiliateManagement.models.dto.PayoutDto;
 import com.saas.AffiliateManagement.models.entity.Payout;
+import com.saas.AffiliateManagement.repository.KeysetCursor;
 import com.saas.AffiliateManagement.repository.PayoutRepository;
+import com.saas.AffiliateManagement.repository.RowEstimateRepository;
+import com.saas.AffiliateManagement.repository.SearchPatterns;
 import com.saas.AffiliateManagement.service.mappers.PayoutMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -14,6 +18,7 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.util.List;
 
 @Service
 @RequiredArgsConstructor
@@ -23,6 +28,7 @@ public class PayoutServiceImpl implements PayoutService {
 
     private final PayoutRepository payoutRepository;
     private final PayoutMapper payoutMapper;
+    private final RowEstimateRepository rowEstimateRepository;
 
     @Override
     public Page<PayoutDto> getPayoutsForClient(
@@ -48,4 +54,33 @@ public class PayoutServiceImpl implements PayoutService {
 
         return payouts.map(payoutMapper::toDto);
     }
+
+    @Override
+    public CursorPage<PayoutDto> getPayoutsForClient(
+            Long clientId,
+            String partnerName,
+            String email,
+            String status,
+            LocalDate commissionStart,
+            LocalDate commissionEnd,
+            String cursor,
+            int size,
+            boolean withTotal) {
+
+        KeysetCursor position = KeysetCursor.decode(cursor);
+        int pageSize = KeysetCursor.pageSize(size);
+
+        List<Payout> rows = payoutRepository.findForClientPageAfter(
+                clientId,
+                SearchPatterns.contains(partnerName),
+                SearchPatterns.contains(email),
+                status != null && !status.isBlank() ? status.trim().toLowerCase() : null,
+                commissionStart, commissionEnd,
+                position.createdAt(), position.id(), PageRequest.of(0, pageSize + 1));
+
+        return CursorPage.of(rows, pageSize,
+                payout -> new KeysetCursor(payout.getCreatedAt(), payout.getId()).encode(),
+                payoutMapper::toDto,
+                withTotal && position == KeysetCursor.FIRST ? rowEstimateRepository.countPayoutsByClient(clientId) : null);
+    }
 }
\ No newline at end of file
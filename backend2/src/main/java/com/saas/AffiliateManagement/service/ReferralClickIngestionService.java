@@ -0,0 +1,213 @@
+package com.saas.AffiliateManagement.service;
+
+import com.saas.AffiliateManagement.exceptions.ReferralClickWriteException;
+import com.saas.AffiliateManagement.models.dto.ReferralClickEvent;
+import com.saas.AffiliateManagement.repository.ReferralClickWriter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Write-behind pipeline for referral clicks. The redirect handler hands a click to
+ * {@link #submit(ReferralClickEvent)} and returns immediately; a single drainer thread
+ * flushes the bounded queue to the referrals table in multi-row inserts.
+ * <p>
+ * When the queue stays full for longer than the offer timeout, or the database rejects a
+ * batch, clicks are spilled to disk and replayed once the queue has caught up. On shutdown
+ * the drainer flushes whatever is still queued before the datasource goes away.
+ */
+@Service
+@Slf4j
+public class ReferralClickIngestionService implements SmartLifecycle {
+
+    private final ReferralClickWriter referralClickWriter;
+    private final ReferralClickSpillStore spillStore;
+    private final BlockingQueue<ReferralClickEvent> queue;
+    private final int batchSize;
+    private final Duration flushInterval;
+    private final Duration offerTimeout;
+    private final Duration shutdownTimeout;
+    private final boolean virtualThreads;
+
+    private volatile boolean running;
+    private Thread drainer;
+
+    public ReferralClickIngestionService(
+            ReferralClickWriter referralClickWriter,
+            ReferralClickSpillStore spillStore,
+            @Value("${referral.click-ingestion.queue-capacity:10000}") int queueCapacity,
+            @Value("${referral.click-ingestion.batch-size:500}") int batchSize,
+            @Value("${referral.click-ingestion.flush-interval:PT0.2S}") Duration flushInterval,
+            @Value("${referral.click-ingestion.offer-timeout:PT0.01S}") Duration offerTimeout,
+            @Value("${referral.click-ingestion.shutdown-timeout:PT30S}") Duration shutdownTimeout,
+            @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        this.referralClickWriter = referralClickWriter;
+        this.spillStore = spillStore;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.flushInterval = flushInterval;
+        this.offerTimeout = offerTimeout;
+        this.shutdownTimeout = shutdownTimeout;
+        this.virtualThreads = virtualThreads;
+    }
+
+    public void submit(ReferralClickEvent event) {
+        try {
+            if (running && queue.offer(event, offerTimeout.toNanos(), TimeUnit.NANOSECONDS)) {
+                return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        spill(List.of(event));
+    }
+
+    public int getQueuedClickCount() {
+        return queue.size();
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        Thread.Builder builder = virtualThreads ? Thread.ofVirtual() : Thread.ofPlatform();
+        drainer = builder.name("referral-click-drainer").start(this::drainLoop);
+        log.info("Referral click ingestion started (batch size: {}, flush interval: {})", batchSize, flushInterval);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (drainer == null) {
+            return;
+        }
+
+        try {
+            drainer.join(shutdownTimeout.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        if (drainer.isAlive()) {
+            drainer.interrupt();
+            List<ReferralClickEvent> remaining = new ArrayList<>();
+            queue.drainTo(remaining);
+            spill(remaining);
+            log.warn("Click drainer did not finish within {}, spilled {} clicks", shutdownTimeout, remaining.size());
+        } else {
+            log.info("Referral click ingestion stopped, queue drained");
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        // Stop after the web server has stopped accepting redirects, start before it.
+        return 0;
+    }
+
+    private void drainLoop() {
+        List<ReferralClickEvent> batch = new ArrayList<>(batchSize);
+        replaySpilledClicks();
+
+        while (running || !queue.isEmpty()) {
+            try {
+                ReferralClickEvent first = queue.poll(flushInterval.toMillis(), TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    if (running) {
+                        replaySpilledClicks();
+                    }
+                    continue;
+                }
+
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                flush(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void flush(List<ReferralClickEvent> batch) {
+        try {
+            int written = referralClickWriter.insertBatch(batch);
+            log.debug("Flushed {} referral clicks", written);
+        } catch (RuntimeException e) {
+            List<ReferralClickEvent> unwritten = unwritten(batch, e);
+            log.error("Failed to flush {} of {} referral clicks: {}", unwritten.size(), batch.size(), e.getMessage());
+            spill(new ArrayList<>(unwritten));
+        }
+    }
+
+    private void replaySpilledClicks() {
+        List<Path> files;
+        try {
+            files = spillStore.sealAndList();
+        } catch (IOException e) {
+            log.error("Cannot list spilled referral clicks: {}", e.getMessage());
+            return;
+        }
+
+        for (Path file : files) {
+            if (!queue.isEmpty()) {
+                // Live traffic takes priority; continue replaying on the next idle poll.
+                return;
+            }
+
+            try {
+                List<ReferralClickEvent> events = spillStore.read(file);
+                for (int from = 0; from < events.size(); from += batchSize) {
+                    List<ReferralClickEvent> chunk = events.subList(from, Math.min(from + batchSize, events.size()));
+                    try {
+                        referralClickWriter.insertBatch(chunk);
+                    } catch (RuntimeException e) {
+                        // Keep the clicks that were not written yet and retry them later. The append
+                        // goes to a new file, since sealAndList only returns files no longer open.
+                        List<ReferralClickEvent> remaining = new ArrayList<>(unwritten(chunk, e));
+                        remaining.addAll(events.subList(from + chunk.size(), events.size()));
+                        spillStore.append(remaining);
+                        spillStore.delete(file);
+                        log.error("Replay of {} failed, will retry: {}", file, e.getMessage());
+                        return;
+                    }
+                }
+                spillStore.delete(file);
+                log.info("Replayed {} spilled referral clicks from {}", events.size(), file);
+            } catch (IOException e) {
+                log.error("Cannot replay spilled referral clicks from {}: {}", file, e.getMessage());
+                return;
+            }
+        }
+    }
+
+    // Only a failed row-by-row retry can leave part of the batch committed.
+    private static List<ReferralClickEvent> unwritten(List<ReferralClickEvent> batch, RuntimeException e) {
+        return e instanceof ReferralClickWriteException partial ? partial.getUnwritten() : batch;
+    }
+
+    private void spill(List<ReferralClickEvent> events) {
+        try {
+            spillStore.append(events);
+        } catch (IOException e) {
+            log.error("Lost {} referral clicks, spill to disk failed: {}", events.size(), e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package com.saas.AffiliateManagement.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.saas.AffiliateManagement.models.dto.ReferralClickEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * Append-only JSON-lines files holding clicks that could not be queued or written.
+ * Each append is forced to disk before returning, so a spilled click survives a crash.
+ */
+@Component
+@Slf4j
+public class ReferralClickSpillStore {
+
+    private static final String FILE_PREFIX = "clicks-";
+    private static final String FILE_SUFFIX = ".jsonl";
+
+    private final ObjectMapper objectMapper;
+    private final Path directory;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private FileChannel channel;
+    private Path currentFile;
+
+    /**
+     * @throws IllegalStateException if no directory is configured or it cannot be created
+     */
+    public ReferralClickSpillStore(ObjectMapper objectMapper,
+                                   @Value("${referral.click-ingestion.spill-directory:}") String directory) {
+        if (directory == null || directory.isBlank()) {
+            throw new IllegalStateException("referral.click-ingestion.spill-directory must point to a directory " +
+                    "on storage that survives a restart");
+        }
+        this.objectMapper = objectMapper;
+        this.directory = Paths.get(directory);
+
+        try {
+            Files.createDirectories(this.directory);
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot create click spill directory " + directory, e);
+        }
+        if (!Files.isWritable(this.directory)) {
+            throw new IllegalStateException("Click spill directory is not writable: " + directory);
+        }
+    }
+
+    public void append(List<ReferralClickEvent> events) throws IOException {
+        if (events.isEmpty()) {
+            return;
+        }
+
+        StringBuilder lines = new StringBuilder();
+        for (ReferralClickEvent event : events) {
+            lines.append(objectMapper.writeValueAsString(event)).append('\n');
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(lines.toString().getBytes(StandardCharsets.UTF_8));
+
+        lock.lock();
+        try {
+            if (channel == null) {
+                openNewFile();
+            }
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+            log.warn("Spilled {} referral clicks to {}", events.size(), currentFile);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Closes the file currently being appended to and returns every spill file, oldest first.
+     * The listing is taken under the append lock, so it only contains sealed files: appends that
+     * arrive afterwards open a new file, which the caller never sees and may not delete.
+     */
+    public List<Path> sealAndList() throws IOException {
+        lock.lock();
+        try {
+            closeCurrentFile();
+            if (!Files.isDirectory(directory)) {
+                return List.of();
+            }
+
+            try (Stream<Path> files = Files.list(directory)) {
+                return files
+                        .filter(file -> {
+                            String name = file.getFileName().toString();
+                            return name.startsWith(FILE_PREFIX) && name.endsWith(FILE_SUFFIX);
+                        })
+                        .sorted()
+                        .toList();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public List<ReferralClickEvent> read(Path file) throws IOException {
+        List<ReferralClickEvent> events = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                try {
+                    events.add(objectMapper.readValue(line, ReferralClickEvent.class));
+                } catch (IOException e) {
+                    // A torn last line from a crash mid-append; everything before it is intact.
+                    log.error("Skipping unreadable spilled click in {}: {}", file, e.getMessage());
+                }
+            }
+        }
+        return events;
+    }
+
+    public void delete(Path file) throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    private void openNewFile() throws IOException {
+        Files.createDirectories(directory);
+        currentFile = directory.resolve(FILE_PREFIX + System.currentTimeMillis() + "-" + System.nanoTime() + FILE_SUFFIX);
+        channel = FileChannel.open(currentFile,
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    private void closeCurrentFile() throws IOException {
+        if (channel != null) {
+            channel.close();
+            channel = null;
+            currentFile = null;
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.saas.AffiliateManagement.service;
+
+/**
+ * Produces referral codes that are unique by construction, so callers never need to check
+ * the database for collisions before using one.
+ */
+public interface ReferralCodeGenerator {
+
+    String nextCode();
+}
@@ -2,20 +2,26 @@ package com.saas.AffiliateManagement.service;
 
 import com.saas.AffiliateManagement.exceptions.AffiliateNotFoundException;
 import com.saas.AffiliateManagement.exceptions.ReferralNotFoundException;
+import com.saas.AffiliateManagement.models.dto.AffiliateRedirectDescriptor;
+import com.saas.AffiliateManagement.models.dto.ReferralClickEvent;
+import com.saas.AffiliateManagement.models.dto.ReferralRollupDelta;
+import com.saas.AffiliateManagement.models.dto.ReferralVisit;
 import com.saas.AffiliateManagement.models.dto.ReferralTrackingInfo;
 import com.saas.AffiliateManagement.models.dto.TrackingData;
-import com.saas.AffiliateManagement.models.entity.Affiliate;
 import com.saas.AffiliateManagement.models.entity.Referral;
 import com.saas.AffiliateManagement.repository.AffiliateRepository;
+import com.saas.AffiliateManagement.repository.ClientRepository;
 import com.saas.AffiliateManagement.repository.ReferralRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.util.UriComponentsBuilder;
 
 import java.time.LocalDateTime;
-import java.util.UUID;
+import java.util.List;
 
 @Service
 @RequiredArgsConstructor
@@ -23,26 +29,45 @@ import java.util.UUID;
 public class ReferralRedirectServiceImpl implements ReferralRedirectService {
 
     private final AffiliateRepository affiliateRepository;
+    private final ClientRepository clientRepository;
     private final ReferralRepository referralRepository;
+    private final AffiliateRedirectCache affiliateRedirectCache;
+    private final ReferralClickIngestionService referralClickIngestionService;
+    private final ReferralCodeGenerator referralCodeGenerator;
+    private final DeviceDetector deviceDetector;
+    private final GeoLocationService geoLocationService;
+    private final ReferralRollupService referralRollupService;
+    private final VisitorSketchService visitorSketchService;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${referral.click-ingestion.enabled:true}")
+    private boolean clickIngestionEnabled;
 
     @Override
-    @Transactional
     public String processReferralClick(String affiliateIdentifier, String campaign, TrackingData trackingData) {
 
-        Affiliate affiliate = findAffiliateByIdentifier(affiliateIdentifier);
+        AffiliateRedirectDescriptor affiliate = findAffiliateByIdentifier(affiliateIdentifier);
 
-        if (!isAffiliateActive(affiliate)) {
+        if (!affiliate.isActive()) {
             log.warn("Inactive affiliate attempted access: {}", affiliateIdentifier);
             throw new AffiliateNotFoundException("Affiliate is not active: " + affiliateIdentifier);
         }
 
-        String referralCode = generateUniqueReferralCode();
-
-        Referral referral = createReferralRecord(affiliate, referralCode, campaign, trackingData);
-
-        referralRepository.save(referral);
-
-        log.info("Created referral tracking record: {} for affiliate: {}", referralCode, affiliate.getId());
+        String referralCode = referralCodeGenerator.nextCode();
+        enrichTrackingData(trackingData);
+
+        if (clickIngestionEnabled) {
+            referralClickIngestionService.submit(createClickEvent(affiliate, referralCode, campaign, trackingData));
+            log.debug("Queued referral click: {} for affiliate: {}", referralCode, affiliate.getId());
+        } else {
+            Referral referral = createReferralRecord(affiliate, referralCode, campaign, trackingData);
+            transactionTemplate.executeWithoutResult(status -> {
+                Referral saved = referralRepository.save(referral);
+                referralRollupService.record(ReferralRollupDelta.addition(saved));
+                visitorSketchService.recordVisits(List.of(ReferralVisit.of(saved)));
+            });
+            log.info("Created referral tracking record: {} for affiliate: {}", referralCode, affiliate.getId());
+        }
 
         return buildRedirectUrl(affiliate, referralCode, campaign);
     }
@@ -57,45 +82,32 @@ public class ReferralRedirectServiceImpl implements ReferralRedirectService {
         return buildTrackingInfo(referral);
     }
 
-    private Affiliate findAffiliateByIdentifier(String identifier) {
-        return affiliateRepository.findByUniqueIdentifier(identifier)
-                .or(() -> affiliateRepository.findById(parseIdIfNumeric(identifier)))
+    private AffiliateRedirectDescriptor findAffiliateByIdentifier(String identifier) {
+        return affiliateRedirectCache.resolve(identifier)
                 .orElseThrow(() -> new AffiliateNotFoundException("Affiliate not found: " + identifier));
     }
 
-    private Long parseIdIfNumeric(String identifier) {
-        try {
-            return Long.parseLong(identifier);
-        } catch (NumberFormatException e) {
-            return null;
+    private void enrichTrackingData(TrackingData trackingData) {
+        if (trackingData.getDeviceType() == null) {
+            DeviceDetector.DeviceInfo deviceInfo = deviceDetector.detectDevice(trackingData.getUserAgent());
+            trackingData.setDeviceType(deviceInfo.getDeviceType());
+            trackingData.setBrowserName(deviceInfo.getBrowserName());
+            trackingData.setOperatingSystem(deviceInfo.getOperatingSystem());
         }
-    }
-
-    private boolean isAffiliateActive(Affiliate affiliate) {
-        return "ACTIVE".equalsIgnoreCase(affiliate.getStatus());
-    }
 
-    private String generateUniqueReferralCode() {
-        String code;
-        int attempts = 0;
-        do {
-            code = "REF_" + UUID.randomUUID().toString().substring(0, 12).toUpperCase();
-            attempts++;
-        } while (referralRepository.existsByReferralCode(code) && attempts < 5);
-
-        if (attempts >= 5) {
-            code = "REF_" + System.currentTimeMillis();
+        if (trackingData.getCountry() == null) {
+            GeoLocationService.GeoLocation geoLocation = geoLocationService.getLocation(trackingData.getIpAddress());
+            trackingData.setCountry(geoLocation.getCountry());
+            trackingData.setCity(geoLocation.getCity());
         }
-
-        return code;
     }
 
-    private Referral createReferralRecord(Affiliate affiliate, String referralCode,
+    private Referral createReferralRecord(AffiliateRedirectDescriptor affiliate, String referralCode,
                                           String campaign, TrackingData trackingData) {
 
         return Referral.builder()
-                .affiliate(affiliate)
-                .client(affiliate.getClient())
+                .affiliate(affiliateRepository.getReferenceById(affiliate.getId()))
+                .client(clientRepository.getReferenceById(affiliate.getClientId()))
                 .referralCode(referralCode)
                 .targetUrl(affiliate.getTargetUrl())
                 .sourceUrl(trackingData.getRefererUrl())
@@ -109,12 +121,35 @@ public class ReferralRedirectServiceImpl implements ReferralRedirectService {
                 .city(trackingData.getCity())
                 .clickedAt(LocalDateTime.now())
                 .customerEmail(affiliate.getEmail())
-                .customerName(affiliate.getClient().getName())
+                .customerName(affiliate.getClientName())
+                .source(campaign)
+                .build();
+    }
+
+    private ReferralClickEvent createClickEvent(AffiliateRedirectDescriptor affiliate, String referralCode,
+                                                String campaign, TrackingData trackingData) {
+
+        return ReferralClickEvent.builder()
+                .affiliateId(affiliate.getId())
+                .clientId(affiliate.getClientId())
+                .referralCode(referralCode)
+                .targetUrl(affiliate.getTargetUrl())
+                .sourceUrl(trackingData.getRefererUrl())
+                .userAgent(trackingData.getUserAgent())
+                .ipAddress(trackingData.getIpAddress())
+                .deviceType(trackingData.getDeviceType())
+                .browserName(trackingData.getBrowserName())
+                .operatingSystem(trackingData.getOperatingSystem())
+                .country(trackingData.getCountry())
+                .city(trackingData.getCity())
+                .customerEmail(affiliate.getEmail())
+                .customerName(affiliate.getClientName())
                 .source(campaign)
+                .clickedAt(LocalDateTime.now())
                 .build();
     }
 
-    private String buildRedirectUrl(Affiliate affiliate, String referralCode, String campaign) {
+    private String buildRedirectUrl(AffiliateRedirectDescriptor affiliate, String referralCode, String campaign) {
 
         String baseUrl = affiliate.getTargetUrl();
 
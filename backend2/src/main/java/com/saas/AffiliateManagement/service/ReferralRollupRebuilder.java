@@ -0,0 +1,50 @@
+package com.saas.AffiliateManagement.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Rebuilds the referral rollups and visitor sketches once the application is ready, so
+ * referrals written outside the tracked write paths (seed data, imports, manual fixes) are
+ * reflected in the analytics. Each rebuild blocks referral writes while it scans the whole
+ * table, so both are maintenance tasks: off by default, enabled for one run with
+ * {@code --referral.rollups.rebuild-on-startup=true} and
+ * {@code --referral.visitor-sketch.rebuild-on-startup=true}. Only one instance rebuilds at a time.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ReferralRollupRebuilder {
+
+    private final ReferralRollupService referralRollupService;
+    private final VisitorSketchService visitorSketchService;
+
+    @Value("${referral.rollups.rebuild-on-startup:false}")
+    private boolean rebuildRollups;
+
+    @Value("${referral.visitor-sketch.rebuild-on-startup:false}")
+    private boolean rebuildVisitorSketches;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildOnStartup() {
+        if (rebuildRollups) {
+            try {
+                referralRollupService.rebuild();
+            } catch (RuntimeException e) {
+                log.error("Referral rollup rebuild failed: {}", e.getMessage(), e);
+            }
+        }
+
+        if (rebuildVisitorSketches) {
+            try {
+                visitorSketchService.rebuild();
+            } catch (RuntimeException e) {
+                log.error("Visitor sketch rebuild failed: {}", e.getMessage(), e);
+            }
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.saas.AffiliateManagement.service;
+
+import com.saas.AffiliateManagement.models.RollupGranularity;
+import com.saas.AffiliateManagement.models.dto.ReferralRollupCell;
+import com.saas.AffiliateManagement.models.dto.ReferralRollupDelta;
+import com.saas.AffiliateManagement.repository.ReferralRollupRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Hourly and daily referral rollups. Write paths record a delta for every referral they add,
+ * change or remove, in the same transaction as the referral itself. Readers get closed hours
+ * and days from the rollups and only scan raw referrals for the partial hours at either end of
+ * the requested range, which includes the still-open current hour.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ReferralRollupService {
+
+    private final ReferralRollupRepository referralRollupRepository;
+
+    /**
+     * Applies the deltas; {@code null} entries (referrals without a click time) are skipped.
+     */
+    @Transactional
+    public void record(ReferralRollupDelta... deltas) {
+        referralRollupRepository.apply(Arrays.asList(deltas));
+    }
+
+    @Transactional
+    public void record(List<ReferralRollupDelta> deltas) {
+        referralRollupRepository.apply(deltas);
+    }
+
+    /**
+     * Referral totals for clicks in [start, end], optionally for a single affiliate. Cells from
+     * the rollups carry the start of their hour or day; cells from raw rows the start of their hour.
+     */
+    @Transactional(readOnly = true)
+    public List<ReferralRollupCell> findCells(Long affiliateId, LocalDateTime start, LocalDateTime end) {
+        // Timestamps are stored with microsecond precision, so this turns the inclusive end into an exclusive one.
+        LocalDateTime to = end.truncatedTo(ChronoUnit.MICROS).plus(1, ChronoUnit.MICROS);
+        LocalDateTime from = start;
+
+        LocalDateTime firstHour = RollupGranularity.HOUR.ceiling(from);
+        LocalDateTime lastHour = RollupGranularity.HOUR.bucketStart(to);
+        if (!firstHour.isBefore(lastHour)) {
+            return referralRollupRepository.aggregateRaw(from, to, affiliateId);
+        }
+
+        List<ReferralRollupCell> cells = new ArrayList<>();
+        cells.addAll(referralRollupRepository.aggregateRaw(from, firstHour, affiliateId));
+
+        LocalDateTime firstDay = RollupGranularity.DAY.ceiling(firstHour);
+        LocalDateTime lastDay = RollupGranularity.DAY.bucketStart(lastHour);
+        if (firstDay.isBefore(lastDay)) {
+            cells.addAll(hourCells(firstHour, firstDay, affiliateId));
+            cells.addAll(referralRollupRepository.findCells(RollupGranularity.DAY, firstDay, lastDay, affiliateId));
+            cells.addAll(hourCells(lastDay, lastHour, affiliateId));
+        } else {
+            cells.addAll(hourCells(firstHour, lastHour, affiliateId));
+        }
+
+        cells.addAll(referralRollupRepository.aggregateRaw(lastHour, to, affiliateId));
+        return cells;
+    }
+
+    @Transactional
+    public void rebuild() {
+        long started = System.currentTimeMillis();
+        if (!referralRollupRepository.rebuild()) {
+            log.info("Referral rollups are being rebuilt by another instance, skipping");
+            return;
+        }
+        log.info("Rebuilt referral rollups in {} ms", System.currentTimeMillis() - started);
+    }
+
+    private List<ReferralRollupCell> hourCells(LocalDateTime from, LocalDateTime to, Long affiliateId) {
+        if (!from.isBefore(to)) {
+            return List.of();
+        }
+        return referralRollupRepository.findCells(RollupGranularity.HOUR, from, to, affiliateId);
+    }
+}
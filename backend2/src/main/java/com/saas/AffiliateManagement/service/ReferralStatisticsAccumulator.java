@@ -0,0 +1,271 @@
+package com.saas.AffiliateManagement.service;
+
+import com.saas.AffiliateManagement.models.DeviceStatistics;
+import com.saas.AffiliateManagement.models.GeographicStatistics;
+import com.saas.AffiliateManagement.models.TopLocation;
+import com.saas.AffiliateManagement.models.TopPerformingLink;
+import com.saas.AffiliateManagement.models.dto.ReferralStatsRow;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+
+/**
+ * Builds every section of a referral statistics response in a single pass over the rows,
+ * except unique visitors, which come from {@link VisitorSketchService}.
+ * Memory grows with the number of distinct keys (days, codes, countries, ...) rather than with
+ * the number of clicks, so rows can be streamed straight from a database cursor.
+ * <p>
+ * Accumulators are mergeable, which lets the rows be split across workers or partitions and
+ * combined with {@link #merge(ReferralStatisticsAccumulator)}. Not thread-safe on its own.
+ * <p>
+ * Top links and locations are ranked by revenue through {@link TopKAggregator}. Given a
+ * positive approximate capacity they keep at most that many counters each, trading exact
+ * totals for the long tail against bounded memory when an affiliate has very many codes.
+ */
+public class ReferralStatisticsAccumulator {
+
+    private static final int TOP_LIMIT = 10;
+    private static final BigDecimal HUNDRED = BigDecimal.valueOf(100);
+
+    private final UnaryOperator<String> sourceDomain;
+
+    private long totalClicks;
+    private long totalConversions;
+    private BigDecimal totalRevenue = BigDecimal.ZERO;
+
+    private final Map<String, Long> clicksByDay = new HashMap<>();
+    private final Map<String, Long> conversionsByDay = new HashMap<>();
+    private final TopKAggregator<String, Totals> links;
+    private final Map<String, BigDecimal> revenueBySource = new HashMap<>();
+
+    private final Map<String, Totals> deviceTypes = new HashMap<>();
+    private final Map<String, Long> browsers = new HashMap<>();
+    private final Map<String, Long> operatingSystems = new HashMap<>();
+
+    private final Map<String, Totals> countries = new HashMap<>();
+    private final TopKAggregator<Location, Totals> locations;
+
+    public ReferralStatisticsAccumulator(UnaryOperator<String> sourceDomain) {
+        this(sourceDomain, 0);
+    }
+
+    public ReferralStatisticsAccumulator(UnaryOperator<String> sourceDomain, int approximateCapacity) {
+        this.sourceDomain = sourceDomain;
+        this.links = topK(approximateCapacity);
+        this.locations = topK(approximateCapacity);
+    }
+
+    public void accept(ReferralStatsRow row) {
+        boolean converted = row.isConverted();
+        BigDecimal revenue = converted && row.getConversionValue() != null
+                ? row.getConversionValue()
+                : BigDecimal.ZERO;
+
+        totalClicks++;
+        if (converted) {
+            totalConversions++;
+            totalRevenue = totalRevenue.add(revenue);
+        }
+
+        String day = row.getClickedAt().toLocalDate().toString();
+        clicksByDay.merge(day, 1L, Long::sum);
+        if (converted) {
+            conversionsByDay.merge(day, 1L, Long::sum);
+        }
+
+        Totals link = links.add(row.getReferralCode(), revenue);
+        if (link.label == null) {
+            link.label = row.getTargetUrl();
+        }
+        link.add(converted, revenue);
+
+        if (converted && row.getSourceUrl() != null) {
+            revenueBySource.merge(sourceDomain.apply(row.getSourceUrl()), revenue, BigDecimal::add);
+        }
+
+        if (row.getDeviceType() != null) {
+            deviceTypes.computeIfAbsent(row.getDeviceType(), key -> new Totals()).add(converted, revenue);
+        }
+        if (row.getBrowserName() != null) {
+            browsers.merge(row.getBrowserName(), 1L, Long::sum);
+        }
+        if (row.getOperatingSystem() != null) {
+            operatingSystems.merge(row.getOperatingSystem(), 1L, Long::sum);
+        }
+
+        if (row.getCountry() != null) {
+            countries.computeIfAbsent(row.getCountry(), key -> new Totals()).add(converted, revenue);
+            if (row.getCity() != null) {
+                locations.add(new Location(row.getCountry(), row.getCity()), revenue).add(converted, revenue);
+            }
+        }
+    }
+
+    public ReferralStatisticsAccumulator merge(ReferralStatisticsAccumulator other) {
+        totalClicks += other.totalClicks;
+        totalConversions += other.totalConversions;
+        totalRevenue = totalRevenue.add(other.totalRevenue);
+
+        other.clicksByDay.forEach((key, value) -> clicksByDay.merge(key, value, Long::sum));
+        other.conversionsByDay.forEach((key, value) -> conversionsByDay.merge(key, value, Long::sum));
+        other.revenueBySource.forEach((key, value) -> revenueBySource.merge(key, value, BigDecimal::add));
+        other.browsers.forEach((key, value) -> browsers.merge(key, value, Long::sum));
+        other.operatingSystems.forEach((key, value) -> operatingSystems.merge(key, value, Long::sum));
+
+        links.merge(other.links, Totals::combine);
+        mergeTotals(deviceTypes, other.deviceTypes);
+        mergeTotals(countries, other.countries);
+        locations.merge(other.locations, Totals::combine);
+        return this;
+    }
+
+    public long getTotalClicks() {
+        return totalClicks;
+    }
+
+    public long getTotalConversions() {
+        return totalConversions;
+    }
+
+    public BigDecimal getTotalRevenue() {
+        return totalRevenue;
+    }
+
+    public BigDecimal getConversionRate() {
+        return rate(totalConversions, totalClicks);
+    }
+
+    public BigDecimal getAverageOrderValue() {
+        return totalConversions > 0
+                ? totalRevenue.divide(BigDecimal.valueOf(totalConversions), 2, RoundingMode.HALF_UP)
+                : BigDecimal.ZERO;
+    }
+
+    public Map<String, Long> getClicksByDay() {
+        return new HashMap<>(clicksByDay);
+    }
+
+    public Map<String, Long> getConversionsByDay() {
+        return new HashMap<>(conversionsByDay);
+    }
+
+    public Map<String, BigDecimal> getRevenueBySource() {
+        return new HashMap<>(revenueBySource);
+    }
+
+    public List<TopPerformingLink> getTopLinks() {
+        return links.top().stream()
+                .map(entry -> TopPerformingLink.builder()
+                        .referralCode(entry.key())
+                        .targetUrl(entry.value().label)
+                        .clicks(entry.value().clicks)
+                        .conversions(entry.value().conversions)
+                        .conversionRate(rate(entry.value().conversions, entry.value().clicks))
+                        .revenue(entry.value().revenue)
+                        .build())
+                .toList();
+    }
+
+    public DeviceStatistics getDeviceStatistics() {
+        return DeviceStatistics.builder()
+                .deviceTypes(mapValues(deviceTypes, totals -> totals.clicks))
+                .browsers(new HashMap<>(browsers))
+                .operatingSystems(new HashMap<>(operatingSystems))
+                .conversionRateByDevice(mapValues(deviceTypes, totals -> rate(totals.conversions, totals.clicks)))
+                .build();
+    }
+
+    public GeographicStatistics getGeographicStatistics() {
+        Map<String, Totals> converting = new HashMap<>();
+        countries.forEach((country, totals) -> {
+            if (totals.conversions > 0) {
+                converting.put(country, totals);
+            }
+        });
+
+        List<TopLocation> topLocations = locations.top().stream()
+                .map(entry -> TopLocation.builder()
+                        .country(entry.key().country())
+                        .city(entry.key().city())
+                        .clicks(entry.value().clicks)
+                        .conversions(entry.value().conversions)
+                        .revenue(entry.value().revenue)
+                        .build())
+                .toList();
+
+        return GeographicStatistics.builder()
+                .clicksByCountry(mapValues(countries, totals -> totals.clicks))
+                .conversionsByCountry(mapValues(converting, totals -> totals.conversions))
+                .revenueByCountry(mapValues(converting, totals -> totals.revenue))
+                .topLocations(topLocations)
+                .build();
+    }
+
+    private static BigDecimal rate(long conversions, long clicks) {
+        return clicks > 0
+                ? BigDecimal.valueOf(conversions)
+                .divide(BigDecimal.valueOf(clicks), 4, RoundingMode.HALF_UP)
+                .multiply(HUNDRED)
+                : BigDecimal.ZERO;
+    }
+
+    private static <K, V> Map<K, V> mapValues(Map<K, Totals> source, Function<Totals, V> mapper) {
+        Map<K, V> result = new HashMap<>(Math.max(16, source.size() * 2));
+        source.forEach((key, totals) -> result.put(key, mapper.apply(totals)));
+        return result;
+    }
+
+    private static <K> TopKAggregator<K, Totals> topK(int approximateCapacity) {
+        return approximateCapacity > 0
+                ? TopKAggregator.spaceSaving(TOP_LIMIT, Math.max(TOP_LIMIT, approximateCapacity), Totals::new)
+                : TopKAggregator.exact(TOP_LIMIT, Totals::new);
+    }
+
+    private static <K> void mergeTotals(Map<K, Totals> target, Map<K, Totals> source) {
+        source.forEach((key, totals) -> target.merge(key, totals.copy(), Totals::combine));
+    }
+
+    private record Location(String country, String city) {
+    }
+
+    private static final class Totals {
+
+        // First target URL seen for a referral code; unused for other groupings.
+        private String label;
+        private long clicks;
+        private long conversions;
+        private BigDecimal revenue = BigDecimal.ZERO;
+
+        private void add(boolean converted, BigDecimal value) {
+            clicks++;
+            if (converted) {
+                conversions++;
+                revenue = revenue.add(value);
+            }
+        }
+
+        private Totals copy() {
+            Totals copy = new Totals();
+            copy.label = label;
+            copy.clicks = clicks;
+            copy.conversions = conversions;
+            copy.revenue = revenue;
+            return copy;
+        }
+
+        private Totals combine(Totals other) {
+            if (label == null) {
+                label = other.label;
+            }
+            clicks += other.clicks;
+            conversions += other.conversions;
+            revenue = revenue.add(other.revenue);
+            return this;
+        }
+    }
+}
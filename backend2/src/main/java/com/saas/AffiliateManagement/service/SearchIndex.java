@@ -0,0 +1,217 @@
+package com.saas.AffiliateManagement.service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index over a few short text fields per document, for search-as-you-type.
+ * Every field is posted under its character trigrams and under the one- and two-character
+ * prefixes of its words, so a term of three or more characters is answered by intersecting
+ * trigram postings and a shorter one by a single prefix posting. Candidates are verified with a
+ * substring check, so longer terms match like {@code LIKE '%term%'} on any field while one- and
+ * two-character terms only match the start of a word.
+ */
+public final class SearchIndex {
+
+    private static final int GRAM = 3;
+    private static final char PREFIX_MARKER = '\u0000';
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Document> documents = new HashMap<>();
+    private final Map<String, Set<Long>> postings = new HashMap<>();
+
+    public void put(Long id, String label, String detail, String... fields) {
+        String text = label == null ? "" : label.trim();
+        Document document = new Document(id, text, detail, normalize(text, fields));
+        lock.writeLock().lock();
+        try {
+            Document previous = documents.put(id, document);
+            if (previous != null) {
+                unpost(previous);
+            }
+            for (String key : keys(document.fields)) {
+                postings.computeIfAbsent(key, k -> new HashSet<>()).add(id);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long id) {
+        lock.writeLock().lock();
+        try {
+            Document previous = documents.remove(id);
+            if (previous != null) {
+                unpost(previous);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Up to {@code limit} documents containing the term in any field. Documents whose label
+     * starts with the term come first, then those with a word starting with it, each group in
+     * label order.
+     */
+    public List<Hit> search(String term, int limit) {
+        String query = term == null ? "" : term.trim().toLowerCase(Locale.ROOT);
+        if (query.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+
+        Comparator<Hit> ranking = Comparator.comparingInt(Hit::rank)
+                .thenComparing(Hit::label, String.CASE_INSENSITIVE_ORDER)
+                .thenComparing(Hit::id);
+        PriorityQueue<Hit> best = new PriorityQueue<>(limit + 1, ranking.reversed());
+
+        lock.readLock().lock();
+        try {
+            for (Long id : candidates(query)) {
+                Document document = documents.get(id);
+                int rank = document.rank(query);
+                if (rank < 0) {
+                    continue;
+                }
+                best.add(new Hit(id, document.label, document.detail, rank));
+                if (best.size() > limit) {
+                    best.poll();
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        List<Hit> hits = new ArrayList<>(best);
+        hits.sort(ranking);
+        return hits;
+    }
+
+    private Set<Long> candidates(String query) {
+        if (query.length() < GRAM) {
+            return postings.getOrDefault(PREFIX_MARKER + query, Set.of());
+        }
+
+        List<Set<Long>> lists = new ArrayList<>();
+        for (int i = 0; i + GRAM <= query.length(); i++) {
+            Set<Long> posting = postings.get(query.substring(i, i + GRAM));
+            if (posting == null) {
+                return Set.of();
+            }
+            lists.add(posting);
+        }
+        lists.sort(Comparator.comparingInt(Set::size));
+
+        Set<Long> result = lists.get(0);
+        for (int i = 1; i < lists.size() && !result.isEmpty(); i++) {
+            Set<Long> next = lists.get(i);
+            Set<Long> narrowed = new HashSet<>();
+            for (Long id : result) {
+                if (next.contains(id)) {
+                    narrowed.add(id);
+                }
+            }
+            result = narrowed;
+        }
+        return result;
+    }
+
+    private void unpost(Document document) {
+        for (String key : keys(document.fields)) {
+            Set<Long> posting = postings.get(key);
+            if (posting != null && posting.remove(document.id) && posting.isEmpty()) {
+                postings.remove(key);
+            }
+        }
+    }
+
+    private static Set<String> keys(String[] fields) {
+        Set<String> keys = new HashSet<>();
+        for (String field : fields) {
+            for (int i = 0; i + GRAM <= field.length(); i++) {
+                keys.add(field.substring(i, i + GRAM));
+            }
+            for (int i = 0; i < field.length(); i++) {
+                if (isWordStart(field, i)) {
+                    keys.add(PREFIX_MARKER + field.substring(i, i + 1));
+                    if (i + 1 < field.length()) {
+                        keys.add(PREFIX_MARKER + field.substring(i, i + 2));
+                    }
+                }
+            }
+        }
+        return keys;
+    }
+
+    private static String[] normalize(String label, String[] fields) {
+        Set<String> normalized = new LinkedHashSet<>();
+        normalized.add(label.toLowerCase(Locale.ROOT));
+        for (String field : fields) {
+            if (field != null && !field.isBlank()) {
+                normalized.add(field.trim().toLowerCase(Locale.ROOT));
+            }
+        }
+        return normalized.toArray(String[]::new);
+    }
+
+    private static boolean isWordStart(String text, int index) {
+        return Character.isLetterOrDigit(text.charAt(index))
+                && (index == 0 || !Character.isLetterOrDigit(text.charAt(index - 1)));
+    }
+
+    public record Hit(Long id, String label, String detail, int rank) {
+    }
+
+    private static final class Document {
+
+        private final Long id;
+        private final String label;
+        private final String detail;
+        private final String[] fields;
+
+        private Document(Long id, String label, String detail, String[] fields) {
+            this.id = id;
+            this.label = label;
+            this.detail = detail;
+            this.fields = fields;
+        }
+
+        /**
+         * 0 if the label (always the first field) starts with the query, 1 if a word of any
+         * field does, 2 for any other substring match and -1 for none.
+         */
+        private int rank(String query) {
+            int rank = -1;
+            for (int f = 0; f < fields.length; f++) {
+                String field = fields[f];
+                int at = field.indexOf(query);
+                while (at >= 0) {
+                    if (at == 0 && f == 0) {
+                        return 0;
+                    }
+                    rank = isWordStart(field, at) ? 1 : rank < 0 ? 2 : rank;
+                    at = field.indexOf(query, at + 1);
+                }
+            }
+            return rank;
+        }
+    }
+}
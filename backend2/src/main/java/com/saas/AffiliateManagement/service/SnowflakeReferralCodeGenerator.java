@@ -0,0 +1,106 @@
+package com.saas.AffiliateManagement.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Snowflake-style referral codes: 41 bits of milliseconds since {@link #EPOCH}, a 10 bit node
+ * id and a 12 bit per-node sequence, base62 encoded to a fixed width after the "REF_" prefix.
+ * <p>
+ * Timestamp and sequence live in a single {@link AtomicLong} advanced with CAS. When the
+ * sequence is exhausted within a millisecond, or the wall clock steps backwards, the logical
+ * timestamp runs ahead of the clock instead of waiting, which keeps every code issued by this
+ * node strictly increasing. It may lead the clock by at most {@link #MAX_LEAD_MILLIS}; beyond
+ * that, callers spin until the clock catches up.
+ * <p>
+ * A new instance starts its logical clock {@link #MAX_LEAD_MILLIS} ahead of the wall clock, so
+ * after a restart it cannot reissue codes the previous instance with the same node id handed
+ * out while running ahead.
+ * <p>
+ * Every instance must be configured with a node id ({@code referral.code.node-id}) that no
+ * other running instance uses; startup fails without one.
+ */
+@Component
+public class SnowflakeReferralCodeGenerator implements ReferralCodeGenerator {
+
+    public static final long EPOCH = Instant.parse("2024-01-01T00:00:00Z").toEpochMilli();
+
+    static final int NODE_BITS = 10;
+    static final int SEQUENCE_BITS = 12;
+    public static final int MAX_NODE_ID = (1 << NODE_BITS) - 1;
+    public static final long MAX_LEAD_MILLIS = 1_000;
+
+    private static final String PREFIX = "REF_";
+    private static final char[] BASE62 = "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz".toCharArray();
+    // 62^11 > 2^63, so any non-negative id fits in 11 digits.
+    private static final int ENCODED_LENGTH = 11;
+
+    private final long nodeBits;
+    private final LongSupplier clock;
+    // (milliseconds since EPOCH << SEQUENCE_BITS) | sequence of the last issued id
+    private final AtomicLong lastState;
+
+    @Autowired
+    public SnowflakeReferralCodeGenerator(@Value("${referral.code.node-id:-1}") int nodeId) {
+        this(requireNodeId(nodeId), System::currentTimeMillis);
+    }
+
+    public SnowflakeReferralCodeGenerator(int nodeId, LongSupplier clock) {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("Node id must be between 0 and " + MAX_NODE_ID + ": " + nodeId);
+        }
+        this.nodeBits = (long) nodeId << SEQUENCE_BITS;
+        this.clock = clock;
+        this.lastState = new AtomicLong((clock.getAsLong() - EPOCH + MAX_LEAD_MILLIS) << SEQUENCE_BITS);
+    }
+
+    @Override
+    public String nextCode() {
+        return encode(nextId());
+    }
+
+    public long nextId() {
+        long next;
+        while (true) {
+            long previous = lastState.get();
+            long nowMillis = clock.getAsLong() - EPOCH;
+            long now = nowMillis << SEQUENCE_BITS;
+            // Same or earlier millisecond: bump the sequence; an overflow carries into the timestamp.
+            next = now > previous ? now : previous + 1;
+            if ((next >>> SEQUENCE_BITS) - nowMillis > MAX_LEAD_MILLIS) {
+                Thread.onSpinWait();
+            } else if (lastState.compareAndSet(previous, next)) {
+                break;
+            }
+        }
+
+        long timestamp = next >>> SEQUENCE_BITS;
+        long sequence = next & ((1L << SEQUENCE_BITS) - 1);
+        return (timestamp << (NODE_BITS + SEQUENCE_BITS)) | nodeBits | sequence;
+    }
+
+    static String encode(long id) {
+        char[] chars = new char[PREFIX.length() + ENCODED_LENGTH];
+        PREFIX.getChars(0, PREFIX.length(), chars, 0);
+
+        long remaining = id;
+        for (int i = chars.length - 1; i >= PREFIX.length(); i--) {
+            chars[i] = BASE62[(int) (remaining % 62)];
+            remaining /= 62;
+        }
+        return new String(chars);
+    }
+
+    private static int requireNodeId(int configured) {
+        if (configured < 0) {
+            throw new IllegalStateException("referral.code.node-id is not set; give every instance a distinct id "
+                    + "between 0 and " + MAX_NODE_ID);
+        }
+        return configured;
+    }
+}
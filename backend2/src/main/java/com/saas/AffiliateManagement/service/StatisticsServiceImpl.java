@@ -1,25 +1,32 @@
 package com.saas.AffiliateManagement.service;
 
+import com.saas.AffiliateManagement.models.dto.AffiliateAmountRow;
+import com.saas.AffiliateManagement.models.dto.AffiliateCountsSummary;
+import com.saas.AffiliateManagement.models.dto.AffiliateReferralCountRow;
+import com.saas.AffiliateManagement.models.dto.AffiliateStatusCountRow;
 import com.saas.AffiliateManagement.models.dto.DashboardStatisticsDto;
 import com.saas.AffiliateManagement.models.dto.PeriodStatisticsDto;
+import com.saas.AffiliateManagement.models.dto.ReferralActivityTotals;
 import com.saas.AffiliateManagement.models.dto.TopAffiliateDto;
 import com.saas.AffiliateManagement.models.entity.Affiliate;
 import com.saas.AffiliateManagement.repository.AffiliateRepository;
 import com.saas.AffiliateManagement.repository.CommissionRepository;
 import com.saas.AffiliateManagement.repository.ReferralRepository;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -30,6 +37,14 @@ public class StatisticsServiceImpl implements StatisticsService {
     private final AffiliateRepository affiliateRepository;
     private final ReferralRepository referralRepository;
     private final CommissionRepository commissionRepository;
+    private final AffiliateStatusCounterService affiliateStatusCounterService;
+
+    private static final List<String> REPORTED_STATUSES = List.of("ACTIVE", "PENDING", "INACTIVE", "REJECTED");
+
+    // Highest revenue first; ties go to the older affiliate, matching the previous id-ordered scan.
+    private static final Comparator<RankedAffiliate> RANKING = Comparator
+            .comparing(RankedAffiliate::revenue, Comparator.reverseOrder())
+            .thenComparing(RankedAffiliate::id);
 
     @Override
     public DashboardStatisticsDto getClientDashboardStatistics(Long clientId,
@@ -37,42 +52,21 @@ public class StatisticsServiceImpl implements StatisticsService {
         LocalDateTime startDate = LocalDateTime.now().minusDays(days);
         LocalDateTime endDate = LocalDateTime.now();
 
-        Long newAffiliatesCount = affiliateRepository
-                .countByClientIdAndCreatedAtBetween(clientId, startDate, endDate);
-
-        Long totalAffiliatesCount = affiliateRepository.countByClientId(clientId);
-
-        Long activeAffiliatesCount = affiliateRepository
-                .countByClientIdAndStatus(clientId, "ACTIVE");
-
-        Long pendingAffiliatesCount = affiliateRepository
-                .countByClientIdAndStatus(clientId, "PENDING");
-
-        Long totalClicks = referralRepository
-                .countByAffiliateClientIdAndCreatedAtBetween(clientId,
-                        startDate, endDate);
+        AffiliateCountsSummary affiliates = affiliateRepository
+                .summarizeByClientId(clientId, startDate, endDate);
 
-        Long totalConversions = referralRepository
-                .countByAffiliateClientIdAndStatusAndCreatedAtBetween(clientId,
-                        "CONVERTED", startDate, endDate);
-
-        BigDecimal totalRevenue = referralRepository
-                .calculateTotalRevenueByClientIdAndDateRange(clientId,
-                        startDate, endDate);
-
-        BigDecimal totalCommissions = commissionRepository
-                .calculateTotalCommissionByClientIdAndDateRange(clientId,
-                        startDate, endDate);
+        ReferralActivityTotals activity = referralRepository
+                .summarizeActivityByClientId(clientId, startDate, endDate);
 
         return DashboardStatisticsDto.builder()
-                .newAffiliatesCount(newAffiliatesCount)
-                .totalAffiliatesCount(totalAffiliatesCount)
-                .activeAffiliatesCount(activeAffiliatesCount)
-                .pendingAffiliatesCount(pendingAffiliatesCount)
-                .totalClicks(totalClicks)
-                .totalConversions(totalConversions)
-                .totalRevenue(totalRevenue)
-                .totalCommissions(totalCommissions)
+                .newAffiliatesCount(affiliates.getNewInPeriod())
+                .totalAffiliatesCount(affiliates.getTotal())
+                .activeAffiliatesCount(affiliates.getActive())
+                .pendingAffiliatesCount(affiliates.getPending())
+                .totalClicks(activity.getClicks())
+                .totalConversions(activity.getConversions())
+                .totalRevenue(activity.getRevenue())
+                .totalCommissions(activity.getCommissions())
                 .periodDays(days)
                 .startDate(startDate)
                 .endDate(endDate)
@@ -92,18 +86,19 @@ public class StatisticsServiceImpl implements StatisticsService {
     public PeriodStatisticsDto getAffiliatePeriodStatistics(Long clientId,
                                                             LocalDateTime startDate,
                                                             LocalDateTime endDate) {
-        Long newAffiliatesCount = affiliateRepository
-                .countByClientIdAndCreatedAtBetween(clientId, startDate, endDate);
-
         Map<String, Long> affiliatesByStatus = new HashMap<>();
-        affiliatesByStatus.put("ACTIVE", affiliateRepository
-                .countByClientIdAndStatus(clientId, "ACTIVE"));
-        affiliatesByStatus.put("PENDING", affiliateRepository
-                .countByClientIdAndStatus(clientId, "PENDING"));
-        affiliatesByStatus.put("INACTIVE", affiliateRepository
-                .countByClientIdAndStatus(clientId, "INACTIVE"));
-        affiliatesByStatus.put("REJECTED", affiliateRepository
-                .countByClientIdAndStatus(clientId, "REJECTED"));
+        for (String status : REPORTED_STATUSES) {
+            affiliatesByStatus.put(status, 0L);
+        }
+
+        long newAffiliatesCount = 0;
+        for (AffiliateStatusCountRow row : affiliateRepository
+                .countByClientIdGroupedByStatus(clientId, startDate, endDate)) {
+            newAffiliatesCount += row.getNewInPeriod();
+            if (affiliatesByStatus.containsKey(row.getStatus())) {
+                affiliatesByStatus.put(row.getStatus(), row.getTotal());
+            }
+        }
 
         return PeriodStatisticsDto.builder()
                 .clientId(clientId)
@@ -116,19 +111,17 @@ public class StatisticsServiceImpl implements StatisticsService {
 
     @Override
     public Long getTotalAffiliatesCount(Long clientId) {
-        return affiliateRepository.countByClientId(clientId);
+        return affiliateStatusCounterService.getTotal(clientId);
     }
 
     @Override
     public Long getActiveAffiliatesCount(Long clientId) {
-        return affiliateRepository
-                .countByClientIdAndStatus(clientId, "ACTIVE");
+        return affiliateStatusCounterService.getCount(clientId, "ACTIVE");
     }
 
     @Override
     public Long getPendingAffiliatesCount(Long clientId) {
-        return affiliateRepository
-                .countByClientIdAndStatus(clientId, "PENDING");
+        return affiliateStatusCounterService.getCount(clientId, "PENDING");
     }
 
     @Override
@@ -140,35 +133,56 @@ public class StatisticsServiceImpl implements StatisticsService {
         LocalDateTime start = startDate.orElse(LocalDateTime.now().minusMonths(6));
         LocalDateTime end = endDate.orElse(LocalDateTime.now());
 
-        Pageable pageable = PageRequest.of(0, limit);
-
-        List<Affiliate> affiliates = affiliateRepository.findByClientId(clientId);
-
-        return affiliates.stream()
-                .map(affiliate -> buildTopAffiliateDto(affiliate, start, end))
-                .sorted((a, b) -> b.getTotalRevenue().compareTo(a.getTotalRevenue()))
-                .limit(limit)
+        if (limit == null || limit <= 0) {
+            return List.of();
+        }
+
+        // Rank on revenue alone, then fetch the remaining figures only for the winners.
+        Map<Long, BigDecimal> revenueByAffiliate = toAmountMap(referralRepository
+                .sumRevenueByAffiliateForClient(clientId, start, end));
+
+        PriorityQueue<RankedAffiliate> worstFirst = new PriorityQueue<>(RANKING.reversed());
+        for (Long affiliateId : affiliateRepository.findIdsByClientId(clientId)) {
+            RankedAffiliate candidate = new RankedAffiliate(affiliateId,
+                    revenueByAffiliate.getOrDefault(affiliateId, BigDecimal.ZERO));
+            if (worstFirst.size() < limit) {
+                worstFirst.add(candidate);
+            } else if (RANKING.compare(candidate, worstFirst.peek()) < 0) {
+                worstFirst.poll();
+                worstFirst.add(candidate);
+            }
+        }
+
+        if (worstFirst.isEmpty()) {
+            return List.of();
+        }
+
+        List<RankedAffiliate> ranked = new ArrayList<>(worstFirst);
+        ranked.sort(RANKING);
+        List<Long> topIds = ranked.stream().map(RankedAffiliate::id).toList();
+
+        Map<Long, Affiliate> affiliates = affiliateRepository.findAllById(topIds).stream()
+                .collect(Collectors.toMap(Affiliate::getId, Function.identity()));
+        Map<Long, BigDecimal> commissionsByAffiliate = toAmountMap(commissionRepository
+                .sumCommissionsByAffiliateIds(topIds, start, end));
+        Map<Long, AffiliateReferralCountRow> countsByAffiliate = referralRepository
+                .countReferralsByAffiliateIds(topIds, start, end).stream()
+                .collect(Collectors.toMap(AffiliateReferralCountRow::getAffiliateId, Function.identity()));
+
+        return ranked.stream()
+                .map(entry -> buildTopAffiliateDto(affiliates.get(entry.id()), entry.revenue(),
+                        commissionsByAffiliate.getOrDefault(entry.id(), BigDecimal.ZERO),
+                        countsByAffiliate.get(entry.id())))
                 .collect(Collectors.toList());
     }
 
     private TopAffiliateDto buildTopAffiliateDto(Affiliate affiliate,
-                                                 LocalDateTime startDate,
-                                                 LocalDateTime endDate) {
-
-        BigDecimal totalCommissions = commissionRepository
-                .calculateTotalCommissionByAffiliateId(affiliate.getId(), startDate, endDate)
-                .orElse(BigDecimal.ZERO);
+                                                 BigDecimal totalRevenue,
+                                                 BigDecimal totalCommissions,
+                                                 AffiliateReferralCountRow counts) {
 
-        BigDecimal totalRevenue = referralRepository
-                .calculateTotalRevenue(affiliate.getId(), startDate, endDate)
-                .orElse(BigDecimal.ZERO);
-
-        Long totalReferrals = referralRepository
-                .countByAffiliateIdAndCreatedAtBetween(affiliate.getId(), startDate, endDate);
-
-        Long totalConversions = referralRepository
-                .countByAffiliateIdAndStatusAndCreatedAtBetween(
-                        affiliate.getId(), "CONVERTED", startDate, endDate);
+        long totalReferrals = counts != null ? counts.getReferrals() : 0L;
+        long totalConversions = counts != null ? counts.getConversions() : 0L;
 
         BigDecimal conversionRate = totalReferrals > 0
                 ? BigDecimal.valueOf(totalConversions)
@@ -190,4 +204,12 @@ public class StatisticsServiceImpl implements StatisticsService {
                 .build();
     }
 
+    private Map<Long, BigDecimal> toAmountMap(List<AffiliateAmountRow> rows) {
+        return rows.stream()
+                .collect(Collectors.toMap(AffiliateAmountRow::getAffiliateId, AffiliateAmountRow::getAmount));
+    }
+
+    private record RankedAffiliate(Long id, BigDecimal revenue) {
+    }
+
 }
@@ -0,0 +1,171 @@
+package com.saas.AffiliateManagement.service;
+
+import com.saas.AffiliateManagement.models.dto.EarningsDataDto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.Month;
+import java.time.format.TextStyle;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Desktop/mobile earnings series over consecutive time buckets between {@code start} and
+ * {@code end} (both inclusive). Buckets are half-open: calendar months, seven-day windows
+ * counted from {@code start}, or calendar days.
+ * <p>
+ * The series is filled from the rows of {@code CommissionRepository.sumEarningsByBucket}, whose
+ * bucket index (month, week or day offset from {@code start}) addresses array-backed
+ * accumulators directly.
+ */
+public final class TimeBucketSeries {
+
+    private final LocalDateTime start;
+    private final LocalDateTime end;
+    private final List<Bucket> buckets;
+    private final BigDecimal[] desktop;
+    private final BigDecimal[] mobile;
+
+    private TimeBucketSeries(LocalDateTime start, LocalDateTime end, List<Bucket> buckets) {
+        this.start = start;
+        this.end = end;
+        this.buckets = buckets;
+        this.desktop = new BigDecimal[buckets.size()];
+        this.mobile = new BigDecimal[buckets.size()];
+        Arrays.fill(desktop, BigDecimal.ZERO);
+        Arrays.fill(mobile, BigDecimal.ZERO);
+    }
+
+    public static TimeBucketSeries of(String period, LocalDateTime start, LocalDateTime end) {
+        if ("monthly".equals(period)) {
+            return monthly(start, end);
+        } else if ("weekly".equals(period)) {
+            return weekly(start, end);
+        } else {
+            return daily(start, end);
+        }
+    }
+
+    /**
+     * The period name understood by {@code CommissionRepository.sumEarningsByBucket}.
+     */
+    public static String normalizePeriod(String period) {
+        return "monthly".equals(period) || "weekly".equals(period) ? period : "daily";
+    }
+
+    public static TimeBucketSeries monthly(LocalDateTime start, LocalDateTime end) {
+        LocalDateTime first = start.withDayOfMonth(1).withHour(0).withMinute(0).withSecond(0);
+        List<Bucket> buckets = new ArrayList<>();
+
+        LocalDateTime current = first;
+        while (current.isBefore(end) || current.equals(end.withDayOfMonth(1))) {
+            buckets.add(new Bucket(Month.from(current).getDisplayName(TextStyle.FULL, Locale.ENGLISH),
+                    current, current.plusMonths(1).minusDays(1),
+                    current.toLocalDate().atStartOfDay(), current.toLocalDate().plusMonths(1).atStartOfDay()));
+            current = current.plusMonths(1);
+        }
+
+        return new TimeBucketSeries(start, end, buckets);
+    }
+
+    public static TimeBucketSeries weekly(LocalDateTime start, LocalDateTime end) {
+        List<Bucket> buckets = new ArrayList<>();
+
+        LocalDateTime current = start;
+        int weekNumber = 1;
+        while (current.isBefore(end)) {
+            LocalDateTime weekEnd = current.plusWeeks(1).minusDays(1);
+            if (weekEnd.isAfter(end)) {
+                weekEnd = end;
+            }
+            buckets.add(new Bucket("Week " + weekNumber, current, weekEnd, current, current.plusWeeks(1)));
+            current = current.plusWeeks(1);
+            weekNumber++;
+        }
+
+        return new TimeBucketSeries(start, end, buckets);
+    }
+
+    public static TimeBucketSeries daily(LocalDateTime start, LocalDateTime end) {
+        List<Bucket> buckets = new ArrayList<>();
+
+        LocalDateTime current = start;
+        while (current.isBefore(end) || current.toLocalDate().equals(end.toLocalDate())) {
+            buckets.add(new Bucket(current.toLocalDate().toString(),
+                    current, current.withHour(23).withMinute(59).withSecond(59),
+                    current.toLocalDate().atStartOfDay(), current.toLocalDate().plusDays(1).atStartOfDay()));
+            current = current.plusDays(1);
+        }
+
+        return new TimeBucketSeries(start, end, buckets);
+    }
+
+    /**
+     * Adds pre-aggregated totals to the bucket at {@code index}; indexes outside the series are ignored.
+     */
+    public void addBucketTotals(long index, BigDecimal desktopAmount, BigDecimal mobileAmount) {
+        if (index < 0 || index >= buckets.size()) {
+            return;
+        }
+
+        int i = (int) index;
+        desktop[i] = desktop[i].add(desktopAmount);
+        mobile[i] = mobile[i].add(mobileAmount);
+    }
+
+    public int size() {
+        return buckets.size();
+    }
+
+    public LocalDateTime getStart() {
+        return start;
+    }
+
+    public LocalDateTime getEnd() {
+        return end;
+    }
+
+    /**
+     * Inclusive lower bound of the timestamps that fall into the bucket at {@code index}.
+     */
+    public LocalDateTime bucketStart(int index) {
+        LocalDateTime from = buckets.get(index).from();
+        return from.isBefore(start) ? start : from;
+    }
+
+    /**
+     * Exclusive upper bound of the timestamps that fall into the bucket at {@code index}.
+     */
+    public LocalDateTime bucketEnd(int index) {
+        return buckets.get(index).to();
+    }
+
+    public List<EarningsDataDto> toEarningsData() {
+        return toEarningsData(0, buckets.size());
+    }
+
+    public List<EarningsDataDto> toEarningsData(int fromIndex, int toIndex) {
+        List<EarningsDataDto> result = new ArrayList<>(Math.max(0, toIndex - fromIndex));
+        for (int i = fromIndex; i < toIndex; i++) {
+            Bucket bucket = buckets.get(i);
+            result.add(EarningsDataDto.builder()
+                    .period(bucket.label())
+                    .desktop(desktop[i])
+                    .mobile(mobile[i])
+                    .total(desktop[i].add(mobile[i]))
+                    .periodStart(bucket.periodStart())
+                    .periodEnd(bucket.periodEnd())
+                    .build());
+        }
+        return result;
+    }
+
+    private record Bucket(String label,
+                          LocalDateTime periodStart,
+                          LocalDateTime periodEnd,
+                          LocalDateTime from,
+                          LocalDateTime to) {
+    }
+}
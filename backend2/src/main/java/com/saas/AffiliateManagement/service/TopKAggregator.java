@@ -0,0 +1,176 @@
+package com.saas.AffiliateManagement.service;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeSet;
+import java.util.function.BinaryOperator;
+import java.util.function.Supplier;
+
+/**
+ * Keeps a value per key ranked by a weight, and answers the K heaviest keys through a K-sized
+ * heap instead of sorting every key. Ties are broken by the order in which keys were first seen.
+ * <p>
+ * An {@link #exact exact} aggregator keeps one counter per distinct key. A
+ * {@link #spaceSaving space-saving} aggregator keeps at most {@code capacity} counters: when a
+ * new key arrives while full, it takes over the lightest counter and inherits its weight as an
+ * error bound. Any key heavier than total weight / capacity is guaranteed to be tracked, but the
+ * weights of taken-over keys are overestimated by up to {@link Ranked#maxError()} and their
+ * values only cover what was added since the takeover. Not thread-safe.
+ */
+public final class TopKAggregator<K, V> {
+
+    // Lightest first; among equal weights the most recently seen key goes first.
+    private static final Comparator<Slot<?, ?>> RANK_ORDER = Comparator
+            .comparing((Slot<?, ?> slot) -> slot.weight)
+            .thenComparing(slot -> slot.sequence, Comparator.reverseOrder());
+
+    private final int k;
+    private final int capacity;
+    private final Supplier<V> newValue;
+    private final Map<K, Slot<K, V>> slots = new HashMap<>();
+    // Only maintained in space-saving mode, to find the counter to take over.
+    private final TreeSet<Slot<K, V>> byWeight = new TreeSet<>(RANK_ORDER);
+    private long nextSequence;
+
+    private TopKAggregator(int k, int capacity, Supplier<V> newValue) {
+        if (k <= 0) {
+            throw new IllegalArgumentException("Top-K size must be positive: " + k);
+        }
+        if (capacity != 0 && capacity < k) {
+            throw new IllegalArgumentException("Space-saving capacity " + capacity + " is smaller than K " + k);
+        }
+        this.k = k;
+        this.capacity = capacity;
+        this.newValue = newValue;
+    }
+
+    public static <K, V> TopKAggregator<K, V> exact(int k, Supplier<V> newValue) {
+        return new TopKAggregator<>(k, 0, newValue);
+    }
+
+    public static <K, V> TopKAggregator<K, V> spaceSaving(int k, int capacity, Supplier<V> newValue) {
+        return new TopKAggregator<>(k, capacity, newValue);
+    }
+
+    public boolean isApproximate() {
+        return capacity > 0;
+    }
+
+    public int size() {
+        return slots.size();
+    }
+
+    /**
+     * Adds {@code weight} to the key's ranking weight and returns its value, creating it if needed,
+     * so the caller can update it in place.
+     */
+    public V add(K key, BigDecimal weight) {
+        Slot<K, V> slot = slots.get(key);
+        if (slot == null) {
+            slot = admit(key);
+        } else if (isApproximate()) {
+            byWeight.remove(slot);
+        }
+
+        slot.weight = slot.weight.add(weight);
+        if (isApproximate()) {
+            byWeight.add(slot);
+        }
+        return slot.value;
+    }
+
+    /**
+     * Adds every key of {@code other} to this aggregator, combining values with
+     * {@code combiner.apply(this value, other value)}; new keys start from an empty value, so
+     * {@code other} is never aliased. Keys are taken in the order {@code other} first saw them,
+     * which keeps ties ranked as a single pass over both inputs would.
+     */
+    public TopKAggregator<K, V> merge(TopKAggregator<K, V> other, BinaryOperator<V> combiner) {
+        List<Slot<K, V>> incoming = new ArrayList<>(other.slots.values());
+        incoming.sort(Comparator.comparingLong(slot -> slot.sequence));
+
+        for (Slot<K, V> source : incoming) {
+            Slot<K, V> slot = slots.get(source.key);
+            if (slot == null) {
+                slot = new Slot<>(source.key, combiner.apply(newValue.get(), source.value), nextSequence++);
+                slots.put(slot.key, slot);
+            } else {
+                byWeight.remove(slot);
+                slot.value = combiner.apply(slot.value, source.value);
+            }
+            slot.weight = slot.weight.add(source.weight);
+            slot.error = slot.error.add(source.error);
+            if (isApproximate()) {
+                byWeight.add(slot);
+            }
+        }
+
+        while (isApproximate() && slots.size() > capacity) {
+            slots.remove(byWeight.pollFirst().key);
+        }
+        return this;
+    }
+
+    /**
+     * The K heaviest keys, heaviest first.
+     */
+    public List<Ranked<K, V>> top() {
+        PriorityQueue<Slot<K, V>> heap = new PriorityQueue<>(k + 1, RANK_ORDER);
+        for (Slot<K, V> slot : slots.values()) {
+            if (heap.size() < k) {
+                heap.add(slot);
+            } else if (RANK_ORDER.compare(slot, heap.peek()) > 0) {
+                heap.poll();
+                heap.add(slot);
+            }
+        }
+
+        List<Ranked<K, V>> result = new ArrayList<>(heap.size());
+        while (!heap.isEmpty()) {
+            Slot<K, V> slot = heap.poll();
+            result.add(new Ranked<>(slot.key, slot.value, slot.weight, slot.error));
+        }
+        Collections.reverse(result);
+        return result;
+    }
+
+    private Slot<K, V> admit(K key) {
+        Slot<K, V> slot = new Slot<>(key, newValue.get(), nextSequence++);
+        if (isApproximate() && slots.size() >= capacity) {
+            Slot<K, V> evicted = byWeight.pollFirst();
+            slots.remove(evicted.key);
+            slot.weight = evicted.weight;
+            slot.error = evicted.weight;
+        }
+        slots.put(key, slot);
+        return slot;
+    }
+
+    /**
+     * A ranked key; {@code maxError} is how much of {@code weight} may belong to keys it took
+     * over, always zero for exact aggregators.
+     */
+    public record Ranked<K, V>(K key, V value, BigDecimal weight, BigDecimal maxError) {
+    }
+
+    private static final class Slot<K, V> {
+
+        private final K key;
+        private final long sequence;
+        private V value;
+        private BigDecimal weight = BigDecimal.ZERO;
+        private BigDecimal error = BigDecimal.ZERO;
+
+        private Slot(K key, V value, long sequence) {
+            this.key = key;
+            this.value = value;
+            this.sequence = sequence;
+        }
+    }
+}
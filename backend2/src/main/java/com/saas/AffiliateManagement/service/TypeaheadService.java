@@ -0,0 +1,239 @@
+package com.saas.AffiliateManagement.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.saas.AffiliateManagement.models.dto.AffiliateSearchRow;
+import com.saas.AffiliateManagement.models.dto.CustomerSearchRow;
+import com.saas.AffiliateManagement.models.dto.SearchSuggestion;
+import com.saas.AffiliateManagement.models.entity.Affiliate;
+import com.saas.AffiliateManagement.models.entity.Referral;
+import com.saas.AffiliateManagement.repository.AffiliateRepository;
+import com.saas.AffiliateManagement.repository.ReferralRepository;
+import com.saas.AffiliateManagement.repository.SearchPatterns;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Search-as-you-type over a client's affiliates and referral customers, answered from a
+ * per-client {@link SearchIndex}. An index is built on the client's first query and kept current
+ * by the service write paths; the caches hold a bounded number of documents across clients and
+ * evict the least recently used indexes first. Clients with more documents than one index may
+ * hold are answered by the database instead.
+ *
+ * <p>Referrals written by click ingestion bypass the services, so customer indexes also expire
+ * after a TTL.
+ */
+@Service
+@Slf4j
+public class TypeaheadService {
+
+    public static final int MAX_LIMIT = 50;
+
+    // Stands in for a client too large to index, so the decision is cached like an index would be.
+    private static final SearchIndex TOO_LARGE = new SearchIndex();
+
+    private final AffiliateRepository affiliateRepository;
+    private final ReferralRepository referralRepository;
+    private final int maxDocumentsPerClient;
+    private final Cache<Long, SearchIndex> affiliateIndexes;
+    private final Cache<Long, SearchIndex> customerIndexes;
+
+    public TypeaheadService(AffiliateRepository affiliateRepository,
+                            ReferralRepository referralRepository,
+                            @Value("${search.typeahead.max-documents:500000}") long maxDocuments,
+                            @Value("${search.typeahead.max-documents-per-client:50000}") int maxDocumentsPerClient,
+                            @Value("${search.typeahead.customer-ttl:PT5M}") Duration customerTtl) {
+        this.affiliateRepository = affiliateRepository;
+        this.referralRepository = referralRepository;
+        this.maxDocumentsPerClient = maxDocumentsPerClient;
+        this.affiliateIndexes = Caffeine.newBuilder()
+                .maximumWeight(maxDocuments)
+                .weigher((Long clientId, SearchIndex index) -> Math.max(1, index.size()))
+                .build();
+        this.customerIndexes = Caffeine.newBuilder()
+                .maximumWeight(maxDocuments)
+                .weigher((Long clientId, SearchIndex index) -> Math.max(1, index.size()))
+                .expireAfterWrite(customerTtl)
+                .build();
+    }
+
+    public List<SearchSuggestion> suggestAffiliates(Long clientId, String term, int limit) {
+        int size = Math.min(Math.max(limit, 1), MAX_LIMIT);
+        SearchIndex index = affiliateIndexes.get(clientId, this::buildAffiliateIndex);
+        if (index != TOO_LARGE) {
+            return toSuggestions(index.search(term, size));
+        }
+
+        String pattern = SearchPatterns.contains(term);
+        if (pattern == null) {
+            return List.of();
+        }
+        return affiliateRepository.findByClientIdAndSearch(clientId, pattern,
+                        PageRequest.of(0, size, Sort.by("firstName", "lastName")))
+                .map(affiliate -> SearchSuggestion.builder()
+                        .id(affiliate.getId())
+                        .label(affiliate.getName())
+                        .detail(affiliate.getEmail())
+                        .build())
+                .getContent();
+    }
+
+    public List<SearchSuggestion> suggestCustomers(Long clientId, String term, int limit) {
+        int size = Math.min(Math.max(limit, 1), MAX_LIMIT);
+        SearchIndex index = customerIndexes.get(clientId, this::buildCustomerIndex);
+        if (index != TOO_LARGE) {
+            return toSuggestions(index.search(term, size));
+        }
+
+        String pattern = SearchPatterns.contains(term);
+        if (pattern == null) {
+            return List.of();
+        }
+        return referralRepository.searchByClientIdAndTerm(clientId, pattern,
+                        PageRequest.of(0, size, Sort.by("customerName")))
+                .map(referral -> SearchSuggestion.builder()
+                        .id(referral.getId())
+                        .label(customerLabel(referral.getCustomerName(), referral.getCustomerEmail()))
+                        .detail(referral.getCustomerEmail())
+                        .build())
+                .getContent();
+    }
+
+    public void affiliateSaved(Affiliate affiliate) {
+        Long id = affiliate.getId();
+        String firstName = affiliate.getFirstName();
+        String lastName = affiliate.getLastName();
+        String email = affiliate.getEmail();
+        String companyName = affiliate.getCompanyName();
+        applyAfterCommit(affiliateIndexes, clientId(affiliate), index ->
+                index.put(id, affiliateLabel(firstName, lastName), email, firstName, lastName, email, companyName));
+    }
+
+    public void affiliateDeleted(Affiliate affiliate) {
+        Long id = affiliate.getId();
+        applyAfterCommit(affiliateIndexes, clientId(affiliate), index -> index.remove(id));
+    }
+
+    public void referralSaved(Referral referral) {
+        Long id = referral.getId();
+        String customerName = referral.getCustomerName();
+        String customerEmail = referral.getCustomerEmail();
+        applyAfterCommit(customerIndexes, clientId(referral), index ->
+                index.put(id, customerLabel(customerName, customerEmail), customerEmail, customerName, customerEmail));
+    }
+
+    public void referralDeleted(Referral referral) {
+        Long id = referral.getId();
+        applyAfterCommit(customerIndexes, clientId(referral), index -> index.remove(id));
+    }
+
+    private SearchIndex buildAffiliateIndex(Long clientId) {
+        List<AffiliateSearchRow> rows = affiliateRepository.findSearchRowsByClientId(clientId,
+                PageRequest.of(0, maxDocumentsPerClient + 1));
+        if (rows.size() > maxDocumentsPerClient) {
+            log.info("Client {} has more than {} affiliates, typeahead falls back to the database",
+                    clientId, maxDocumentsPerClient);
+            return TOO_LARGE;
+        }
+
+        SearchIndex index = new SearchIndex();
+        for (AffiliateSearchRow row : rows) {
+            index.put(row.getId(), affiliateLabel(row.getFirstName(), row.getLastName()), row.getEmail(),
+                    row.getFirstName(), row.getLastName(), row.getEmail(), row.getCompanyName());
+        }
+        log.debug("Built affiliate typeahead index for client {} with {} documents", clientId, rows.size());
+        return index;
+    }
+
+    private SearchIndex buildCustomerIndex(Long clientId) {
+        List<CustomerSearchRow> rows = referralRepository.findCustomerSearchRowsByClientId(clientId,
+                PageRequest.of(0, maxDocumentsPerClient + 1));
+        if (rows.size() > maxDocumentsPerClient) {
+            log.info("Client {} has more than {} referrals, customer typeahead falls back to the database",
+                    clientId, maxDocumentsPerClient);
+            return TOO_LARGE;
+        }
+
+        SearchIndex index = new SearchIndex();
+        for (CustomerSearchRow row : rows) {
+            index.put(row.getId(), customerLabel(row.getCustomerName(), row.getCustomerEmail()),
+                    row.getCustomerEmail(), row.getCustomerName(), row.getCustomerEmail());
+        }
+        log.debug("Built customer typeahead index for client {} with {} documents", clientId, rows.size());
+        return index;
+    }
+
+    /**
+     * Applies a change to the client's index if one is loaded. An index built while the write's
+     * transaction was open cannot see the row, so the change is applied again after commit; both
+     * operations are idempotent.
+     */
+    private void applyAfterCommit(Cache<Long, SearchIndex> indexes, Long clientId, Consumer<SearchIndex> change) {
+        if (clientId == null) {
+            return;
+        }
+
+        apply(indexes, clientId, change);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply(indexes, clientId, change);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        indexes.invalidate(clientId);
+                    }
+                }
+            });
+        }
+    }
+
+    private void apply(Cache<Long, SearchIndex> indexes, Long clientId, Consumer<SearchIndex> change) {
+        // Recomputing the entry makes the cache re-weigh the index, and orders the change after an in-flight build.
+        indexes.asMap().computeIfPresent(clientId, (key, index) -> {
+            if (index == TOO_LARGE) {
+                return index;
+            }
+            change.accept(index);
+            return index.size() > maxDocumentsPerClient ? TOO_LARGE : index;
+        });
+    }
+
+    private List<SearchSuggestion> toSuggestions(List<SearchIndex.Hit> hits) {
+        return hits.stream()
+                .map(hit -> SearchSuggestion.builder()
+                        .id(hit.id())
+                        .label(hit.label())
+                        .detail(hit.detail())
+                        .build())
+                .toList();
+    }
+
+    private static Long clientId(Affiliate affiliate) {
+        return affiliate.getClient() != null ? affiliate.getClient().getId() : null;
+    }
+
+    private static Long clientId(Referral referral) {
+        return referral.getClient() != null ? referral.getClient().getId() : null;
+    }
+
+    private static String affiliateLabel(String firstName, String lastName) {
+        return (firstName == null ? "" : firstName) + " " + (lastName == null ? "" : lastName);
+    }
+
+    private static String customerLabel(String customerName, String customerEmail) {
+        return customerName != null && !customerName.isBlank() ? customerName : customerEmail;
+    }
+}
@@ -0,0 +1,205 @@
+package com.saas.AffiliateManagement.service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+
+/**
+ * Classifies user-agent strings with ordered rule tables over a fixed token set. Every token is
+ * found in a single pass over the string by an Aho-Corasick automaton; each table then picks its
+ * first rule whose tokens matched. Order matters: Edge and Opera also send "Chrome/", Chrome also
+ * sends "Safari/", iOS sends "like Mac OS X" and Android sends "Linux". Thread-safe once built.
+ */
+public final class UserAgentParser {
+
+    public static final String UNKNOWN = "Unknown";
+
+    private static final List<Rule> DEVICE_TYPES = List.of(
+            rule("Tablet", "iPad", "Tablet", "PlayBook", "Kindle", "Silk/"),
+            // Android tablets leave "Mobile" out of their agent.
+            rule("Tablet", "Android").unless("Mobi"),
+            rule("Mobile", "Mobi", "iPhone", "iPod", "Android", "Windows Phone", "Opera Mini", "BlackBerry"),
+            rule("Desktop"));
+
+    private static final List<Rule> BROWSERS = List.of(
+            rule("Edge", "Edg/", "Edge/", "EdgA/", "EdgiOS/"),
+            rule("Opera", "OPR/", "Opera", "OPiOS/"),
+            rule("Samsung Internet", "SamsungBrowser/"),
+            rule("Firefox", "Firefox/", "FxiOS/"),
+            rule("Chrome", "Chrome/", "CriOS/", "Chromium/"),
+            rule("Safari", "Safari/"),
+            rule("Internet Explorer", "MSIE ", "Trident/"),
+            rule("Other"));
+
+    private static final List<Rule> OPERATING_SYSTEMS = List.of(
+            // Windows Phone agents also claim to be Android and iPhone.
+            rule("Windows Phone", "Windows Phone"),
+            rule("iOS", "iPhone", "iPad", "iPod"),
+            rule("Android", "Android"),
+            rule("Windows", "Windows"),
+            rule("Chrome OS", "CrOS"),
+            rule("macOS", "Macintosh", "Mac OS X"),
+            rule("Linux", "Linux", "X11"),
+            rule("Other"));
+
+    private final TokenAutomaton automaton;
+    private final CompiledRule[] deviceTypes;
+    private final CompiledRule[] browsers;
+    private final CompiledRule[] operatingSystems;
+
+    public UserAgentParser() {
+        Map<String, Integer> tokens = new LinkedHashMap<>();
+        for (List<Rule> table : List.of(DEVICE_TYPES, BROWSERS, OPERATING_SYSTEMS)) {
+            for (Rule rule : table) {
+                rule.anyOf.forEach(token -> tokens.putIfAbsent(token, tokens.size()));
+                rule.noneOf.forEach(token -> tokens.putIfAbsent(token, tokens.size()));
+            }
+        }
+        if (tokens.size() > Long.SIZE) {
+            throw new IllegalStateException("User-agent rules use " + tokens.size() + " tokens, at most 64 fit a mask");
+        }
+
+        this.automaton = new TokenAutomaton(new ArrayList<>(tokens.keySet()));
+        this.deviceTypes = compile(DEVICE_TYPES, tokens);
+        this.browsers = compile(BROWSERS, tokens);
+        this.operatingSystems = compile(OPERATING_SYSTEMS, tokens);
+    }
+
+    public DeviceDetector.DeviceInfo parse(String userAgent) {
+        if (userAgent == null || userAgent.isEmpty()) {
+            return new DeviceDetector.DeviceInfo(UNKNOWN, UNKNOWN, UNKNOWN);
+        }
+
+        long matched = automaton.match(userAgent);
+        return new DeviceDetector.DeviceInfo(
+                firstMatch(deviceTypes, matched),
+                firstMatch(browsers, matched),
+                firstMatch(operatingSystems, matched));
+    }
+
+    private static String firstMatch(CompiledRule[] rules, long matched) {
+        for (CompiledRule rule : rules) {
+            if ((rule.anyOf == 0 || (matched & rule.anyOf) != 0) && (matched & rule.noneOf) == 0) {
+                return rule.result;
+            }
+        }
+        return UNKNOWN;
+    }
+
+    private static CompiledRule[] compile(List<Rule> rules, Map<String, Integer> tokens) {
+        return rules.stream()
+                .map(rule -> new CompiledRule(rule.result, mask(rule.anyOf, tokens), mask(rule.noneOf, tokens)))
+                .toArray(CompiledRule[]::new);
+    }
+
+    private static long mask(List<String> ruleTokens, Map<String, Integer> tokens) {
+        long mask = 0;
+        for (String token : ruleTokens) {
+            mask |= 1L << tokens.get(token);
+        }
+        return mask;
+    }
+
+    private static Rule rule(String result, String... anyOf) {
+        return new Rule(result, List.of(anyOf), List.of());
+    }
+
+    /**
+     * Matches when any of {@code anyOf} occurs and none of {@code noneOf} does; a rule without
+     * tokens always matches and ends its table.
+     */
+    private record Rule(String result, List<String> anyOf, List<String> noneOf) {
+
+        private Rule unless(String... tokens) {
+            return new Rule(result, anyOf, List.of(tokens));
+        }
+    }
+
+    private record CompiledRule(String result, long anyOf, long noneOf) {
+    }
+
+    /**
+     * Aho-Corasick automaton over ASCII tokens, expanded into a full transition table so matching
+     * costs one array lookup per character. Characters outside ASCII never continue a match.
+     */
+    private static final class TokenAutomaton {
+
+        private static final int ALPHABET = 128;
+
+        private final int[][] transitions;
+        // Tokens ending at each state, including those reached through failure links.
+        private final long[] outputs;
+
+        private TokenAutomaton(List<String> tokens) {
+            List<int[]> gotos = new ArrayList<>();
+            List<Long> ends = new ArrayList<>();
+            gotos.add(newState());
+            ends.add(0L);
+
+            for (int id = 0; id < tokens.size(); id++) {
+                int state = 0;
+                for (char c : tokens.get(id).toCharArray()) {
+                    if (c >= ALPHABET) {
+                        throw new IllegalArgumentException("User-agent tokens must be ASCII: " + tokens.get(id));
+                    }
+                    if (gotos.get(state)[c] < 0) {
+                        gotos.get(state)[c] = gotos.size();
+                        gotos.add(newState());
+                        ends.add(0L);
+                    }
+                    state = gotos.get(state)[c];
+                }
+                ends.set(state, ends.get(state) | 1L << id);
+            }
+
+            this.transitions = gotos.toArray(int[][]::new);
+            this.outputs = ends.stream().mapToLong(Long::longValue).toArray();
+
+            // Breadth-first, so every failure target is complete before the states that fall back to it.
+            int[] failure = new int[transitions.length];
+            Queue<Integer> queue = new ArrayDeque<>();
+            for (int c = 0; c < ALPHABET; c++) {
+                if (transitions[0][c] < 0) {
+                    transitions[0][c] = 0;
+                } else {
+                    failure[transitions[0][c]] = 0;
+                    queue.add(transitions[0][c]);
+                }
+            }
+            while (!queue.isEmpty()) {
+                int state = queue.poll();
+                outputs[state] |= outputs[failure[state]];
+                for (int c = 0; c < ALPHABET; c++) {
+                    int next = transitions[state][c];
+                    if (next < 0) {
+                        transitions[state][c] = transitions[failure[state]][c];
+                    } else {
+                        failure[next] = transitions[failure[state]][c];
+                        queue.add(next);
+                    }
+                }
+            }
+        }
+
+        private long match(String text) {
+            long matched = 0;
+            int state = 0;
+            for (int i = 0; i < text.length(); i++) {
+                char c = text.charAt(i);
+                state = c < ALPHABET ? transitions[state][c] : 0;
+                matched |= outputs[state];
+            }
+            return matched;
+        }
+
+        private static int[] newState() {
+            int[] state = new int[ALPHABET];
+            Arrays.fill(state, -1);
+            return state;
+        }
+    }
+}
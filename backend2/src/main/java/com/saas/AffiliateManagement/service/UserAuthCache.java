@@ -0,0 +1,87 @@
+package com.saas.AffiliateManagement.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.saas.AffiliateManagement.models.entity.Client;
+import com.saas.AffiliateManagement.models.entity.User;
+import com.saas.AffiliateManagement.repository.UserRepository;
+import com.saas.AffiliateManagement.security.CustomUserDetails;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+
+/**
+ * Short-lived cache of the users behind JWT-authenticated requests, keyed by email. Entries are
+ * detached snapshots without the password hash. They are evicted when a user is deactivated; the
+ * TTL bounds how long a change made by another application instance can go unnoticed.
+ */
+@Component
+@Slf4j
+public class UserAuthCache {
+
+    private final UserRepository userRepository;
+    private final Cache<String, CustomUserDetails> users;
+
+    public UserAuthCache(UserRepository userRepository,
+                         @Value("${jwt.user-cache.max-size:10000}") long maxSize,
+                         @Value("${jwt.user-cache.ttl:PT30S}") Duration ttl) {
+        this.userRepository = userRepository;
+        this.users = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    /**
+     * @return the user with this email, or {@code null} if there is none
+     */
+    public CustomUserDetails get(String email) {
+        return users.get(email, this::load);
+    }
+
+    public void evict(String email) {
+        users.invalidate(email);
+
+        // A concurrent request may reload the old row before our transaction commits, so evict again afterwards.
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    users.invalidate(email);
+                }
+            });
+        }
+
+        log.debug("Evicted cached user: {}", email);
+    }
+
+    private CustomUserDetails load(String email) {
+        return userRepository.findByEmail(email)
+                .map(UserAuthCache::snapshot)
+                .orElse(null);
+    }
+
+    private static CustomUserDetails snapshot(User user) {
+        // Only the client id is kept; reading it from the lazy proxy does not initialize it.
+        Client client = user.getClient() != null
+                ? Client.builder().id(user.getClient().getId()).build()
+                : null;
+
+        return new CustomUserDetails(User.builder()
+                .id(user.getId())
+                .email(user.getEmail())
+                .firstName(user.getFirstName())
+                .lastName(user.getLastName())
+                .client(client)
+                .role(user.getRole())
+                .active(user.getActive())
+                .emailVerified(user.getEmailVerified())
+                .createdAt(user.getCreatedAt())
+                .updatedAt(user.getUpdatedAt())
+                .build());
+    }
+}
@@ -0,0 +1,79 @@
+package com.saas.AffiliateManagement.service;
+
+import com.saas.AffiliateManagement.models.RollupGranularity;
+import com.saas.AffiliateManagement.models.dto.ReferralVisit;
+import com.saas.AffiliateManagement.repository.VisitorSketchRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+/**
+ * Unique-visitor estimates from per-affiliate, per-day HyperLogLog sketches. A window is
+ * answered by merging the stored sketches of the days it covers completely; only the partial
+ * days at its edges are read from raw referrals. Visits are added when clicks are written;
+ * sketches cannot forget a visit, so deleted referrals stay counted until the next rebuild.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class VisitorSketchService {
+
+    // A window ending this close to now can use today's sketch whole: nothing was clicked after its end yet.
+    private static final Duration OPEN_DAY_TOLERANCE = Duration.ofMinutes(1);
+
+    private final VisitorSketchRepository visitorSketchRepository;
+
+    @Transactional
+    public void recordVisits(List<ReferralVisit> visits) {
+        visitorSketchRepository.recordVisits(visits);
+    }
+
+    /**
+     * Estimated number of distinct visitor IPs among the affiliate's clicks in [start, end],
+     * within {@link HyperLogLog#relativeError(int)} of the configured precision.
+     */
+    @Transactional(readOnly = true)
+    public long estimateUniqueVisitors(Long affiliateId, LocalDateTime start, LocalDateTime end) {
+        // Timestamps are stored with microsecond precision, so this turns the inclusive end into an exclusive one.
+        LocalDateTime to = end.truncatedTo(ChronoUnit.MICROS).plus(1, ChronoUnit.MICROS);
+        if (!to.isBefore(LocalDateTime.now().minus(OPEN_DAY_TOLERANCE))) {
+            to = RollupGranularity.DAY.ceiling(to);
+        }
+
+        HyperLogLog union = new HyperLogLog(visitorSketchRepository.getPrecision());
+        LocalDateTime firstDay = RollupGranularity.DAY.ceiling(start);
+        LocalDateTime lastDay = RollupGranularity.DAY.bucketStart(to);
+
+        if (!firstDay.isBefore(lastDay)) {
+            visitorSketchRepository.forEachIpAddress(affiliateId, start, to, union::add);
+            return union.estimate();
+        }
+
+        visitorSketchRepository.forEachIpAddress(affiliateId, start, firstDay, union::add);
+        visitorSketchRepository.forEachIpAddress(affiliateId, lastDay, to, union::add);
+        for (HyperLogLog sketch : visitorSketchRepository.findSketches(affiliateId,
+                firstDay.toLocalDate(), lastDay.toLocalDate())) {
+            union = union.merge(sketch);
+        }
+        return union.estimate();
+    }
+
+    @Transactional
+    public void rebuild() {
+        long started = System.currentTimeMillis();
+        if (!visitorSketchRepository.rebuild()) {
+            log.info("Visitor sketches are being rebuilt by another instance, skipping");
+            return;
+        }
+        log.info("Rebuilt visitor sketches at precision {} (~{}% error) in {} ms",
+                visitorSketchRepository.getPrecision(),
+                String.format("%.1f", HyperLogLog.relativeError(visitorSketchRepository.getPrecision()) * 100),
+                System.currentTimeMillis() - started);
+    }
+}
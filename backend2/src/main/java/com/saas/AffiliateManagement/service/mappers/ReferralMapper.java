@@ -51,7 +51,6 @@ public class ReferralMapper {
                 .targetUrl(createRequest.getTargetUrl())
                 .sourceUrl(createRequest.getSourceUrl())
                 .metadata(createRequest.getMetadata())
-                .createdAt(LocalDateTime.now())
                 .updatedAt(LocalDateTime.now())
                 .build();
     }
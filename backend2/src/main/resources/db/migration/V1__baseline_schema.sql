@@ -0,0 +1,188 @@
+-- Baseline: the schema Hibernate generated from the entities under ddl-auto=create-drop.
+-- From here on migrations own the schema and Hibernate only validates it against the entities.
+
+CREATE TABLE clients (
+    id                       BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    company_name             VARCHAR(100)   NOT NULL,
+    name                     VARCHAR(100)   NOT NULL,
+    email                    VARCHAR(255)   NOT NULL,
+    contact_first_name       VARCHAR(50)    NOT NULL,
+    contact_last_name        VARCHAR(50)    NOT NULL,
+    phone_number             VARCHAR(20),
+    website                  VARCHAR(255),
+    address                  VARCHAR(200),
+    city                     VARCHAR(100),
+    country                  VARCHAR(100),
+    postal_code              VARCHAR(20),
+    industry                 VARCHAR(50),
+    company_size             VARCHAR(20),
+    status                   VARCHAR(20)    NOT NULL,
+    subscription_plan        VARCHAR(20)    NOT NULL,
+    business_description     VARCHAR(500),
+    notes                    VARCHAR(1000),
+    email_verified           BOOLEAN        NOT NULL,
+    email_verification_token VARCHAR(255),
+    suspension_reason        VARCHAR(500),
+    email_verified_at        TIMESTAMP(6),
+    subscription_upgraded_at TIMESTAMP(6),
+    suspended_at             TIMESTAMP(6),
+    created_at               TIMESTAMP(6)   NOT NULL,
+    updated_at               TIMESTAMP(6),
+    CONSTRAINT uk_clients_company_name UNIQUE (company_name),
+    CONSTRAINT uk_clients_name UNIQUE (name),
+    CONSTRAINT uk_clients_email UNIQUE (email)
+);
+
+CREATE TABLE users (
+    id             BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    email          VARCHAR(255) NOT NULL,
+    password       VARCHAR(255) NOT NULL,
+    first_name     VARCHAR(255) NOT NULL,
+    last_name      VARCHAR(255) NOT NULL,
+    client_id      BIGINT REFERENCES clients (id),
+    role           VARCHAR(255) NOT NULL,
+    active         BOOLEAN      NOT NULL,
+    email_verified BOOLEAN      NOT NULL,
+    created_at     TIMESTAMP(6) NOT NULL,
+    updated_at     TIMESTAMP(6),
+    CONSTRAINT uk_users_email UNIQUE (email)
+);
+
+CREATE TABLE affiliates (
+    id                 BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    client_id          BIGINT        NOT NULL REFERENCES clients (id),
+    unique_identifier  VARCHAR(50)   NOT NULL,
+    target_url         VARCHAR(2000) NOT NULL,
+    email              VARCHAR(255)  NOT NULL,
+    first_name         VARCHAR(255)  NOT NULL,
+    last_name          VARCHAR(255)  NOT NULL,
+    company_name       VARCHAR(255),
+    phone_number       VARCHAR(255),
+    status             VARCHAR(255)  NOT NULL,
+    payment_method     VARCHAR(255),
+    payment_details    VARCHAR(255),
+    website            VARCHAR(255),
+    social_media_links VARCHAR(255),
+    notes              VARCHAR(1000),
+    referral_code      VARCHAR(255),
+    rejection_reason   VARCHAR(500),
+    created_at         TIMESTAMP(6)  NOT NULL,
+    updated_at         TIMESTAMP(6),
+    CONSTRAINT uk_affiliates_unique_identifier UNIQUE (unique_identifier),
+    CONSTRAINT uk_affiliates_referral_code UNIQUE (referral_code)
+);
+
+CREATE TABLE referrals (
+    id                 BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    client_id          BIGINT         NOT NULL REFERENCES clients (id),
+    affiliate_id       BIGINT         NOT NULL REFERENCES affiliates (id),
+    referral_code      VARCHAR(100)   NOT NULL,
+    target_url         VARCHAR(2000)  NOT NULL,
+    source_url         VARCHAR(2000),
+    status             VARCHAR(20)    NOT NULL,
+    user_agent         VARCHAR(500),
+    ip_address         VARCHAR(45),
+    device_type        VARCHAR(50),
+    browser_name       VARCHAR(50),
+    operating_system   VARCHAR(50),
+    country            VARCHAR(100),
+    city               VARCHAR(100),
+    conversion_value   NUMERIC(10, 2),
+    order_id           VARCHAR(100),
+    metadata_json      TEXT,
+    clicked_at         TIMESTAMP(6),
+    converted_at       TIMESTAMP(6),
+    customer_name      VARCHAR(255)   NOT NULL,
+    customer_email     VARCHAR(255)   NOT NULL,
+    source             VARCHAR(255),
+    total_paid         NUMERIC(10, 2) NOT NULL,
+    total_commission   NUMERIC(10, 2) NOT NULL,
+    referral_status    VARCHAR(255)   NOT NULL
+        CHECK (referral_status IN ('LEAD', 'ACTIVE', 'TRIAL', 'SUSPENDED', 'CANCELLED')),
+    last_purchase_date TIMESTAMP(6),
+    purchase_count     INTEGER,
+    conversion_date    TIMESTAMP(6),
+    created_at         TIMESTAMP(6)   NOT NULL,
+    updated_at         TIMESTAMP(6),
+    CONSTRAINT uk_referrals_customer_email UNIQUE (customer_email)
+);
+
+CREATE TABLE commissions (
+    id           BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    affiliate_id BIGINT         NOT NULL REFERENCES affiliates (id),
+    referral_id  BIGINT         NOT NULL,
+    amount       NUMERIC(10, 2) NOT NULL,
+    percentage   NUMERIC(5, 2),
+    currency     VARCHAR(3),
+    status       VARCHAR(20)    NOT NULL,
+    type         VARCHAR(50),
+    description  VARCHAR(500),
+    earned_at    TIMESTAMP(6),
+    paid_at      TIMESTAMP(6),
+    created_at   TIMESTAMP(6)   NOT NULL,
+    updated_at   TIMESTAMP(6)
+);
+
+CREATE TABLE payments (
+    id                  BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    affiliate_id        BIGINT         NOT NULL REFERENCES affiliates (id),
+    amount              NUMERIC(10, 2) NOT NULL,
+    currency            VARCHAR(3)     NOT NULL,
+    payment_method      VARCHAR(50)    NOT NULL,
+    status              VARCHAR(20)    NOT NULL,
+    transaction_id      VARCHAR(100),
+    description         VARCHAR(500),
+    cancellation_reason VARCHAR(500),
+    processed_at        TIMESTAMP(6),
+    created_at          TIMESTAMP(6)   NOT NULL,
+    updated_at          TIMESTAMP(6)
+);
+
+CREATE TABLE payouts (
+    id                BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    affiliate_id      BIGINT         NOT NULL REFERENCES affiliates (id),
+    method            VARCHAR(50)    NOT NULL,
+    commission_start  DATE           NOT NULL,
+    commission_end    DATE           NOT NULL,
+    amount            NUMERIC(10, 2) NOT NULL,
+    status            VARCHAR(20)    NOT NULL,
+    transaction_id    VARCHAR(100),
+    payment_reference VARCHAR(200),
+    notes             VARCHAR(1000),
+    processed_at      TIMESTAMP(6),
+    createdat         TIMESTAMP(6)   NOT NULL,
+    updated_at        TIMESTAMP(6)
+);
+
+CREATE TABLE affiliate_status_counters (
+    client_id       BIGINT      NOT NULL,
+    status          VARCHAR(50) NOT NULL,
+    affiliate_count BIGINT      NOT NULL,
+    PRIMARY KEY (client_id, status)
+);
+
+CREATE TABLE referral_rollups (
+    id               BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    granularity      VARCHAR(10)    NOT NULL CHECK (granularity IN ('HOUR', 'DAY')),
+    bucket_start     TIMESTAMP(6)   NOT NULL,
+    affiliate_id     BIGINT         NOT NULL,
+    client_id        BIGINT         NOT NULL,
+    source_domain    VARCHAR(255)   NOT NULL,
+    device_type      VARCHAR(50)    NOT NULL,
+    country          VARCHAR(100)   NOT NULL,
+    status           VARCHAR(20)    NOT NULL,
+    referral_count   BIGINT         NOT NULL,
+    conversion_value NUMERIC(14, 2) NOT NULL,
+    CONSTRAINT uk_referral_rollups_cell UNIQUE (granularity, bucket_start, affiliate_id, client_id,
+                                                source_domain, device_type, country, status)
+);
+
+CREATE INDEX idx_referral_rollups_affiliate_bucket ON referral_rollups (affiliate_id, granularity, bucket_start);
+
+CREATE TABLE visitor_sketches (
+    id           BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    affiliate_id BIGINT NOT NULL,
+    sketch_day   DATE   NOT NULL,
+    registers    BYTEA  NOT NULL,
+    CONSTRAINT uk_visitor_sketches_affiliate_day UNIQUE (affiliate_id, sketch_day)
+);
@@ -0,0 +1,15 @@
+-- Trigram indexes for substring search. Repositories match LOWER(column) LIKE '%term%'
+-- (see SearchPatterns), so each index covers exactly that expression.
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE INDEX idx_affiliates_first_name_trgm ON affiliates USING gin (lower(first_name) gin_trgm_ops);
+CREATE INDEX idx_affiliates_last_name_trgm ON affiliates USING gin (lower(last_name) gin_trgm_ops);
+CREATE INDEX idx_affiliates_full_name_trgm ON affiliates USING gin (lower(first_name || ' ' || last_name) gin_trgm_ops);
+CREATE INDEX idx_affiliates_email_trgm ON affiliates USING gin (lower(email) gin_trgm_ops);
+CREATE INDEX idx_affiliates_company_name_trgm ON affiliates USING gin (lower(company_name) gin_trgm_ops);
+
+CREATE INDEX idx_referrals_customer_name_trgm ON referrals USING gin (lower(customer_name) gin_trgm_ops);
+CREATE INDEX idx_referrals_customer_email_trgm ON referrals USING gin (lower(customer_email) gin_trgm_ops);
+CREATE INDEX idx_referrals_referral_code_trgm ON referrals USING gin (lower(referral_code) gin_trgm_ops);
+
+CREATE INDEX idx_commissions_description_trgm ON commissions USING gin (lower(description) gin_trgm_ops);
@@ -0,0 +1,42 @@
+-- Composite and partial indexes for the repository queries. Each index names the queries it
+-- serves; RepositoryQueryPlanTest fails when a repository query plans a sequential scan.
+
+-- affiliates: client-scoped listings and counters, keyset scroll, email lookups.
+CREATE INDEX idx_affiliates_client_status ON affiliates (client_id, status);          -- findByClientIdAndStatus, countByClientIdAndStatus
+CREATE INDEX idx_affiliates_status ON affiliates (status);                              -- findByStatus, countByStatus
+CREATE INDEX idx_affiliates_client_created ON affiliates (client_id, created_at);     -- countByClientIdAndCreatedAtBetween, summarizeByClientId
+CREATE INDEX idx_affiliates_created_id ON affiliates (created_at, id);                -- findPageAfter
+CREATE INDEX idx_affiliates_email_client ON affiliates (email, client_id);            -- findByEmail, existsByEmailAndClientId
+
+-- referrals: per-affiliate click windows, per-client reporting windows, conversions.
+CREATE INDEX idx_referrals_affiliate_clicked ON referrals (affiliate_id, clicked_at); -- streamStatsRows..., findByAffiliateIdAndDateRange, findTopPerformingByAffiliateId
+CREATE INDEX idx_referrals_affiliate_created ON referrals (affiliate_id, created_at); -- countByAffiliateIdAnd...CreatedAtBetween, countReferralsByAffiliateIds
+CREATE INDEX idx_referrals_client_created ON referrals (client_id, created_at, id);   -- client counts and totals, findByClientIdPageAfter
+CREATE INDEX idx_referrals_clicked ON referrals (clicked_at);                         -- findByClickedAtBetween
+CREATE INDEX idx_referrals_referral_code ON referrals (referral_code);                -- findByReferralCode, existsByReferralCode[AndStatus]
+CREATE INDEX idx_referrals_affiliate_converted ON referrals (affiliate_id, converted_at)
+    WHERE status = 'CONVERTED';                                                       -- calculateTotalRevenue
+CREATE INDEX idx_referrals_client_converted ON referrals (client_id, converted_at, affiliate_id)
+    WHERE status = 'CONVERTED';                                                       -- sumRevenueByAffiliateForClient
+CREATE INDEX idx_referrals_pending_clicked ON referrals (clicked_at, affiliate_id)
+    WHERE status = 'CLICKED';                                                         -- findPendingConversions
+
+-- commissions: per-affiliate windows (client scope joins through affiliates), statuses.
+CREATE INDEX idx_commissions_affiliate_created ON commissions (affiliate_id, created_at, id); -- per-affiliate and per-client sums, findFilteredByClientPageAfter
+CREATE INDEX idx_commissions_affiliate_status ON commissions (affiliate_id, status);  -- findByAffiliateIdAndStatus
+CREATE INDEX idx_commissions_created ON commissions (created_at);                     -- findByCreatedAtBetween, sumEarningsByBucket
+CREATE INDEX idx_commissions_status ON commissions (status);                          -- findByStatus, calculateTotalCommissionByStatus
+
+-- payments and payouts: per-affiliate history, newest first.
+CREATE INDEX idx_payments_affiliate_created ON payments (affiliate_id, created_at, id); -- calculateTotalPaymentsForAffiliate, findTopByAffiliateId..., transactions
+CREATE INDEX idx_payments_created ON payments (created_at);                           -- findByCreatedAtBetween[AndStatus]
+CREATE INDEX idx_payments_status ON payments (status);                                -- findByStatus, calculateTotalPaymentsByStatus
+CREATE INDEX idx_payouts_affiliate_created ON payouts (affiliate_id, createdat, id);  -- payouts listings
+
+-- clients: status and plan lookups, unverified sign-ups.
+CREATE INDEX idx_clients_unverified_created ON clients (created_at)
+    WHERE email_verified = false;                                                     -- findUnverifiedClientsOlderThan
+CREATE INDEX idx_clients_active_plan ON clients (subscription_plan)
+    WHERE status = 'ACTIVE';                                                          -- findActiveClientsByPlan
+CREATE INDEX idx_clients_status ON clients (status);                                  -- findByStatus, countByStatus
+CREATE INDEX idx_clients_subscription_plan ON clients (subscription_plan);            -- findBySubscriptionPlan
@@ -0,0 +1,124 @@
+-- Range-partitions referrals and commissions by month of created_at, so date-bounded queries
+-- prune to the months they cover and old months can be detached instead of deleted.
+-- Partitions are named <table>_pYYYY_MM; PartitionMaintainer keeps creating them ahead of time.
+-- Rows outside every monthly partition land in <table>_default until their month is created.
+--
+-- A unique constraint on a partitioned table must include the partition key, so the primary
+-- keys become (id, created_at) and the unique constraint on referrals.customer_email is dropped.
+
+-- Move the old tables and the names of their keys and sequences out of the way.
+ALTER TABLE referrals RENAME TO referrals_unpartitioned;
+ALTER TABLE referrals_unpartitioned RENAME CONSTRAINT referrals_pkey TO referrals_unpartitioned_pkey;
+ALTER SEQUENCE referrals_id_seq RENAME TO referrals_unpartitioned_id_seq;
+ALTER TABLE commissions RENAME TO commissions_unpartitioned;
+ALTER TABLE commissions_unpartitioned RENAME CONSTRAINT commissions_pkey TO commissions_unpartitioned_pkey;
+ALTER SEQUENCE commissions_id_seq RENAME TO commissions_unpartitioned_id_seq;
+
+CREATE TABLE referrals (
+    id                 BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    client_id          BIGINT         NOT NULL REFERENCES clients (id),
+    affiliate_id       BIGINT         NOT NULL REFERENCES affiliates (id),
+    referral_code      VARCHAR(100)   NOT NULL,
+    target_url         VARCHAR(2000)  NOT NULL,
+    source_url         VARCHAR(2000),
+    status             VARCHAR(20)    NOT NULL,
+    user_agent         VARCHAR(500),
+    ip_address         VARCHAR(45),
+    device_type        VARCHAR(50),
+    browser_name       VARCHAR(50),
+    operating_system   VARCHAR(50),
+    country            VARCHAR(100),
+    city               VARCHAR(100),
+    conversion_value   NUMERIC(10, 2),
+    order_id           VARCHAR(100),
+    metadata_json      TEXT,
+    clicked_at         TIMESTAMP(6),
+    converted_at       TIMESTAMP(6),
+    customer_name      VARCHAR(255)   NOT NULL,
+    customer_email     VARCHAR(255)   NOT NULL,
+    source             VARCHAR(255),
+    total_paid         NUMERIC(10, 2) NOT NULL,
+    total_commission   NUMERIC(10, 2) NOT NULL,
+    referral_status    VARCHAR(255)   NOT NULL
+        CHECK (referral_status IN ('LEAD', 'ACTIVE', 'TRIAL', 'SUSPENDED', 'CANCELLED')),
+    last_purchase_date TIMESTAMP(6),
+    purchase_count     INTEGER,
+    conversion_date    TIMESTAMP(6),
+    created_at         TIMESTAMP(6)   NOT NULL,
+    updated_at         TIMESTAMP(6),
+    PRIMARY KEY (id, created_at)
+) PARTITION BY RANGE (created_at);
+
+CREATE TABLE commissions (
+    id           BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    affiliate_id BIGINT         NOT NULL REFERENCES affiliates (id),
+    referral_id  BIGINT         NOT NULL,
+    amount       NUMERIC(10, 2) NOT NULL,
+    percentage   NUMERIC(5, 2),
+    currency     VARCHAR(3),
+    status       VARCHAR(20)    NOT NULL,
+    type         VARCHAR(50),
+    description  VARCHAR(500),
+    earned_at    TIMESTAMP(6),
+    paid_at      TIMESTAMP(6),
+    created_at   TIMESTAMP(6)   NOT NULL,
+    updated_at   TIMESTAMP(6),
+    PRIMARY KEY (id, created_at)
+) PARTITION BY RANGE (created_at);
+
+CREATE TABLE referrals_default PARTITION OF referrals DEFAULT;
+CREATE TABLE commissions_default PARTITION OF commissions DEFAULT;
+
+-- One partition per month from the oldest existing row through three months ahead.
+DO $$
+DECLARE
+    parent      TEXT;
+    oldest      TIMESTAMP;
+    month_start DATE;
+BEGIN
+    FOREACH parent IN ARRAY ARRAY['referrals', 'commissions'] LOOP
+        EXECUTE format('SELECT MIN(created_at) FROM %I', parent || '_unpartitioned') INTO oldest;
+        month_start := date_trunc('month', LEAST(COALESCE(oldest, LOCALTIMESTAMP), LOCALTIMESTAMP))::date;
+        WHILE month_start <= (date_trunc('month', LOCALTIMESTAMP) + INTERVAL '3 months')::date LOOP
+            EXECUTE format('CREATE TABLE %I PARTITION OF %I FOR VALUES FROM (%L) TO (%L)',
+                    parent || '_p' || to_char(month_start, 'YYYY_MM'), parent,
+                    month_start, (month_start + INTERVAL '1 month')::date);
+            month_start := (month_start + INTERVAL '1 month')::date;
+        END LOOP;
+    END LOOP;
+END $$;
+
+INSERT INTO referrals SELECT * FROM referrals_unpartitioned;
+INSERT INTO commissions SELECT * FROM commissions_unpartitioned;
+
+SELECT setval(pg_get_serial_sequence('referrals', 'id'),
+        COALESCE((SELECT MAX(id) FROM referrals), 0) + 1, false);
+SELECT setval(pg_get_serial_sequence('commissions', 'id'),
+        COALESCE((SELECT MAX(id) FROM commissions), 0) + 1, false);
+
+DROP TABLE referrals_unpartitioned;
+DROP TABLE commissions_unpartitioned;
+
+-- The indexes from V2 and V3 went with the old tables; created on the parents they cascade to
+-- every partition, including those PartitionMaintainer attaches later.
+CREATE INDEX idx_referrals_customer_name_trgm ON referrals USING gin (lower(customer_name) gin_trgm_ops);
+CREATE INDEX idx_referrals_customer_email_trgm ON referrals USING gin (lower(customer_email) gin_trgm_ops);
+CREATE INDEX idx_referrals_referral_code_trgm ON referrals USING gin (lower(referral_code) gin_trgm_ops);
+CREATE INDEX idx_commissions_description_trgm ON commissions USING gin (lower(description) gin_trgm_ops);
+
+CREATE INDEX idx_referrals_affiliate_clicked ON referrals (affiliate_id, clicked_at);
+CREATE INDEX idx_referrals_affiliate_created ON referrals (affiliate_id, created_at);
+CREATE INDEX idx_referrals_client_created ON referrals (client_id, created_at, id);
+CREATE INDEX idx_referrals_clicked ON referrals (clicked_at);
+CREATE INDEX idx_referrals_referral_code ON referrals (referral_code);
+CREATE INDEX idx_referrals_affiliate_converted ON referrals (affiliate_id, converted_at)
+    WHERE status = 'CONVERTED';
+CREATE INDEX idx_referrals_client_converted ON referrals (client_id, converted_at, affiliate_id)
+    WHERE status = 'CONVERTED';
+CREATE INDEX idx_referrals_pending_clicked ON referrals (clicked_at, affiliate_id)
+    WHERE status = 'CLICKED';
+
+CREATE INDEX idx_commissions_affiliate_created ON commissions (affiliate_id, created_at, id);
+CREATE INDEX idx_commissions_affiliate_status ON commissions (affiliate_id, status);
+CREATE INDEX idx_commissions_created ON commissions (created_at);
+CREATE INDEX idx_commissions_status ON commissions (status);
@@ -0,0 +1,55 @@
+package com.saas.AffiliateManagement;
+
+import com.saas.AffiliateManagement.models.dto.AffiliateRedirectDescriptor;
+import com.saas.AffiliateManagement.repository.AffiliateRepository;
+import com.saas.AffiliateManagement.service.AffiliateRedirectCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class AffiliateRedirectCacheTest {
+
+    private AffiliateRepository affiliateRepository;
+    private AffiliateRedirectCache cache;
+
+    @BeforeEach
+    void setUp() {
+        affiliateRepository = mock(AffiliateRepository.class);
+        cache = new AffiliateRedirectCache(affiliateRepository, 1_000, Duration.ofMinutes(10));
+        stub("aff-1", 1L, 7L, "Acme");
+        stub("aff-2", 2L, 7L, "Acme");
+        stub("aff-3", 3L, 8L, "Globex");
+    }
+
+    @Test
+    void clientChangeReloadsOnlyThatClientsAffiliates() {
+        cache.resolve("aff-1");
+        cache.resolve("aff-2");
+        cache.resolve("aff-3");
+
+        stub("aff-1", 1L, 7L, "Acme Renamed");
+        cache.evictClient(7L);
+
+        assertEquals("Acme Renamed", cache.resolve("aff-1").orElseThrow().getClientName());
+        cache.resolve("aff-2");
+        cache.resolve("aff-3");
+
+        verify(affiliateRepository, times(2)).findRedirectDescriptorByUniqueIdentifier("aff-1");
+        verify(affiliateRepository, times(2)).findRedirectDescriptorByUniqueIdentifier("aff-2");
+        verify(affiliateRepository, times(1)).findRedirectDescriptorByUniqueIdentifier("aff-3");
+    }
+
+    private void stub(String identifier, Long id, Long clientId, String clientName) {
+        when(affiliateRepository.findRedirectDescriptorByUniqueIdentifier(identifier))
+                .thenReturn(Optional.of(new AffiliateRedirectDescriptor(id, identifier, "ACTIVE",
+                        "https://shop.example.com", identifier + "@shop.example", clientId, clientName)));
+    }
+}
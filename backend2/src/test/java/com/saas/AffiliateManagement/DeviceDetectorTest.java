@@ -0,0 +1,49 @@
+package com.saas.AffiliateManagement;
+
+import com.saas.AffiliateManagement.service.DeviceDetector;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+public class DeviceDetectorTest {
+
+    private final DeviceDetector detector = new DeviceDetector(100);
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value = {
+            "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/124.0.0.0 Safari/537.36|Desktop|Chrome|Windows",
+            "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/124.0.0.0 Safari/537.36 Edg/124.0.2478.51|Desktop|Edge|Windows",
+            "Mozilla/5.0 (Macintosh; Intel Mac OS X 10_15_7) AppleWebKit/605.1.15 (KHTML, like Gecko) Version/17.4 Safari/605.1.15|Desktop|Safari|macOS",
+            "Mozilla/5.0 (X11; Linux x86_64; rv:125.0) Gecko/20100101 Firefox/125.0|Desktop|Firefox|Linux",
+            "Mozilla/5.0 (iPhone; CPU iPhone OS 17_4 like Mac OS X) AppleWebKit/605.1.15 (KHTML, like Gecko) Version/17.4 Mobile/15E148 Safari/604.1|Mobile|Safari|iOS",
+            "Mozilla/5.0 (iPhone; CPU iPhone OS 17_4 like Mac OS X) AppleWebKit/605.1.15 (KHTML, like Gecko) CriOS/124.0.6367.88 Mobile/15E148 Safari/604.1|Mobile|Chrome|iOS",
+            "Mozilla/5.0 (iPad; CPU OS 17_4 like Mac OS X) AppleWebKit/605.1.15 (KHTML, like Gecko) Version/17.4 Mobile/15E148 Safari/604.1|Tablet|Safari|iOS",
+            "Mozilla/5.0 (Linux; Android 14; Pixel 8) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/124.0.6367.82 Mobile Safari/537.36|Mobile|Chrome|Android",
+            "Mozilla/5.0 (Linux; Android 13; SM-X710) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/124.0.0.0 Safari/537.36|Tablet|Chrome|Android",
+            "Mozilla/5.0 (Linux; Android 14; SM-S918B) AppleWebKit/537.36 (KHTML, like Gecko) SamsungBrowser/24.0 Chrome/117.0.0.0 Mobile Safari/537.36|Mobile|Samsung Internet|Android",
+            "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/124.0.0.0 Safari/537.36 OPR/109.0.0.0|Desktop|Opera|Windows",
+            "Mozilla/5.0 (X11; CrOS x86_64 14541.0.0) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/124.0.0.0 Safari/537.36|Desktop|Chrome|Chrome OS",
+            "curl/8.4.0|Desktop|Other|Other"
+    })
+    void classifiesCommonAgents(String userAgent, String deviceType, String browser, String operatingSystem) {
+        DeviceDetector.DeviceInfo info = detector.detectDevice(userAgent);
+
+        assertEquals(new DeviceDetector.DeviceInfo(deviceType, browser, operatingSystem), info);
+    }
+
+    @Test
+    void missingAgentIsUnknown() {
+        assertEquals(new DeviceDetector.DeviceInfo("Unknown", "Unknown", "Unknown"), detector.detectDevice(null));
+        assertEquals(new DeviceDetector.DeviceInfo("Unknown", "Unknown", "Unknown"), detector.detectDevice(""));
+    }
+
+    @Test
+    void repeatAgentsAreServedFromCache() {
+        String userAgent = "Mozilla/5.0 (X11; Linux x86_64; rv:125.0) Gecko/20100101 Firefox/125.0";
+
+        assertSame(detector.detectDevice(userAgent), detector.detectDevice(new String(userAgent)));
+    }
+}
@@ -0,0 +1,144 @@
+package com.saas.AffiliateManagement;
+
+import com.saas.AffiliateManagement.models.dto.EarningsBucketRow;
+import com.saas.AffiliateManagement.models.dto.EarningsDataDto;
+import com.saas.AffiliateManagement.models.entity.Affiliate;
+import com.saas.AffiliateManagement.models.entity.Client;
+import com.saas.AffiliateManagement.models.entity.Commission;
+import com.saas.AffiliateManagement.models.entity.Referral;
+import com.saas.AffiliateManagement.repository.CommissionRepository;
+import com.saas.AffiliateManagement.service.TimeBucketSeries;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Fills earnings series from {@code CommissionRepository.sumEarningsByBucket} on the migrated
+ * Postgres schema and checks every bucket against totals computed in Java from the bucket
+ * bounds of {@link TimeBucketSeries}.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers(disabledWithoutDocker = true)
+public class EarningsBucketQueryTest {
+
+    @Container
+    @ServiceConnection
+    static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    private static final LocalDateTime START = LocalDateTime.of(2024, 1, 17, 9, 41, 12);
+    private static final LocalDateTime END = START.plusDays(400);
+
+    // Device types of the referrals behind the commissions. Commissions are also created with a
+    // referral id that matches no row, which the query must count as desktop.
+    private static final List<String> DEVICES = List.of("MOBILE", "tablet", "DESKTOP", "");
+    private static final List<Boolean> COUNTS_AS_MOBILE = List.of(true, true, false, false);
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private CommissionRepository commissionRepository;
+
+    private final List<Commission> commissions = new ArrayList<>();
+    private final List<Boolean> mobile = new ArrayList<>();
+    private Affiliate affiliate;
+
+    @BeforeEach
+    void setUp() {
+        Client client = entityManager.persist(Client.builder()
+                .companyName("Acme")
+                .name("acme")
+                .email("owner@acme.example")
+                .contactFirstName("Ada")
+                .contactLastName("Owner")
+                .status("ACTIVE")
+                .subscriptionPlan("BASIC")
+                .emailVerified(true)
+                .createdAt(LocalDateTime.now())
+                .build());
+        affiliate = entityManager.persist(Affiliate.builder()
+                .client(client)
+                .uniqueIdentifier("aff-1")
+                .targetUrl("https://shop.example.com")
+                .firstName("Anna")
+                .lastName("Berzina")
+                .email("anna@shop.example")
+                .status("ACTIVE")
+                .createdAt(LocalDateTime.now())
+                .build());
+
+        List<Long> referralIds = new ArrayList<>();
+        for (int d = 0; d < DEVICES.size(); d++) {
+            referralIds.add(entityManager.persist(Referral.builder()
+                    .client(client)
+                    .affiliate(affiliate)
+                    .referralCode("ref-" + d)
+                    .targetUrl("https://shop.example.com")
+                    .status("CONVERTED")
+                    .deviceType(DEVICES.get(d))
+                    .customerName("Customer " + d)
+                    .customerEmail("customer" + d + "@example.com")
+                    .build()).getId());
+        }
+
+        Random random = new Random(42);
+        for (int i = 0; i < 2_000; i++) {
+            int device = random.nextInt(DEVICES.size() + 1);
+            Commission commission = entityManager.persist(Commission.builder()
+                    .affiliate(affiliate)
+                    .referralId(device < DEVICES.size() ? referralIds.get(device) : -1L)
+                    .amount(BigDecimal.valueOf(random.nextInt(100_000), 2))
+                    .status("APPROVED")
+                    .createdAt(START.minusDays(10).plusMinutes(random.nextInt(60 * 24 * 420)))
+                    .build());
+            commissions.add(commission);
+            mobile.add(device < DEVICES.size() && COUNTS_AS_MOBILE.get(device));
+        }
+        entityManager.flush();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"monthly", "weekly", "daily"})
+    void bucketRowsLandInTheBucketsContainingTheirCommissions(String period) {
+        TimeBucketSeries series = TimeBucketSeries.of(period, START, END);
+        for (EarningsBucketRow row : commissionRepository.sumEarningsByBucket(TimeBucketSeries.normalizePeriod(period),
+                START, series.bucketStart(0), series.bucketEnd(series.size() - 1), END, affiliate.getId(), null)) {
+            series.addBucketTotals(row.getBucket(), row.getDesktop(), row.getMobile());
+        }
+
+        List<EarningsDataDto> actual = series.toEarningsData();
+        for (int b = 0; b < actual.size(); b++) {
+            BigDecimal desktopTotal = BigDecimal.ZERO;
+            BigDecimal mobileTotal = BigDecimal.ZERO;
+            for (int i = 0; i < commissions.size(); i++) {
+                LocalDateTime at = commissions.get(i).getCreatedAt();
+                if (!at.isBefore(series.bucketStart(b)) && at.isBefore(series.bucketEnd(b)) && !at.isAfter(END)) {
+                    if (mobile.get(i)) {
+                        mobileTotal = mobileTotal.add(commissions.get(i).getAmount());
+                    } else {
+                        desktopTotal = desktopTotal.add(commissions.get(i).getAmount());
+                    }
+                }
+            }
+            assertEquals(0, desktopTotal.compareTo(actual.get(b).getDesktop()), actual.get(b).getPeriod() + " desktop");
+            assertEquals(0, mobileTotal.compareTo(actual.get(b).getMobile()), actual.get(b).getPeriod() + " mobile");
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.saas.AffiliateManagement;
+
+import com.saas.AffiliateManagement.service.GeoIpDatabase;
+import com.saas.AffiliateManagement.service.GeoLocationService.GeoLocation;
+import com.saas.AffiliateManagement.service.MappedGeoIpDatabase;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class GeoIpDatabaseTest {
+
+    private static final String CSV = """
+            start,end,country,city
+            10.0.0.0,10.0.0.255,Latvia,Riga
+            1.0.0.0,1.0.0.127,Estonia,Tallinn
+            203.0.113.0,203.0.113.255,Estonia,Tartu
+            255.255.255.0,255.255.255.255,Lithuania,"Vilnius, Old Town"
+            2001:db8::,2001:db8:0:ffff:ffff:ffff:ffff:ffff,Latvia,Riga
+            2001:db8:1::,2001:db8:1::ff,Finland,
+            """;
+
+    private final GeoIpDatabase database = read(CSV);
+
+    @Test
+    void locatesIpv4RangesIncludingUnsignedHighAddresses() {
+        assertEquals(GeoLocation.of("Latvia", "Riga"), database.locate("10.0.0.0"));
+        assertEquals(GeoLocation.of("Latvia", "Riga"), database.locate("10.0.0.255"));
+        assertEquals(GeoLocation.of("Estonia", "Tartu"), database.locate("203.0.113.7"));
+        assertEquals(GeoLocation.of("Lithuania", "Vilnius, Old Town"), database.locate("255.255.255.255"));
+        assertSame(GeoLocation.UNKNOWN, database.locate("10.0.1.0"));
+        assertSame(GeoLocation.UNKNOWN, database.locate("0.0.0.1"));
+    }
+
+    @Test
+    void locatesIpv6AndMappedIpv4Addresses() {
+        assertEquals(GeoLocation.of("Latvia", "Riga"), database.locate("2001:db8::1"));
+        assertEquals(GeoLocation.of("Latvia", "Riga"), database.locate("2001:DB8:0:1234::abcd%eth0"));
+        assertEquals(GeoLocation.of("Finland", "Unknown"), database.locate("2001:db8:1::80"));
+        assertSame(GeoLocation.UNKNOWN, database.locate("2001:db8:1::100"));
+        assertEquals(GeoLocation.of("Estonia", "Tartu"), database.locate("::ffff:203.0.113.9"));
+    }
+
+    @Test
+    void malformedAddressesAreUnknown() {
+        for (String address : new String[]{null, "", "10.0.0", "10.0.0.256", "10.0.0.1.", "1:2:3", "1:::2",
+                "2001:db8::1::2", "12345::", "10.0.0.1:8080", "unknown"}) {
+            assertSame(GeoLocation.UNKNOWN, database.locate(address), address);
+        }
+    }
+
+    @Test
+    void compiledDatabaseAnswersLikeTheHeapOne(@TempDir Path directory) throws IOException {
+        Path csv = Files.writeString(directory.resolve("geo.csv"), CSV);
+        Path compiled = directory.resolve("geo.csv.bin");
+
+        MappedGeoIpDatabase.compile(csv, compiled);
+        MappedGeoIpDatabase mapped = MappedGeoIpDatabase.open(compiled);
+
+        assertEquals(database.size(), mapped.size());
+        for (String address : new String[]{"10.0.0.7", "1.0.0.128", "255.255.255.1", "2001:db8::ffff",
+                "2001:db8:1::ff", "::ffff:10.0.0.1", "192.0.2.1"}) {
+            assertEquals(database.locate(address), mapped.locate(address), address);
+        }
+        assertSame(mapped.locate("10.0.0.1"), mapped.locate("10.0.0.2"));
+    }
+
+    @Test
+    void rejectsOverlappingRanges() {
+        assertThrows(IllegalArgumentException.class, () -> read("""
+                10.0.0.0,10.0.0.255,Latvia,Riga
+                10.0.0.128,10.0.1.0,Estonia,Tallinn
+                """));
+    }
+
+    private static GeoIpDatabase read(String csv) {
+        try {
+            return GeoIpDatabase.readCsv(new BufferedReader(new StringReader(csv)));
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
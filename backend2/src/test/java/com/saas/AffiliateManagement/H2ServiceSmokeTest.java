@@ -0,0 +1,104 @@
+package com.saas.AffiliateManagement;
+
+import com.saas.AffiliateManagement.models.dto.AffiliateDto;
+import com.saas.AffiliateManagement.models.dto.ReferralClickEvent;
+import com.saas.AffiliateManagement.models.entity.Client;
+import com.saas.AffiliateManagement.models.requests.AffiliateCreateRequest;
+import com.saas.AffiliateManagement.repository.ClientRepository;
+import com.saas.AffiliateManagement.repository.ReferralClickWriter;
+import com.saas.AffiliateManagement.service.AffiliateService;
+import com.saas.AffiliateManagement.service.AffiliateStatusCounterService;
+import com.saas.AffiliateManagement.service.VisitorSketchService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Runs the write paths that keep derived tables up to date (status counters, referral rollups,
+ * visitor sketches) against the in-memory H2 profile, where their upserts use MERGE.
+ */
+@SpringBootTest
+@ActiveProfiles("h2")
+public class H2ServiceSmokeTest {
+
+    @Autowired
+    private ClientRepository clientRepository;
+
+    @Autowired
+    private AffiliateService affiliateService;
+
+    @Autowired
+    private AffiliateStatusCounterService affiliateStatusCounterService;
+
+    @Autowired
+    private ReferralClickWriter referralClickWriter;
+
+    @Autowired
+    private VisitorSketchService visitorSketchService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void affiliateLifecycleAndClicksMaintainDerivedTables() {
+        Client client = clientRepository.save(Client.builder()
+                .companyName("Acme")
+                .name("acme")
+                .email("owner@acme.example")
+                .contactFirstName("Ada")
+                .contactLastName("Owner")
+                .status("ACTIVE")
+                .subscriptionPlan("BASIC")
+                .emailVerified(true)
+                .createdAt(LocalDateTime.now())
+                .build());
+
+        AffiliateDto affiliate = affiliateService.createAffiliate(AffiliateCreateRequest.builder()
+                .clientId(client.getId())
+                .email("anna@shop.example")
+                .firstName("Anna")
+                .lastName("Berzina")
+                .build());
+        affiliateService.approveAffiliate(affiliate.getId());
+
+        assertEquals(0, affiliateStatusCounterService.getCount(client.getId(), "PENDING_APPROVAL"));
+        assertEquals(1, affiliateStatusCounterService.getCount(client.getId(), "ACTIVE"));
+        assertEquals(0, affiliateStatusCounterService.reconcile());
+
+        LocalDateTime clickedAt = LocalDateTime.now().withMinute(5).withSecond(0).withNano(0);
+        assertEquals(1, referralClickWriter.insertBatch(
+                List.of(click(client, affiliate, "click-1", "203.0.113.7", clickedAt))));
+        assertEquals(1, referralClickWriter.insertBatch(
+                List.of(click(client, affiliate, "click-2", "203.0.113.8", clickedAt))));
+
+        assertEquals(2, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM referrals WHERE affiliate_id = ?", Long.class, affiliate.getId()));
+        assertEquals(2, jdbcTemplate.queryForObject(
+                "SELECT referral_count FROM referral_rollups WHERE granularity = 'HOUR' AND affiliate_id = ?",
+                Long.class, affiliate.getId()));
+        assertEquals(2, visitorSketchService.estimateUniqueVisitors(affiliate.getId(),
+                clickedAt.toLocalDate().atStartOfDay(), clickedAt.toLocalDate().plusDays(1).atStartOfDay()));
+    }
+
+    private static ReferralClickEvent click(Client client, AffiliateDto affiliate, String referralCode,
+                                            String ipAddress, LocalDateTime clickedAt) {
+        return ReferralClickEvent.builder()
+                .clientId(client.getId())
+                .affiliateId(affiliate.getId())
+                .referralCode(referralCode)
+                .targetUrl("https://acme.example")
+                .sourceUrl("https://blog.example/post")
+                .ipAddress(ipAddress)
+                .customerName(client.getCompanyName())
+                .customerEmail(affiliate.getEmail())
+                .clickedAt(clickedAt)
+                .build();
+    }
+}
@@ -0,0 +1,71 @@
+package com.saas.AffiliateManagement;
+
+import com.saas.AffiliateManagement.service.HyperLogLog;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class HyperLogLogTest {
+
+    @Test
+    void estimateStaysWithinThreeStandardErrors() {
+        for (int distinct : new int[]{10, 1_000, 100_000, 1_000_000}) {
+            HyperLogLog sketch = new HyperLogLog(12);
+            for (int i = 0; i < distinct; i++) {
+                String ip = ip(i);
+                sketch.add(ip);
+                sketch.add(ip);
+            }
+
+            double error = Math.abs(sketch.estimate() - distinct) / (double) distinct;
+            assertTrue(error <= 3 * HyperLogLog.relativeError(12),
+                    "error " + error + " for " + distinct + " distinct values");
+        }
+    }
+
+    @Test
+    void mergeEqualsSketchOfTheUnion() {
+        HyperLogLog monday = new HyperLogLog(12);
+        HyperLogLog tuesday = new HyperLogLog(12);
+        HyperLogLog both = new HyperLogLog(12);
+        for (int i = 0; i < 50_000; i++) {
+            monday.add(ip(i));
+            tuesday.add(ip(i + 25_000));
+            both.add(ip(i));
+            both.add(ip(i + 25_000));
+        }
+
+        assertEquals(both, monday.merge(tuesday));
+    }
+
+    @Test
+    void foldingMatchesASketchBuiltAtTheLowerPrecision() {
+        HyperLogLog fine = new HyperLogLog(14);
+        HyperLogLog coarse = new HyperLogLog(10);
+        for (int i = 0; i < 20_000; i++) {
+            fine.add(ip(i));
+            coarse.add(ip(i));
+        }
+
+        assertEquals(coarse, fine.foldTo(10));
+        assertEquals(coarse, coarse.merge(fine));
+    }
+
+    @Test
+    void survivesSerialization() {
+        HyperLogLog sketch = new HyperLogLog(12);
+        for (int i = 0; i < 5_000; i++) {
+            sketch.add(ip(i));
+        }
+
+        HyperLogLog restored = HyperLogLog.fromBytes(sketch.toBytes());
+
+        assertEquals(sketch, restored);
+        assertEquals(sketch.estimate(), restored.estimate());
+    }
+
+    private static String ip(int i) {
+        return "10." + ((i >>> 16) & 0xff) + "." + ((i >>> 8) & 0xff) + "." + (i & 0xff) + (i >>> 24 > 0 ? "/" + (i >>> 24) : "");
+    }
+}
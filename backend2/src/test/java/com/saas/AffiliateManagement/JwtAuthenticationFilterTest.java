@@ -0,0 +1,141 @@
+package com.saas.AffiliateManagement;
+
+import com.saas.AffiliateManagement.config.JwtAuthenticationFilter;
+import com.saas.AffiliateManagement.models.entity.User;
+import com.saas.AffiliateManagement.security.CustomUserDetails;
+import com.saas.AffiliateManagement.security.JwtUtil;
+import com.saas.AffiliateManagement.service.CustomUserDetailsService;
+import com.saas.AffiliateManagement.service.UserAuthCache;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class JwtAuthenticationFilterTest {
+
+    private static final String SECRET = "TestSecretKeyForJWTTokenGenerationItShouldBeAtLeast256BitsLong";
+    private static final String EMAIL = "owner@example.com";
+
+    private final JwtUtil jwtUtil = new JwtUtil(SECRET, 60_000L);
+    private final CustomUserDetailsService userDetailsService = mock(CustomUserDetailsService.class);
+    private final UserAuthCache userAuthCache = mock(UserAuthCache.class);
+    private final JwtAuthenticationFilter filter =
+            new JwtAuthenticationFilter(jwtUtil, userDetailsService, userAuthCache);
+
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void validTokenIsAuthenticatedFromTheUserCache() throws Exception {
+        statelessMode(true);
+        when(userAuthCache.get(EMAIL)).thenReturn(user("CLIENT_OWNER", true));
+
+        MockFilterChain chain = filter(jwtUtil.generateToken(EMAIL, 7L, "CLIENT_OWNER", 42L));
+
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        assertNotNull(authentication);
+        assertEquals(EMAIL, ((CustomUserDetails) authentication.getPrincipal()).getEmail());
+        assertNotNull(chain.getRequest());
+        verify(userDetailsService, never()).loadUserByUsername(any());
+    }
+
+    @Test
+    void tokenForUnknownUserIsNotAuthenticated() throws Exception {
+        statelessMode(true);
+        when(userAuthCache.get(EMAIL)).thenReturn(null);
+
+        MockFilterChain chain = filter(jwtUtil.generateToken(EMAIL, 7L, "CLIENT_OWNER", 42L));
+
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+        assertNotNull(chain.getRequest());
+    }
+
+    @Test
+    void tokenForDeactivatedUserIsNotAuthenticated() throws Exception {
+        statelessMode(true);
+        when(userAuthCache.get(EMAIL)).thenReturn(user("CLIENT_OWNER", false));
+
+        MockFilterChain chain = filter(jwtUtil.generateToken(EMAIL, 7L, "CLIENT_OWNER", 42L));
+
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+        assertNotNull(chain.getRequest());
+    }
+
+    @Test
+    void statelessModeTakesTheRoleFromTheClaims() throws Exception {
+        statelessMode(true);
+        when(userAuthCache.get(EMAIL)).thenReturn(user("AFFILIATE", true));
+
+        filter(jwtUtil.generateToken(EMAIL, 7L, "CLIENT_OWNER", 42L));
+
+        assertEquals(List.of("ROLE_CLIENT_OWNER"), authorities());
+    }
+
+    @Test
+    void statefulModeLoadsTheUserOnEveryRequest() throws Exception {
+        statelessMode(false);
+        when(userDetailsService.loadUserByUsername(EMAIL)).thenReturn(user("AFFILIATE", true));
+
+        filter(jwtUtil.generateToken(EMAIL, 7L, "CLIENT_OWNER", 42L));
+
+        assertEquals(List.of("ROLE_AFFILIATE"), authorities());
+        verify(userAuthCache, never()).get(any());
+    }
+
+    @Test
+    void statefulModeDoesNotAuthenticateUnknownUsers() throws Exception {
+        statelessMode(false);
+        when(userDetailsService.loadUserByUsername(EMAIL)).thenThrow(new UsernameNotFoundException(EMAIL));
+
+        filter(jwtUtil.generateToken(EMAIL, 7L, "CLIENT_OWNER", 42L));
+
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+    }
+
+    private void statelessMode(boolean stateless) {
+        ReflectionTestUtils.setField(filter, "stateless", stateless);
+    }
+
+    private MockFilterChain filter(String token) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/affiliates");
+        request.addHeader("Authorization", "Bearer " + token);
+        MockFilterChain chain = new MockFilterChain();
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+        return chain;
+    }
+
+    private static List<String> authorities() {
+        return SecurityContextHolder.getContext().getAuthentication().getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .toList();
+    }
+
+    private static CustomUserDetails user(String role, boolean active) {
+        return new CustomUserDetails(User.builder()
+                .id(7L)
+                .email(EMAIL)
+                .role(role)
+                .active(active)
+                .emailVerified(true)
+                .build());
+    }
+}
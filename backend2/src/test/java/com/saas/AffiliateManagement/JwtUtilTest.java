@@ -0,0 +1,59 @@
+package com.saas.AffiliateManagement;
+
+import com.saas.AffiliateManagement.security.JwtUtil;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class JwtUtilTest {
+
+    private static final String SECRET = "TestSecretKeyForJWTTokenGenerationItShouldBeAtLeast256BitsLong";
+
+    @Test
+    void verifiedClaimsAreReusedForTheSameToken() {
+        JwtUtil jwtUtil = new JwtUtil(SECRET, 60_000L);
+        String token = jwtUtil.generateToken("owner@example.com", 7L, "CLIENT_OWNER", 42L);
+
+        Claims first = jwtUtil.parseClaims(token);
+        Claims second = jwtUtil.parseClaims(token);
+
+        assertSame(first, second);
+        assertEquals("owner@example.com", first.getSubject());
+        assertEquals("CLIENT_OWNER", first.get("role", String.class));
+        assertEquals(7L, jwtUtil.extractUserId(token));
+        assertEquals(42L, first.get("clientId", Long.class));
+    }
+
+    @Test
+    void tamperedTokenIsRejectedEvenAfterTheOriginalWasCached() {
+        JwtUtil jwtUtil = new JwtUtil(SECRET, 60_000L);
+        String token = jwtUtil.generateToken("owner@example.com", 7L, "CLIENT_OWNER", 42L);
+        jwtUtil.parseClaims(token);
+
+        String[] parts = token.split("\\.");
+        String forged = jwtUtil.generateToken("admin@example.com", 1L, "ADMIN", 1L).split("\\.")[1];
+        String tampered = parts[0] + "." + forged + "." + parts[2];
+
+        assertThrows(JwtException.class, () -> jwtUtil.parseClaims(tampered));
+    }
+
+    @Test
+    void tokenSignedWithAnotherKeyIsRejected() {
+        String token = new JwtUtil(SECRET + "-other", 60_000L).generateToken("owner@example.com", 7L, "CLIENT_OWNER");
+
+        assertThrows(JwtException.class, () -> new JwtUtil(SECRET, 60_000L).parseClaims(token));
+    }
+
+    @Test
+    void expiredTokenIsRejected() {
+        JwtUtil jwtUtil = new JwtUtil(SECRET, -1_000L);
+        String token = jwtUtil.generateToken("owner@example.com", 7L, "CLIENT_OWNER");
+
+        assertThrows(ExpiredJwtException.class, () -> jwtUtil.parseClaims(token));
+    }
+}
@@ -0,0 +1,101 @@
+package com.saas.AffiliateManagement;
+
+import com.saas.AffiliateManagement.models.entity.Affiliate;
+import com.saas.AffiliateManagement.models.entity.Client;
+import com.saas.AffiliateManagement.repository.AffiliateRepository;
+import com.saas.AffiliateManagement.repository.KeysetCursor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@DataJpaTest
+@ActiveProfiles("h2")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+public class KeysetPaginationH2Test {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2025, 3, 1, 12, 0);
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private AffiliateRepository affiliateRepository;
+
+    private final List<Long> newestFirst = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        Client client = entityManager.persist(Client.builder()
+                .companyName("Acme")
+                .name("acme")
+                .email("owner@acme.example")
+                .contactFirstName("Ada")
+                .contactLastName("Owner")
+                .status("ACTIVE")
+                .subscriptionPlan("BASIC")
+                .emailVerified(true)
+                .createdAt(NOW)
+                .build());
+
+        // Three affiliates share a timestamp, so pages must fall back to the id to stay stable.
+        List<LocalDateTime> createdAt = List.of(NOW.minusDays(2), NOW, NOW, NOW, NOW.minusDays(1));
+        List<Affiliate> affiliates = new ArrayList<>();
+        for (int i = 0; i < createdAt.size(); i++) {
+            affiliates.add(entityManager.persist(Affiliate.builder()
+                    .client(client)
+                    .uniqueIdentifier("aff-" + i)
+                    .targetUrl("https://shop.example.com")
+                    .firstName("Affiliate" + i)
+                    .lastName("Test")
+                    .email("affiliate" + i + "@example.com")
+                    .status("ACTIVE")
+                    .createdAt(createdAt.get(i))
+                    .build()));
+        }
+        entityManager.flush();
+
+        affiliates.stream()
+                .sorted((left, right) -> left.getCreatedAt().equals(right.getCreatedAt())
+                        ? right.getId().compareTo(left.getId())
+                        : right.getCreatedAt().compareTo(left.getCreatedAt()))
+                .forEach(affiliate -> newestFirst.add(affiliate.getId()));
+    }
+
+    @Test
+    void pagesVisitEveryRowOnceInOrder() {
+        List<Long> visited = new ArrayList<>();
+        KeysetCursor position = KeysetCursor.FIRST;
+        int pages = 0;
+        while (true) {
+            List<Affiliate> page = affiliateRepository.findPageAfter(position.createdAt(), position.id(),
+                    PageRequest.of(0, 2));
+            pages++;
+            if (page.isEmpty()) {
+                break;
+            }
+            page.forEach(affiliate -> visited.add(affiliate.getId()));
+            Affiliate last = page.get(page.size() - 1);
+            position = KeysetCursor.decode(new KeysetCursor(last.getCreatedAt(), last.getId()).encode());
+        }
+
+        assertEquals(newestFirst, visited);
+        assertEquals(4, pages);
+    }
+
+    @Test
+    void rejectsForeignCursors() {
+        assertThrows(IllegalArgumentException.class, () -> KeysetCursor.decode("not-a-cursor"));
+    }
+}
@@ -0,0 +1,55 @@
+package com.saas.AffiliateManagement;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.saas.AffiliateManagement.models.dto.ReferralClickEvent;
+import com.saas.AffiliateManagement.service.ReferralClickSpillStore;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class ReferralClickSpillStoreTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void appendsAfterSealingGoToAFileOutsideTheListing() throws Exception {
+        ReferralClickSpillStore store = new ReferralClickSpillStore(new ObjectMapper().findAndRegisterModules(),
+                directory.toString());
+        store.append(List.of(click("first")));
+
+        List<Path> sealed = store.sealAndList();
+        store.append(List.of(click("second")));
+        for (Path file : sealed) {
+            assertEquals("first", store.read(file).get(0).getReferralCode());
+            store.delete(file);
+        }
+
+        List<Path> remaining = store.sealAndList();
+        assertEquals(1, remaining.size());
+        assertFalse(sealed.contains(remaining.get(0)));
+        assertEquals("second", store.read(remaining.get(0)).get(0).getReferralCode());
+    }
+
+    @Test
+    void refusesToStartWithoutAConfiguredDirectory() {
+        assertThrows(IllegalStateException.class,
+                () -> new ReferralClickSpillStore(new ObjectMapper().findAndRegisterModules(), ""));
+    }
+
+    private static ReferralClickEvent click(String referralCode) {
+        return ReferralClickEvent.builder()
+                .affiliateId(1L)
+                .clientId(1L)
+                .referralCode(referralCode)
+                .clickedAt(LocalDateTime.of(2025, 3, 1, 12, 0))
+                .build();
+    }
+}
@@ -0,0 +1,51 @@
+package com.saas.AffiliateManagement;
+
+import com.saas.AffiliateManagement.exceptions.ReferralClickWriteException;
+import com.saas.AffiliateManagement.models.dto.ReferralClickEvent;
+import com.saas.AffiliateManagement.repository.ReferralClickWriter;
+import com.saas.AffiliateManagement.repository.ReferralRollupRepository;
+import com.saas.AffiliateManagement.repository.VisitorSketchRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ReferralClickWriterTest {
+
+    private final TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+    private final ReferralClickWriter writer = new ReferralClickWriter(mock(JdbcTemplate.class), transactionTemplate,
+            mock(ReferralRollupRepository.class), mock(VisitorSketchRepository.class));
+
+    @Test
+    void failureDuringRowByRowRetryReportsOnlyTheUncommittedClicks() {
+        List<ReferralClickEvent> batch = List.of(click("a"), click("b"), click("c"), click("d"));
+        when(transactionTemplate.execute(any()))
+                .thenThrow(new DataIntegrityViolationException("duplicate"))
+                .thenReturn(1)
+                .thenThrow(new DataIntegrityViolationException("duplicate"))
+                .thenThrow(new QueryTimeoutException("timeout"));
+
+        ReferralClickWriteException e = assertThrows(ReferralClickWriteException.class, () -> writer.insertBatch(batch));
+
+        assertEquals(List.of("c", "d"), e.getUnwritten().stream().map(ReferralClickEvent::getReferralCode).toList());
+    }
+
+    private static ReferralClickEvent click(String referralCode) {
+        return ReferralClickEvent.builder()
+                .affiliateId(1L)
+                .clientId(1L)
+                .referralCode(referralCode)
+                .clickedAt(LocalDateTime.of(2025, 3, 1, 12, 0))
+                .build();
+    }
+}
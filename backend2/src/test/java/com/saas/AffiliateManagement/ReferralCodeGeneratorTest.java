@@ -0,0 +1,125 @@
+package com.saas.AffiliateManagement;
+
+import com.saas.AffiliateManagement.service.SnowflakeReferralCodeGenerator;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ReferralCodeGeneratorTest {
+
+    private static final int NODES = 4;
+    private static final int THREADS_PER_NODE = 4;
+    private static final int CODES_PER_THREAD = 50_000;
+
+    @Test
+    void codesAreUniqueAcrossThreadsAndNodes() throws Exception {
+        // A clock that advances far slower than codes are requested forces every node through sequence
+        // overflow and into the lead limit, the cases most likely to collide.
+        List<SnowflakeReferralCodeGenerator> nodes = new ArrayList<>();
+        for (int node = 0; node < NODES; node++) {
+            nodes.add(new SnowflakeReferralCodeGenerator(node, slowClock(SnowflakeReferralCodeGenerator.EPOCH + 1_000)));
+        }
+
+        Set<String> codes = ConcurrentHashMap.newKeySet();
+        ExecutorService executor = Executors.newFixedThreadPool(NODES * THREADS_PER_NODE);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+
+        try {
+            for (SnowflakeReferralCodeGenerator generator : nodes) {
+                for (int t = 0; t < THREADS_PER_NODE; t++) {
+                    futures.add(executor.submit(() -> {
+                        start.await();
+                        for (int i = 0; i < CODES_PER_THREAD; i++) {
+                            codes.add(generator.nextCode());
+                        }
+                        return null;
+                    }));
+                }
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(NODES * THREADS_PER_NODE * CODES_PER_THREAD, codes.size());
+        assertTrue(codes.stream().allMatch(code -> code.startsWith("REF_") && code.length() == 15));
+    }
+
+    @Test
+    void idsStayMonotonicWhenClockStepsBack() {
+        AtomicLong clock = new AtomicLong(SnowflakeReferralCodeGenerator.EPOCH + 10_000);
+        // Every read moves the clock on, so waits for it to catch up after a step back end.
+        SnowflakeReferralCodeGenerator generator = new SnowflakeReferralCodeGenerator(7, clock::incrementAndGet);
+
+        long previous = generator.nextId();
+        for (int i = 0; i < 10_000; i++) {
+            if (i % 1_000 == 0) {
+                clock.addAndGet(-5_000);
+            } else if (i % 10 == 0) {
+                clock.incrementAndGet();
+            }
+            long next = generator.nextId();
+            assertTrue(next > previous, "id went backwards at iteration " + i);
+            previous = next;
+        }
+    }
+
+    @Test
+    void logicalClockNeverLeadsTheWallClockByMoreThanTheLimit() {
+        LongSupplier clock = slowClock(SnowflakeReferralCodeGenerator.EPOCH + 10_000);
+        SnowflakeReferralCodeGenerator generator = new SnowflakeReferralCodeGenerator(7, clock);
+
+        for (int i = 0; i < 100_000; i++) {
+            long issuedAt = timestampOf(generator.nextId());
+            assertTrue(issuedAt - clock.getAsLong() <= SnowflakeReferralCodeGenerator.MAX_LEAD_MILLIS,
+                    "lead exceeded at iteration " + i);
+        }
+    }
+
+    @Test
+    void restartedNodeDoesNotReissueIds() {
+        LongSupplier clock = slowClock(SnowflakeReferralCodeGenerator.EPOCH + 10_000);
+        SnowflakeReferralCodeGenerator before = new SnowflakeReferralCodeGenerator(7, clock);
+        long last = 0;
+        for (int i = 0; i < 100_000; i++) {
+            last = before.nextId();
+        }
+
+        // Restarting takes at least a millisecond.
+        SnowflakeReferralCodeGenerator after = new SnowflakeReferralCodeGenerator(7, () -> clock.getAsLong() + 1);
+
+        assertTrue(after.nextId() > last);
+    }
+
+    @Test
+    void missingNodeIdFailsStartup() {
+        assertThrows(IllegalStateException.class, () -> new SnowflakeReferralCodeGenerator(-1));
+    }
+
+    // Advances one millisecond per 10,000 reads, far slower than a node can issue ids.
+    private static LongSupplier slowClock(long start) {
+        AtomicLong reads = new AtomicLong();
+        return () -> start + reads.incrementAndGet() / 10_000;
+    }
+
+    private static long timestampOf(long id) {
+        return (id >>> 22) + SnowflakeReferralCodeGenerator.EPOCH;
+    }
+}
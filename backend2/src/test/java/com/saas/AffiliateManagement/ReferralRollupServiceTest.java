@@ -0,0 +1,62 @@
+package com.saas.AffiliateManagement;
+
+import com.saas.AffiliateManagement.models.RollupGranularity;
+import com.saas.AffiliateManagement.repository.ReferralRollupRepository;
+import com.saas.AffiliateManagement.service.ReferralRollupService;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+public class ReferralRollupServiceTest {
+
+    private static final Long AFFILIATE_ID = 7L;
+
+    private final ReferralRollupRepository repository = mock(ReferralRollupRepository.class);
+    private final ReferralRollupService service = new ReferralRollupService(repository);
+
+    @Test
+    void rangeSpanningDaysReadsDaysHoursAndRawEdges() {
+        LocalDateTime start = LocalDateTime.of(2025, 3, 1, 22, 15);
+        LocalDateTime end = LocalDateTime.of(2025, 3, 4, 2, 40);
+        LocalDateTime endExclusive = end.plusNanos(1_000);
+
+        service.findCells(AFFILIATE_ID, start, end);
+
+        verify(repository).aggregateRaw(start, LocalDateTime.of(2025, 3, 1, 23, 0), AFFILIATE_ID);
+        verify(repository).findCells(RollupGranularity.HOUR,
+                LocalDateTime.of(2025, 3, 1, 23, 0), LocalDateTime.of(2025, 3, 2, 0, 0), AFFILIATE_ID);
+        verify(repository).findCells(RollupGranularity.DAY,
+                LocalDateTime.of(2025, 3, 2, 0, 0), LocalDateTime.of(2025, 3, 4, 0, 0), AFFILIATE_ID);
+        verify(repository).findCells(RollupGranularity.HOUR,
+                LocalDateTime.of(2025, 3, 4, 0, 0), LocalDateTime.of(2025, 3, 4, 2, 0), AFFILIATE_ID);
+        verify(repository).aggregateRaw(LocalDateTime.of(2025, 3, 4, 2, 0), endExclusive, AFFILIATE_ID);
+    }
+
+    @Test
+    void rangeWithinOneDayReadsHoursOnly() {
+        LocalDateTime start = LocalDateTime.of(2025, 3, 1, 8, 0);
+        LocalDateTime end = LocalDateTime.of(2025, 3, 1, 17, 30);
+
+        service.findCells(null, start, end);
+
+        verify(repository).findCells(RollupGranularity.HOUR, start, LocalDateTime.of(2025, 3, 1, 17, 0), null);
+        verify(repository, never()).findCells(eq(RollupGranularity.DAY), any(), any(), any());
+    }
+
+    @Test
+    void rangeWithinOneHourReadsRawRowsOnly() {
+        LocalDateTime start = LocalDateTime.of(2025, 3, 1, 8, 5);
+        LocalDateTime end = LocalDateTime.of(2025, 3, 1, 8, 55);
+
+        service.findCells(AFFILIATE_ID, start, end);
+
+        verify(repository).aggregateRaw(start, end.plusNanos(1_000), AFFILIATE_ID);
+        verify(repository, never()).findCells(any(), any(), any(), any());
+    }
+}
@@ -0,0 +1,65 @@
+package com.saas.AffiliateManagement;
+
+import com.saas.AffiliateManagement.models.dto.ReferralStatsRow;
+import com.saas.AffiliateManagement.service.ReferralStatisticsAccumulator;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class ReferralStatisticsAccumulatorTest {
+
+    private static final LocalDateTime DAY = LocalDateTime.of(2025, 3, 1, 12, 0);
+
+    private final List<ReferralStatsRow> rows = List.of(
+            row("REF_A", "CONVERTED", "49.99", "10.0.0.1", "Mobile", "Latvia", "Riga", DAY),
+            row("REF_A", "CLICKED", null, "10.0.0.2", "Mobile", "Latvia", "Riga", DAY),
+            row("REF_B", "CONVERTED", "100.00", "10.0.0.1", "Desktop", "Estonia", "Tallinn", DAY.plusDays(1)),
+            row("REF_C", "CONVERTED", null, null, null, "Estonia", null, DAY.plusDays(1)),
+            row("REF_D", "CLICKED", null, "10.0.0.3", "Desktop", null, null, DAY.plusDays(2)));
+
+    @Test
+    void buildsAllSectionsInOnePass() {
+        ReferralStatisticsAccumulator statistics = accumulate(rows);
+
+        assertEquals(5, statistics.getTotalClicks());
+        assertEquals(3, statistics.getTotalConversions());
+        assertEquals(new BigDecimal("149.99"), statistics.getTotalRevenue());
+        assertEquals(new BigDecimal("60.0000"), statistics.getConversionRate());
+        assertEquals(2L, statistics.getClicksByDay().get("2025-03-02"));
+        assertEquals("REF_B", statistics.getTopLinks().get(0).getReferralCode());
+        assertEquals(new BigDecimal("50.0000"), statistics.getDeviceStatistics().getConversionRateByDevice().get("Mobile"));
+        assertEquals(2L, statistics.getGeographicStatistics().getConversionsByCountry().get("Estonia"));
+        assertEquals("Tallinn", statistics.getGeographicStatistics().getTopLocations().get(0).getCity());
+        assertEquals(new BigDecimal("149.99"), statistics.getRevenueBySource().get("google.com"));
+    }
+
+    @Test
+    void mergedPartitionsMatchSinglePass() {
+        ReferralStatisticsAccumulator single = accumulate(rows);
+        ReferralStatisticsAccumulator merged = accumulate(rows.subList(0, 2)).merge(accumulate(rows.subList(2, rows.size())));
+
+        assertEquals(single.getTotalClicks(), merged.getTotalClicks());
+        assertEquals(single.getTotalRevenue(), merged.getTotalRevenue());
+        assertEquals(single.getClicksByDay(), merged.getClicksByDay());
+        assertEquals(single.getTopLinks(), merged.getTopLinks());
+        assertEquals(single.getDeviceStatistics(), merged.getDeviceStatistics());
+        assertEquals(single.getGeographicStatistics(), merged.getGeographicStatistics());
+    }
+
+    private ReferralStatisticsAccumulator accumulate(List<ReferralStatsRow> source) {
+        ReferralStatisticsAccumulator statistics = new ReferralStatisticsAccumulator(url -> "google.com");
+        source.forEach(statistics::accept);
+        return statistics;
+    }
+
+    private ReferralStatsRow row(String code, String status, String value, String ip,
+                                 String device, String country, String city, LocalDateTime clickedAt) {
+        return new ReferralStatsRow(code, "https://shop.example.com", "https://www.google.com/search", status,
+                value != null ? new BigDecimal(value) : null, ip, device, "Chrome", "Windows",
+                country, city, clickedAt);
+    }
+}
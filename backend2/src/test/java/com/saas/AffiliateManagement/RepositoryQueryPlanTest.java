@@ -0,0 +1,308 @@
+package com.saas.AffiliateManagement;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.repository.core.RepositoryInformation;
+import org.springframework.data.repository.support.Repositories;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs every query method declared on the JPA repositories against the migrated Postgres schema
+ * and explains each SELECT it issues with the same parameters. Sequential scans are disabled
+ * while explaining, so a scan the planner still picks means no index can serve the predicate.
+ * Queries issued through JdbcTemplate are not covered.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers(disabledWithoutDocker = true)
+public class RepositoryQueryPlanTest {
+
+    @Container
+    @ServiceConnection
+    static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    // Queries that read the whole table by design.
+    private static final Set<String> FULL_SCANS_ALLOWED = Set.of(
+            // Substring filters on the clients admin list; the table is small.
+            "ClientRepository.findByCompanyNameContainingIgnoreCaseAndStatusContainingIgnoreCaseAndSubscriptionPlanContainingIgnoreCase");
+
+    private static final LocalDateTime TIMESTAMP = LocalDateTime.of(2025, 3, 1, 12, 0);
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    @Autowired
+    private ApplicationContext applicationContext;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Test
+    void repositoryQueriesDoNotScanWholeTables() throws Exception {
+        ExplainingDataSource explaining = (ExplainingDataSource) dataSource;
+        Repositories repositories = new Repositories(applicationContext);
+        TreeMap<String, List<String>> failures = new TreeMap<>();
+        int explained = 0;
+
+        for (Class<?> domainType : repositories) {
+            RepositoryInformation information = repositories.getRequiredRepositoryInformation(domainType);
+            Object repository = repositories.getRepositoryFor(domainType).orElseThrow();
+
+            for (Method method : information.getRepositoryInterface().getDeclaredMethods()) {
+                if (method.isDefault() || method.isSynthetic() || Modifier.isStatic(method.getModifiers())
+                        || method.isAnnotationPresent(Modifying.class)) {
+                    continue;
+                }
+
+                String name = information.getRepositoryInterface().getSimpleName() + "." + method.getName();
+                List<String> plans = explaining.record(() -> invoke(repository, method));
+                explained += plans.size();
+                if (plans.isEmpty()) {
+                    failures.put(name, List.of("no SELECT was issued"));
+                    continue;
+                }
+
+                List<String> scans = new ArrayList<>();
+                for (String plan : plans) {
+                    collectFullScans(OBJECT_MAPPER.readTree(plan).get(0).get("Plan"), scans);
+                }
+                if (!scans.isEmpty() && !FULL_SCANS_ALLOWED.contains(name)) {
+                    failures.put(name, scans);
+                }
+            }
+        }
+
+        StringBuilder report = new StringBuilder();
+        failures.forEach((name, scans) -> report.append('\n').append(name).append(": ").append(scans));
+        assertTrue(explained > 0, "no repository queries were explained");
+        assertTrue(failures.isEmpty(), "Repository queries without a usable index:" + report);
+    }
+
+    private static void invoke(Object repository, Method method) throws Exception {
+        Class<?>[] types = method.getParameterTypes();
+        Object[] args = new Object[types.length];
+        for (int i = 0; i < types.length; i++) {
+            args[i] = sample(types[i], method);
+        }
+
+        Object result;
+        try {
+            result = method.invoke(repository, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause() instanceof Exception cause ? cause : e;
+        }
+        if (result instanceof Stream<?> stream) {
+            try (stream) {
+                stream.count();
+            }
+        }
+    }
+
+    // Non-null values for every parameter, so optional filters are folded away and each predicate is planned.
+    private static Object sample(Class<?> type, Method method) {
+        if (type == Long.class || type == long.class) {
+            return 1L;
+        }
+        if (type == Integer.class || type == int.class) {
+            return 1;
+        }
+        if (type == Boolean.class || type == boolean.class) {
+            return true;
+        }
+        if (type == String.class) {
+            return "%abc%";
+        }
+        if (type == BigDecimal.class) {
+            return BigDecimal.ONE;
+        }
+        if (type == LocalDateTime.class) {
+            return TIMESTAMP;
+        }
+        if (type == LocalDate.class) {
+            return TIMESTAMP.toLocalDate();
+        }
+        if (Collection.class.isAssignableFrom(type)) {
+            return List.of(1L, 2L);
+        }
+        if (type == Pageable.class) {
+            return PageRequest.of(0, 20);
+        }
+        if (type == Sort.class) {
+            return Sort.unsorted();
+        }
+        if (type.isEnum()) {
+            return type.getEnumConstants()[0];
+        }
+        throw new IllegalArgumentException("No sample value for " + type.getName() + " in " + method);
+    }
+
+    // Sequential scans, and primary-key scans without an index condition, read every row of the table.
+    private static void collectFullScans(JsonNode node, List<String> scans) {
+        String type = node.path("Node Type").asText();
+        if (type.equals("Seq Scan")) {
+            scans.add("Seq Scan on " + node.path("Relation Name").asText());
+        } else if ((type.equals("Index Scan") || type.equals("Index Only Scan"))
+                && node.path("Index Name").asText().endsWith("_pkey") && !node.has("Index Cond")) {
+            scans.add("full " + type + " on " + node.path("Relation Name").asText());
+        }
+        for (JsonNode child : node.path("Plans")) {
+            collectFullScans(child, scans);
+        }
+    }
+
+    @TestConfiguration
+    static class ExplainConfiguration {
+
+        @Bean
+        static BeanPostProcessor explainingDataSourcePostProcessor() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return bean instanceof DataSource target && !(bean instanceof ExplainingDataSource)
+                            ? new ExplainingDataSource(target)
+                            : bean;
+                }
+            };
+        }
+    }
+
+    /**
+     * While recording, explains each SELECT before executing it, on the same connection and with
+     * the parameters bound to the statement.
+     */
+    static class ExplainingDataSource extends DelegatingDataSource {
+
+        private final List<String> plans = new ArrayList<>();
+        private boolean recording;
+
+        ExplainingDataSource(DataSource target) {
+            super(target);
+        }
+
+        List<String> record(ThrowingRunnable action) throws Exception {
+            plans.clear();
+            recording = true;
+            try {
+                action.run();
+            } finally {
+                recording = false;
+            }
+            return List.copyOf(plans);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            return wrap(super.getConnection());
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            return wrap(super.getConnection(username, password));
+        }
+
+        private Connection wrap(Connection connection) {
+            return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{Connection.class},
+                    (proxy, method, args) -> {
+                        Object result = invokeTarget(connection, method, args);
+                        if (method.getName().equals("prepareStatement") && args[0] instanceof String sql) {
+                            return wrap(connection, (PreparedStatement) result, sql);
+                        }
+                        return result;
+                    });
+        }
+
+        private PreparedStatement wrap(Connection connection, PreparedStatement statement, String sql) {
+            List<Object[]> bindings = new ArrayList<>();
+            return (PreparedStatement) Proxy.newProxyInstance(getClass().getClassLoader(),
+                    new Class<?>[]{PreparedStatement.class},
+                    (proxy, method, args) -> {
+                        String name = method.getName();
+                        if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer) {
+                            bindings.add(new Object[]{method, args});
+                        } else if (name.equals("clearParameters")) {
+                            bindings.clear();
+                        } else if (recording && (name.equals("executeQuery") || name.equals("execute"))
+                                && (args == null || args.length == 0) && isSelect(sql)) {
+                            plans.add(explain(connection, sql, bindings));
+                        }
+                        return invokeTarget(statement, method, args);
+                    });
+        }
+
+        private String explain(Connection connection, String sql, List<Object[]> bindings) throws Exception {
+            try (Statement settings = connection.createStatement()) {
+                settings.execute("SET enable_seqscan = off");
+            }
+            try (PreparedStatement explain = connection.prepareStatement("EXPLAIN (FORMAT JSON) " + sql)) {
+                for (Object[] binding : bindings) {
+                    ((Method) binding[0]).invoke(explain, (Object[]) binding[1]);
+                }
+                try (ResultSet resultSet = explain.executeQuery()) {
+                    resultSet.next();
+                    return resultSet.getString(1);
+                }
+            } finally {
+                try (Statement settings = connection.createStatement()) {
+                    settings.execute("RESET enable_seqscan");
+                }
+            }
+        }
+
+        private static boolean isSelect(String sql) {
+            String statement = sql.stripLeading().toLowerCase(Locale.ROOT);
+            return statement.startsWith("select") || statement.startsWith("with");
+        }
+
+        private static Object invokeTarget(Object target, Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+
+    @FunctionalInterface
+    interface ThrowingRunnable {
+
+        void run() throws Exception;
+    }
+}
@@ -0,0 +1,58 @@
+package com.saas.AffiliateManagement;
+
+import com.saas.AffiliateManagement.service.SearchIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SearchIndexTest {
+
+    private final SearchIndex index = new SearchIndex();
+
+    @BeforeEach
+    void setUp() {
+        index.put(1L, "Anna Berzina", "anna@shop.lv", "Anna", "Berzina", "anna@shop.lv", "Shop SIA");
+        index.put(2L, "Janis Ozols", "janis@berry.lv", "Janis", "Ozols", "janis@berry.lv", "Berry Farm");
+        index.put(3L, "Berta Kalnina", "berta@example.com", "Berta", "Kalnina", "berta@example.com", null);
+    }
+
+    @Test
+    void matchesSubstringsOfAnyFieldAndRanksLabelPrefixesFirst() {
+        assertEquals(List.of(3L, 1L, 2L), ids("ber"));
+        assertEquals(List.of(2L), ids("farm"));
+        assertEquals(List.of(1L), ids("na ber"));
+        assertEquals(List.of(), ids("zzz"));
+    }
+
+    @Test
+    void shortTermsMatchWordPrefixes() {
+        assertEquals(List.of(2L), ids("j"));
+        assertEquals(List.of(3L, 1L, 2L), ids("BE"));
+    }
+
+    @Test
+    void keepsPostingsInStepWithUpdatesAndRemovals() {
+        index.put(2L, "Janis Liepa", "janis@liepa.lv", "Janis", "Liepa", "janis@liepa.lv", null);
+        assertEquals(List.of(3L, 1L), ids("ber"));
+        assertEquals(List.of(2L), ids("liep"));
+
+        index.remove(3L);
+        assertEquals(List.of(1L), ids("ber"));
+        assertEquals(2, index.size());
+    }
+
+    @Test
+    void returnsAtMostTheLimit() {
+        List<SearchIndex.Hit> hits = index.search("b", 2);
+        assertEquals(2, hits.size());
+        assertTrue(index.search(" ", 10).isEmpty());
+    }
+
+    private List<Long> ids(String term) {
+        return index.search(term, 10).stream().map(SearchIndex.Hit::id).toList();
+    }
+}
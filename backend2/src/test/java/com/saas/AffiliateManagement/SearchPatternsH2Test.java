@@ -0,0 +1,95 @@
+package com.saas.AffiliateManagement;
+
+import com.saas.AffiliateManagement.models.entity.Affiliate;
+import com.saas.AffiliateManagement.models.entity.Client;
+import com.saas.AffiliateManagement.repository.AffiliateRepository;
+import com.saas.AffiliateManagement.repository.SearchPatterns;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+@DataJpaTest
+@ActiveProfiles("h2")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+public class SearchPatternsH2Test {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private AffiliateRepository affiliateRepository;
+
+    private Client client;
+
+    @BeforeEach
+    void setUp() {
+        client = entityManager.persist(Client.builder()
+                .companyName("Acme")
+                .name("acme")
+                .email("owner@acme.example")
+                .contactFirstName("Ada")
+                .contactLastName("Owner")
+                .status("ACTIVE")
+                .subscriptionPlan("BASIC")
+                .emailVerified(true)
+                .createdAt(LocalDateTime.now())
+                .build());
+        affiliate("aff-1", "Anna", "Berzina", "anna@shop.example", "Anna_Deals");
+        affiliate("aff-2", "Janis", "Ozols", "janis@100percent.example", "100% Deals");
+        affiliate("aff-3", "Liga", "Kalnina", "liga@example.com", null);
+    }
+
+    @Test
+    void matchesAnyColumnCaseInsensitively() {
+        assertEquals(List.of("Anna"), search("ANNA"));
+        assertEquals(List.of("Janis"), search("ozol"));
+        assertEquals(List.of("Anna", "Janis"), search("deals"));
+    }
+
+    @Test
+    void wildcardsInTermsMatchLiterally() {
+        assertEquals(List.of("Janis"), search("100%"));
+        assertEquals(List.of("Anna"), search("a_d"));
+        assertEquals(List.of(), search("n_s"));
+    }
+
+    @Test
+    void blankTermsMeanNoFilter() {
+        assertNull(SearchPatterns.contains("  "));
+        assertEquals(3, affiliateRepository.searchClientAffiliates(client.getId(), null, null, null, Pageable.unpaged())
+                .getTotalElements());
+    }
+
+    private List<String> search(String term) {
+        return affiliateRepository.findByClientIdAndSearch(client.getId(), SearchPatterns.contains(term), Pageable.unpaged())
+                .map(Affiliate::getFirstName)
+                .stream()
+                .sorted()
+                .toList();
+    }
+
+    private void affiliate(String identifier, String firstName, String lastName, String email, String companyName) {
+        entityManager.persist(Affiliate.builder()
+                .client(client)
+                .uniqueIdentifier(identifier)
+                .targetUrl("https://shop.example.com")
+                .firstName(firstName)
+                .lastName(lastName)
+                .email(email)
+                .companyName(companyName)
+                .status("ACTIVE")
+                .createdAt(LocalDateTime.now())
+                .build());
+    }
+}
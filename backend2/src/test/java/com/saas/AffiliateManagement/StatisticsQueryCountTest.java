@@ -0,0 +1,168 @@
+package com.saas.AffiliateManagement;
+
+import com.saas.AffiliateManagement.models.dto.DashboardStatisticsDto;
+import com.saas.AffiliateManagement.models.dto.PeriodStatisticsDto;
+import com.saas.AffiliateManagement.models.dto.TopAffiliateDto;
+import com.saas.AffiliateManagement.models.entity.Affiliate;
+import com.saas.AffiliateManagement.models.entity.Client;
+import com.saas.AffiliateManagement.models.entity.Commission;
+import com.saas.AffiliateManagement.models.entity.Referral;
+import com.saas.AffiliateManagement.service.StatisticsService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("h2")
+@Transactional
+public class StatisticsQueryCountTest {
+
+    private static final int AFFILIATES = 12;
+
+    @Autowired
+    private StatisticsService statisticsService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private Statistics statistics;
+
+    private Client client;
+
+    @BeforeEach
+    void setUp() {
+        client = persistClient("Globex");
+        seedAffiliates(client, 0, AFFILIATES);
+        flushAndClear();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void dashboardStatisticsUseTwoQueries() {
+        DashboardStatisticsDto dashboard = statisticsService.getClientDashboardStatistics(client.getId(), 30);
+
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertEquals(AFFILIATES, dashboard.getTotalAffiliatesCount());
+        assertEquals(2 * AFFILIATES, dashboard.getTotalClicks());
+        assertEquals(AFFILIATES, dashboard.getTotalConversions());
+    }
+
+    @Test
+    void periodStatisticsUseOneQuery() {
+        PeriodStatisticsDto period = statisticsService.getAffiliatePeriodStatistics(client.getId(),
+                LocalDateTime.now().minusDays(30), LocalDateTime.now());
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(AFFILIATES, period.getAffiliatesByStatus().get("ACTIVE"));
+        assertEquals(AFFILIATES, period.getNewAffiliatesCount());
+    }
+
+    @Test
+    void topAffiliatesQueryCountDoesNotGrowWithAffiliates() {
+        List<TopAffiliateDto> top = statisticsService.getTopAffiliatesForClient(client.getId(), 5,
+                Optional.empty(), Optional.empty());
+        long statementsForN = statistics.getPrepareStatementCount();
+
+        seedAffiliates(client, AFFILIATES, 2 * AFFILIATES);
+        flushAndClear();
+        statistics.clear();
+
+        List<TopAffiliateDto> topOfDoubled = statisticsService.getTopAffiliatesForClient(client.getId(), 5,
+                Optional.empty(), Optional.empty());
+
+        assertEquals(statementsForN, statistics.getPrepareStatementCount());
+        assertEquals("aff-" + (AFFILIATES - 1) + "@shop.example", top.get(0).getEmail());
+        assertEquals("aff-" + (2 * AFFILIATES - 1) + "@shop.example", topOfDoubled.get(0).getEmail());
+        assertEquals(5, topOfDoubled.size());
+    }
+
+    private Client persistClient(String name) {
+        Client saved = Client.builder()
+                .companyName(name)
+                .name(name.toLowerCase())
+                .email("owner@" + name.toLowerCase() + ".example")
+                .contactFirstName("Ada")
+                .contactLastName("Owner")
+                .status("ACTIVE")
+                .subscriptionPlan("BASIC")
+                .emailVerified(true)
+                .createdAt(LocalDateTime.now())
+                .build();
+        entityManager.persist(saved);
+        return saved;
+    }
+
+    /**
+     * Seeds affiliates {@code from} to {@code to - 1}, each with one plain click and one
+     * conversion worth its index, so revenue ranks the newest seeded affiliate first.
+     */
+    private void seedAffiliates(Client owner, int from, int to) {
+        for (int i = from; i < to; i++) {
+            Affiliate affiliate = Affiliate.builder()
+                    .client(owner)
+                    .uniqueIdentifier(owner.getName() + "-aff-" + i)
+                    .targetUrl("https://shop.example.com")
+                    .firstName("Affiliate")
+                    .lastName(String.valueOf(i))
+                    .email("aff-" + i + "@shop.example")
+                    .status("ACTIVE")
+                    .createdAt(LocalDateTime.now().minusDays(1))
+                    .build();
+            entityManager.persist(affiliate);
+
+            entityManager.persist(referral(owner, affiliate, "click-" + i, "CLICKED", null));
+            Referral conversion = referral(owner, affiliate, "conversion-" + i, "CONVERTED",
+                    BigDecimal.valueOf(100 + i));
+            entityManager.persist(conversion);
+
+            entityManager.persist(Commission.builder()
+                    .affiliate(affiliate)
+                    .referralId(conversion.getId())
+                    .amount(BigDecimal.valueOf(10 + i))
+                    .status("APPROVED")
+                    .createdAt(LocalDateTime.now().minusHours(1))
+                    .build());
+        }
+    }
+
+    private static Referral referral(Client owner, Affiliate affiliate, String code, String status,
+                                     BigDecimal conversionValue) {
+        return Referral.builder()
+                .client(owner)
+                .affiliate(affiliate)
+                .referralCode(owner.getName() + "-" + code)
+                .targetUrl("https://shop.example.com")
+                .status(status)
+                .conversionValue(conversionValue)
+                .convertedAt(conversionValue != null ? LocalDateTime.now().minusHours(1) : null)
+                .customerName("Customer " + code)
+                .customerEmail(code + "@" + owner.getName() + ".example")
+                .clickedAt(LocalDateTime.now().minusHours(2))
+                .build();
+    }
+
+    private void flushAndClear() {
+        entityManager.flush();
+        entityManager.clear();
+    }
+}
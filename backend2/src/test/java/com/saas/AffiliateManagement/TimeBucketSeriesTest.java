@@ -0,0 +1,60 @@
+package com.saas.AffiliateManagement;
+
+import com.saas.AffiliateManagement.models.dto.EarningsDataDto;
+import com.saas.AffiliateManagement.service.TimeBucketSeries;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TimeBucketSeriesTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2024, 1, 17, 9, 41, 12, 345_000_000);
+    private static final LocalDateTime END = START.plusDays(400);
+
+    @Test
+    void bucketTotalsAccumulateAndOutOfRangeIndexesAreIgnored() {
+        TimeBucketSeries series = TimeBucketSeries.weekly(START, END);
+        series.addBucketTotals(0, new BigDecimal("10.00"), new BigDecimal("1.50"));
+        series.addBucketTotals(0, new BigDecimal("2.25"), BigDecimal.ZERO);
+        series.addBucketTotals(3, BigDecimal.ZERO, new BigDecimal("4.00"));
+        series.addBucketTotals(-1, new BigDecimal("99.00"), new BigDecimal("99.00"));
+        series.addBucketTotals(series.size(), new BigDecimal("99.00"), new BigDecimal("99.00"));
+
+        List<EarningsDataDto> data = series.toEarningsData();
+        assertEquals(new BigDecimal("12.25"), data.get(0).getDesktop());
+        assertEquals(new BigDecimal("1.50"), data.get(0).getMobile());
+        assertEquals(new BigDecimal("13.75"), data.get(0).getTotal());
+        assertEquals(new BigDecimal("4.00"), data.get(3).getMobile());
+        BigDecimal total = data.stream().map(EarningsDataDto::getTotal).reduce(BigDecimal.ZERO, BigDecimal::add);
+        assertEquals(new BigDecimal("17.75"), total);
+    }
+
+    @Test
+    void pageOfBucketsKeepsLabelsAndTotals() {
+        TimeBucketSeries series = TimeBucketSeries.monthly(START, END);
+        series.addBucketTotals(2, new BigDecimal("5.00"), new BigDecimal("1.00"));
+
+        List<EarningsDataDto> page = series.toEarningsData(2, 4);
+        assertEquals(2, page.size());
+        assertEquals("March", page.get(0).getPeriod());
+        assertEquals(new BigDecimal("6.00"), page.get(0).getTotal());
+        assertEquals(BigDecimal.ZERO, page.get(1).getTotal());
+    }
+
+    @Test
+    void bucketsTileTheWholeRange() {
+        for (String period : List.of("monthly", "weekly", "daily")) {
+            TimeBucketSeries series = TimeBucketSeries.of(period, START, END);
+            assertEquals(START, series.bucketStart(0), period);
+            for (int b = 1; b < series.size(); b++) {
+                assertEquals(series.bucketEnd(b - 1), series.bucketStart(b), period);
+            }
+            assertTrue(series.bucketEnd(series.size() - 1).isAfter(END), period);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.saas.AffiliateManagement;
+
+import com.saas.AffiliateManagement.service.TopKAggregator;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TopKAggregatorTest {
+
+    @Test
+    void exactKeepsHeaviestKeysInOrder() {
+        TopKAggregator<String, AtomicLong> topK = TopKAggregator.exact(3, AtomicLong::new);
+        for (int i = 0; i < 100; i++) {
+            topK.add("key-" + i, BigDecimal.valueOf(i % 10)).incrementAndGet();
+        }
+
+        List<TopKAggregator.Ranked<String, AtomicLong>> top = topK.top();
+
+        assertEquals(List.of("key-9", "key-19", "key-29"), top.stream().map(TopKAggregator.Ranked::key).toList());
+        assertEquals(BigDecimal.valueOf(9), top.get(0).weight());
+        assertEquals(1L, top.get(0).value().get());
+    }
+
+    @Test
+    void spaceSavingFindsHeavyHittersWithinCapacity() {
+        TopKAggregator<String, AtomicLong> topK = TopKAggregator.spaceSaving(2, 20, AtomicLong::new);
+        for (int i = 0; i < 10_000; i++) {
+            String key = i % 4 == 0 ? "heavy" : i % 7 == 0 ? "medium" : "tail-" + i;
+            topK.add(key, BigDecimal.ONE).incrementAndGet();
+        }
+
+        List<TopKAggregator.Ranked<String, AtomicLong>> top = topK.top();
+
+        assertEquals(20, topK.size());
+        assertEquals(List.of("heavy", "medium"), top.stream().map(TopKAggregator.Ranked::key).toList());
+        assertEquals(BigDecimal.valueOf(2_500), top.get(0).weight().subtract(top.get(0).maxError()));
+        assertTrue(top.get(1).weight().compareTo(BigDecimal.valueOf(1_071)) >= 0);
+    }
+
+    @Test
+    void mergeCombinesValuesWithoutAliasing() {
+        TopKAggregator<String, AtomicLong> left = TopKAggregator.exact(2, AtomicLong::new);
+        TopKAggregator<String, AtomicLong> right = TopKAggregator.exact(2, AtomicLong::new);
+        left.add("a", BigDecimal.ONE).incrementAndGet();
+        right.add("a", BigDecimal.TEN).incrementAndGet();
+        right.add("b", BigDecimal.valueOf(5)).incrementAndGet();
+
+        left.merge(right, (mine, theirs) -> {
+            mine.addAndGet(theirs.get());
+            return mine;
+        });
+        left.add("b", BigDecimal.ONE).incrementAndGet();
+
+        List<TopKAggregator.Ranked<String, AtomicLong>> top = left.top();
+        assertEquals("a", top.get(0).key());
+        assertEquals(2L, top.get(0).value().get());
+        assertEquals(BigDecimal.valueOf(6), top.get(1).weight());
+        assertEquals(1L, right.top().get(1).value().get());
+    }
+}